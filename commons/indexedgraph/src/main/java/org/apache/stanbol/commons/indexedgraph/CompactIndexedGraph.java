@@ -0,0 +1,586 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.indexedgraph;
+
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.EMPTY;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.O;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.OSP;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.P;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.POS;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.S;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.SPO;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.bound;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.compare;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.sort;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.AbstractGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+
+/**
+ * {@link Graph} implementation that provides the same indexes as the
+ * {@link IndexedGraph} <ul>
+ * <li> subject, predicate, object [SPO]
+ * <li> predicate, object, subject [POS]
+ * <li> object, subject, predicate [OSP]
+ * </ul>
+ * but does not keep {@link Triple} instances in {@link java.util.TreeSet}s.
+ * Instead {@link RDFTerm}s are dictionary encoded to <code>int</code> values
+ * and Triples are stored as three ints in a single array. The indexes are
+ * sorted <code>int[]</code> arrays holding the positions of the triples.
+ * <p>
+ * Added triples are not directly indexed. They are sorted and merged with the
+ * existing indexes on the next call to {@link #filter(BlankNodeOrIRI, IRI, RDFTerm)}.
+ * Removed triples are only marked as such. The storage is compacted as soon
+ * as more as half of the stored triples are removed. Checks for existing
+ * triples (e.g. on {@link #add(Triple)}, {@link #contains(Object)} and
+ * <code>[S,P,O]</code> filter requests) use a hash table and do not require
+ * the indexes to be up to date.
+ * <p>
+ * {@link Triple} instances are only created by the {@link Iterator}s returned
+ * by {@link #filter(BlankNodeOrIRI, IRI, RDFTerm)}. Iterators operate on a
+ * snapshot of the indexes. Modifications to the graph - other than by
+ * {@link Iterator#remove()} - cause a {@link ConcurrentModificationException}
+ * on the next call to {@link Iterator#next()}.
+ * <p>
+ * {@link RDFTerm}s are only removed from the dictionary on {@link #clear()}.
+ */
+public class CompactIndexedGraph extends AbstractGraph implements Graph {
+
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * The minimum number of removed triples before the storage is compacted
+     */
+    private static final int MIN_COMPACT = 64;
+    /**
+     * The dictionary used to encode {@link RDFTerm}s
+     */
+    private Map<RDFTerm, Integer> termIds;
+    /**
+     * The {@link RDFTerm}s by id
+     */
+    private RDFTerm[] terms;
+    private int termCount;
+    /**
+     * The triples as <code>[s0,p0,o0,s1,p1,o1,...]</code>. A triple is
+     * referred to by its slot (<code>triples[slot*3+{S,P,O}]</code>).
+     */
+    private int[] triples;
+    /**
+     * The number of used slots
+     */
+    private int slots;
+    /**
+     * Slots of removed triples
+     */
+    private BitSet removed;
+    private int removedCount;
+    /**
+     * Open addressing hash table with <code>slot + 1</code> of all stored
+     * triples (<code>0</code> marks an empty bucket).
+     */
+    private int[] table;
+    /**
+     * The SPO index
+     */
+    private int[] spo;
+    /**
+     * The POS index
+     */
+    private int[] pos;
+    /**
+     * The OSP index
+     */
+    private int[] osp;
+    /**
+     * slots <code>&gt;= indexed</code> are not yet included in the indexes
+     */
+    private int indexed;
+    /**
+     * Incremented on every modification. Used to detect concurrent
+     * modifications by Iterators.
+     */
+    private int modCount;
+
+    /**
+     * Creates an empty {@link CompactIndexedGraph}
+     */
+    public CompactIndexedGraph() {
+        super();
+        init(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates a {@link CompactIndexedGraph} using the passed iterator, the
+     * iterator is consumed before the constructor returns
+     *
+     * @param iterator Triple Iterator
+     */
+    public CompactIndexedGraph(Iterator<Triple> iterator) {
+        this();
+        while (iterator.hasNext()) {
+            performAdd(iterator.next());
+        }
+    }
+
+    /**
+     * Creates a {@link CompactIndexedGraph} for the specified collection of
+     * triples, subsequent modification of baseSet do not affect the created
+     * instance.
+     *
+     * @param baseCollection collection of triples
+     */
+    public CompactIndexedGraph(Collection<Triple> baseCollection) {
+        super();
+        init(Math.max(INITIAL_CAPACITY, baseCollection.size()));
+        for (Triple triple : baseCollection) {
+            performAdd(triple);
+        }
+    }
+
+    private void init(int capacity) {
+        termIds = new HashMap<RDFTerm, Integer>(capacity);
+        terms = new RDFTerm[capacity];
+        termCount = 0;
+        triples = new int[capacity * 3];
+        slots = 0;
+        removed = new BitSet();
+        removedCount = 0;
+        table = new int[tableSize(capacity)];
+        spo = EMPTY;
+        pos = EMPTY;
+        osp = EMPTY;
+        indexed = 0;
+    }
+
+    @Override
+    public ImmutableGraph getImmutableGraph() {
+        return new CompactIndexedImmutableGraph(this);
+    }
+
+    @Override
+    protected Iterator<Triple> performFilter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+        int s = -1, p = -1, o = -1;
+        if (subject != null && (s = lookupTerm(subject)) < 0) {
+            return new SlotIterator(EMPTY, 0, 0);
+        }
+        if (predicate != null && (p = lookupTerm(predicate)) < 0) {
+            return new SlotIterator(EMPTY, 0, 0);
+        }
+        if (object != null && (o = lookupTerm(object)) < 0) {
+            return new SlotIterator(EMPTY, 0, 0);
+        }
+        if (s >= 0 && p >= 0 && o >= 0) { // [S,P,O]
+            int slot = lookupSlot(s, p, o);
+            return slot < 0 ? new SlotIterator(EMPTY, 0, 0)
+                    : new SlotIterator(new int[]{slot}, 0, 1);
+        }
+        synchronized (this) { //readers may update the indexes concurrently
+            updateIndexes();
+            if (s < 0 && p < 0 && o < 0) { //[n,n,n]
+                return new SlotIterator(spo, 0, spo.length);
+            } else if (s >= 0 && o < 0) { //[S,n,n], [S,P,n]
+                return createIterator(spo, SPO, s, p);
+            } else if (p >= 0) { //[n,P,n], [n,P,O]
+                return createIterator(pos, POS, p, o);
+            } else { //[n,n,O] , [S,n,O]
+                return createIterator(osp, OSP, o, s);
+            }
+        }
+    }
+
+    /**
+     * Creates an Iterator over all triples of the parsed index matching the
+     * parsed values for the first (and optionally second) position of the
+     * ordering.
+     */
+    private Iterator<Triple> createIterator(int[] index, int[] order, int first, int second) {
+        int from = bound(index, 0, index.length, triples, order, first, second, false);
+        int to = bound(index, from, index.length, triples, order, first, second, true);
+        return new SlotIterator(index, from, to);
+    }
+
+    @Override
+    protected boolean performAdd(Triple triple) {
+        int s = addTerm(triple.getSubject());
+        int p = addTerm(triple.getPredicate());
+        int o = addTerm(triple.getObject());
+        if (lookupSlot(s, p, o) >= 0) {
+            return false;
+        }
+        if ((slots + 1) * 3 > triples.length) {
+            triples = Arrays.copyOf(triples, triples.length * 2);
+        }
+        int slot = slots;
+        int offset = slot * 3;
+        triples[offset + S] = s;
+        triples[offset + P] = p;
+        triples[offset + O] = o;
+        slots++;
+        if ((performSize() + 1) * 2 > table.length) {
+            rehash(tableSize(performSize() + 1));
+        }
+        insertSlot(slot);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    protected boolean performRemove(Object t) {
+        if (!(t instanceof Triple)) {
+            return false;
+        }
+        Triple triple = (Triple) t;
+        int s = lookupTerm(triple.getSubject());
+        int p = lookupTerm(triple.getPredicate());
+        int o = lookupTerm(triple.getObject());
+        if (s < 0 || p < 0 || o < 0) {
+            return false;
+        }
+        int slot = removeSlot(s, p, o);
+        if (slot < 0) {
+            return false;
+        }
+        removed.set(slot);
+        removedCount++;
+        modCount++;
+        if (removedCount >= MIN_COMPACT && removedCount > performSize()) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean performContains(Object t) {
+        if (!(t instanceof Triple)) {
+            return false;
+        }
+        Triple triple = (Triple) t;
+        int s = lookupTerm(triple.getSubject());
+        int p = lookupTerm(triple.getPredicate());
+        int o = lookupTerm(triple.getObject());
+        return s >= 0 && p >= 0 && o >= 0 && lookupSlot(s, p, o) >= 0;
+    }
+
+    @Override
+    protected void performClear() {
+        init(INITIAL_CAPACITY);
+        modCount++;
+    }
+
+    @Override
+    public int performSize() {
+        return slots - removedCount;
+    }
+
+    /*
+     * ------------------------------------------------------------------------
+     * Dictionary
+     * ------------------------------------------------------------------------
+     */
+
+    private int lookupTerm(RDFTerm term) {
+        Integer id = termIds.get(term);
+        return id == null ? -1 : id.intValue();
+    }
+
+    private int addTerm(RDFTerm term) {
+        Integer id = termIds.get(term);
+        if (id == null) {
+            if (termCount == terms.length) {
+                terms = Arrays.copyOf(terms, terms.length * 2);
+            }
+            id = Integer.valueOf(termCount);
+            terms[termCount] = term;
+            termCount++;
+            termIds.put(term, id);
+        }
+        return id.intValue();
+    }
+
+    /*
+     * ------------------------------------------------------------------------
+     * Hash table
+     * ------------------------------------------------------------------------
+     */
+
+    private static int tableSize(int entries) {
+        int size = INITIAL_CAPACITY * 2;
+        while (size < entries * 2) {
+            size = size << 1;
+        }
+        return size;
+    }
+
+    private static int hash(int s, int p, int o) {
+        int h = (s * 31 + p) * 31 + o;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int hash(int slot) {
+        int offset = slot * 3;
+        return hash(triples[offset + S], triples[offset + P], triples[offset + O]);
+    }
+
+    private boolean matches(int slot, int s, int p, int o) {
+        int offset = slot * 3;
+        return triples[offset + S] == s && triples[offset + P] == p && triples[offset + O] == o;
+    }
+
+    /**
+     * @return the slot of the triple or <code>-1</code> if not present
+     */
+    private int lookupSlot(int s, int p, int o) {
+        int mask = table.length - 1;
+        for (int i = hash(s, p, o) & mask;; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == 0) {
+                return -1;
+            } else if (matches(entry - 1, s, p, o)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    private void insertSlot(int slot) {
+        int mask = table.length - 1;
+        int i = hash(slot) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    /**
+     * Removes the triple from the hash table
+     * @return the slot of the removed triple or <code>-1</code> if not present
+     */
+    private int removeSlot(int s, int p, int o) {
+        int mask = table.length - 1;
+        int i = hash(s, p, o) & mask;
+        int slot;
+        while (true) {
+            int entry = table[i];
+            if (entry == 0) {
+                return -1;
+            } else if (matches(entry - 1, s, p, o)) {
+                slot = entry - 1;
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+        //backward shift deletion of the entries following the removed one
+        table[i] = 0;
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = hash(table[j] - 1) & mask;
+            boolean inRange = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!inRange) {
+                table[i] = table[j];
+                table[j] = 0;
+                i = j;
+            }
+        }
+        return slot;
+    }
+
+    private void rehash(int size) {
+        table = new int[size];
+        for (int slot = 0; slot < slots; slot++) {
+            if (!removed.get(slot)) {
+                insertSlot(slot);
+            }
+        }
+    }
+
+    /*
+     * ------------------------------------------------------------------------
+     * Indexes
+     * ------------------------------------------------------------------------
+     */
+
+    /**
+     * Sorts the slots added since the last call and merges them with the
+     * existing indexes. Removed slots are dropped from the indexes while
+     * merging. This creates new index arrays, so that existing
+     * {@link SlotIterator}s are not affected.
+     */
+    private void updateIndexes() {
+        if (indexed == slots) {
+            return;
+        }
+        int[] added = new int[slots - indexed];
+        int count = 0;
+        for (int slot = indexed; slot < slots; slot++) {
+            if (!removed.get(slot)) {
+                added[count] = slot;
+                count++;
+            }
+        }
+        if (count > 0) {
+            int[] buffer = new int[count];
+            spo = merge(spo, sort(Arrays.copyOf(added, count), buffer, triples, SPO), SPO);
+            pos = merge(pos, sort(Arrays.copyOf(added, count), buffer, triples, POS), POS);
+            osp = merge(osp, sort(Arrays.copyOf(added, count), buffer, triples, OSP), OSP);
+        }
+        indexed = slots;
+    }
+
+    /**
+     * Merges the sorted added slots with the existing index. Removed slots
+     * of the index are dropped.
+     */
+    private int[] merge(int[] index, int[] added, int[] order) {
+        int[] merged = new int[index.length + added.length];
+        int i = 0, j = 0, k = 0;
+        while (i < index.length || j < added.length) {
+            if (i < index.length && removed.get(index[i])) {
+                i++;
+            } else if (j >= added.length
+                    || (i < index.length && compare(triples, index[i], added[j], order) <= 0)) {
+                merged[k++] = index[i++];
+            } else {
+                merged[k++] = added[j++];
+            }
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    /**
+     * Removes all removed triples from the storage. The SPO ordering is used
+     * to assign the new slots, so the SPO index of the compacted storage
+     * is <code>[0..size)</code>. This creates new arrays for the storage
+     * and the indexes, so that existing {@link SlotIterator}s are not affected.
+     */
+    private void compact() {
+        updateIndexes();
+        int size = performSize();
+        int[] mapping = new int[slots];
+        int[] compacted = new int[Math.max(INITIAL_CAPACITY, size) * 3];
+        int[] newSpo = new int[size];
+        int slot = 0;
+        for (int i = 0; i < spo.length; i++) {
+            int old = spo[i];
+            if (!removed.get(old)) {
+                System.arraycopy(triples, old * 3, compacted, slot * 3, 3);
+                mapping[old] = slot;
+                newSpo[slot] = slot;
+                slot++;
+            }
+        }
+        pos = remap(pos, mapping, size);
+        osp = remap(osp, mapping, size);
+        spo = newSpo;
+        triples = compacted;
+        slots = size;
+        indexed = size;
+        removed = new BitSet();
+        removedCount = 0;
+        rehash(tableSize(size));
+    }
+
+    private int[] remap(int[] index, int[] mapping, int size) {
+        int[] remapped = new int[size];
+        int k = 0;
+        for (int i = 0; i < index.length; i++) {
+            if (!removed.get(index[i])) {
+                remapped[k++] = mapping[index[i]];
+            }
+        }
+        return remapped;
+    }
+
+    /**
+     * Iterates over a range of an index array. The iterator keeps references
+     * to the current storage, removed slots and dictionary, as those are
+     * replaced (and not modified) by compactions and re-indexing.
+     */
+    private final class SlotIterator implements Iterator<Triple> {
+
+        private final int[] index;
+        private final int end;
+        private final int[] triples;
+        private final BitSet removed;
+        private final RDFTerm[] terms;
+        private int next;
+        private Triple current;
+        private int expectedModCount;
+
+        SlotIterator(int[] index, int from, int to) {
+            this.index = index;
+            this.end = to;
+            this.triples = CompactIndexedGraph.this.triples;
+            this.removed = CompactIndexedGraph.this.removed;
+            this.terms = CompactIndexedGraph.this.terms;
+            this.next = from;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next < end && removed.get(index[next])) {
+                next++;
+            }
+            return next < end;
+        }
+
+        @Override
+        public Triple next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int offset = index[next] * 3;
+            next++;
+            current = new TripleImpl(
+                    (BlankNodeOrIRI) terms[triples[offset + S]],
+                    (IRI) terms[triples[offset + P]],
+                    terms[triples[offset + O]]);
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            if (current == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            performRemove(current);
+            current = null;
+            expectedModCount = modCount;
+        }
+    }
+
+}
@@ -0,0 +1,283 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.indexedgraph;
+
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.EMPTY;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.O;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.OSP;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.P;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.POS;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.S;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.SPO;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.bound;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.compare;
+import static org.apache.stanbol.commons.indexedgraph.TripleIndexes.sort;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.AbstractImmutableGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+
+/**
+ * Compact, read-only {@link ImmutableGraph} implementation intended to hold
+ * RDF data that is no longer modified (e.g. the metadata of an enhanced
+ * ContentItem).
+ * <p>
+ * {@link RDFTerm}s are dictionary encoded to <code>int</code> values and the
+ * triples are stored in a single <code>int[]</code> sorted by subject,
+ * predicate, object [SPO]. Two additional <code>int[]</code> indexes provide
+ * the predicate, object, subject [POS] and object, subject, predicate [OSP]
+ * orderings. All arrays are created in the constructor and are not modified
+ * afterwards.
+ * <p>
+ * As the data can not change {@link #filter(BlankNodeOrIRI, IRI, RDFTerm)},
+ * {@link #iterator()}, {@link #size()} and {@link #contains(Object)} do not
+ * acquire the {@link #getLock() read lock}. Instances can be read
+ * concurrently by multiple threads without any synchronisation.
+ */
+public class CompactIndexedImmutableGraph extends AbstractImmutableGraph implements ImmutableGraph {
+
+    /**
+     * The dictionary used to encode {@link RDFTerm}s
+     */
+    private final Map<RDFTerm, Integer> termIds;
+    /**
+     * The {@link RDFTerm}s by id
+     */
+    private final RDFTerm[] terms;
+    /**
+     * The triples as <code>[s0,p0,o0,s1,p1,o1,...]</code> in SPO order
+     */
+    private final int[] triples;
+    private final int size;
+    /**
+     * The POS index
+     */
+    private final int[] pos;
+    /**
+     * The OSP index
+     */
+    private final int[] osp;
+
+    /**
+     * Creates a compact read-only copy of the parsed triples
+     *
+     * @param tripleCollection the collection of triples this ImmutableGraph
+     * shall consist of
+     */
+    public CompactIndexedImmutableGraph(Collection<Triple> tripleCollection) {
+        this(tripleCollection.iterator(), tripleCollection.size());
+    }
+
+    /**
+     * Create a compact read-only graph with the triples provided by the Iterator
+     * @param tripleIter the iterator over the triples
+     */
+    public CompactIndexedImmutableGraph(Iterator<Triple> tripleIter) {
+        this(tripleIter, 16);
+    }
+
+    private CompactIndexedImmutableGraph(Iterator<Triple> tripleIter, int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        Map<RDFTerm, Integer> termIds = new HashMap<RDFTerm, Integer>(capacity);
+        RDFTerm[] terms = new RDFTerm[capacity];
+        int[] encoded = new int[capacity * 3];
+        int count = 0;
+        while (tripleIter.hasNext()) {
+            Triple triple = tripleIter.next();
+            if ((count + 1) * 3 > encoded.length) {
+                encoded = Arrays.copyOf(encoded, encoded.length * 2);
+            }
+            int offset = count * 3;
+            for (int i = 0; i < 3; i++) {
+                RDFTerm term = i == S ? triple.getSubject()
+                        : i == P ? triple.getPredicate() : triple.getObject();
+                Integer id = termIds.get(term);
+                if (id == null) {
+                    id = Integer.valueOf(termIds.size());
+                    if (id.intValue() == terms.length) {
+                        terms = Arrays.copyOf(terms, terms.length * 2);
+                    }
+                    terms[id.intValue()] = term;
+                    termIds.put(term, id);
+                }
+                encoded[offset + i] = id.intValue();
+            }
+            count++;
+        }
+        //sort the triples in SPO order and remove duplicates
+        int[] buffer = new int[count];
+        int[] order = sort(identity(count), buffer, encoded, SPO);
+        int[] triples = new int[count * 3];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || compare(encoded, order[i - 1], order[i], SPO) != 0) {
+                System.arraycopy(encoded, order[i] * 3, triples, size * 3, 3);
+                size++;
+            }
+        }
+        this.triples = size == count ? triples : Arrays.copyOf(triples, size * 3);
+        this.size = size;
+        this.terms = termIds.size() == terms.length ? terms : Arrays.copyOf(terms, termIds.size());
+        this.termIds = termIds;
+        this.pos = sort(identity(size), buffer, this.triples, POS);
+        this.osp = sort(identity(size), buffer, this.triples, OSP);
+    }
+
+    private static int[] identity(int length) {
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    @Override
+    public Iterator<Triple> filter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+        return performFilter(subject, predicate, object);
+    }
+
+    @Override
+    public Iterator<Triple> iterator() {
+        return performFilter(null, null, null);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return performContains(o);
+    }
+
+    @Override
+    protected Iterator<Triple> performFilter(BlankNodeOrIRI subject, IRI predicate, RDFTerm object) {
+        int s = -1, p = -1, o = -1;
+        if ((subject != null && (s = lookupTerm(subject)) < 0)
+                || (predicate != null && (p = lookupTerm(predicate)) < 0)
+                || (object != null && (o = lookupTerm(object)) < 0)) {
+            return new PositionIterator(EMPTY, 0, 0);
+        }
+        if (s < 0 && p < 0 && o < 0) { //[n,n,n]
+            return new PositionIterator(null, 0, size);
+        } else if (s >= 0 && p >= 0 && o >= 0) { //[S,P,O]
+            int from = bound(null, 0, size, triples, SPO, s, p, false);
+            int to = bound(null, from, size, triples, SPO, s, p, true);
+            //the object is the last element of the ordering
+            int found = -1;
+            for (int i = from; i < to && found < 0; i++) {
+                if (triples[i * 3 + O] == o) {
+                    found = i;
+                }
+            }
+            return found < 0 ? new PositionIterator(EMPTY, 0, 0)
+                    : new PositionIterator(null, found, found + 1);
+        } else if (s >= 0 && o < 0) { //[S,n,n], [S,P,n]
+            return createIterator(null, SPO, s, p);
+        } else if (p >= 0) { //[n,P,n], [n,P,O]
+            return createIterator(pos, POS, p, o);
+        } else { //[n,n,O] , [S,n,O]
+            return createIterator(osp, OSP, o, s);
+        }
+    }
+
+    private Iterator<Triple> createIterator(int[] index, int[] order, int first, int second) {
+        int from = bound(index, 0, size, triples, order, first, second, false);
+        int to = bound(index, from, size, triples, order, first, second, true);
+        return new PositionIterator(index, from, to);
+    }
+
+    @Override
+    protected boolean performContains(Object t) {
+        if (t instanceof Triple) {
+            Triple triple = (Triple) t;
+            return performFilter(triple.getSubject(), triple.getPredicate(),
+                triple.getObject()).hasNext();
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int performSize() {
+        return size;
+    }
+
+    private int lookupTerm(RDFTerm term) {
+        Integer id = termIds.get(term);
+        return id == null ? -1 : id.intValue();
+    }
+
+    /**
+     * Iterates over a range of an index. <code>null</code> as index refers
+     * to the SPO ordered triples.
+     */
+    private final class PositionIterator implements Iterator<Triple> {
+
+        private final int[] index;
+        private final int end;
+        private int next;
+
+        PositionIterator(int[] index, int from, int to) {
+            this.index = index;
+            this.next = from;
+            this.end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public Triple next() {
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            int offset = (index == null ? next : index[next]) * 3;
+            next++;
+            return new TripleImpl(
+                    (BlankNodeOrIRI) terms[triples[offset + S]],
+                    (IRI) terms[triples[offset + P]],
+                    terms[triples[offset + O]]);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Triples can not be removed from an ImmutableGraph");
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.indexedgraph;
+
+/**
+ * Utilities for sorting and searching indexes over dictionary encoded triples
+ * stored as <code>[s0,p0,o0,s1,p1,o1,...]</code> in an <code>int[]</code>.
+ * An index is an <code>int[]</code> holding the positions of the triples
+ * ordered by one of the orderings ({@link #SPO}, {@link #POS}, {@link #OSP}).
+ * <p>
+ * Used by {@link CompactIndexedGraph} and {@link CompactIndexedImmutableGraph}.
+ */
+final class TripleIndexes {
+
+    private TripleIndexes() {/* no instances */}
+
+    static final int[] EMPTY = new int[0];
+    /*
+     * Offsets of the subject, predicate and object within a triple
+     */
+    static final int S = 0;
+    static final int P = 1;
+    static final int O = 2;
+    /*
+     * The orderings of the three indexes
+     */
+    static final int[] SPO = new int[]{S, P, O};
+    static final int[] POS = new int[]{P, O, S};
+    static final int[] OSP = new int[]{O, S, P};
+
+    /**
+     * Sorts the parsed triple positions based on the parsed ordering
+     * @param positions the positions to sort
+     * @param buffer a buffer with at least the length of the positions array
+     * @param triples the triples
+     * @param order the ordering
+     * @return the sorted positions
+     */
+    static int[] sort(int[] positions, int[] buffer, int[] triples, int[] order) {
+        mergeSort(positions, buffer, 0, positions.length, triples, order);
+        return positions;
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, int[] triples, int[] order) {
+        if (to - from < 16) { //insertion sort for small ranges
+            for (int i = from + 1; i < to; i++) {
+                int value = a[i];
+                int j = i - 1;
+                while (j >= from && compare(triples, a[j], value, order) > 0) {
+                    a[j + 1] = a[j];
+                    j--;
+                }
+                a[j + 1] = value;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, triples, order);
+        mergeSort(a, buffer, mid, to, triples, order);
+        if (compare(triples, a[mid - 1], a[mid], order) <= 0) {
+            return; //already sorted
+        }
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from, j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compare(triples, buffer[i], buffer[j], order) <= 0)) {
+                a[k] = buffer[i++];
+            } else {
+                a[k] = buffer[j++];
+            }
+        }
+    }
+
+    /**
+     * Binary search for the lower/upper bound of the range in the index
+     * matching the parsed values for the first (and optionally second)
+     * position of the ordering.
+     * @param index the index
+     * @param from the first position of the index to search (inclusive)
+     * @param to the last position of the index to search (exclusive)
+     * @param triples the triples
+     * @param order the ordering of the index
+     * @param first the value for the first position
+     * @param second the value for the second position or <code>-1</code>
+     * if any value is allowed
+     * @param upper if <code>true</code> the upper (exclusive) bound is returned
+     * @return the bound
+     */
+    static int bound(int[] index, int from, int to, int[] triples, int[] order,
+            int first, int second, boolean upper) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int offset = index == null ? mid * 3 : index[mid] * 3;
+            int c = compare(triples[offset + order[0]], first);
+            if (c == 0 && second >= 0) {
+                c = compare(triples[offset + order[1]], second);
+            }
+            if (c < 0 || (upper && c == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the triples at the parsed positions based on the ordering
+     */
+    static int compare(int[] triples, int posA, int posB, int[] order) {
+        int a = posA * 3;
+        int b = posB * 3;
+        int c = compare(triples[a + order[0]], triples[b + order[0]]);
+        if (c == 0) {
+            c = compare(triples[a + order[1]], triples[b + order[1]]);
+            if (c == 0) {
+                c = compare(triples[a + order[2]], triples[b + order[2]]);
+            }
+        }
+        return c;
+    }
+
+    static int compare(int a, int b) {
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+}
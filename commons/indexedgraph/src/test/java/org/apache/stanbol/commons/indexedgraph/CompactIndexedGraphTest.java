@@ -0,0 +1,183 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.test.GraphTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactIndexedGraphTest extends GraphTest {
+
+    private IRI uriRef1 = new IRI("http://example.org/foo");
+    private IRI uriRef2 = new IRI("http://example.org/bar");
+    private IRI uriRef3 = new IRI("http://example.org/test");
+    private Triple triple1 = new TripleImpl(uriRef1, uriRef2, uriRef3);
+    private Triple triple2 = new TripleImpl(uriRef2, uriRef2, uriRef1);
+    private Triple triple3 = new TripleImpl(uriRef3, uriRef1, uriRef3);
+    private Triple triple4 = new TripleImpl(uriRef1, uriRef3, uriRef2);
+    private Triple triple5 = new TripleImpl(uriRef2, uriRef3, uriRef2);
+
+    @Override
+    protected Graph getEmptyGraph() {
+        return new CompactIndexedGraph();
+    }
+
+    private Graph createTestGraph() {
+        Graph graph = getEmptyGraph();
+        graph.add(triple1);
+        graph.add(triple2);
+        graph.add(triple3);
+        graph.add(triple4);
+        graph.add(triple5);
+        return graph;
+    }
+
+    @Test
+    public void iteratorRemove() {
+        Graph graph = createTestGraph();
+        Iterator<Triple> iter = graph.iterator();
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        Assert.assertEquals(0, graph.size());
+    }
+
+    @Test
+    public void filterIteratorRemove() {
+        Graph graph = createTestGraph();
+        Iterator<Triple> iter = graph.filter(uriRef1, null, null);
+        while (iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+        Assert.assertEquals(3, graph.size());
+        Assert.assertFalse(graph.contains(triple1));
+        Assert.assertFalse(graph.contains(triple4));
+        Assert.assertFalse(graph.filter(uriRef1, null, null).hasNext());
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void remove() {
+        Graph graph = createTestGraph();
+        Iterator<Triple> iter = graph.filter(uriRef1, null, null);
+        while (iter.hasNext()) {
+            Triple triple = iter.next();
+            graph.remove(triple);
+        }
+    }
+
+    @Test
+    public void readdRemovedTriple() {
+        Graph graph = createTestGraph();
+        Assert.assertTrue(graph.remove(triple1));
+        Assert.assertFalse(graph.remove(triple1));
+        Assert.assertTrue(graph.add(triple1));
+        Assert.assertFalse(graph.add(triple1));
+        Assert.assertEquals(5, graph.size());
+        Iterator<Triple> iter = graph.filter(uriRef1, uriRef2, null);
+        Assert.assertEquals(triple1, iter.next());
+        Assert.assertFalse(iter.hasNext());
+    }
+
+    /**
+     * Compares filter results with the {@link IndexedGraph} for random data
+     * while removing triples (to trigger compactions of the storage)
+     */
+    @Test
+    public void filterConsistency() {
+        long seed = System.currentTimeMillis();
+        Random rnd = new Random(seed);
+        List<BlankNodeOrIRI> subjects = new ArrayList<BlankNodeOrIRI>();
+        List<IRI> predicates = new ArrayList<IRI>();
+        List<RDFTerm> objects = new ArrayList<RDFTerm>();
+        for (int i = 0; i < 50; i++) {
+            subjects.add(i % 5 == 0 ? new BlankNode() : new IRI("http://example.org/s" + i));
+            objects.add(i % 2 == 0 ? new PlainLiteralImpl("literal " + i) : subjects.get(i));
+        }
+        for (int i = 0; i < 8; i++) {
+            predicates.add(new IRI("http://example.org/p" + i));
+        }
+        Graph expected = new IndexedGraph();
+        Graph graph = new CompactIndexedGraph();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 2000; i++) {
+                Triple t = new TripleImpl(subjects.get(rnd.nextInt(subjects.size())),
+                    predicates.get(rnd.nextInt(predicates.size())),
+                    objects.get(rnd.nextInt(objects.size())));
+                Assert.assertEquals("seed: " + seed, expected.add(t), graph.add(t));
+            }
+            assertFilterResults(seed, expected, graph, subjects, predicates, objects);
+            Iterator<Triple> it = graph.iterator();
+            while (it.hasNext()) {
+                Triple t = it.next();
+                if (rnd.nextInt(3) > 0) {
+                    it.remove();
+                    Assert.assertTrue("seed: " + seed, expected.remove(t));
+                }
+            }
+            assertFilterResults(seed, expected, graph, subjects, predicates, objects);
+        }
+    }
+
+    private void assertFilterResults(long seed, Graph expected, Graph graph,
+            List<BlankNodeOrIRI> subjects, List<IRI> predicates, List<RDFTerm> objects) {
+        Assert.assertEquals("seed: " + seed, expected.size(), graph.size());
+        assertFilterResult(seed, expected, graph, null, null, null);
+        for (int i = 0; i < 20; i++) {
+            BlankNodeOrIRI s = subjects.get(i);
+            IRI p = predicates.get(i % predicates.size());
+            RDFTerm o = objects.get(objects.size() - i - 1);
+            assertFilterResult(seed, expected, graph, s, p, o);
+            assertFilterResult(seed, expected, graph, s, p, null);
+            assertFilterResult(seed, expected, graph, s, null, o);
+            assertFilterResult(seed, expected, graph, null, p, o);
+            assertFilterResult(seed, expected, graph, s, null, null);
+            assertFilterResult(seed, expected, graph, null, p, null);
+            assertFilterResult(seed, expected, graph, null, null, o);
+        }
+    }
+
+    private void assertFilterResult(long seed, Graph expected, Graph graph,
+            BlankNodeOrIRI s, IRI p, RDFTerm o) {
+        Set<Triple> expectedResults = new HashSet<Triple>();
+        for (Iterator<Triple> it = expected.filter(s, p, o); it.hasNext();) {
+            expectedResults.add(it.next());
+        }
+        Set<Triple> results = new HashSet<Triple>();
+        for (Iterator<Triple> it = graph.filter(s, p, o); it.hasNext();) {
+            Assert.assertTrue("duplicate result (seed: " + seed + ")", results.add(it.next()));
+        }
+        Assert.assertEquals("seed: " + seed, expectedResults, results);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.indexedgraph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactIndexedImmutableGraphTest {
+
+    private IRI uriRef1 = new IRI("http://example.org/foo");
+    private IRI uriRef2 = new IRI("http://example.org/bar");
+    private IRI uriRef3 = new IRI("http://example.org/test");
+    private Triple triple1 = new TripleImpl(uriRef1, uriRef2, uriRef3);
+    private Triple triple2 = new TripleImpl(uriRef2, uriRef2, uriRef1);
+    private Triple triple3 = new TripleImpl(uriRef3, uriRef1, uriRef3);
+
+    @Test
+    public void duplicatesAreRemoved() {
+        ImmutableGraph graph = new CompactIndexedImmutableGraph(
+            Arrays.asList(triple1, triple2, triple1, triple3, triple2));
+        Assert.assertEquals(3, graph.size());
+        Assert.assertTrue(graph.contains(triple1));
+        Assert.assertTrue(graph.contains(triple2));
+        Assert.assertTrue(graph.contains(triple3));
+        Assert.assertFalse(graph.contains(new TripleImpl(uriRef1, uriRef2, uriRef1)));
+    }
+
+    @Test
+    public void equalsToSourceGraph() {
+        Graph source = new CompactIndexedGraph();
+        BlankNode bNode = new BlankNode();
+        source.add(triple1);
+        source.add(new TripleImpl(bNode, uriRef1, uriRef2));
+        source.add(new TripleImpl(uriRef3, uriRef2, bNode));
+        ImmutableGraph graph = source.getImmutableGraph();
+        Assert.assertTrue(graph instanceof CompactIndexedImmutableGraph);
+        Assert.assertEquals(new IndexedImmutableGraph(source), graph);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void addNotSupported() {
+        new CompactIndexedImmutableGraph(Arrays.asList(triple1)).add(triple2);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iteratorRemoveNotSupported() {
+        Iterator<Triple> it = new CompactIndexedImmutableGraph(Arrays.asList(triple1)).iterator();
+        it.next();
+        it.remove();
+    }
+
+    @Test
+    public void filterConsistency() {
+        long seed = System.currentTimeMillis();
+        Random rnd = new Random(seed);
+        BlankNodeOrIRI[] subjects = new BlankNodeOrIRI[30];
+        RDFTerm[] objects = new RDFTerm[30];
+        IRI[] predicates = new IRI[6];
+        for (int i = 0; i < subjects.length; i++) {
+            subjects[i] = i % 5 == 0 ? new BlankNode() : new IRI("http://example.org/s" + i);
+            objects[i] = i % 2 == 0 ? new PlainLiteralImpl("literal " + i) : subjects[i];
+        }
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = new IRI("http://example.org/p" + i);
+        }
+        Graph expected = new IndexedGraph();
+        for (int i = 0; i < 3000; i++) {
+            expected.add(new TripleImpl(subjects[rnd.nextInt(subjects.length)],
+                predicates[rnd.nextInt(predicates.length)],
+                objects[rnd.nextInt(objects.length)]));
+        }
+        ImmutableGraph graph = new CompactIndexedImmutableGraph(expected);
+        Assert.assertEquals("seed: " + seed, expected.size(), graph.size());
+        assertFilterResult(seed, expected, graph, null, null, null);
+        for (int i = 0; i < subjects.length; i++) {
+            BlankNodeOrIRI s = subjects[i];
+            IRI p = predicates[i % predicates.length];
+            RDFTerm o = objects[objects.length - i - 1];
+            assertFilterResult(seed, expected, graph, s, p, o);
+            assertFilterResult(seed, expected, graph, s, p, null);
+            assertFilterResult(seed, expected, graph, s, null, o);
+            assertFilterResult(seed, expected, graph, null, p, o);
+            assertFilterResult(seed, expected, graph, s, null, null);
+            assertFilterResult(seed, expected, graph, null, p, null);
+            assertFilterResult(seed, expected, graph, null, null, o);
+        }
+    }
+
+    private void assertFilterResult(long seed, Graph expected, Graph graph,
+            BlankNodeOrIRI s, IRI p, RDFTerm o) {
+        Set<Triple> expectedResults = new HashSet<Triple>();
+        for (Iterator<Triple> it = expected.filter(s, p, o); it.hasNext();) {
+            expectedResults.add(it.next());
+        }
+        Set<Triple> results = new HashSet<Triple>();
+        for (Iterator<Triple> it = graph.filter(s, p, o); it.hasNext();) {
+            Assert.assertTrue("duplicate result (seed: " + seed + ")", results.add(it.next()));
+        }
+        Assert.assertEquals("seed: " + seed, expectedResults, results);
+    }
+}
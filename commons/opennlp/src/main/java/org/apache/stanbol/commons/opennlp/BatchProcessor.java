@@ -0,0 +1,166 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.opennlp;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes a list of inputs (typically the tokens of the sentences of a
+ * text) with a not thread safe OpenNLP tool. If the number of inputs reaches
+ * the parsed threshold the inputs are split into batches that are processed
+ * in parallel by a {@link ForkJoinPool} dedicated to OpenNLP processing. A
+ * dedicated pool is used as the {@link ForkJoinPool#commonPool() common pool}
+ * is shared with all other components running in the same JVM. Its daemon
+ * threads are created on first use and terminate when idle.<p>
+ * Parallel processing is deactivated by default 
+ * ({@link #DEFAULT_PARALLEL_THRESHOLD}) as enhancement engines are typically
+ * already called concurrently for different content items. Every batch
+ * {@link #borrowTool() borrows} its own tool instance (typically from the
+ * tool pools of the {@link OpenNLP} service) and {@link #releaseTool(Object)
+ * releases} it after all its inputs are processed.<p>
+ * Results are returned in the order of the inputs so that callers can apply
+ * them sequentially to non thread safe data structures (e.g. the 
+ * <code>AnalysedText</code>).
+ *
+ * @param <I> the type of the inputs
+ * @param <O> the type of the results
+ * @param <T> the type of the tool
+ */
+public abstract class BatchProcessor<I,O,T> {
+
+    /**
+     * The default minimum number of inputs required to process them in
+     * parallel. <code>0</code> deactivates parallel processing.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 0;
+    
+    /**
+     * Borrows a tool used to process a batch of inputs.
+     */
+    protected abstract T borrowTool();
+    
+    /**
+     * Releases a tool after the batch was processed
+     */
+    protected abstract void releaseTool(T tool);
+    
+    /**
+     * Processes a single input. This method is called concurrently for
+     * different batches but each call is parsed a tool that is exclusively
+     * used by the calling thread.
+     * @param tool the tool
+     * @param input the input
+     * @return the result
+     */
+    protected abstract O process(T tool, I input);
+    
+    /**
+     * Processes the parsed inputs.
+     * @param inputs the inputs
+     * @param threshold the minimum number of inputs required for parallel
+     * processing. Values <code>&lt;= 0</code> deactivate parallel processing.
+     * @return the results in the order of the inputs
+     */
+    @SuppressWarnings("unchecked")
+    public final List<O> process(List<I> inputs, int threshold){
+        if(inputs.isEmpty()){
+            return Collections.emptyList();
+        }
+        Object[] results = new Object[inputs.size()];
+        if(threshold <= 0 || inputs.size() < threshold || PoolHolder.POOL.getParallelism() < 2){
+            processBatch(inputs, 0, inputs.size(), results);
+        } else {
+            ForkJoinPool pool = PoolHolder.POOL;
+            //about two batches per worker to balance sentences of different length
+            int batchSize = (inputs.size() + pool.getParallelism()*2 - 1) / (pool.getParallelism()*2);
+            pool.invoke(new BatchTask(inputs, 0, inputs.size(), batchSize, results));
+        }
+        return (List<O>)Arrays.asList(results);
+    }
+    
+    private void processBatch(List<I> inputs, int from, int to, Object[] results){
+        T tool = borrowTool();
+        try {
+            for(int i = from; i < to; i++){
+                results[i] = process(tool, inputs.get(i));
+            }
+        } finally {
+            releaseTool(tool);
+        }
+    }
+    
+    /**
+     * Lazily creates the pool used for parallel processing on first use
+     */
+    private static final class PoolHolder {
+        
+        static final ForkJoinPool POOL = new ForkJoinPool(
+            Runtime.getRuntime().availableProcessors(), new BatchThreadFactory(), null, false);
+    }
+    /**
+     * Creates named daemon threads for the pool used for parallel processing
+     */
+    private static final class BatchThreadFactory implements ForkJoinWorkerThreadFactory {
+        
+        private final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("OpenNLP Batch Processor-"+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+    
+    private class BatchTask extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final List<I> inputs;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final Object[] results;
+
+        BatchTask(List<I> inputs, int from, int to, int batchSize, Object[] results) {
+            this.inputs = inputs;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.results = results;
+        }
+        
+        @Override
+        protected void compute() {
+            if(to - from <= batchSize){
+                processBatch(inputs, from, to, results);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(inputs, from, mid, batchSize, results),
+                    new BatchTask(inputs, mid, to, batchSize, results));
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.opennlp;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache for OpenNLP models used by the {@link OpenNLP} service.<p>
+ * The cache is bounded by the accumulated size of the model data. If the
+ * size exceeds the configured maximum the least recently used models are
+ * evicted. Loading is single-flight: concurrent requests for the same
+ * model wait for the thread that loads it.<p>
+ * Each cached model also holds the {@link ToolPool}s for the tools created
+ * for it, so evicting a model also releases its pooled tools.
+ */
+final class ModelCache {
+
+    private final Logger log = LoggerFactory.getLogger(ModelCache.class);
+    
+    /**
+     * Loads a model
+     */
+    interface Loader {
+        /**
+         * Loads the model with the parsed name
+         * @return the loaded entry or <code>null</code> if no model data
+         * are available for the parsed name
+         */
+        CachedModel load(String name) throws IOException;
+    }
+    
+    /**
+     * A cached model including its size and the pools of the tools
+     * created for it
+     */
+    static final class CachedModel {
+        final String name;
+        final Object model;
+        final long size;
+        final ConcurrentMap<Class<?>,ToolPool<?>> pools = new ConcurrentHashMap<Class<?>,ToolPool<?>>();
+        
+        CachedModel(String name, Object model, long size){
+            this.name = name;
+            this.model = model;
+            this.size = size;
+        }
+    }
+    
+    /**
+     * The cached models in access order. Also used as lock for
+     * {@link #modelIndex} and {@link #size}
+     */
+    private final LinkedHashMap<String,CachedModel> models = new LinkedHashMap<String,CachedModel>(16, 0.75f, true);
+    /**
+     * Allows to lookup entries by the model instance
+     */
+    private final Map<Object,CachedModel> modelIndex = new IdentityHashMap<Object,CachedModel>();
+    /**
+     * Models currently loading
+     */
+    private final ConcurrentMap<String,FutureTask<CachedModel>> loading = 
+            new ConcurrentHashMap<String,FutureTask<CachedModel>>();
+    
+    private long maxSize;
+    
+    private long size;
+    
+    /**
+     * @param maxSize the maximum size of the cached models in bytes. Values 
+     * <code>&lt;= 0</code> deactivate eviction.
+     */
+    ModelCache(long maxSize){
+        this.maxSize = maxSize;
+    }
+    
+    /**
+     * Getter for a cached model
+     * @param name the name
+     * @return the cached model or <code>null</code> if not cached
+     */
+    CachedModel get(String name){
+        synchronized (models) {
+            return models.get(name);
+        }
+    }
+    /**
+     * Getter for the cache entry of the parsed model instance
+     * @param model the model
+     * @return the entry or <code>null</code> if the model is not (or no longer)
+     * cached
+     */
+    CachedModel getByModel(Object model){
+        synchronized (models) {
+            return modelIndex.get(model);
+        }
+    }
+    
+    /**
+     * Getter for the model with the parsed name. If the model is not cached
+     * it is loaded by using the parsed loader. Concurrent calls for the
+     * same name will only load the model once.
+     * @param name the name of the model
+     * @param loader the loader used if the model is not cached
+     * @return the model or <code>null</code> if the loader does not find
+     * model data for the parsed name
+     * @throws IOException if the loader throws an exception or the thread
+     * was interrupted while waiting for an other thread to load the model
+     */
+    CachedModel get(final String name, final Loader loader) throws IOException {
+        CachedModel cached = get(name);
+        if(cached != null){
+            return cached;
+        }
+        FutureTask<CachedModel> task = new FutureTask<CachedModel>(new Callable<CachedModel>() {
+            @Override
+            public CachedModel call() throws Exception {
+                return loader.load(name);
+            }
+        });
+        FutureTask<CachedModel> present = loading.putIfAbsent(name, task);
+        if(present == null){
+            try {
+                task.run();
+                cached = getResult(name, task);
+                if(cached != null){
+                    put(cached);
+                }
+                return cached;
+            } finally {
+                loading.remove(name, task);
+            }
+        } else {
+            log.debug("wait for model {} loaded by an other thread", name);
+            return getResult(name, present);
+        }
+    }
+    
+    private CachedModel getResult(String name, FutureTask<CachedModel> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for model "+name);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof IOException){
+                throw (IOException)cause;
+            } else if(cause instanceof RuntimeException){
+                throw (RuntimeException)cause;
+            } else if(cause instanceof Error){
+                throw (Error)cause;
+            } else {
+                throw new IllegalStateException("Unable to load model "+name, cause);
+            }
+        }
+    }
+    
+    private void put(CachedModel cached){
+        synchronized (models) {
+            CachedModel old = models.put(cached.name, cached);
+            if(old != null){
+                size = size - old.size;
+                modelIndex.remove(old.model);
+            }
+            modelIndex.put(cached.model, cached);
+            size = size + cached.size;
+            evict();
+        }
+    }
+    
+    /**
+     * Evicts the least recently used models until the size is within the
+     * maximum. The most recently used model is never evicted. MUST BE called
+     * while holding the lock on {@link #models}
+     */
+    private void evict(){
+        if(maxSize <= 0){
+            return;
+        }
+        Iterator<CachedModel> it = models.values().iterator();
+        while(size > maxSize && models.size() > 1 && it.hasNext()){
+            CachedModel eldest = it.next();
+            it.remove();
+            modelIndex.remove(eldest.model);
+            size = size - eldest.size;
+            log.info("evict OpenNLP model {} ({} bytes) from the cache (size: {}/{} bytes)",
+                new Object[]{eldest.name, eldest.size, size, maxSize});
+        }
+    }
+    
+    /**
+     * Sets the maximum size and evicts models if necessary
+     * @param maxSize the maximum size in bytes. Values <code>&lt;= 0</code>
+     * deactivate eviction.
+     */
+    void setMaxSize(long maxSize){
+        synchronized (models) {
+            this.maxSize = maxSize;
+            evict();
+        }
+    }
+    
+    long getMaxSize(){
+        synchronized (models) {
+            return maxSize;
+        }
+    }
+    /**
+     * @return the accumulated size of all cached models
+     */
+    long getSize(){
+        synchronized (models) {
+            return size;
+        }
+    }
+    /**
+     * @return the number of cached models
+     */
+    int getCount(){
+        synchronized (models) {
+            return models.size();
+        }
+    }
+    
+    void clear(){
+        synchronized (models) {
+            models.clear();
+            modelIndex.clear();
+            size = 0;
+        }
+    }
+}
@@ -28,8 +28,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import opennlp.tools.chunker.Chunker;
 import opennlp.tools.chunker.ChunkerME;
@@ -50,10 +48,17 @@ import opennlp.tools.tokenize.TokenizerModel;
 import opennlp.tools.util.InvalidFormatException;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileProvider;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,9 +70,33 @@ import org.slf4j.LoggerFactory;
  * This service also provides methods that directly return the OpenNLP component
  * wrapping the model.
  */
-@Component(immediate=true)
+@Component(immediate=true, metatype=true)
 @Service(value=OpenNLP.class)
+@Properties(value={
+    @Property(name=OpenNLP.MODEL_CACHE_SIZE, intValue=OpenNLP.DEFAULT_MODEL_CACHE_SIZE),
+    @Property(name=OpenNLP.TOOL_POOL_SIZE, intValue=OpenNLP.DEFAULT_TOOL_POOL_SIZE)
+})
 public class OpenNLP {
+    /**
+     * The maximum size of the model data kept in the cache in MByte. The
+     * size of a model is the size of its data file. Values <code>&lt;= 0</code>
+     * deactivate eviction.
+     */
+    public static final String MODEL_CACHE_SIZE = "org.apache.stanbol.commons.opennlp.modelCacheSize";
+    /**
+     * The default size of the model cache (256 MByte)
+     */
+    public static final int DEFAULT_MODEL_CACHE_SIZE = 256;
+    /**
+     * The maximum number of idle tools (e.g. {@link POSTaggerME}) kept per 
+     * model
+     */
+    public static final String TOOL_POOL_SIZE = "org.apache.stanbol.commons.opennlp.toolPoolSize";
+    /**
+     * The default number of idle tools kept per model
+     */
+    public static final int DEFAULT_TOOL_POOL_SIZE = 8;
+
     /**
      * added as link to the download location for requested model files
      * Will show up in the DataFilePorivder tab in the Apache Felix Web Console
@@ -81,22 +110,14 @@ public class OpenNLP {
     
     @Reference
     private DataFileProvider dataFileProvider;
-     /**
-     * Map holding the already built models
-     * TODO: change to use a WeakReferenceMap
-     */
-    protected Map<String,Object> models = new HashMap<String,Object>();
     /**
-     * used to sync access to the {@link #models} and {@link #modelCreationLock}
+     * Cache holding the already built models
      */
-    protected ReadWriteLock modelLock = new ReentrantReadWriteLock();
-    /**
-     * used to avoid loading the same model multiple times in parallel.
-     * The value is a int array with an single element. The int at index zero is
-     * used as reference count. When it reaches zero the mapping can be deleted
-     * from the map. 
-     */
-    protected Map<String,int[]> modelCreationLock = new HashMap<String,int[]>();
+    private final ModelCache models = new ModelCache(DEFAULT_MODEL_CACHE_SIZE * MB);
+    
+    private static final long MB = 1024 * 1024;
+    
+    private int toolPoolSize = DEFAULT_TOOL_POOL_SIZE;
     /**
      * Default constructor
      */
@@ -112,6 +133,155 @@ public class OpenNLP {
         this();
         this.dataFileProvider = dataFileProvider;
     }
+    
+    @Activate
+    protected void activate(ComponentContext context) throws ConfigurationException {
+        Object value = context.getProperties().get(MODEL_CACHE_SIZE);
+        long cacheSize;
+        if(value instanceof Number){
+            cacheSize = ((Number)value).longValue();
+        } else if(value != null){
+            try {
+                cacheSize = Long.parseLong(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(MODEL_CACHE_SIZE, "Unable to parse "
+                    + "the model cache size from '"+value+"'!", e);
+            }
+        } else {
+            cacheSize = DEFAULT_MODEL_CACHE_SIZE;
+        }
+        models.setMaxSize(cacheSize * MB);
+        value = context.getProperties().get(TOOL_POOL_SIZE);
+        if(value instanceof Number){
+            toolPoolSize = ((Number)value).intValue();
+        } else if(value != null){
+            try {
+                toolPoolSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(TOOL_POOL_SIZE, "Unable to parse "
+                    + "the tool pool size from '"+value+"'!", e);
+            }
+        } else {
+            toolPoolSize = DEFAULT_TOOL_POOL_SIZE;
+        }
+        log.info("activate OpenNLP (model cache: {}MB, tool pool size: {})", 
+            cacheSize, toolPoolSize);
+    }
+    
+    @Deactivate
+    protected void deactivate(ComponentContext context){
+        models.clear();
+        toolPoolSize = DEFAULT_TOOL_POOL_SIZE;
+    }
+    
+    /**
+     * Setter for the maximum size of the model cache. Intended to be used
+     * outside an OSGI environment.
+     * @param maxSize the maximum size in MByte. Values <code>&lt;= 0</code>
+     * deactivate eviction.
+     */
+    public void setModelCacheSize(long maxSize){
+        models.setMaxSize(maxSize * MB);
+    }
+    
+    /**
+     * Borrows a {@link POSTaggerME} for the parsed model from the tool pool.
+     * Callers MUST {@link #releaseTool(Object, Object) release} the tagger
+     * after usage.
+     * @param model the model (typically obtained by 
+     * {@link #getPartOfSpeechModel(String)})
+     * @return the tagger
+     */
+    public POSTaggerME borrowPartOfSpeechTagger(final POSModel model){
+        return borrowTool(model, POSTaggerME.class, new ToolPool<POSTaggerME>(toolPoolSize) {
+            @Override
+            protected POSTaggerME create() {
+                return new POSTaggerME(model);
+            }
+        });
+    }
+    
+    /**
+     * Borrows a {@link NameFinderME} for the parsed model from the tool pool.
+     * Callers MUST {@link #releaseTool(Object, Object) release} the finder
+     * after usage. Adaptive data are cleared on release.
+     * @param model the model (typically obtained by 
+     * {@link #getNameModel(String, String)})
+     * @return the name finder
+     */
+    public NameFinderME borrowNameFinder(final TokenNameFinderModel model){
+        return borrowTool(model, NameFinderME.class, new ToolPool<NameFinderME>(toolPoolSize) {
+            @Override
+            protected NameFinderME create() {
+                return new NameFinderME(model);
+            }
+            @Override
+            protected void reset(NameFinderME finder) {
+                finder.clearAdaptiveData();
+            }
+        });
+    }
+    
+    /**
+     * Borrows a {@link ChunkerME} for the parsed model from the tool pool.
+     * Callers MUST {@link #releaseTool(Object, Object) release} the chunker
+     * after usage.
+     * @param model the model (typically obtained by 
+     * {@link #getChunkerModel(String)})
+     * @return the chunker
+     */
+    public ChunkerME borrowChunker(final ChunkerModel model){
+        return borrowTool(model, ChunkerME.class, new ToolPool<ChunkerME>(toolPoolSize) {
+            @Override
+            protected ChunkerME create() {
+                return new ChunkerME(model);
+            }
+        });
+    }
+    
+    /**
+     * Releases a tool borrowed for the parsed model. If the model was
+     * evicted from the cache in the meantime the tool is dropped.
+     * @param model the model parsed when borrowing the tool
+     * @param tool the tool
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void releaseTool(Object model, T tool){
+        if(model == null || tool == null){
+            return;
+        }
+        ModelCache.CachedModel cached = models.getByModel(model);
+        if(cached != null){
+            ToolPool<T> pool = (ToolPool<T>)cached.pools.get(tool.getClass());
+            if(pool != null){
+                pool.release(tool);
+            }
+        }
+    }
+    
+    /**
+     * Borrows a tool from the pool of the cached model. If the model is not
+     * cached the tool is created without pooling.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T borrowTool(Object model, Class<T> toolType, ToolPool<T> newPool){
+        if(model == null){
+            throw new IllegalArgumentException("The parsed model MUST NOT be NULL!");
+        }
+        ModelCache.CachedModel cached = models.getByModel(model);
+        if(cached == null){
+            log.debug("model {} not cached: create {} without pooling", model, toolType.getSimpleName());
+            return newPool.create();
+        }
+        ToolPool<T> pool = (ToolPool<T>)cached.pools.get(toolType);
+        if(pool == null){
+            pool = (ToolPool<T>)cached.pools.putIfAbsent(toolType, newPool);
+            if(pool == null){
+                pool = newPool;
+            }
+        }
+        return pool.borrow();
+    }
     /**
      * Getter for the sentence detection model of the parsed language. 
      * If the model is not yet available a new one is built. The required data
@@ -440,7 +610,7 @@ public class OpenNLP {
     
     /**
      * Uses generics to build models of the parsed type. The {@link #models}
-     * map is used to lookup already created models.
+     * cache is used to lookup already created models.
      * @param <T> the type of the model to create
      * @param name the name of the file with the model data
      * @param modelType the class object representing the model to create
@@ -454,7 +624,7 @@ public class OpenNLP {
     }
     /**
      * Uses generics to build models of the parsed type. The {@link #models}
-     * map is used to lookup already created models.
+     * cache is used to lookup already created models.
      * @param <T> the type of the model to create
      * @param name the name of the file with the model data
      * @param modelType the class object representing the model to create
@@ -464,61 +634,16 @@ public class OpenNLP {
      * @throws IOException on any error while loading the model data
      * @throws IllegalStateException on any Exception while creating the model
      */
-    private <T> T initModel(String name,Class<T> modelType, Map<String,String> modelProperties) throws InvalidFormatException, IOException {
-        T model = getCachedModel(name, modelType);
-        if(model != null){
-            return model;
-        } //else create the model
-        //We need to avoid creating a model twice in parallel
-        modelLock.writeLock().lock();
-        int[] lock;
-        try {
-            lock = modelCreationLock.get(name);
-            if(lock == null){
-                lock = new int[]{0};
-                modelCreationLock.put(name, lock);
-            }
-            lock[0]++;
-        } finally {
-            modelLock.writeLock().unlock();
-        }
-        try {
-            //create only one model with the same name in parallel
-            synchronized (lock) { 
-                //now we have the lock ... 
-                //  first check if it was created while we where waiting for the lock
-                model = getCachedModel(name, modelType);
-                if(model != null){
-                    return model;
-                }
-                //not created in the meantime ... we need to create it!
-                T built = loadModel(name, modelType, modelProperties);
-                //register the model
-                modelLock.writeLock().lock();
-                try {
-                    models.put(name, built);
-                } finally {
-                    modelLock.writeLock().unlock();
-                }
-                return built;
-            }
-        } finally {
-            //we do no longer need the lock
-            lock[0]--;
-            //check if we need to clean up the modelCreationLock map
-            if(lock[0] == 0){
-                modelLock.writeLock().lock();
-                try {
-                    if(lock[0] == 0){
-                        modelCreationLock.remove(name);
-                    }
-                } finally {
-                    modelLock.writeLock().unlock();
-                }
+    private <T> T initModel(final String name,final Class<T> modelType, final Map<String,String> modelProperties) throws InvalidFormatException, IOException {
+        ModelCache.CachedModel cached = models.get(name, new ModelCache.Loader() {
+            @Override
+            public ModelCache.CachedModel load(String name) throws IOException {
+                return loadModel(name, modelType, modelProperties);
             }
-        }
+        });
+        return cached == null ? null : castModel(name, cached.model, modelType);
     }
-    private <T> T loadModel(String name, Class<T> modelType,
+    private <T> ModelCache.CachedModel loadModel(String name, Class<T> modelType,
             Map<String, String> modelProperties) throws InvalidFormatException,
             IOException {
         if(modelProperties != null){ //copy the data to avoid external modifications
@@ -535,9 +660,10 @@ public class OpenNLP {
         if(!modelProperties.containsKey("Download Location")){
             modelProperties.put("Download Location", DOWNLOAD_ROOT+name);
         }
-        InputStream modelDataStream;
+        CountingInputStream modelDataStream;
         try {
-            modelDataStream = lookupModelStream(name,modelProperties);
+            InputStream in = lookupModelStream(name,modelProperties);
+            modelDataStream = in == null ? null : new CountingInputStream(in);
         } catch (IOException e) {
             log.debug("Unable to load Resource {} via the DataFileProvider",name);
             return null;
@@ -589,33 +715,25 @@ public class OpenNLP {
         } finally {
             IOUtils.closeQuietly(modelDataStream);
         }
-        return built;
+        log.debug("loaded OpenNLP model {} ({} bytes)", name, modelDataStream.getByteCount());
+        return new ModelCache.CachedModel(name, built, modelDataStream.getByteCount());
     }
     /**
-     * Used to retrieve a model of the parsed model type from the internal cache
+     * Casts a cached model to the requested model type
      * @param name the name of the model
+     * @param model the cached model
      * @param modelType the type of the model
-     * @return the model or <code>null</code> if not cached
+     * @return the model
      * @throws IllegalStateException if the cached model does not have the
      * expected type
      */
-    private <T> T getCachedModel(String name, Class<T> modelType) {
-        modelLock.readLock().lock();
-        try {
-            Object model = models.get(name);
-            if(model != null) {
-                if(modelType.isAssignableFrom(model.getClass())){
-                    return modelType.cast(model);
-                } else {
-                    throw new IllegalStateException(String.format(
-                        "Incompatible Model Types for name '%s': present=%s | requested=%s",
-                        name,model.getClass(),modelType));
-                }
-            } else {
-                return null;
-            }
-        } finally {
-            modelLock.readLock().unlock();
+    private <T> T castModel(String name, Object model, Class<T> modelType) {
+        if(modelType.isAssignableFrom(model.getClass())){
+            return modelType.cast(model);
+        } else {
+            throw new IllegalStateException(String.format(
+                "Incompatible Model Types for name '%s': present=%s | requested=%s",
+                name,model.getClass(),modelType));
         }
     }
     /**
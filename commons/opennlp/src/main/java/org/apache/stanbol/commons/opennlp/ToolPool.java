@@ -0,0 +1,91 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.opennlp;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool for OpenNLP tools (e.g. the <code>POSTaggerME</code>) that are
+ * not thread safe. Tools are created on demand and up to <code>maxIdle</code>
+ * released tools are kept for later use.
+ *
+ * @param <T> the type of the tool
+ */
+abstract class ToolPool<T> {
+
+    private final Queue<T> idle = new ConcurrentLinkedQueue<T>();
+    
+    private final AtomicInteger idleCount = new AtomicInteger();
+    
+    private final int maxIdle;
+    
+    ToolPool(int maxIdle){
+        this.maxIdle = maxIdle;
+    }
+    
+    /**
+     * Creates a new tool instance
+     */
+    protected abstract T create();
+    
+    /**
+     * Resets the state of a released tool before it is returned to the pool.
+     * The default does nothing.
+     */
+    protected void reset(T tool){}
+    
+    /**
+     * Borrows a tool from the pool. If no idle tool is available a new one
+     * is created.
+     * @return the tool
+     */
+    T borrow(){
+        T tool = idle.poll();
+        if(tool != null){
+            idleCount.decrementAndGet();
+            return tool;
+        } else {
+            return create();
+        }
+    }
+    
+    /**
+     * Returns a tool to the pool. If the pool already holds <code>maxIdle</code>
+     * tools the parsed one is dropped.
+     * @param tool the tool
+     */
+    void release(T tool){
+        if(tool == null){
+            return;
+        }
+        reset(tool);
+        if(idleCount.incrementAndGet() <= maxIdle){
+            idle.offer(tool);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+    
+    /**
+     * @return the number of idle tools
+     */
+    int getIdleCount(){
+        return idleCount.get();
+    }
+}
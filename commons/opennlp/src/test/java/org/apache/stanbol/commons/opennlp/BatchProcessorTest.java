@@ -0,0 +1,107 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.opennlp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link BatchProcessor} keeps the order of the inputs and
+ * never uses a tool concurrently
+ */
+public class BatchProcessorTest {
+
+    /**
+     * Upper cases inputs and fails if a tool is used by two threads
+     */
+    private static class TestProcessor extends BatchProcessor<String,String,StringBuilder> {
+        
+        final AtomicInteger borrowed = new AtomicInteger();
+        final AtomicInteger released = new AtomicInteger();
+        final Set<StringBuilder> inUse = Collections.newSetFromMap(
+            new ConcurrentHashMap<StringBuilder,Boolean>());
+        final Set<String> threads = Collections.newSetFromMap(
+            new ConcurrentHashMap<String,Boolean>());
+        
+        @Override
+        protected StringBuilder borrowTool() {
+            borrowed.incrementAndGet();
+            StringBuilder tool = new StringBuilder();
+            inUse.add(tool);
+            return tool;
+        }
+        @Override
+        protected void releaseTool(StringBuilder tool) {
+            Assert.assertTrue(inUse.remove(tool));
+            released.incrementAndGet();
+        }
+        @Override
+        protected String process(StringBuilder tool, String input) {
+            Assert.assertTrue(inUse.contains(tool));
+            threads.add(Thread.currentThread().getName());
+            tool.setLength(0);
+            return tool.append(input.toUpperCase()).toString();
+        }
+    }
+    
+    private static List<String> inputs(int num){
+        List<String> inputs = new ArrayList<String>(num);
+        for(int i = 0; i < num; i++){
+            inputs.add("sentence " + i);
+        }
+        return inputs;
+    }
+    
+    @Test
+    public void testSequential(){
+        TestProcessor processor = new TestProcessor();
+        List<String> results = processor.process(inputs(50), 0);
+        Assert.assertEquals(50, results.size());
+        for(int i = 0; i < results.size(); i++){
+            Assert.assertEquals("SENTENCE " + i, results.get(i));
+        }
+        Assert.assertEquals(1, processor.borrowed.get());
+        Assert.assertEquals(1, processor.released.get());
+        //below the threshold
+        processor.process(inputs(50), 51);
+        Assert.assertEquals(2, processor.borrowed.get());
+        Assert.assertTrue(processor.process(inputs(0), 1).isEmpty());
+    }
+    
+    @Test
+    public void testParallel(){
+        TestProcessor processor = new TestProcessor();
+        List<String> results = processor.process(inputs(1000), 10);
+        Assert.assertEquals(1000, results.size());
+        for(int i = 0; i < results.size(); i++){
+            Assert.assertEquals("SENTENCE " + i, results.get(i));
+        }
+        Assert.assertEquals(processor.borrowed.get(), processor.released.get());
+        Assert.assertTrue(processor.inUse.isEmpty());
+        //the common pool MUST NOT be used
+        for(String thread : processor.threads){
+            Assert.assertFalse(thread, thread.startsWith("ForkJoinPool.commonPool"));
+        }
+    }
+}
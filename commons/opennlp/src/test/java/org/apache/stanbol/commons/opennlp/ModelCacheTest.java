@@ -0,0 +1,178 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.commons.opennlp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests eviction and single flight loading of the {@link ModelCache} as
+ * well as the {@link ToolPool}
+ */
+public class ModelCacheTest {
+
+    /**
+     * Loader that creates models with the size parsed by the name
+     */
+    private static class TestLoader implements ModelCache.Loader {
+        
+        final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public ModelCache.CachedModel load(String name) throws IOException {
+            count.incrementAndGet();
+            if(name.startsWith("missing")){
+                return null;
+            }
+            if(name.startsWith("error")){
+                throw new IOException("test");
+            }
+            return new ModelCache.CachedModel(name, new Object(), Long.parseLong(name));
+        }
+    }
+    
+    @Test
+    public void testEviction() throws IOException {
+        ModelCache cache = new ModelCache(100);
+        TestLoader loader = new TestLoader();
+        Object first = cache.get("40", loader).model;
+        cache.get("50", loader);
+        Assert.assertEquals(90, cache.getSize());
+        //access the first to make "50" the least recently used
+        Assert.assertSame(first, cache.get("40").model);
+        cache.get("30", loader);
+        Assert.assertEquals(2, cache.getCount());
+        Assert.assertEquals(70, cache.getSize());
+        Assert.assertNull(cache.get("50"));
+        Assert.assertNull(cache.getByModel(new Object()));
+        Assert.assertNotNull(cache.getByModel(first));
+        //models bigger as the cache are kept until the next one is loaded
+        cache.get("200", loader);
+        Assert.assertEquals(1, cache.getCount());
+        Assert.assertNull(cache.getByModel(first));
+        //reducing the size does not evict the last used model
+        cache.setMaxSize(10);
+        Assert.assertEquals(1, cache.getCount());
+        cache.setMaxSize(0); //no eviction
+        cache.get("300", loader);
+        cache.get("400", loader);
+        Assert.assertEquals(3, cache.getCount());
+        Assert.assertEquals(6, loader.count.get());
+        cache.clear();
+        Assert.assertEquals(0, cache.getCount());
+        Assert.assertEquals(0, cache.getSize());
+    }
+    
+    @Test
+    public void testMissingAndFailed() throws IOException {
+        ModelCache cache = new ModelCache(100);
+        TestLoader loader = new TestLoader();
+        Assert.assertNull(cache.get("missing", loader));
+        Assert.assertNull(cache.get("missing", loader));
+        try {
+            cache.get("error", loader);
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            //expected
+        }
+        Assert.assertEquals(3, loader.count.get());
+        Assert.assertEquals(0, cache.getCount());
+    }
+    
+    @Test
+    public void testSingleFlightLoading() throws Exception {
+        final ModelCache cache = new ModelCache(0);
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        final ModelCache.Loader loader = new ModelCache.Loader() {
+            @Override
+            public ModelCache.CachedModel load(String name) throws IOException {
+                count.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return new ModelCache.CachedModel(name, new Object(), 10);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Object>> results = new ArrayList<Future<Object>>();
+            for(int i=0; i < 8; i++){
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return cache.get("model", loader).model;
+                    }
+                }));
+            }
+            Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+            release.countDown();
+            Object model = results.get(0).get(10, TimeUnit.SECONDS);
+            for(Future<Object> result : results){
+                Assert.assertSame(model, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(1, count.get());
+    }
+    
+    @Test
+    public void testToolPool(){
+        final AtomicInteger created = new AtomicInteger();
+        ToolPool<StringBuilder> pool = new ToolPool<StringBuilder>(2) {
+            @Override
+            protected StringBuilder create() {
+                created.incrementAndGet();
+                return new StringBuilder();
+            }
+            @Override
+            protected void reset(StringBuilder tool) {
+                tool.setLength(0);
+            }
+        };
+        StringBuilder t1 = pool.borrow();
+        t1.append("test");
+        pool.release(t1);
+        Assert.assertEquals(1, pool.getIdleCount());
+        StringBuilder t2 = pool.borrow();
+        Assert.assertSame(t1, t2);
+        Assert.assertEquals(0, t2.length());
+        StringBuilder t3 = pool.borrow();
+        StringBuilder t4 = pool.borrow();
+        Assert.assertEquals(3, created.get());
+        pool.release(t2);
+        pool.release(t3);
+        pool.release(t4); //dropped
+        Assert.assertEquals(2, pool.getIdleCount());
+    }
+}
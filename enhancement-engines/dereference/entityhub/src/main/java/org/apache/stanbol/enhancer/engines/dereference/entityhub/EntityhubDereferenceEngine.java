@@ -86,6 +86,8 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
     @Property(name=DEREFERENCE_ENTITIES_LDPATH, cardinality=Integer.MAX_VALUE),
     @Property(name=EntityhubDereferenceEngine.SHARED_THREAD_POOL_STATE,
     	boolValue=EntityhubDereferenceEngine.DEFAULT_SHARED_THREAD_POOL_STATE),
+    @Property(name=EntityhubDereferenceEngine.LDPATH_PREFETCH_STATE,
+        boolValue=EntityhubDereferenceEngine.DEFAULT_LDPATH_PREFETCH_STATE),
     @Property(name=EntityhubDereferenceEngine.THREAD_POOL_SIZE,
     	intValue=EntityhubDereferenceEngine.DEFAULT_THREAD_POOL_SIZE),
     @Property(name=SERVICE_RANKING,intValue=0)
@@ -114,6 +116,15 @@ public class EntityhubDereferenceEngine implements ServiceTrackerCustomizer {
     
     public static final int DEFAULT_THREAD_POOL_SIZE = 0;
     
+    /**
+     * If Entities referenced by values selected by the LDPath program are
+     * prefetched in batches (only supported for the Entityhub and single
+     * Sites)
+     */
+    public static final String LDPATH_PREFETCH_STATE = "enhancer.engines.dereference.entityhub.ldpath.prefetch";
+    
+    public static final boolean DEFAULT_LDPATH_PREFETCH_STATE = false;
+    
     private int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
     
     /**
@@ -230,6 +241,15 @@ public class EntityhubDereferenceEngine implements ServiceTrackerCustomizer {
         //now parse dereference field config
         entityDereferencer.setDereferencedFields(engineConfig.getDereferenceFields());
         entityDereferencer.setLdPath(engineConfig.getLdPathProgram());
+        value = properties.get(LDPATH_PREFETCH_STATE);
+        if(value instanceof Boolean){
+            entityDereferencer.setPrefetch(((Boolean)value).booleanValue());
+        } else if(value != null && !StringUtils.isBlank(value.toString())){
+            entityDereferencer.setPrefetch(Boolean.parseBoolean(value.toString()));
+        } else {
+            entityDereferencer.setPrefetch(DEFAULT_LDPATH_PREFETCH_STATE);
+        }
+        log.debug(" - LDPath prefetch state: {}", entityDereferencer.isPrefetch());
         entityDereferenceEngine = new EntityDereferenceEngine(entityDereferencer, engineConfig,
             new DereferenceContextFactory() { //we want to use our own DereferenceContext impl
                 
@@ -57,7 +57,7 @@ public final class EntityhubDereferencer extends TrackingDereferencerBase<Entity
     
     @Override
     protected RDFBackend<Object> createRdfBackend(Entityhub service) {
-        return new EntityhubBackend(service);
+        return new EntityhubBackend(service, null, isPrefetch());
     }
     
 
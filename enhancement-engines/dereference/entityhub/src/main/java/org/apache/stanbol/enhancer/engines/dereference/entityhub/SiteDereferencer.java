@@ -62,7 +62,7 @@ public final class SiteDereferencer extends TrackingDereferencerBase<Site> {
     }
     @Override
     protected RDFBackend<Object> createRdfBackend(Site service) {
-        return new SiteBackend(service);
+        return new SiteBackend(service, null, null, isPrefetch());
     }
 
 }
@@ -91,6 +91,11 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
     private NamespacePrefixService nsPrefixService;
 
     private Program<Object> ldpathProgram;
+    /**
+     * If the {@link RDFBackend} used to execute the {@link #ldpathProgram}
+     * prefetches referenced Entities in batches
+     */
+    private boolean prefetch = false;
     /**
      * Caches the {@link RDFBackend} for the last instance returned by
      * {@link #getService()}.
@@ -256,6 +261,24 @@ public abstract class TrackingDereferencerBase<T> implements EntityDereferencer
     public ValueFactory getValueFactory(){
         return valueFactory;
     }
+    /**
+     * Setter for the prefetching state of the {@link RDFBackend} used to
+     * execute the LDPath program. Needs to be set before the backend is
+     * {@link #createRdfBackend(Object) created}.
+     * @param prefetch if referenced Entities are prefetched in batches
+     * @see org.apache.stanbol.entityhub.ldpath.backend.AbstractBackend#isPrefetch()
+     */
+    public void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+    }
+    /**
+     * Getter for the prefetching state of the {@link RDFBackend} used to
+     * execute the LDPath program.
+     * @return if referenced Entities are prefetched in batches
+     */
+    public boolean isPrefetch() {
+        return prefetch;
+    }
     
     /**
      * Starts the tracking by calling {@link ServiceTracker#open()}
@@ -162,7 +162,7 @@ public class InMemoryEntityIndex implements EntitySearcher {
        }
         return resultList;
     }
-
+    
     private static final Comparator<Collection<?>> COLLECTION_SIZE_COMPARATOR = new Comparator<Collection<?>>() {
 
         @Override
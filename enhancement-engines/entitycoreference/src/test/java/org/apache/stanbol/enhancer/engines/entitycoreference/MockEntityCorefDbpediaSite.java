@@ -37,6 +37,7 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.Text;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.query.TextConstraint;
 import org.apache.stanbol.entityhub.servicesapi.site.Site;
@@ -86,6 +87,11 @@ public class MockEntityCorefDbpediaSite implements Site {
 		return null;
 	}
 
+	@Override
+	public QueryResultIterator<Representation> iterate(FieldQuery query) throws SiteException {
+		return null;
+	}
+
 	@SuppressWarnings("deprecation")
 	@Override
 	public QueryResultList<Entity> findEntities(FieldQuery query) throws SiteException {
@@ -113,6 +119,17 @@ public class MockEntityCorefDbpediaSite implements Site {
 		return entities.get(id);
 	}
 
+	@Override
+	public Iterable<Entity> getEntities(Iterable<String> ids) throws SiteException {
+		Collection<Entity> retEntities = new ArrayList<>();
+
+		for (String id : ids) {
+			retEntities.add(entities.get(id));
+		}
+
+		return retEntities;
+	}
+
 	@Override
 	public InputStream getContent(String id, String contentType) throws SiteException {
 		return null;
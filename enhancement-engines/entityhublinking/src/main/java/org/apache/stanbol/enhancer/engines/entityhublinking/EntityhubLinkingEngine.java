@@ -27,8 +27,12 @@ import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLin
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.DEREFERENCE_ENTITIES_FIELDS;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig.MIN_SEARCH_TOKEN_LENGTH;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.DEFAULT_INCLUDE_SIMILAR_SCORE;
+import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.DEFAULT_LOOKUP_CACHE_SIZE;
+import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.DEFAULT_LOOKUP_CACHE_TTL;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.ENTITY_TYPES;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.INCLUDE_SIMILAR_SCORE;
+import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.LOOKUP_CACHE_SIZE;
+import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.LOOKUP_CACHE_TTL;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.MIN_TOKEN_SCORE;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.NAME_FIELD;
 import static org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.REDIRECT_FIELD;
@@ -130,6 +134,8 @@ import org.slf4j.LoggerFactory;
     @Property(name=DEREFERENCE_ENTITIES, boolValue=DEFAULT_DEREFERENCE_ENTITIES_STATE),
     @Property(name=DEREFERENCE_ENTITIES_FIELDS,cardinality=Integer.MAX_VALUE,
     	value={"rdfs:comment","geo:lat","geo:long","foaf:depiction","dbp-ont:thumbnail"}),
+    @Property(name=LOOKUP_CACHE_SIZE, intValue=DEFAULT_LOOKUP_CACHE_SIZE),
+    @Property(name=LOOKUP_CACHE_TTL, intValue=DEFAULT_LOOKUP_CACHE_TTL),
     @Property(name=SERVICE_RANKING,intValue=0)
 })
 public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
@@ -350,6 +356,8 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
                     
                 }
                 trackedServiceCount++;
+                //cached lookups might be based on a previous version of the site
+                invalidateLookupCache();
             }
             return service;
         } else {
@@ -358,6 +366,8 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
     }
     @Override
     public void modifiedService(ServiceReference reference, Object service) {
+        //the configuration of the site (or Entityhub) has changed
+        invalidateLookupCache();
     }
     
     @Override
@@ -368,7 +378,18 @@ public class EntityhubLinkingEngine implements ServiceTrackerCustomizer {
             if(trackedServiceCount == 0 && engineRegistration != null){
                engineRegistration.unregister();
             }
+            invalidateLookupCache();
             bc.ungetService(reference);
         }
     }
+    /**
+     * Invalidates the lookup cache of the {@link #entityLinkingEngine} as
+     * the tracked Site (or the Entityhub) was added, modified or removed
+     */
+    private void invalidateLookupCache(){
+        EntityLinkingEngine engine = entityLinkingEngine;
+        if(engine != null){
+            engine.invalidateLookupCache();
+        }
+    }
 }
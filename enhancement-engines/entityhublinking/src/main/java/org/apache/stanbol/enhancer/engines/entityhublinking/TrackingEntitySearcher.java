@@ -16,10 +16,25 @@
 */
 package org.apache.stanbol.enhancer.engines.entityhublinking;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
 import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcherException;
+import org.apache.stanbol.enhancer.servicesapi.helper.DaemonThreadFactory;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Filter;
 import org.osgi.framework.InvalidSyntaxException;
@@ -28,14 +43,32 @@ import org.osgi.util.tracker.ServiceTrackerCustomizer;
 /**
  * Abstract super class for EntitySearchers that need to track the OSGI service
  * used to lookup Entities. Used by the {@link EntityhubSearcher} and the 
- * {@link ReferencedSiteSearcher} implementation
+ * {@link ReferencedSiteSearcher} implementation.<p>
+ * Also provides the {@link #lookupAll(IRI, Set, List, String[], Integer, Integer)}
+ * implementation for those searchers. As neither the
+ * {@link org.apache.stanbol.entityhub.servicesapi.site.Site Site} nor the
+ * {@link org.apache.stanbol.entityhub.servicesapi.Entityhub Entityhub}
+ * interface support multiple queries within a single
+ * request the lookups of a batch are executed concurrently (up to
+ * {@link #MAX_CONCURRENT_LOOKUPS}) so that the latency of the single
+ * requests does not add up.
  * @author Rupert Westenthaler
  *
  */
 public abstract class TrackingEntitySearcher<T> implements EntitySearcher {
     
+    /**
+     * The maximum number of lookups of a batch executed concurrently
+     */
+    protected static final int MAX_CONCURRENT_LOOKUPS = 4;
+    
     private ServiceTracker searchServiceTracker;
     protected BundleContext bundleContext; 
+    /**
+     * Executes the lookups of batches. Threads are only created if needed
+     * and are terminated when idle.
+     */
+    private final ThreadPoolExecutor lookupExecutor;
     /**
      * Creates a new instance for the parsed parameter
      * @param context the BundleContexed used to create the {@link ServiceTracker}
@@ -70,6 +103,10 @@ public abstract class TrackingEntitySearcher<T> implements EntitySearcher {
             }
             searchServiceTracker = new ServiceTracker(context, filter, customizer);
         }
+        lookupExecutor = new ThreadPoolExecutor(MAX_CONCURRENT_LOOKUPS, MAX_CONCURRENT_LOOKUPS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), 
+            new DaemonThreadFactory("EntitySearcher-" + serviceClass.getSimpleName() + "-lookup"));
+        lookupExecutor.allowCoreThreadTimeOut(true);
     }
     /**
      * Starts the tracking by calling {@link ServiceTracker#open()}
@@ -91,6 +128,78 @@ public abstract class TrackingEntitySearcher<T> implements EntitySearcher {
         }
     }
     
+    /**
+     * Performs the lookups for the parsed searches. Lookups for equal search
+     * token lists are only performed once. The first lookup is executed by
+     * the calling thread, all others are executed concurrently by using an
+     * internal thread pool.
+     */
+    @Override
+    public List<Collection<? extends Entity>> lookupAll(final IRI field, final Set<IRI> selectedFields,
+            List<List<String>> searches, final String[] languages, final Integer limit,
+            final Integer offset) throws EntitySearcherException {
+        if(searches == null){
+            throw new IllegalArgumentException("The parsed list of searches MUST NOT be NULL!");
+        }
+        //lookup every distinct search only once
+        Map<List<String>,Future<Collection<? extends Entity>>> lookups = 
+                new LinkedHashMap<List<String>,Future<Collection<? extends Entity>>>();
+        List<String> first = null;
+        for(final List<String> search : searches){
+            if(search == null || search.isEmpty()){
+                throw new IllegalArgumentException("The parsed list of searches MUST NOT "
+                    + "contain a NULL or empty search token list (searches: "+searches+")!");
+            }
+            if(first == null){
+                first = search;
+            } else if(!first.equals(search) && !lookups.containsKey(search)){
+                lookups.put(search, lookupExecutor.submit(new Callable<Collection<? extends Entity>>() {
+                    @Override
+                    public Collection<? extends Entity> call() throws Exception {
+                        return lookup(field, selectedFields, search, languages, limit, offset);
+                    }
+                }));
+            }
+        }
+        Map<List<String>,Collection<? extends Entity>> results = 
+                new LinkedHashMap<List<String>,Collection<? extends Entity>>();
+        boolean completed = false;
+        try {
+            if(first != null){
+                results.put(first, lookup(field, selectedFields, first, languages, limit, offset));
+            }
+            for(Entry<List<String>,Future<Collection<? extends Entity>>> lookup : lookups.entrySet()){
+                results.put(lookup.getKey(), lookup.getValue().get());
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EntitySearcherException("Interrupted while waiting for the results of "
+                    + "lookups for "+searches, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof EntitySearcherException){
+                throw (EntitySearcherException)cause;
+            } else if(cause instanceof RuntimeException){
+                throw (RuntimeException)cause;
+            } else if(cause instanceof Error){
+                throw (Error)cause;
+            } else {
+                throw new EntitySearcherException("Exception while looking up "+searches, cause);
+            }
+        } finally {
+            if(!completed){ //cancel pending lookups
+                for(Future<?> lookup : lookups.values()){
+                    lookup.cancel(true);
+                }
+            }
+        }
+        List<Collection<? extends Entity>> resultList = new ArrayList<Collection<? extends Entity>>(searches.size());
+        for(List<String> search : searches){
+            resultList.add(results.get(search));
+        }
+        return resultList;
+    }
     /**
      * Closes the {@link ServiceTracker} used to track the service.
      */
@@ -98,6 +207,7 @@ public abstract class TrackingEntitySearcher<T> implements EntitySearcher {
         searchServiceTracker.close();
         searchServiceTracker = null;
         bundleContext = null;
+        lookupExecutor.shutdownNow();
     }
     @Override
     protected void finalize() throws Throwable {
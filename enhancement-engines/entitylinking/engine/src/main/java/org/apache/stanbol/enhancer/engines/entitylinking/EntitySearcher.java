@@ -16,6 +16,7 @@
 */
 package org.apache.stanbol.enhancer.engines.entitylinking;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +55,54 @@ public interface EntitySearcher {
     Collection<? extends Entity> lookup(IRI field, Set<IRI> selectedFields, 
         List<String> search, String[] languages, Integer limit, Integer offset) 
                 throws EntitySearcherException;
+    /**
+     * Lookup Entities for multiple search token lists at once. This allows
+     * implementations to reduce the number of requests (or to execute them
+     * concurrently) if Entities for several positions in a text need to be
+     * searched for. Results MUST BE the same as if 
+     * {@link #lookup(IRI, Set, List, String[], Integer, Integer)} would be
+     * called for every parsed search token list.<p>
+     * The default implementation calls
+     * {@link #lookup(IRI, Set, List, String[], Integer, Integer)} for every
+     * search token list. Implementations that can batch requests SHOULD
+     * override this method.
+     * @param field the field used to search for values in the parsed languages
+     * @param selectedFields A set of fields that need to be included within the 
+     * returned {@link Representation}. The parsed field needs also to be included
+     * even if missing in this set. If <code>null</code> only the field needs
+     * to be included. Other fields MAY also be included.
+     * @param searches the search token lists. MUST NOT be <code>null</code>
+     * nor contain <code>null</code> or empty lists.
+     * @param languages the languages to include in the search 
+     * @param limit The maximum number of results per search token list or 
+     * <code>null</code> to use the default
+     * @param offset The offset of the first requested search result
+     * @return the Entities found for the parsed search token lists. The
+     * returned list has the same size and order as the parsed list of searches
+     * @throws EntitySearcherException An exception while searching for concepts
+     * @throws IllegalArgumentException if the parsed field is <code>null</code>;
+     * the list with the searches is <code>null</code> or contains a
+     * <code>null</code> or empty search token list.
+     */
+    default List<Collection<? extends Entity>> lookupAll(IRI field, Set<IRI> selectedFields, 
+        List<List<String>> searches, String[] languages, Integer limit, Integer offset) 
+                throws EntitySearcherException {
+        if(field == null){
+            throw new IllegalArgumentException("The parsed field MUST NOT be NULL!");
+        }
+        if(searches == null){
+            throw new IllegalArgumentException("The parsed searches MUST NOT be NULL!");
+        }
+        List<Collection<? extends Entity>> results = new ArrayList<Collection<? extends Entity>>(searches.size());
+        for(List<String> search : searches){
+            if(search == null || search.isEmpty()){
+                throw new IllegalArgumentException("The parsed searches MUST NOT contain "
+                    + "NULL nor empty search token lists (searches: " + searches + ")!");
+            }
+            results.add(lookup(field, selectedFields, search, languages, limit, offset));
+        }
+        return results;
+    }
     /**
      * Lookup an Entity of the linked vocabulary by the id.
      * @param id the id
@@ -34,6 +34,7 @@ import org.apache.stanbol.commons.namespaceprefix.NamespaceMappingUtils;
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
 import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.EntityLinker;
+import org.apache.stanbol.enhancer.engines.entitylinking.impl.EntityLookupCache;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.Suggestion;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.Suggestion.MATCH;
 import org.apache.stanbol.enhancer.nlp.NlpAnnotations;
@@ -222,6 +223,27 @@ public class EntityLinkerConfig {
      * property to <code>fise:EntityAnnotation</code> created by the linking engine.
      */
     public static final String WRITE_ENTITY_RANKINGS = "enhancer.engines.linking.writeEntityRankings";
+    /**
+     * Allows to enable/disable batch lookups. If enabled the search tokens
+     * for all linkable tokens of a section (e.g. a sentence) are collected
+     * and looked up in a single batch request (see
+     * {@link EntitySearcher#lookupAll(IRI, java.util.Set, List, String[], Integer, Integer)})
+     * before the tokens of the section are processed.
+     */
+    public static final String BATCH_LOOKUPS = "enhancer.engines.linking.batchLookups";
+    /**
+     * The maximum number of lookups cached by the {@link EntityLookupCache}
+     * shared by all requests processed by an engine. Set to <code>0</code> to
+     * deactivate the shared cache. Lookups are still cached for the
+     * processing of a single content item.
+     */
+    public static final String LOOKUP_CACHE_SIZE = "enhancer.engines.linking.lookupCache.size";
+    /**
+     * The maximum time (in seconds) lookup results are kept in the
+     * shared {@link EntityLookupCache}. Values <code>&lt;= 0</code> deactivate
+     * the expiration of cached lookups.
+     */
+    public static final String LOOKUP_CACHE_TTL = "enhancer.engines.linking.lookupCache.ttl";
 
     
     /**
@@ -478,6 +500,18 @@ public class EntityLinkerConfig {
      * <code>fise:EntityAnnotation</code>.
      */
     public static final boolean DEFAULT_WRITE_ENTITY_RANKINGS = false;
+    /**
+     * By default lookups are batched on a section level
+     */
+    public static final boolean DEFAULT_BATCH_LOOKUPS = true;
+    /**
+     * By default up to 10000 lookups are cached
+     */
+    public static final int DEFAULT_LOOKUP_CACHE_SIZE = 10000;
+    /**
+     * By default cached lookups expire after 10 minutes
+     */
+    public static final int DEFAULT_LOOKUP_CACHE_TTL = 600;
     
     /**
      * If Tokens match is determined by comparing them using some algorithm.
@@ -504,6 +538,12 @@ public class EntityLinkerConfig {
     private boolean rankEqualScoresBasedOnEntityRankings = DEFAULT_RANK_EQUAL_SCORES_BASED_ON_ENTITY_RANKINGS;
 
     private boolean writeEntityRankings = DEFAULT_WRITE_ENTITY_RANKINGS;
+
+    private boolean batchLookups = DEFAULT_BATCH_LOOKUPS;
+
+    private int lookupCacheSize = DEFAULT_LOOKUP_CACHE_SIZE;
+
+    private int lookupCacheTtl = DEFAULT_LOOKUP_CACHE_TTL;
     
     /**
      * Default constructor the initializes the configuration with the 
@@ -932,6 +972,44 @@ public class EntityLinkerConfig {
         } else {
             linkerConfig.setWriteEntityRankings(DEFAULT_WRITE_ENTITY_RANKINGS);
         }
+        //init BATCH LOOKUPS
+        value = configuration.get(BATCH_LOOKUPS);
+        if(value instanceof Boolean){
+            linkerConfig.setBatchLookups(((Boolean)value).booleanValue());
+        } else if (value != null){
+            linkerConfig.setBatchLookups(Boolean.parseBoolean(value.toString()));
+        } else {
+            linkerConfig.setBatchLookups(DEFAULT_BATCH_LOOKUPS);
+        }
+        //init LOOKUP CACHE SIZE
+        value = configuration.get(LOOKUP_CACHE_SIZE);
+        if(value instanceof Number){
+            linkerConfig.setLookupCacheSize(((Number)value).intValue());
+        } else if (value != null && !value.toString().isEmpty()){
+            try {
+                linkerConfig.setLookupCacheSize(Integer.valueOf(value.toString()));
+            } catch(NumberFormatException e){
+                throw new ConfigurationException(LOOKUP_CACHE_SIZE, "Values MUST be valid Integer values >= 0",e);
+            }
+        } else {
+            linkerConfig.setLookupCacheSize(null);
+        }
+        if(linkerConfig.getLookupCacheSize() < 0){
+            throw new ConfigurationException(LOOKUP_CACHE_SIZE, "Values MUST be valid Integer values >= 0");
+        }
+        //init LOOKUP CACHE TTL
+        value = configuration.get(LOOKUP_CACHE_TTL);
+        if(value instanceof Number){
+            linkerConfig.setLookupCacheTtl(((Number)value).intValue());
+        } else if (value != null && !value.toString().isEmpty()){
+            try {
+                linkerConfig.setLookupCacheTtl(Integer.valueOf(value.toString()));
+            } catch(NumberFormatException e){
+                throw new ConfigurationException(LOOKUP_CACHE_TTL, "Values MUST be valid Integer values",e);
+            }
+        } else {
+            linkerConfig.setLookupCacheTtl(null);
+        }
         
         //init the list of whitelisted/blacklisted types
         value = configuration.get(ENTITY_TYPES);
@@ -1563,6 +1641,68 @@ public class EntityLinkerConfig {
             this.writeEntityRankings = writeEntityRankings;
         }
     }
+    /**
+     * Getter for the state if lookups for all linkable tokens of a section
+     * are performed as a batch before processing the section.
+     * @return the batch lookup state
+     */
+    public boolean isBatchLookups() {
+        return batchLookups;
+    }
+    /**
+     * Setter for the {@link #BATCH_LOOKUPS} state.
+     * @param batchLookups the state. Parse <code>null</code> to set
+     * to the default
+     */
+    public void setBatchLookups(Boolean batchLookups) {
+        if(batchLookups == null){
+            this.batchLookups = DEFAULT_BATCH_LOOKUPS;
+        } else {
+            this.batchLookups = batchLookups;
+        }
+    }
+    /**
+     * Getter for the maximum number of lookups cached by the
+     * {@link EntityLookupCache} shared by all requests of an engine.
+     * @return the size of the shared lookup cache. <code>0</code> if
+     * deactivated
+     */
+    public int getLookupCacheSize() {
+        return lookupCacheSize;
+    }
+    /**
+     * Setter for the {@link #LOOKUP_CACHE_SIZE}
+     * @param lookupCacheSize the size. Parse <code>null</code> to set
+     * to the default. Values &lt;= 0 deactivate the shared cache.
+     */
+    public void setLookupCacheSize(Integer lookupCacheSize) {
+        if(lookupCacheSize == null){
+            this.lookupCacheSize = DEFAULT_LOOKUP_CACHE_SIZE;
+        } else {
+            this.lookupCacheSize = lookupCacheSize;
+        }
+    }
+    /**
+     * Getter for the time in seconds lookups are kept in the shared
+     * {@link EntityLookupCache}.
+     * @return the time to live in seconds. Values &lt;= 0 indicate that
+     * cached lookups do not expire.
+     */
+    public int getLookupCacheTtl() {
+        return lookupCacheTtl;
+    }
+    /**
+     * Setter for the {@link #LOOKUP_CACHE_TTL}
+     * @param lookupCacheTtl the time to live in seconds. Parse 
+     * <code>null</code> to set to the default.
+     */
+    public void setLookupCacheTtl(Integer lookupCacheTtl) {
+        if(lookupCacheTtl == null){
+            this.lookupCacheTtl = DEFAULT_LOOKUP_CACHE_TTL;
+        } else {
+            this.lookupCacheTtl = lookupCacheTtl;
+        }
+    }
     
     
     /**
@@ -33,6 +33,7 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.clerezza.commons.rdf.Language;
 import org.apache.clerezza.commons.rdf.Literal;
@@ -57,6 +58,7 @@ import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConf
 import org.apache.stanbol.enhancer.engines.entitylinking.config.LanguageProcessingConfig;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.EntityLinker;
+import org.apache.stanbol.enhancer.engines.entitylinking.impl.EntityLookupCache;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.LinkedEntity;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.LinkedEntity.Occurrence;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.Suggestion;
@@ -122,6 +124,11 @@ public class EntityLinkingEngine implements EnhancementEngine, ServiceProperties
      * The text processing configuration
      */
     protected final  TextProcessingConfig textProcessingConfig;
+    /**
+     * The lookup cache shared by all {@link EntityLinker} instances of this
+     * engine. <code>null</code> if deactivated.
+     */
+    private final EntityLookupCache lookupCache;
     /**
      * The literalFactory used to create typed literals
      */
@@ -187,6 +194,27 @@ public class EntityLinkingEngine implements EnhancementEngine, ServiceProperties
         this.textProcessingConfig = textProcessingConfig;
         this.entitySearcher = entitySearcher;
         this.labelTokenizer = labelTokenizer;
+        this.lookupCache = this.linkerConfig.getLookupCacheSize() > 0 ? 
+                new EntityLookupCache(this.linkerConfig.getLookupCacheSize(), 
+                    this.linkerConfig.getLookupCacheTtl(), TimeUnit.SECONDS) : null;
+    }
+    /**
+     * Getter for the lookup cache shared by all requests processed by this
+     * engine.
+     * @return the lookup cache or <code>null</code> if deactivated
+     */
+    public final EntityLookupCache getLookupCache() {
+        return lookupCache;
+    }
+    /**
+     * Invalidates the {@link #getLookupCache() shared lookup cache}. Needs to
+     * be called if the data used by the {@link EntitySearcher} changes.
+     */
+    public final void invalidateLookupCache() {
+        if(lookupCache != null){
+            log.debug("invalidate lookup cache of Engine '{}' ({})",name,lookupCache);
+            lookupCache.invalidate();
+        }
     }
     /**
      * Getter for the {@link LabelTokenizer} used by this Engine
@@ -258,7 +286,7 @@ public class EntityLinkingEngine implements EnhancementEngine, ServiceProperties
                     + "EnhanceemntJobManager implementation!");
         }
         EntityLinker entityLinker = new EntityLinker(at,language, 
-            languageConfig, entitySearcher, linkerConfig, labelTokenizer);
+            languageConfig, entitySearcher, linkerConfig, labelTokenizer, null, lookupCache);
         //process
         try {
             entityLinker.process();
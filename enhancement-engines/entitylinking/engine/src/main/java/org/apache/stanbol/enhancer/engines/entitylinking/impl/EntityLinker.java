@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
@@ -36,6 +37,7 @@ import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.commons.rdf.Literal;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
 import org.apache.commons.lang.StringUtils;
 import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
 import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
@@ -97,6 +99,25 @@ public class EntityLinker {
     private long processingTime = -1;
 
     private Map<List<String>,List<Entity>> lookupCache;
+    /**
+     * The cache shared by all linkers of an engine (might be <code>null</code>)
+     */
+    private final EntityLookupCache sharedLookupCache;
+    /**
+     * The generation of the {@link #sharedLookupCache} when this linker was
+     * created. Used to ignore lookups after the cache was invalidated.
+     */
+    private final int sharedLookupCacheGeneration;
+    private int sharedCacheHits = 0;
+    /**
+     * Results of batch lookups for the current section. Those are the
+     * results of the first request for the search strings
+     * @see #prefetchLookups()
+     */
+    private final Map<List<String>,Collection<? extends Entity>> prefetchedLookups = 
+            new HashMap<List<String>,Collection<? extends Entity>>();
+    private int numPrefetched = 0;
+    private int prefetchHits = 0;
 
 
     public EntityLinker(AnalysedText analysedText, String language,
@@ -111,8 +132,27 @@ public class EntityLinker {
                 EntitySearcher entitySearcher,
                 EntityLinkerConfig linkerConfig,
                 LabelTokenizer labelTokenizer, LinkingStateAware linkingStateAware) {
+        this(analysedText,language,textProcessingConfig,entitySearcher,linkerConfig,
+            labelTokenizer,linkingStateAware,null);
+    }
+    /**
+     * Creates a linker that uses in addition to the lookup cache for the
+     * processed text the parsed {@link EntityLookupCache} shared by all
+     * linkers of an engine.
+     * @param sharedLookupCache the shared lookup cache or <code>null</code>
+     * if none
+     */
+    public EntityLinker(AnalysedText analysedText, String language,
+                LanguageProcessingConfig textProcessingConfig,
+                EntitySearcher entitySearcher,
+                EntityLinkerConfig linkerConfig,
+                LabelTokenizer labelTokenizer, LinkingStateAware linkingStateAware,
+                EntityLookupCache sharedLookupCache) {
         //this.analysedText = analysedText;
         this.lookupCache = new HashMap<List<String>,List<Entity>>();
+        this.sharedLookupCache = sharedLookupCache;
+        this.sharedLookupCacheGeneration = sharedLookupCache == null ? -1 :
+            sharedLookupCache.getGeneration();
         this.entitySearcher = entitySearcher;
         this.linkerConfig = linkerConfig;
         this.textProcessingConfig = textProcessingConfig;
@@ -140,6 +180,7 @@ public class EntityLinker {
         long startTime = System.currentTimeMillis();
         //int debugedIndex = 0;
         Section sentence = null;
+        Section prefetchedSection = null;
         textProcessingStats.begin();
         while(state.next()) {
             //STANBOL-1070: added linkingStateAware callbacks for components that
@@ -161,104 +202,13 @@ public class EntityLinker {
                         token.isLinkable, token.isMatchable, token.inChunk != null ? 
                                 (token.inChunk.chunk + " "+ token.inChunk.chunk.getSpan()) : "none"});
             }
-            List<TokenData> searchStrings = new ArrayList<TokenData>(linkerConfig.getMaxSearchTokens());
-            getSearchString(token);
-            searchStrings.add(token);
-            //Determine the range we are allowed to search for tokens
-            final int minIncludeIndex;
-            final int maxIndcludeIndex;
-            int consumedIndex = state.getConsumedIndex();
-            //NOTE: testing has shown that using Chunks to restrict search for
-            //      additional matchable tokens does have an negative impact on
-            //      recall. Because of that this restriction is for now deactivated
-//            if(token.inChunk != null && !textProcessingConfig.isIgnoreChunks()){
-//                minIncludeIndex = token.inChunk.getStartTokenIndex();
-//                maxIndcludeIndex = token.inChunk.getEndTokenIndex();
-//                log.debug("  - restrict context to chunk[{}, {}]",
-//                    minIncludeIndex, maxIndcludeIndex);
-//            } else {
-                maxIndcludeIndex = state.getTokens().size() - 1;
-                minIncludeIndex = 0;
-//            }
-            int prevIndex = token.index;
-            int pastIndex = token.index;
-            int pastNonMatchable = 0;
-            int prevNonMatchable = 0;
-            int distance = 0;
-            do { 
-                distance++;//keep track of the distance
-                //get the past token at the given distance (However ignore
-                //non AlphaNumeric tokens when calculating the distance)
-                pastIndex++;
-                TokenData pastToken = null;
-                while(pastToken == null && maxIndcludeIndex >= pastIndex &&
-                        pastNonMatchable <= 1){
-                    TokenData td = state.getTokens().get(pastIndex);
-                    if(td.hasAlphaNumeric){
-                        pastToken = td;
-                    } else {
-                        pastIndex++;
-                    }
-                }
-                //get the previous token at the given distance (However ignore
-                //non AlphaNumeric tokens when calculating the distance)
-                prevIndex--;
-                TokenData prevToken = null;
-                while(prevToken == null && minIncludeIndex <= prevIndex &&
-                        //allow one nonMatchable token if prevIndex > the last
-                        //consumed one and zero nonMatchable if prevIndex is <=
-                        //the last consumed one
-                        ((prevIndex > consumedIndex && prevNonMatchable <= 1) ||
-                                prevIndex <= consumedIndex && prevNonMatchable < 1)){
-                    TokenData td = state.getTokens().get(prevIndex);
-                    if(td.hasAlphaNumeric){
-                        prevToken = td;
-                    } else {
-                        prevIndex--;
-                    }
-                }
-                //now that we know the tokens at this distance check if they are matchable
-                //Fist the past token
-                if(pastToken != null){
-                    if(log.isDebugEnabled()){
-                        log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
-                                pastToken.isMatchable? '+':'-',pastToken.index,
-                                pastToken.getTokenText(), pastToken.getTokenLemma(),
-                                pastToken.isLinkable, pastToken.isMatchable
-                        });
-                    }
-                    if(pastToken.isMatchable){
-                        searchStrings.add(pastToken);
-                    } else {
-                        pastNonMatchable++;
-                    }
-                }
-                //Second in the previous token
-                if(prevToken != null){
-                    if(log.isDebugEnabled()){
-                        log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
-                            prevToken.isMatchable? '+':'-',prevToken.index,
-                            prevToken.getTokenText(), prevToken.getTokenLemma(),
-                            prevToken.isLinkable, prevToken.isMatchable
-                        });
-                    }
-                    if(prevToken.isMatchable){
-                        getSearchString(prevToken);
-                        searchStrings.add(0,prevToken);
-                    } else {
-                        prevNonMatchable++;
-                    }
-                }
-            } while(searchStrings.size() < linkerConfig.getMaxSearchTokens() && distance <
-                    linkerConfig.getMaxSearchDistance() &&
-                    (prevIndex > minIncludeIndex || pastIndex < maxIndcludeIndex) &&
-                    (prevNonMatchable <= 1 || pastNonMatchable <= 1));
-            //we might have an additional element in the list
-            if(searchStrings.size() > linkerConfig.getMaxSearchTokens()){
-                searchStrings = searchStrings.subList( //the last part of the list
-                    searchStrings.size()-linkerConfig.getMaxSearchTokens(), 
-                    searchStrings.size());
+            if(linkerConfig.isBatchLookups() && !state.getSentence().equals(prefetchedSection)){
+                prefetchedSection = state.getSentence();
+                textProcessingStats.complete();
+                prefetchLookups();
+                textProcessingStats.begin();
             }
+            List<TokenData> searchStrings = getSearchTokens(token, state.getConsumedIndex(), true);
             if(log.isDebugEnabled()){
                 List<String> list = new ArrayList<String>(searchStrings.size());
                 for(TokenData dt : searchStrings){
@@ -406,6 +356,162 @@ public class EntityLinker {
         }
         this.processingTime = System.currentTimeMillis()-startTime;
     }
+    /**
+     * Collects the {@link TokenData tokens} used to search Entities for the
+     * parsed token. Those are the parsed token and matchable tokens within
+     * the {@link EntityLinkerConfig#getMaxSearchDistance() max search distance}.
+     * @param token the token
+     * @param consumedIndex the index of the last consumed token of the current
+     * section
+     * @param debug if debug level logging is enabled for this call
+     * @return the search tokens
+     */
+    private List<TokenData> getSearchTokens(TokenData token, int consumedIndex, boolean debug) {
+        List<TokenData> searchStrings = new ArrayList<TokenData>(linkerConfig.getMaxSearchTokens());
+        getSearchString(token);
+        searchStrings.add(token);
+        //Determine the range we are allowed to search for tokens
+        final int minIncludeIndex;
+        final int maxIndcludeIndex;
+        //NOTE: testing has shown that using Chunks to restrict search for
+        //      additional matchable tokens does have an negative impact on
+        //      recall. Because of that this restriction is for now deactivated
+//            if(token.inChunk != null && !textProcessingConfig.isIgnoreChunks()){
+//                minIncludeIndex = token.inChunk.getStartTokenIndex();
+//                maxIndcludeIndex = token.inChunk.getEndTokenIndex();
+//                log.debug("  - restrict context to chunk[{}, {}]",
+//                    minIncludeIndex, maxIndcludeIndex);
+//            } else {
+            maxIndcludeIndex = state.getTokens().size() - 1;
+            minIncludeIndex = 0;
+//            }
+        int prevIndex = token.index;
+        int pastIndex = token.index;
+        int pastNonMatchable = 0;
+        int prevNonMatchable = 0;
+        int distance = 0;
+        do { 
+            distance++;//keep track of the distance
+            //get the past token at the given distance (However ignore
+            //non AlphaNumeric tokens when calculating the distance)
+            pastIndex++;
+            TokenData pastToken = null;
+            while(pastToken == null && maxIndcludeIndex >= pastIndex &&
+                    pastNonMatchable <= 1){
+                TokenData td = state.getTokens().get(pastIndex);
+                if(td.hasAlphaNumeric){
+                    pastToken = td;
+                } else {
+                    pastIndex++;
+                }
+            }
+            //get the previous token at the given distance (However ignore
+            //non AlphaNumeric tokens when calculating the distance)
+            prevIndex--;
+            TokenData prevToken = null;
+            while(prevToken == null && minIncludeIndex <= prevIndex &&
+                    //allow one nonMatchable token if prevIndex > the last
+                    //consumed one and zero nonMatchable if prevIndex is <=
+                    //the last consumed one
+                    ((prevIndex > consumedIndex && prevNonMatchable <= 1) ||
+                            prevIndex <= consumedIndex && prevNonMatchable < 1)){
+                TokenData td = state.getTokens().get(prevIndex);
+                if(td.hasAlphaNumeric){
+                    prevToken = td;
+                } else {
+                    prevIndex--;
+                }
+            }
+            //now that we know the tokens at this distance check if they are matchable
+            //Fist the past token
+            if(pastToken != null){
+                if(debug && log.isDebugEnabled()){
+                    log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
+                            pastToken.isMatchable? '+':'-',pastToken.index,
+                            pastToken.getTokenText(), pastToken.getTokenLemma(),
+                            pastToken.isLinkable, pastToken.isMatchable
+                    });
+                }
+                if(pastToken.isMatchable){
+                    searchStrings.add(pastToken);
+                } else {
+                    pastNonMatchable++;
+                }
+            }
+            //Second in the previous token
+            if(prevToken != null){
+                if(debug && log.isDebugEnabled()){
+                    log.debug("    {} {}:'{}' (lemma: {}) linkable={}, matchable={}",new Object[]{
+                        prevToken.isMatchable? '+':'-',prevToken.index,
+                        prevToken.getTokenText(), prevToken.getTokenLemma(),
+                        prevToken.isLinkable, prevToken.isMatchable
+                    });
+                }
+                if(prevToken.isMatchable){
+                    getSearchString(prevToken);
+                    searchStrings.add(0,prevToken);
+                } else {
+                    prevNonMatchable++;
+                }
+            }
+        } while(searchStrings.size() < linkerConfig.getMaxSearchTokens() && distance <
+                linkerConfig.getMaxSearchDistance() &&
+                (prevIndex > minIncludeIndex || pastIndex < maxIndcludeIndex) &&
+                (prevNonMatchable <= 1 || pastNonMatchable <= 1));
+        //we might have an additional element in the list
+        if(searchStrings.size() > linkerConfig.getMaxSearchTokens()){
+            searchStrings = searchStrings.subList( //the last part of the list
+                searchStrings.size()-linkerConfig.getMaxSearchTokens(), 
+                searchStrings.size());
+        }
+        return searchStrings;
+    }
+    /**
+     * Collects the search tokens for all not yet consumed linkable tokens of
+     * the current section and looks up Entities for all of them by using
+     * {@link EntitySearcher#lookupAll(IRI, Set, List, String[], Integer, Integer)}.
+     * The results are stored in {@link #prefetchedLookups} and used by
+     * {@link #performLookup(List, String[], List, List, List)} instead of
+     * requesting the first page of results for those search strings.<p>
+     * As processing a token may consume tokens following it, some of the
+     * prefetched results might not be used.
+     * @throws EntitySearcherException on any error while searching Entities
+     */
+    private void prefetchLookups() throws EntitySearcherException {
+        prefetchedLookups.clear();
+        //group the searches by the number of tokens as the lookup limit
+        //depends on it
+        Map<Integer,List<List<String>>> searches = new TreeMap<Integer,List<List<String>>>();
+        Set<List<String>> added = new HashSet<List<String>>();
+        int consumedIndex = state.getConsumedIndex();
+        String[] languageArray = getLookupLanguages();
+        for(TokenData token : state.getTokens()){
+            if(token.isLinkable && token.index > consumedIndex){
+                List<String> searchStrings = getSearchStrings(getSearchTokens(token, consumedIndex, false));
+                if(!isCached(searchStrings, languageArray) && added.add(searchStrings)){
+                    List<List<String>> sizeGroup = searches.get(searchStrings.size());
+                    if(sizeGroup == null){
+                        sizeGroup = new ArrayList<List<String>>();
+                        searches.put(searchStrings.size(), sizeGroup);
+                    }
+                    sizeGroup.add(searchStrings);
+                }
+            }
+        }
+        for(Entry<Integer,List<List<String>>> sizeGroup : searches.entrySet()){
+            List<List<String>> groupSearches = sizeGroup.getValue();
+            log.debug("   > prefetch entities for {} searches ...", groupSearches.size());
+            lookupStats.begin(); //keep statistics
+            List<Collection<? extends Entity>> results = entitySearcher.lookupAll(
+                linkerConfig.getNameField(), linkerConfig.getSelectedFields(), 
+                groupSearches, languageArray, getLookupLimit(sizeGroup.getKey()), 0);
+            lookupStats.complete();
+            for(int i = 0; i < groupSearches.size(); i++){
+                prefetchedLookups.put(groupSearches.get(i), results.get(i));
+            }
+        }
+        numPrefetched = numPrefetched + prefetchedLookups.size();
+    }
     /**
      * @param suggestions
      */
@@ -540,11 +646,13 @@ public class EntityLinker {
         if(suggestion.isRedirectedProcessed()){
             return; //Redirects for ResultMatch are already processed ... ignore
         }
-        Entity result = suggestion.getResult();
+        final Entity result = suggestion.getResult();
         Iterator<IRI> redirects = result.getReferences(linkerConfig.getRedirectField());
         switch (linkerConfig.getRedirectProcessingMode()) {
             case ADD_VALUES:
-                Graph entityData = result.getData();
+                //the result might be shared with other requests (e.g. by the
+                //EntityLookupCache) so values are added to a copy of its data
+                Graph entityData = null;
                 IRI entityUri = result.getUri();
                 while(redirects.hasNext()){
                     IRI redirect = redirects.next();
@@ -552,6 +660,9 @@ public class EntityLinker {
                         Entity redirectedEntity = entitySearcher.get(redirect,
                             linkerConfig.getSelectedFields());
                         if(redirectedEntity != null){
+                            if(entityData == null){
+                                entityData = new SimpleGraph(result.getData());
+                            }
                             for(Iterator<Triple> data = redirectedEntity.getData().filter(
                                 redirectedEntity.getUri(), null, null);data.hasNext();){
                                 Triple t = data.next();
@@ -562,6 +673,14 @@ public class EntityLinker {
                         suggestion.setRedirectProcessed(true);
                     }
                 }
+                if(entityData != null){
+                    suggestion.setResult(new Entity(entityUri, entityData){
+                        @Override
+                        public Float getEntityRanking() {
+                            return result.getEntityRanking();
+                        }
+                    });
+                }
             case FOLLOW:
                 while(redirects.hasNext()){
                     IRI redirect = redirects.next();
@@ -587,21 +706,11 @@ public class EntityLinker {
      * @throws EntitySearcherException 
      */
     private List<Suggestion> lookupEntities(List<TokenData> searchTokens) throws EntitySearcherException {
-        Set<String> languages = new HashSet<String>();
-        languages.add(linkerConfig.getDefaultLanguage());
-        languages.add(state.getLanguage());
-        int countryCodeIndex = state.getLanguage() == null ? -1 : state.getLanguage().indexOf('-');
-        if(countryCodeIndex >= 2){
-            languages.add(state.getLanguage().substring(0,countryCodeIndex));
-        }
-        List<String> searchStrings = new ArrayList<String>(searchTokens.size());
-        for(Iterator<TokenData> it = searchTokens.iterator();it.hasNext();){
-            searchStrings.add(getSearchString(it.next()));
-        }
-        String[] languageArray = languages.toArray(new String[languages.size()]);
+        List<String> searchStrings = getSearchStrings(searchTokens);
+        String[] languageArray = getLookupLanguages();
         List<Suggestion> suggestions = new ArrayList<Suggestion>();
         //check if we have the search strings in the cache
-        List<Entity> results = lookupCache.get(searchStrings);
+        List<Entity> results = getCachedLookup(searchStrings, languageArray);
         if(results != null){ //query is cached
             cacheHits++;
             //match the cached results
@@ -613,7 +722,7 @@ public class EntityLinker {
             //perform the lookup with the parsed parameter
             int numResults = performLookup(searchStrings, languageArray, suggestions, searchTokens, results);
             //cache the results
-            lookupCache.put(searchStrings, results);
+            cacheLookup(searchStrings, languageArray, results);
             //if no match where found in the result .. fallback to a search for the
             //current token
             if(suggestions.isEmpty() && numResults > 0 && searchStrings.size() > 1){
@@ -623,7 +732,7 @@ public class EntityLinker {
                 log.debug("   > No match for '{}' searchStrings ... ", searchStrings);
                 searchStrings = Collections.singletonList(getSearchString(state.getToken()));
                 searchTokens = Collections.singletonList(state.getToken());
-                results = lookupCache.get(searchStrings);
+                results = getCachedLookup(searchStrings, languageArray);
                 if(results != null){ //query is cached
                     cacheHits++;
                     //match the cached results
@@ -635,7 +744,7 @@ public class EntityLinker {
                     log.debug("     ... fallback to search for active token '{}' ...",searchStrings);
                     performLookup(searchStrings, languageArray, suggestions, searchTokens, results);
                     //cache the results of the fall-back query
-                    lookupCache.put(searchStrings, results);
+                    cacheLookup(searchStrings, languageArray, results);
                 }
             }
         }
@@ -645,6 +754,91 @@ public class EntityLinker {
         }
         return suggestions;
     }
+    /**
+     * Checks if a lookup is cached by the lookup cache of this linker or
+     * the {@link #sharedLookupCache}. Lookups found in the shared cache are
+     * added to the cache of this linker.
+     * @param searchStrings the search strings
+     * @param languageArray the languages
+     * @return <code>true</code> if the lookup is cached
+     */
+    private boolean isCached(List<String> searchStrings, String[] languageArray){
+        if(lookupCache.containsKey(searchStrings)){
+            return true;
+        }
+        if(sharedLookupCache != null){
+            List<Entity> results = sharedLookupCache.get(searchStrings, languageArray,
+                linkerConfig.getNameField(), linkerConfig.getSelectedFields());
+            if(results != null){
+                sharedCacheHits++;
+                lookupCache.put(searchStrings, results);
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Getter for cached lookup results. Checks the lookup cache of this
+     * linker and the {@link #sharedLookupCache}.
+     * @param searchStrings the search strings
+     * @param languageArray the languages
+     * @return the cached results or <code>null</code> if not cached
+     */
+    private List<Entity> getCachedLookup(List<String> searchStrings, String[] languageArray){
+        if(isCached(searchStrings, languageArray)){
+            return lookupCache.get(searchStrings);
+        } else {
+            return null;
+        }
+    }
+    /**
+     * Adds the results of a lookup to the lookup cache of this linker and
+     * the {@link #sharedLookupCache}
+     * @param searchStrings the search strings
+     * @param languageArray the languages
+     * @param results the results of the lookup
+     */
+    private void cacheLookup(List<String> searchStrings, String[] languageArray, List<Entity> results){
+        lookupCache.put(searchStrings, results);
+        if(sharedLookupCache != null){
+            sharedLookupCache.put(searchStrings, languageArray, linkerConfig.getNameField(),
+                linkerConfig.getSelectedFields(), results, sharedLookupCacheGeneration);
+        }
+    }
+    /**
+     * Getter for the search strings of the parsed search tokens
+     * @param searchTokens the search tokens
+     * @return the search strings
+     */
+    private List<String> getSearchStrings(List<TokenData> searchTokens) {
+        List<String> searchStrings = new ArrayList<String>(searchTokens.size());
+        for(Iterator<TokenData> it = searchTokens.iterator();it.hasNext();){
+            searchStrings.add(getSearchString(it.next()));
+        }
+        return searchStrings;
+    }
+    /**
+     * Getter for the languages used for lookups
+     * @return the languages
+     */
+    private String[] getLookupLanguages() {
+        Set<String> languages = new HashSet<String>();
+        languages.add(linkerConfig.getDefaultLanguage());
+        languages.add(state.getLanguage());
+        int countryCodeIndex = state.getLanguage() == null ? -1 : state.getLanguage().indexOf('-');
+        if(countryCodeIndex >= 2){
+            languages.add(state.getLanguage().substring(0,countryCodeIndex));
+        }
+        return languages.toArray(new String[languages.size()]);
+    }
+    /**
+     * The number of results requested by a lookup
+     * @param numSearchTokens the number of search tokens
+     * @return the lookup limit
+     */
+    private int getLookupLimit(int numSearchTokens) {
+        return Math.max(MIN_SEARCH_LIMIT, linkerConfig.getMaxSuggestions()*2*numSearchTokens);
+    }
     /**
      * @param searchStrings
      * @param languageArray
@@ -661,7 +855,7 @@ public class EntityLinker {
             List<Suggestion> suggestions, List<TokenData> searchTokens, 
             List<Entity> queryResults) throws EntitySearcherException {
         int minProcessedResults = linkerConfig.getMaxSuggestions()*3;
-        int lookupLimit = Math.max(MIN_SEARCH_LIMIT, linkerConfig.getMaxSuggestions()*2*searchTokens.size());
+        int lookupLimit = getLookupLimit(searchTokens.size());
         int maxResults = lookupLimit*2;
         int offset = 0;
         int numFiltered = 0;
@@ -680,13 +874,20 @@ public class EntityLinker {
         while(suggestions.size() < linkerConfig.getMaxSuggestions() &&
                 moreResultsAvailable && (numResults-numFiltered) < (minProcessedResults) &&
                 numResults < maxResults){
-            Collection<? extends Entity> results;
-            log.debug("   > request entities [{}-{}] entities ...",offset,(offset+lookupLimit));
-            lookupStats.begin(); //keep statistics
-            results = entitySearcher.lookup(linkerConfig.getNameField(),
-                linkerConfig.getSelectedFields(), searchStrings, languageArray,
-                lookupLimit, offset);
-            lookupStats.complete();
+            //the first request might already be prefetched
+            Collection<? extends Entity> results = offset == 0 ? 
+                    prefetchedLookups.remove(searchStrings) : null;
+            if(results != null){
+                log.debug("   > use prefetched entities [{}-{}] ...",offset,(offset+lookupLimit));
+                prefetchHits++;
+            } else {
+                log.debug("   > request entities [{}-{}] entities ...",offset,(offset+lookupLimit));
+                lookupStats.begin(); //keep statistics
+                results = entitySearcher.lookup(linkerConfig.getNameField(),
+                    linkerConfig.getSelectedFields(), searchStrings, languageArray,
+                    lookupLimit, offset);
+                lookupStats.complete();
+            }
             log.debug("      < found {} entities ...",results.size());
             //queries might return more as the requested results
             moreResultsAvailable = results.size() >= lookupLimit;
@@ -1292,6 +1493,13 @@ public class EntityLinker {
         float cacheHitPercentage = lookupStats.count > 0 ? //avoid division by zero
                 cacheHits*100f/(float)lookupStats.count : Float.NaN;
         log.info("    - cache hits: {} ({}%)",cacheHits,cacheHitPercentage);
+        if(sharedLookupCache != null){
+            log.info("    - shared cache hits: {} ({})",sharedCacheHits,sharedLookupCache);
+        }
+        if(numPrefetched > 0){
+            log.info("    - prefetched lookups: {} (used: {} - {}%)", new Object[]{
+                    numPrefetched, prefetchHits, prefetchHits*100f/(float)numPrefetched});
+        }
         log.info("      - {} query results ({} filtered - {}%)",
             new Object[]{numQueryResults,numFilteredResults, 
                 numFilteredResults*100f/(float)numQueryResults});
@@ -0,0 +1,313 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.apache.stanbol.enhancer.engines.entitylinking.EntitySearcher;
+import org.apache.stanbol.enhancer.engines.entitylinking.engine.EntityLinkingEngine;
+
+/**
+ * Size bounded cache for the results of {@link EntitySearcher} lookups that
+ * is shared by all {@link EntityLinker} instances created by an
+ * {@link EntityLinkingEngine}.<p>
+ * Lookups are keyed by the search strings, the languages, the name field and
+ * the selected fields. The cache is split in segments that are each
+ * managed as an LRU (least recently used) map to allow concurrent access.
+ * Cached lookups optionally expire after a configured time to live.<p>
+ * Components that know about changes of the data used by the
+ * {@link EntitySearcher} (e.g. a Site or Yard that was reconfigured)
+ * MUST call {@link #invalidate()}. As lookups might be in progress while the
+ * cache is invalidated, callers need to parse the {@link #getGeneration()}
+ * obtained before the lookup when {@link #put(List, String[], IRI, Set, List, int) 
+ * adding} results. Results of lookups started before an invalidation are
+ * ignored.
+ */
+public class EntityLookupCache {
+
+    private static final int NUM_SEGMENTS = 16;
+    
+    private final Segment[] segments;
+    private final int maxSize;
+    private final long ttl;
+    
+    private final AtomicInteger generation = new AtomicInteger();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    /**
+     * Creates a cache for up to the parsed number of lookups
+     * @param maxSize the maximum number of cached lookups. MUST BE &gt; 0
+     * @param ttl the time to live for cached lookups. Values &lt;= 0 
+     * deactivate the expiration of lookups
+     * @param unit the unit of the parsed ttl. MUST NOT be <code>null</code> 
+     * if ttl &gt; 0
+     */
+    public EntityLookupCache(int maxSize, long ttl, TimeUnit unit) {
+        if(maxSize <= 0){
+            throw new IllegalArgumentException("The maximum size of the cache MUST BE > 0 (parsed: "
+                + maxSize + ")!");
+        }
+        if(ttl > 0 && unit == null){
+            throw new IllegalArgumentException("The TimeUnit MUST NOT be NULL if a TTL is parsed!");
+        }
+        this.maxSize = maxSize;
+        this.ttl = ttl > 0 ? unit.toNanos(ttl) : -1;
+        int segmentSize = (maxSize + NUM_SEGMENTS - 1) / NUM_SEGMENTS;
+        segments = new Segment[NUM_SEGMENTS];
+        for(int i = 0; i < NUM_SEGMENTS; i++){
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+    /**
+     * Getter for the cached results of a lookup
+     * @param searchStrings the search strings
+     * @param languages the languages
+     * @param nameField the name field
+     * @param selectedFields the selected fields
+     * @return the cached results or <code>null</code> if the lookup is not
+     * cached
+     */
+    public List<Entity> get(List<String> searchStrings, String[] languages, 
+            IRI nameField, Set<IRI> selectedFields){
+        LookupKey key = new LookupKey(searchStrings, languages, nameField, selectedFields);
+        Segment segment = getSegment(key);
+        List<Entity> results = null;
+        synchronized (segment) {
+            CacheEntry entry = segment.get(key);
+            if(entry != null){
+                if(ttl > 0 && System.nanoTime() - entry.created > ttl){
+                    segment.remove(key);
+                    evictions.incrementAndGet();
+                } else {
+                    results = entry.results;
+                }
+            }
+        }
+        if(results != null){
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return results;
+    }
+    /**
+     * Adds the results of a lookup to the cache
+     * @param searchStrings the search strings
+     * @param languages the languages
+     * @param nameField the name field
+     * @param selectedFields the selected fields
+     * @param results the results of the lookup
+     * @param generation the {@link #getGeneration() generation} of the cache
+     * at the time the lookup was started
+     * @return <code>true</code> if the results where added. <code>false</code>
+     * if the cache was invalidated since the parsed generation
+     */
+    public boolean put(List<String> searchStrings, String[] languages, 
+            IRI nameField, Set<IRI> selectedFields, List<Entity> results, int generation){
+        LookupKey key = new LookupKey(searchStrings, languages, nameField, selectedFields);
+        CacheEntry entry = new CacheEntry(results);
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            //checked while holding the lock as invalidate() clears the
+            //segments after increasing the generation
+            if(generation != this.generation.get()){
+                return false;
+            }
+            segment.put(key, entry);
+        }
+        return true;
+    }
+    /**
+     * Getter for the current generation of this cache. The generation is
+     * increased on every call to {@link #invalidate()}
+     * @return the current generation
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+    /**
+     * Removes all cached lookups. Lookups started before this call will not
+     * be added to the cache.
+     */
+    public void invalidate(){
+        generation.incrementAndGet();
+        for(Segment segment : segments){
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+    /**
+     * The number of cached lookups
+     * @return the size
+     */
+    public int size(){
+        int size = 0;
+        for(Segment segment : segments){
+            synchronized (segment) {
+                size = size + segment.size();
+            }
+        }
+        return size;
+    }
+    /**
+     * The maximum number of cached lookups
+     * @return the maximum size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+    /**
+     * The number of lookups answered by the cache
+     * @return the cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+    /**
+     * The number of lookups not present in the cache
+     * @return the cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+    /**
+     * The number of cached lookups that where removed because the size
+     * limit was reached or because they expired.
+     * @return the number of evicted lookups
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+    
+    private Segment getSegment(LookupKey key){
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (NUM_SEGMENTS - 1)];
+    }
+    
+    @Override
+    public String toString() {
+        return new StringBuilder(getClass().getSimpleName()).append("[size: ")
+                .append(size()).append('/').append(maxSize).append(", hits: ")
+                .append(hits.get()).append(", misses: ").append(misses.get())
+                .append(", evictions: ").append(evictions.get()).append(']')
+                .toString();
+    }
+    /**
+     * A LRU map used as segment of the cache. All accesses need to be
+     * synchronised on the segment.
+     */
+    private class Segment extends LinkedHashMap<LookupKey,CacheEntry> {
+
+        private static final long serialVersionUID = 1L;
+        
+        private final int maxSize;
+        
+        Segment(int maxSize){
+            super(16, 0.75f, true); //access order
+            this.maxSize = maxSize;
+        }
+        
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LookupKey,CacheEntry> eldest) {
+            if(size() > maxSize){
+                evictions.incrementAndGet();
+                return true;
+            } else {
+                return false;
+            }
+        }
+    }
+    /**
+     * The cached results of a lookup
+     */
+    private static final class CacheEntry {
+        
+        final List<Entity> results;
+        final long created;
+        
+        CacheEntry(List<Entity> results){
+            this.results = results == null || results.isEmpty() ? 
+                    Collections.<Entity>emptyList() : 
+                        Collections.unmodifiableList(new ArrayList<Entity>(results));
+            this.created = System.nanoTime();
+        }
+    }
+    /**
+     * The key for lookups. Languages and selected fields are compared as
+     * sets.
+     */
+    private static final class LookupKey {
+        
+        private final List<String> searchStrings;
+        private final Set<String> languages;
+        private final IRI nameField;
+        private final Set<IRI> selectedFields;
+        private final int hash;
+        
+        LookupKey(List<String> searchStrings, String[] languages, IRI nameField, Set<IRI> selectedFields){
+            this.searchStrings = searchStrings == null ? Collections.<String>emptyList() :
+                new ArrayList<String>(searchStrings);
+            this.languages = languages == null ? Collections.<String>emptySet() : 
+                new HashSet<String>(Arrays.asList(languages));
+            this.nameField = nameField;
+            this.selectedFields = selectedFields == null ? Collections.<IRI>emptySet() : 
+                new HashSet<IRI>(selectedFields);
+            int h = this.searchStrings.hashCode();
+            h = 31 * h + this.languages.hashCode();
+            h = 31 * h + (nameField == null ? 0 : nameField.hashCode());
+            h = 31 * h + this.selectedFields.hashCode();
+            this.hash = h;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(obj == this){
+                return true;
+            }
+            if(!(obj instanceof LookupKey)){
+                return false;
+            }
+            LookupKey other = (LookupKey)obj;
+            return hash == other.hash && searchStrings.equals(other.searchStrings) &&
+                    languages.equals(other.languages) &&
+                    (nameField == null ? other.nameField == null : nameField.equals(other.nameField)) &&
+                    selectedFields.equals(other.selectedFields);
+        }
+    }
+    
+}
@@ -48,7 +48,7 @@ public class Suggestion {
     
     private List<LabelMatch> labelMatches = new ArrayList<LabelMatch>();
     private boolean labelMatchesSorted = true;
-    private final Entity entity;
+    private Entity entity;
     private Entity redirectsTo;
     private boolean redirectProcessed;
     private double score;
@@ -157,6 +157,23 @@ public class Suggestion {
         return match != null ? match : getLabelMatch().getMatch();
     }
 
+    /**
+     * Replaces the {@link #getResult() result} of this suggestion with an
+     * Entity with the same URI. Used to add data to a copy of the result, as
+     * results might be shared with other requests (e.g. by the 
+     * {@link EntityLookupCache}) and MUST NOT be modified.
+     * @param result the entity with the same URI as the current result
+     * @throws IllegalArgumentException if the parsed entity is <code>null</code>
+     * or has a different URI
+     */
+    protected void setResult(Entity result){
+        if(result == null || !result.getUri().equals(entity.getUri())){
+            throw new IllegalArgumentException("The parsed Entity "+result
+                + " MUST NOT be NULL and MUST HAVE the URI of the current result "
+                + entity.getUri() + "!");
+        }
+        this.entity = result;
+    }
     public final Entity getResult(){
         return entity;
     }
@@ -57,6 +57,7 @@ import org.apache.stanbol.enhancer.engines.entitylinking.config.LanguageProcessi
 import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
 import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConfig.RedirectProcessingMode;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.EntityLinker;
+import org.apache.stanbol.enhancer.engines.entitylinking.impl.EntityLookupCache;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.LinkedEntity;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.Suggestion;
 import org.apache.stanbol.enhancer.engines.entitylinking.impl.TestSearcherImpl;
@@ -342,6 +343,46 @@ public class EntityLinkingEngineTest {
                 Arrays.asList("urn:test:UniversityOfOtago","urn:test:UniversityOfOtago_Texas")));
         validateEntityLinkerResults(linker, expectedResults);
     }
+    /**
+     * Tests that {@link RedirectProcessingMode#ADD_VALUES} does not modify
+     * Entities shared with other requests via the {@link EntityLookupCache}.
+     * @throws Exception
+     */
+    @Test
+    public void testAddRedirectValuesWithSharedCache() throws Exception {
+        LanguageProcessingConfig tpc = new LanguageProcessingConfig();
+        tpc.setLinkedLexicalCategories(LanguageProcessingConfig.DEFAULT_LINKED_LEXICAL_CATEGORIES);
+        tpc.setLinkedPos(Collections.EMPTY_SET);
+        EntityLinkerConfig config = new EntityLinkerConfig();
+        config.setMinFoundTokens(2);//this is assumed by this test
+        config.setRedirectProcessingMode(RedirectProcessingMode.ADD_VALUES);
+        EntityLookupCache cache = new EntityLookupCache(100, 0, null);
+        IRI geologistUri = new IRI("urn:test:Geologist");
+        Entity geologist = searcher.get(geologistUri, null);
+        Literal redirectLabel = new PlainLiteralImpl("Geologe (redirect)");
+        assertFalse(geologist.getData().contains(new TripleImpl(geologistUri, NAME, redirectLabel)));
+        int dataSize = geologist.getData().size();
+        for(int i = 0; i < 2; i++){ //the 2nd run uses the cached entities
+            EntityLinker linker = new EntityLinker(TEST_ANALYSED_TEXT,"en",
+                tpc, searcher, config, labelTokenizer, null, cache);
+            linker.process();
+            Suggestion suggestion = null;
+            for(LinkedEntity linkedEntity : linker.getLinkedEntities().values()){
+                if("geologist".equals(linkedEntity.getSelectedText())){
+                    suggestion = linkedEntity.getSuggestions().get(0);
+                }
+            }
+            assertNotNull("'geologist' not linked", suggestion);
+            Entity result = suggestion.getEntity();
+            assertEquals(geologistUri, result.getUri());
+            //the values of the redirect are added to the result ...
+            assertTrue(result.getData().contains(new TripleImpl(geologistUri, NAME, redirectLabel)));
+        }
+        assertTrue(cache.getHits() > 0);
+        //... but not to the shared entity
+        assertEquals(dataSize, geologist.getData().size());
+        assertFalse(geologist.getData().contains(new TripleImpl(geologistUri, NAME, redirectLabel)));
+    }
     private void validateEntityLinkerResults(EntityLinker linker, Map<String,List<String>> expectedResults) {
         log.info("---------------------");
         log.info("- Validating Results-");
@@ -0,0 +1,102 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.entitylinking.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.impl.utils.simple.SimpleGraph;
+import org.apache.stanbol.enhancer.engines.entitylinking.Entity;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EntityLookupCacheTest {
+
+    private static final IRI NAME_FIELD = new IRI("http://www.w3.org/2000/01/rdf-schema#label");
+    private static final Set<IRI> SELECTED = Collections.singleton(NAME_FIELD);
+    private static final String[] LANGUAGES = new String[]{"en",null};
+    
+    private static List<Entity> entities(String...ids){
+        Entity[] entities = new Entity[ids.length];
+        for(int i = 0; i < ids.length; i++){
+            entities[i] = new Entity(new IRI("urn:test:"+ids[i]), new SimpleGraph());
+        }
+        return Arrays.asList(entities);
+    }
+    
+    @Test
+    public void testKey(){
+        EntityLookupCache cache = new EntityLookupCache(100, -1, null);
+        List<Entity> results = entities("a","b");
+        Assert.assertTrue(cache.put(Arrays.asList("foo","bar"), LANGUAGES, NAME_FIELD, SELECTED, 
+            results, cache.getGeneration()));
+        //languages are compared as set
+        Assert.assertEquals(results, cache.get(Arrays.asList("foo","bar"), 
+            new String[]{null,"en"}, NAME_FIELD, SELECTED));
+        Assert.assertNull(cache.get(Arrays.asList("bar","foo"), LANGUAGES, NAME_FIELD, SELECTED));
+        Assert.assertNull(cache.get(Arrays.asList("foo","bar"), new String[]{"de"}, NAME_FIELD, SELECTED));
+        Assert.assertNull(cache.get(Arrays.asList("foo","bar"), LANGUAGES, NAME_FIELD, 
+            Collections.<IRI>emptySet()));
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(3, cache.getMisses());
+    }
+    
+    @Test
+    public void testSizeLimit(){
+        EntityLookupCache cache = new EntityLookupCache(32, -1, null);
+        for(int i = 0; i < 1000; i++){
+            cache.put(Collections.singletonList("token"+i), LANGUAGES, NAME_FIELD, SELECTED, 
+                entities(String.valueOf(i)), cache.getGeneration());
+        }
+        Assert.assertTrue(cache.size() <= 32);
+        Assert.assertEquals(1000 - cache.size(), cache.getEvictions());
+        //the last added lookup is still cached
+        Assert.assertNotNull(cache.get(Collections.singletonList("token999"), 
+            LANGUAGES, NAME_FIELD, SELECTED));
+    }
+    
+    @Test
+    public void testExpiration() throws InterruptedException {
+        EntityLookupCache cache = new EntityLookupCache(100, 50, TimeUnit.MILLISECONDS);
+        List<String> search = Collections.singletonList("foo");
+        cache.put(search, LANGUAGES, NAME_FIELD, SELECTED, entities("a"), cache.getGeneration());
+        Assert.assertNotNull(cache.get(search, LANGUAGES, NAME_FIELD, SELECTED));
+        Thread.sleep(100);
+        Assert.assertNull(cache.get(search, LANGUAGES, NAME_FIELD, SELECTED));
+        Assert.assertEquals(0, cache.size());
+    }
+    
+    @Test
+    public void testInvalidate(){
+        EntityLookupCache cache = new EntityLookupCache(100, -1, null);
+        List<String> search = Collections.singletonList("foo");
+        int generation = cache.getGeneration();
+        cache.put(search, LANGUAGES, NAME_FIELD, SELECTED, entities("a"), generation);
+        cache.invalidate();
+        Assert.assertNull(cache.get(search, LANGUAGES, NAME_FIELD, SELECTED));
+        //results of lookups started before the invalidation are ignored
+        Assert.assertFalse(cache.put(search, LANGUAGES, NAME_FIELD, SELECTED, entities("a"), generation));
+        Assert.assertNull(cache.get(search, LANGUAGES, NAME_FIELD, SELECTED));
+        Assert.assertTrue(cache.put(search, LANGUAGES, NAME_FIELD, SELECTED, entities("a"), 
+            cache.getGeneration()));
+        Assert.assertNotNull(cache.get(search, LANGUAGES, NAME_FIELD, SELECTED));
+    }
+}
@@ -20,8 +20,10 @@ import java.io.IOException;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.lucene.index.IndexReader;
@@ -74,6 +76,8 @@ public class CorpusCreationTask implements Callable<TaggerFstCorpus>{
             //we do get the AtomicReader, because TaggerFstCorpus will need it
             //anyways. This prevents to create another SlowCompositeReaderWrapper.
             final IndexReader reader = searcher.getAtomicReader();
+            //the segments are used to build delta corpora for incremental updates
+            List<String> segments = DeltaCorpusCreationTask.getSegments(searcher.getIndexReader());
             log.info(" ... build FST corpus for {}",fstInfo);
             corpus = AccessController.doPrivileged(new PrivilegedExceptionAction<TaggerFstCorpus>() {
                 public TaggerFstCorpus run() throws IOException {
@@ -84,7 +88,7 @@ public class CorpusCreationTask implements Callable<TaggerFstCorpus>{
             });
             if(indexConfig.isActive()){
                 //set the created corpus to the FST Info
-                fstInfo.setCorpus(corpus);
+                fstInfo.setCorpus(corpus, segments);
             } else { //index configuration no longer active ... ignore the built FST
                 log.warn("Index Config for "+ fstInfo + "was deactivated while building FST. "
                         + "Built FST will be ignored.");
@@ -103,6 +107,31 @@ public class CorpusCreationTask implements Callable<TaggerFstCorpus>{
         }
     }
     
+    /**
+     * Enqueues the creation of the FST corpus for the parsed {@link CorpusInfo}
+     * with the {@link IndexConfiguration#getExecutorService()} if not already
+     * enqueued.
+     * @param indexConfig the index configuration
+     * @param fstInfo the corpus to create
+     * @return the {@link Future} for the creation of the corpus
+     */
+    static Future<TaggerFstCorpus> enqueue(IndexConfiguration indexConfig, CorpusInfo fstInfo){
+        Future<TaggerFstCorpus> enqueuedCorpus;
+        fstInfo.corpusLock.writeLock().lock();
+        try {
+            enqueuedCorpus = fstInfo.getEnqueued(); //check again in write lock
+            if(enqueuedCorpus == null){
+                //enqueue for re-creation
+                enqueuedCorpus = indexConfig.getExecutorService().submit(
+                    new CorpusCreationTask(indexConfig, fstInfo));
+                fstInfo.enqueued(enqueuedCorpus);
+            }
+        } finally {
+            fstInfo.corpusLock.writeLock().unlock();
+        }
+        return enqueuedCorpus;
+    }
+    
     @Override
     public String toString() {
         return new StringBuilder("Task: building ").append(fstInfo)
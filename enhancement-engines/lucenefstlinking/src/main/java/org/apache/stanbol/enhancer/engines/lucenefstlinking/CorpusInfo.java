@@ -26,6 +26,7 @@ import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -101,6 +102,32 @@ public class CorpusInfo {
      * Indicates an Error during the runtime creation
      */
     private boolean creationError = false;
+    /**
+     * The metadata of the {@link #fst} file (if available)
+     */
+    private volatile FstCorpusMetadata fstMetadata;
+    /**
+     * The modification date of the {@link #fst} file when the
+     * {@link #fstMetadata} where read
+     */
+    private volatile long fstMetadataDate = -1;
+    /**
+     * The segments of the Solr index the current corpus was built from. If
+     * <code>null</code> the segments of the {@link #fstMetadata} are used.
+     */
+    private volatile List<String> segments;
+    /**
+     * Corpus with the labels of documents added to the Solr index after the
+     * current corpus was built (if incremental updates are enabled).
+     */
+    private TaggerFstCorpus deltaCorpus;
+    /**
+     * The index version of the {@link #deltaCorpus}. <code>-1</code> if no
+     * delta corpus was built
+     */
+    private long deltaVersion = -1;
+    
+    private Future<TaggerFstCorpus> enqueuedDelta;
     
     
     /** 
@@ -154,9 +181,23 @@ public class CorpusInfo {
      * @param corpus the corpus
      */
     protected final void setCorpus(final TaggerFstCorpus corpus) {
+        setCorpus(corpus, null);
+    }
+    /**
+     * Allows to explicitly set the corpus after runtime creation has finished.
+     * Any {@link #getDeltaCorpus() delta corpus} is reset.
+     * @param corpus the corpus
+     * @param segments the segments of the Solr index the corpus was built 
+     * from or <code>null</code> if not known
+     */
+    protected final void setCorpus(final TaggerFstCorpus corpus, final List<String> segments) {
         corpusLock.writeLock().lock();
         try {
             enqueuedCorpus = null; //clear the future ref
+            this.segments = corpus == null ? null : segments;
+            //the delta was relative to the previous corpus
+            deltaCorpus = null;
+            deltaVersion = -1;
             if(taggerCorpusRef != null){
                 taggerCorpusRef.clear();
                 taggerCorpusRef = null;
@@ -185,12 +226,14 @@ public class CorpusInfo {
                 try { //STANBOL-1177: save FST models in AccessController.doPrivileged(..)
                     AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
                         public Object run() throws IOException {
-                            if(fst.exists()){
-                                if(!FileUtils.deleteQuietly(fst)){
-                                    log.warn("Unable to delete existing FST file for {}", fst);
-                                }
-                            }
-                            corpus.save(fst);
+                            //saves the corpus to a temporary file and atomically
+                            //replaces the current FST file
+                            FstCorpusMetadata metadata = FstCorpusMetadata.save(CorpusInfo.this, 
+                                corpus, segments);
+                            fstMetadataDate = fst.lastModified();
+                            fstMetadata = metadata;
+                            //allow other engines using the same FST file to use this corpus
+                            FstCorpusRegistry.register(fst, corpus);
                             return null; //not used
                         }
                     });
@@ -211,7 +254,7 @@ public class CorpusInfo {
                             taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
                         }
                     } finally {
-                        corpusLock.writeLock().lock();
+                        corpusLock.writeLock().unlock();
                     }
                 } else { //Runtime exception
                     throw RuntimeException.class.cast(e);
@@ -249,7 +292,8 @@ public class CorpusInfo {
                             if(fst.exists() && //if the file exists AND the file was not yet failing to load 
                                     //OR the file is newer as the last version failing to load
                                     (!fstFileError || FileUtils.isFileNewer(fst, fstDate))){
-                                TaggerFstCorpus corpus = TaggerFstCorpus.load(fst);
+                                //the corpus might be already loaded by an other engine
+                                TaggerFstCorpus corpus = FstCorpusRegistry.load(fst);
                                 if(corpus != null){
                                     //I need to set fstDate here, because I can not
                                     //access lastModified() outside doPrivileged
@@ -271,6 +315,7 @@ public class CorpusInfo {
                     });
                     if(corpus != null){
                         fstFileError = false;
+                        segments = null; //use the segments of the FST metadata
                         taggerCorpusRef = new SoftReference<TaggerFstCorpus>(corpus);
                     } //else not loaded from file
                 } //else corpus was loaded while waiting for the write lock
@@ -291,6 +336,133 @@ public class CorpusInfo {
         }
         return corpus;
     }
+    /**
+     * Getter for the {@link FstCorpusMetadata metadata} of the {@link #fst}
+     * file. Metadata are written for FST corpora created at runtime and allow
+     * to check the index version of a FST file without loading the corpus.
+     * @return the metadata or <code>null</code> if no (valid) metadata are
+     * available for the current FST file.
+     */
+    public FstCorpusMetadata getFstMetadata(){
+        try {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<FstCorpusMetadata>() {
+                public FstCorpusMetadata run() throws IOException {
+                    long fstModified = fst.lastModified(); //0 if the file does not exist
+                    if(fstModified != fstMetadataDate){ //(re)read the metadata
+                        FstCorpusMetadata metadata = fst.isFile() ? FstCorpusMetadata.read(fst) : null;
+                        if(metadata != null && !metadata.isValid(fst, CorpusInfo.this)){
+                            log.debug("ignore outdated or incompatible {} for {}", metadata, fst);
+                            metadata = null;
+                        }
+                        fstMetadata = metadata;
+                        fstMetadataDate = fstModified;
+                    }
+                    return fstMetadata;
+                }
+            });
+        } catch (PrivilegedActionException pae) {
+            Exception e = pae.getException();
+            if(e instanceof IOException){
+                log.warn("Unable to read metadata for FST file " + fst.getAbsolutePath(), e);
+                return null;
+            } else { //Runtime exception
+                throw RuntimeException.class.cast(e);
+            }
+        }
+    }
+    /**
+     * Checks based on the {@link #getFstMetadata() metadata} of the FST file if
+     * it was built for an other version of the Solr index.
+     * @param indexVersion the current version of the Solr index
+     * @return <code>true</code> if the FST file is known to be outdated.
+     * <code>false</code> if the FST file is up to date or the version of the 
+     * FST file is unknown.
+     */
+    public boolean isFstOutdated(long indexVersion){
+        FstCorpusMetadata metadata = getFstMetadata();
+        return metadata != null && metadata.getIndexVersion() != indexVersion;
+    }
+    /**
+     * The segments of the Solr index the current corpus was built from. This
+     * is used to check if the documents of the corpus still have the same
+     * Lucene document IDs and documents added since then can be 
+     * indexed in a {@link #getDeltaCorpus() delta corpus}.
+     * @return the segments or <code>null</code> if not known
+     */
+    public List<String> getSegments(){
+        List<String> segments = this.segments;
+        if(segments == null){
+            FstCorpusMetadata metadata = getFstMetadata();
+            segments = metadata == null ? null : metadata.getSegments();
+        }
+        return segments;
+    }
+    /**
+     * Getter for the corpus with the labels of documents added to the Solr
+     * index after the current corpus was built
+     * @return the delta corpus or <code>null</code> if none (e.g. because no
+     * labels where added)
+     * @see #getDeltaVersion()
+     */
+    public TaggerFstCorpus getDeltaCorpus() {
+        corpusLock.readLock().lock();
+        try {
+            return deltaCorpus;
+        } finally {
+            corpusLock.readLock().unlock();
+        }
+    }
+    /**
+     * The version of the Solr index the {@link #getDeltaCorpus() delta corpus}
+     * was built for.
+     * @return the index version or <code>-1</code> if no delta was built
+     */
+    public long getDeltaVersion() {
+        corpusLock.readLock().lock();
+        try {
+            return deltaVersion;
+        } finally {
+            corpusLock.readLock().unlock();
+        }
+    }
+    /**
+     * Sets the delta corpus after its creation has finished.
+     * @param baseSegments the {@link #getSegments() segments} of the corpus
+     * the delta was built for. If those are no longer the current ones the
+     * delta is ignored.
+     * @param version the index version of the delta
+     * @param delta the delta corpus or <code>null</code> if no labels where
+     * added
+     * @return <code>true</code> if the delta was set
+     */
+    protected boolean setDeltaCorpus(List<String> baseSegments, long version, TaggerFstCorpus delta){
+        corpusLock.writeLock().lock();
+        try {
+            enqueuedDelta = null;
+            if(baseSegments == null || !baseSegments.equals(getSegments())){
+                return false; //the corpus was rebuilt in the meantime
+            }
+            deltaCorpus = delta;
+            deltaVersion = version;
+            return true;
+        } finally {
+            corpusLock.writeLock().unlock();
+        }
+    }
+    /**
+     * Called after the delta corpus was enqueued for creation
+     */
+    protected void enqueuedDelta(Future<TaggerFstCorpus> enqueued){
+        this.enqueuedDelta = enqueued;
+    }
+    /**
+     * Allows to get the {@link Future} of a ongoing {@link DeltaCorpusCreationTask}.
+     * @return the {@link Future} or <code>null</code> if no delta corpus is
+     * currently built
+     */
+    public Future<TaggerFstCorpus> getEnqueuedDelta(){
+        return enqueuedDelta;
+    }
     /**
      * Called after the curpus was enqueued for rebuilding
      */
@@ -0,0 +1,200 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import java.io.IOException;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.util.Bits;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a delta FST corpus that contains only the labels of documents
+ * added to the Solr index after the current FST corpus of a 
+ * {@link CorpusInfo} was built. Tagging uses both the corpus and the delta.
+ * This avoids rebuilding the whole corpus for a few added documents.<p>
+ * Document IDs in FST corpora are Lucene document IDs. Because of that a
+ * delta can only be built as long as the segments the corpus was built from
+ * are unchanged (no merges, no deletions). New documents are than in
+ * segments appended to the index. If this is not the case - or if the number
+ * of documents in the delta reaches the 
+ * {@link IndexConfiguration#getDeltaMergeThreshold() merge threshold} - the
+ * creation of a new corpus is enqueued. Until it is built the corpus and the
+ * delta are still used for tagging.<p>
+ * NOTE: the delta is built by using {@link TaggerFstCorpus} with a filter
+ * for the added documents. While the resulting FST is small, all terms of
+ * the indexed field still need to be iterated.
+ */
+public class DeltaCorpusCreationTask implements Callable<TaggerFstCorpus> {
+
+    private final Logger log = LoggerFactory.getLogger(DeltaCorpusCreationTask.class);
+    
+    private final CorpusInfo fstInfo;
+    private final IndexConfiguration indexConfig;
+    
+    public DeltaCorpusCreationTask(IndexConfiguration indexConfig, CorpusInfo fstInfo){
+        if(indexConfig == null || fstInfo == null){
+            throw new IllegalArgumentException("Pared parameters MUST NOT be NULL!");
+        }
+        this.indexConfig = indexConfig;
+        this.fstInfo = fstInfo;
+    }
+    
+    @Override
+    public TaggerFstCorpus call() {
+        try {
+            return buildDelta();
+        } finally { //ensure that an other delta can be enqueued
+            fstInfo.corpusLock.writeLock().lock();
+            try {
+                fstInfo.enqueuedDelta(null);
+            } finally {
+                fstInfo.corpusLock.writeLock().unlock();
+            }
+        }
+    }
+    
+    private TaggerFstCorpus buildDelta() {
+        if(!indexConfig.isActive()){
+            throw new IllegalStateException("Index Configuration already deactivated");
+        }
+        SolrCore core = indexConfig.getIndex();
+        if(core.isClosed()){
+            throw new IllegalStateException("Unable to build delta for " + fstInfo 
+                + " becuase SolrCore " + core.getName() + " is closed!");
+        }
+        final List<String> baseSegments = fstInfo.getSegments();
+        RefCounted<SolrIndexSearcher> searcherRef = core.getSearcher();
+        try {
+            final SolrIndexSearcher searcher = searcherRef.get();
+            final long version = searcher.getIndexReader().getVersion();
+            List<String> segments = getSegments(searcher.getIndexReader());
+            if(baseSegments == null || segments == null || segments.size() < baseSegments.size() ||
+                    !baseSegments.equals(segments.subList(0, baseSegments.size()))){
+                log.info(" ... unable to build delta for {} because the segments of SolrCore {} "
+                    + "have changed. Enqueue rebuilding of the corpus.", fstInfo, core.getName());
+                CorpusCreationTask.enqueue(indexConfig, fstInfo);
+                return null;
+            }
+            //the documents of the corpus are in the base segments
+            final int start = getMaxDoc(baseSegments);
+            final int maxDoc = searcher.maxDoc();
+            final Bits liveDocs = MultiFields.getLiveDocs(searcher.getIndexReader());
+            final Bits deltaDocs = new Bits() {
+                @Override
+                public boolean get(int index) {
+                    return index >= start && (liveDocs == null || liveDocs.get(index));
+                }
+                @Override
+                public int length() {
+                    return maxDoc;
+                }
+            };
+            final AtomicReader reader = searcher.getAtomicReader();
+            TaggerFstCorpus delta;
+            if(maxDoc > start){
+                log.info(" ... build delta for {} ({} documents)", fstInfo, maxDoc - start);
+                delta = AccessController.doPrivileged(new PrivilegedExceptionAction<TaggerFstCorpus>() {
+                    public TaggerFstCorpus run() throws IOException {
+                        return new TaggerFstCorpus(reader, version, deltaDocs, 
+                            fstInfo.indexedField, fstInfo.storedField, fstInfo.analyzer,
+                            fstInfo.partialMatches,1,100);
+                    }
+                });
+                if(delta.getPhrases() == null){ //no labels in the added documents
+                    delta = null;
+                }
+            } else {
+                delta = null;
+            }
+            if(!indexConfig.isActive()){
+                log.warn("Index Config for "+ fstInfo + "was deactivated while building "
+                    + "the delta. Built delta will be ignored.");
+            } else if(fstInfo.setDeltaCorpus(baseSegments, version, delta) &&
+                    maxDoc - start >= indexConfig.getDeltaMergeThreshold()){
+                log.info(" ... delta for {} has reached the merge threshold ({} documents). "
+                    + "Enqueue rebuilding of the corpus.", fstInfo, maxDoc - start);
+                CorpusCreationTask.enqueue(indexConfig, fstInfo);
+            }
+            return delta;
+        } catch (PrivilegedActionException pae) {
+            Exception e = pae.getException();
+            if(e instanceof IOException){ //IO Exception while loading the file
+                throw new IllegalStateException("Unable to read Information to build delta for "
+                        + fstInfo + " from SolrIndex '" + core.getName() + "'!", e);
+            } else { //Runtime exception
+                throw RuntimeException.class.cast(e);
+            }
+        } finally {
+            searcherRef.decref(); //ensure that we dereference the searcher
+        }
+    }
+    /**
+     * Getter for the segments of the parsed index reader. Segments are 
+     * encoded as '<code>{name}:{maxDoc}:{numDeleted}</code>' and are in the 
+     * order of the Lucene document IDs.
+     * @param reader the reader
+     * @return the segments or <code>null</code> if the segments can not be
+     * determined for the parsed reader
+     */
+    public static List<String> getSegments(IndexReader reader){
+        List<AtomicReaderContext> leaves = reader.leaves();
+        List<String> segments = new ArrayList<String>(leaves.size());
+        for(AtomicReaderContext leave : leaves){
+            if(!(leave.reader() instanceof SegmentReader)){
+                return null;
+            }
+            SegmentReader segmentReader = (SegmentReader)leave.reader();
+            segments.add(new StringBuilder(segmentReader.getSegmentName()).append(':')
+                .append(segmentReader.maxDoc()).append(':')
+                .append(segmentReader.numDeletedDocs()).toString());
+        }
+        return segments;
+    }
+    /**
+     * The number of documents (including deleted) in the parsed segments
+     */
+    private static int getMaxDoc(List<String> segments){
+        int maxDoc = 0;
+        for(String segment : segments){
+            String[] parts = segment.split(":");
+            maxDoc = maxDoc + Integer.parseInt(parts[1]);
+        }
+        return maxDoc;
+    }
+    
+    @Override
+    public String toString() {
+        return new StringBuilder("Task: building delta for ").append(fstInfo)
+                .append(" for SolrCore ").append(indexConfig.getIndex().getName()).toString();
+    }
+}
@@ -0,0 +1,237 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+
+/**
+ * Metadata about a FST corpus file stored next to the FST file
+ * (<code>{fst-file}.meta</code>). This allows to check if a stored
+ * FST corpus was built for the current version of the Solr index without
+ * the need to load the FST corpus (what can take a lot of time and memory for
+ * big vocabularies).<p>
+ * FST files created without metadata (e.g. by the Entityhub indexing tool)
+ * are still supported. For such files the index version is only known after
+ * loading the corpus.
+ * @author Rupert Westenthaler
+ *
+ */
+public final class FstCorpusMetadata {
+
+    /**
+     * The version of the metadata format
+     */
+    public static final int FORMAT_VERSION = 1;
+    /**
+     * The suffix appended to the name of the FST file
+     */
+    public static final String METADATA_FILE_SUFFIX = ".meta";
+    
+    private static final String FORMAT = "format";
+    private static final String INDEX_VERSION = "indexVersion";
+    private static final String INDEXED_FIELD = "indexedField";
+    private static final String STORED_FIELD = "storedField";
+    private static final String FST_LENGTH = "fstLength";
+    private static final String CREATED = "created";
+    private static final String SEGMENTS = "segments";
+    
+    private final long indexVersion;
+    private final String indexedField;
+    private final String storedField;
+    private final long fstLength;
+    private final Date created;
+    private final List<String> segments;
+    
+    private FstCorpusMetadata(long indexVersion, String indexedField, String storedField,
+            long fstLength, Date created, List<String> segments){
+        this.indexVersion = indexVersion;
+        this.indexedField = indexedField;
+        this.storedField = storedField;
+        this.fstLength = fstLength;
+        this.created = created;
+        this.segments = segments;
+    }
+    /**
+     * The version of the Solr index the FST corpus was built from
+     * @return the index version
+     */
+    public long getIndexVersion() {
+        return indexVersion;
+    }
+    /**
+     * The indexed field used to build the FST corpus
+     * @return the indexed field
+     */
+    public String getIndexedField() {
+        return indexedField;
+    }
+    /**
+     * The stored field holding the labels of the FST corpus
+     * @return the stored field
+     */
+    public String getStoredField() {
+        return storedField;
+    }
+    /**
+     * The date the FST corpus was stored
+     * @return the creation date
+     */
+    public Date getCreated() {
+        return created;
+    }
+    /**
+     * The segments of the Solr index the FST corpus was built from
+     * @return the segments as returned by 
+     * {@link DeltaCorpusCreationTask#getSegments(org.apache.lucene.index.IndexReader)}
+     * or <code>null</code> if not known
+     */
+    public List<String> getSegments() {
+        return segments;
+    }
+    /**
+     * Checks if this metadata describe the parsed FST file and are compatible
+     * with the parsed corpus.
+     * @param fst the FST file
+     * @param corpusInfo the corpus
+     * @return <code>true</code> if the metadata can be used for the parsed
+     * FST file and corpus
+     */
+    public boolean isValid(File fst, CorpusInfo corpusInfo){
+        return fst.isFile() && fst.length() == fstLength &&
+                corpusInfo.indexedField.equals(indexedField) &&
+                corpusInfo.storedField.equals(storedField);
+    }
+    
+    /**
+     * Getter for the metadata file of the parsed FST file
+     * @param fst the FST file
+     * @return the metadata file
+     */
+    public static File getMetadataFile(File fst){
+        return new File(fst.getParentFile(), fst.getName() + METADATA_FILE_SUFFIX);
+    }
+    /**
+     * Reads the metadata for the parsed FST file.
+     * @param fst the FST file
+     * @return the metadata or <code>null</code> if no metadata are present or
+     * the metadata use an unsupported format
+     * @throws IOException on any error while reading the metadata
+     */
+    public static FstCorpusMetadata read(File fst) throws IOException {
+        File metaFile = getMetadataFile(fst);
+        if(!metaFile.isFile()){
+            return null;
+        }
+        Properties props = new Properties();
+        InputStream in = new FileInputStream(metaFile);
+        try {
+            props.load(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        if(!String.valueOf(FORMAT_VERSION).equals(props.getProperty(FORMAT))){
+            return null; //unsupported format
+        }
+        try {
+            return new FstCorpusMetadata(
+                Long.parseLong(props.getProperty(INDEX_VERSION)),
+                props.getProperty(INDEXED_FIELD), props.getProperty(STORED_FIELD),
+                Long.parseLong(props.getProperty(FST_LENGTH)),
+                new Date(Long.parseLong(props.getProperty(CREATED))),
+                props.getProperty(SEGMENTS) == null ? null : Collections.unmodifiableList(
+                    Arrays.asList(StringUtils.split(props.getProperty(SEGMENTS), ','))));
+        } catch (NumberFormatException e) {
+            throw new IOException("Unable to parse FST corpus metadata from "
+                + metaFile.getAbsolutePath(), e);
+        }
+    }
+    /**
+     * Stores the parsed corpus to the parsed FST file and writes the metadata.
+     * The corpus is first saved to a temporary file that is than moved to
+     * the FST file. This ensures that other {@link FstLinkingEngine}s (possibly
+     * in other processes) using the same FST directory never read partially
+     * written FST files.
+     * @param corpusInfo the information about the corpus
+     * @param corpus the corpus to store
+     * @param segments the segments of the Solr index the corpus was built
+     * from or <code>null</code> if not known
+     * @return the metadata of the stored corpus
+     * @throws IOException on any error while saving the FST corpus
+     */
+    public static FstCorpusMetadata save(CorpusInfo corpusInfo, TaggerFstCorpus corpus,
+            List<String> segments) throws IOException {
+        File fst = corpusInfo.fst;
+        File tmp = new File(fst.getParentFile(), fst.getName() + ".tmp");
+        File metaFile = getMetadataFile(fst);
+        corpus.save(tmp);
+        //delete metadata of the old FST file before replacing it
+        Files.deleteIfExists(metaFile.toPath());
+        try {
+            Files.move(tmp.toPath(), fst.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), fst.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        FstCorpusMetadata metadata = new FstCorpusMetadata(corpus.getIndexVersion(),
+            corpusInfo.indexedField, corpusInfo.storedField, fst.length(), new Date(),
+            segments);
+        Properties props = new Properties();
+        props.setProperty(FORMAT, String.valueOf(FORMAT_VERSION));
+        props.setProperty(INDEX_VERSION, String.valueOf(metadata.indexVersion));
+        props.setProperty(INDEXED_FIELD, metadata.indexedField);
+        props.setProperty(STORED_FIELD, metadata.storedField);
+        props.setProperty(FST_LENGTH, String.valueOf(metadata.fstLength));
+        props.setProperty(CREATED, String.valueOf(metadata.created.getTime()));
+        if(segments != null){
+            props.setProperty(SEGMENTS, StringUtils.join(segments, ','));
+        }
+        File metaTmp = new File(metaFile.getParentFile(), metaFile.getName() + ".tmp");
+        OutputStream out = new FileOutputStream(metaTmp);
+        try {
+            props.store(out, "Metadata for FST corpus " + fst.getName());
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+        Files.move(metaTmp.toPath(), metaFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return metadata;
+    }
+    
+    @Override
+    public String toString() {
+        return new StringBuilder("FST metadata[indexVersion: ").append(indexVersion)
+                .append(" | indexedField: ").append(indexedField)
+                .append(" | storedField: ").append(storedField)
+                .append(" | created: ").append(created).append(']').toString();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Allows {@link FstLinkingEngine}s that use the same FST files to share
+ * loaded {@link TaggerFstCorpus} instances. Corpora are only weakly
+ * referenced by this registry, so the references held by the 
+ * {@link CorpusInfo}s decide how long a corpus stays in memory.<p>
+ * Loaded corpora are only shared if the FST file was not modified since
+ * the corpus was loaded (or stored).
+ * @author Rupert Westenthaler
+ *
+ */
+final class FstCorpusRegistry {
+    
+    private static final Logger log = LoggerFactory.getLogger(FstCorpusRegistry.class);
+    
+    private static final ConcurrentMap<String,Entry> corpora = new ConcurrentHashMap<String,Entry>();
+    
+    private FstCorpusRegistry(){ /* no instances */ }
+    
+    /**
+     * Getter for the corpus stored in the parsed FST file. Returns a corpus
+     * already loaded by an other engine if the FST file was not modified.
+     * Otherwise the corpus is loaded from the file.
+     * @param fst the FST file
+     * @return the corpus
+     * @throws IOException on any error while loading the corpus
+     */
+    static TaggerFstCorpus load(File fst) throws IOException {
+        while(true){
+            Entry entry = getEntry(fst);
+            entry.lock.lock(); //do not load the same FST file concurrently
+            try {
+                if(entry.removed){
+                    continue; //pruned concurrently ... get the new entry
+                }
+                TaggerFstCorpus corpus = entry.get(fst);
+                if(corpus == null){
+                    corpus = TaggerFstCorpus.load(fst);
+                    if(corpus != null){
+                        entry.set(fst, corpus);
+                    }
+                } else {
+                    log.debug(" ... use shared FST corpus for {}", fst);
+                }
+                return corpus;
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+    /**
+     * Registers a corpus that was just stored to the parsed FST file
+     * @param fst the FST file
+     * @param corpus the corpus
+     */
+    static void register(File fst, TaggerFstCorpus corpus){
+        while(true){
+            Entry entry = getEntry(fst);
+            entry.lock.lock();
+            try {
+                if(!entry.removed){
+                    entry.set(fst, corpus);
+                    return;
+                } //else pruned concurrently ... get the new entry
+            } finally {
+                entry.lock.unlock();
+            }
+        }
+    }
+
+    private static Entry getEntry(File fst) {
+        String key = fst.getAbsolutePath();
+        Entry entry = corpora.get(key);
+        if(entry == null){
+            prune();
+            Entry created = new Entry();
+            entry = corpora.putIfAbsent(key, created);
+            if(entry == null){
+                entry = created;
+            }
+        }
+        return entry;
+    }
+    /**
+     * Removes entries of GC'ed corpora. Entries currently used by other
+     * threads (e.g. while loading a corpus) are skipped. Removed entries are
+     * marked so that threads that obtained them before they were removed
+     * do not use them.
+     */
+    private static void prune(){
+        for(Map.Entry<String,Entry> e : corpora.entrySet()){
+            Entry entry = e.getValue();
+            if(entry.lock.tryLock()){
+                try {
+                    if(entry.isCleared()){
+                        entry.removed = true;
+                        corpora.remove(e.getKey(), entry);
+                    }
+                } finally {
+                    entry.lock.unlock();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Entry for a FST file. Access needs to be guarded by the {@link #lock}
+     * of the entry.
+     */
+    private static class Entry {
+        
+        final Lock lock = new ReentrantLock();
+        /**
+         * Set if the entry was removed from the registry
+         */
+        private boolean removed;
+        private long lastModified;
+        private long length;
+        private WeakReference<TaggerFstCorpus> corpusRef;
+        
+        TaggerFstCorpus get(File fst){
+            if(corpusRef == null || fst.lastModified() != lastModified ||
+                    fst.length() != length){
+                return null;
+            }
+            return corpusRef.get();
+        }
+        
+        void set(File fst, TaggerFstCorpus corpus){
+            lastModified = fst.lastModified();
+            length = fst.length();
+            corpusRef = new WeakReference<TaggerFstCorpus>(corpus);
+        }
+        /**
+         * If the corpus of this entry was GC'ed
+         */
+        boolean isCleared(){
+            return corpusRef != null && corpusRef.get() == null;
+        }
+    }
+}
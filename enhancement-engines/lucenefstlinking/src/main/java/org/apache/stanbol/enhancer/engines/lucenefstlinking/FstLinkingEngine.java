@@ -74,6 +74,7 @@ import org.apache.stanbol.enhancer.servicesapi.rdf.NamespaceEnum;
 import org.apache.stanbol.enhancer.servicesapi.rdf.Properties;
 import org.opensextant.solrtexttagger.TagClusterReducer;
 import org.opensextant.solrtexttagger.Tagger;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -505,6 +506,28 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
      */
     private int tag(final String content, final AnalysedText at, final TaggingSession session, 
             final Corpus corpus, final Map<int[],Tag> tags) throws IOException{
+        int time = tag(content, at, session, corpus, corpus.getFst(), tags);
+        if(corpus.getDeltaFst() != null){ //also tag with the delta (if present)
+            log.debug(" ... tag with delta corpus");
+            time = time + tag(content, at, session, corpus, corpus.getDeltaFst(), tags);
+        }
+        return time;
+    }
+    /**
+     * Tags the {@link AnalysedText} with the parsed FST corpus. Called for
+     * the {@link Corpus#getFst() corpus} and the {@link Corpus#getDeltaFst()
+     * delta corpus}.
+     * @param content the content to link
+     * @param at the AnalyzedText. not required if {@link LinkingModeEnum#PLAIN}
+     * @param session the tagging session of the text
+     * @param corpus the corpus o the session to tag the content with
+     * @param fst the FST corpus used for tagging
+     * @param tags the Tags map used to store the tagging results
+     * @return the time in milliseconds spent in the tag callback.
+     * @throws IOException on any error while accessing the {@link SolrCore}
+     */
+    private int tag(final String content, final AnalysedText at, final TaggingSession session, 
+            final Corpus corpus, final TaggerFstCorpus fst, final Map<int[],Tag> tags) throws IOException{
         final OpenBitSet matchDocIdsBS = new OpenBitSet(session.getSearcher().maxDoc());
         TokenStream baseTokenStream = corpus.getTaggingAnalyzer().tokenStream("", 
             new CharSequenceReader(content));
@@ -546,7 +569,7 @@ public class FstLinkingEngine implements EnhancementEngine, ServiceProperties {
         
         //Now process the document
         final long[] time = new long[]{0};
-        new Tagger(corpus.getFst(), tokenStream, reducer,session.isSkipAltTokens()) {
+        new Tagger(fst, tokenStream, reducer,session.isSkipAltTokens()) {
             
             @Override
             protected void tagCallback(int startOffset, int endOffset, long docIdsKey) {
@@ -76,6 +76,7 @@ import org.apache.stanbol.enhancer.engines.entitylinking.config.EntityLinkerConf
 import org.apache.stanbol.enhancer.engines.entitylinking.config.TextProcessingConfig;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.EntityCacheManager;
 import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.FastLRUCacheManager;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.OffHeapEntityCacheManager;
 import org.apache.stanbol.enhancer.nlp.ner.NerTag;
 import org.apache.stanbol.enhancer.nlp.utils.LanguageConfiguration;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
@@ -142,8 +143,15 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
     @Property(name=IndexConfiguration.SOLR_RANKING_FIELD, value="entityhub:entityRank"),
     @Property(name=FstLinkingEngineComponent.FST_THREAD_POOL_SIZE,
         intValue=FstLinkingEngineComponent.DEFAULT_FST_THREAD_POOL_SIZE),
+    @Property(name=FstLinkingEngineComponent.PRELOAD_CORPORA,
+        boolValue=FstLinkingEngineComponent.DEFAULT_PRELOAD_CORPORA),
+    @Property(name=IndexConfiguration.INCREMENTAL_UPDATES, boolValue=false),
+    @Property(name=IndexConfiguration.DELTA_MERGE_THRESHOLD,
+        intValue=IndexConfiguration.DEFAULT_DELTA_MERGE_THRESHOLD),
     @Property(name=FstLinkingEngineComponent.ENTITY_CACHE_SIZE, 
         intValue=FstLinkingEngineComponent.DEFAULT_ENTITY_CACHE_SIZE),
+    @Property(name=FstLinkingEngineComponent.OFF_HEAP_ENTITY_CACHE_SIZE, 
+        intValue=FstLinkingEngineComponent.DEFAULT_OFF_HEAP_ENTITY_CACHE_SIZE),
     @Property(name=SUGGESTIONS, intValue=DEFAULT_SUGGESTIONS),
     @Property(name=INCLUDE_SIMILAR_SCORE, boolValue=DEFAULT_INCLUDE_SIMILAR_SCORE),
     @Property(name=CASE_SENSITIVE,boolValue=DEFAULT_CASE_SENSITIVE_MATCHING_STATE),
@@ -211,6 +219,16 @@ public class FstLinkingEngineComponent {
      * The default number of threads used to create FST models (default=1)
      */
     public static final int DEFAULT_FST_THREAD_POOL_SIZE = 1;    
+    /**
+     * If enabled FST corpora that are up to date with the Solr index are
+     * loaded by the {@link #FST_THREAD_POOL_SIZE FST thread pool} when the
+     * engine is activated. Otherwise corpora are loaded on the first request.
+     */
+    public static final String PRELOAD_CORPORA = "enhancer.engines.linking.lucenefst.preloadCorpora";
+    /**
+     * By default FST corpora are loaded on the first request
+     */
+    public static final boolean DEFAULT_PRELOAD_CORPORA = false;
     /**
      * Parameter used to configure the size of the Cache used to for Entity information.
      * While the FST linking is fully performed in memory this engine needs still to
@@ -223,6 +241,17 @@ public class FstLinkingEngineComponent {
      * The default size of the Entity Cache is set to 65k entities.
      */
     public static final int DEFAULT_ENTITY_CACHE_SIZE = 65536;
+    /**
+     * Parameter used to configure the size (in MByte) of an off-heap
+     * EntityCache. If set to a value &gt; 0 an {@link OffHeapEntityCacheManager}
+     * is used instead of the on-heap cache configured by 
+     * {@link #ENTITY_CACHE_SIZE}.
+     */
+    public static final String OFF_HEAP_ENTITY_CACHE_SIZE = "enhancer.engines.linking.lucenefst.offHeapEntityCacheSize";
+    /**
+     * By default the on-heap EntityCache is used
+     */
+    public static final int DEFAULT_OFF_HEAP_ENTITY_CACHE_SIZE = 0;
 
     /**
      * Changed default for the {@link EntityLinkerConfig#MIN_FOUND_TOKENS} property.
@@ -344,6 +373,26 @@ public class FstLinkingEngineComponent {
      * The size of the EntityCache ( <code>0</code> ... means deactivated)
      */
     private int entityCacheSize;
+    /**
+     * The size of the off-heap EntityCache in MByte ( <code>0</code> ... 
+     * means the on-heap cache is used)
+     */
+    private int offHeapEntityCacheSize;
+    /**
+     * If FST corpora are loaded on activation
+     * @see #PRELOAD_CORPORA
+     */
+    private boolean preloadCorpora;
+    /**
+     * If delta corpora are used for documents added to the index
+     * @see IndexConfiguration#INCREMENTAL_UPDATES
+     */
+    private boolean incrementalUpdates;
+    /**
+     * The number of documents in delta corpora that trigger a rebuild
+     * @see IndexConfiguration#DELTA_MERGE_THRESHOLD
+     */
+    private int deltaMergeThreshold;
 
     private Map<String,Set<String>> nerTypeMappings;
     
@@ -555,6 +604,44 @@ public class FstLinkingEngineComponent {
                 + "still not finished!");
         }
         fstCreatorService = Executors.newFixedThreadPool(tpSize,tfBuilder.build());
+        //parse if FST corpora are loaded on activation
+        value = properties.get(PRELOAD_CORPORA);
+        if(value instanceof Boolean){
+            preloadCorpora = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            preloadCorpora = Boolean.parseBoolean(value.toString());
+        } else {
+            preloadCorpora = DEFAULT_PRELOAD_CORPORA;
+        }
+        //parse the incremental update configuration
+        value = properties.get(IndexConfiguration.INCREMENTAL_UPDATES);
+        if(value instanceof Boolean){
+            incrementalUpdates = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            incrementalUpdates = Boolean.parseBoolean(value.toString());
+        } else {
+            incrementalUpdates = false;
+        }
+        value = properties.get(IndexConfiguration.DELTA_MERGE_THRESHOLD);
+        if(value instanceof Number){
+            deltaMergeThreshold = ((Number)value).intValue();
+        } else if (value != null){
+            try {
+                deltaMergeThreshold = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(IndexConfiguration.DELTA_MERGE_THRESHOLD, 
+                    "Unable to parse the integer delta merge threshold from the "
+                    + "configured "+value.getClass().getSimpleName()+" '" 
+                    + value+"'!",e);
+            }
+        } else {
+            deltaMergeThreshold = -1; //use the default
+        }
+        if(incrementalUpdates){
+            log.info(" ... incremental FST updates enabled (merge threshold: {})",
+                deltaMergeThreshold > 0 ? deltaMergeThreshold : 
+                    IndexConfiguration.DEFAULT_DELTA_MERGE_THRESHOLD);
+        }
         
         //(7) Parse the EntityCache config
         int entityCacheSize;
@@ -580,6 +667,24 @@ public class FstLinkingEngineComponent {
             this.entityCacheSize = entityCacheSize < 0 ? DEFAULT_ENTITY_CACHE_SIZE : entityCacheSize;
         	log.info(" ... EntityCache enabled (size: {})",this.entityCacheSize);
         }
+        value = properties.get(OFF_HEAP_ENTITY_CACHE_SIZE);
+        if(value instanceof Number){
+            offHeapEntityCacheSize = ((Number)value).intValue();
+        } else if (value != null && !StringUtils.isBlank(value.toString())){
+            try {
+                offHeapEntityCacheSize = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(OFF_HEAP_ENTITY_CACHE_SIZE, 
+                    "Unable to parse the integer off-heap EntityCache size from the "
+                    + "configured "+value.getClass().getSimpleName()+" '" 
+                    + value+"'!",e);
+            }
+        } else {
+            offHeapEntityCacheSize = DEFAULT_OFF_HEAP_ENTITY_CACHE_SIZE;
+        }
+        if(offHeapEntityCacheSize > 0){
+            log.info(" ... use off-heap EntityCache (size: {}MByte)", offHeapEntityCacheSize);
+        }
         
         //(8) parse the Entity type field
         value = properties.get(IndexConfiguration.SOLR_TYPE_FIELD);
@@ -774,12 +879,17 @@ public class FstLinkingEngineComponent {
                 //      FST directory of the SolrCore.
                 indexConfig.setFstDirectory(getFstDirectory(core, fstFolder));
                 //set the DocumentCacheFactory
-                if(entityCacheSize > 0){
+                if(offHeapEntityCacheSize > 0){
+                    indexConfig.setEntityCacheManager(new OffHeapEntityCacheManager(
+                        offHeapEntityCacheSize * 1024L * 1024L, core, fstCreatorService));
+                } else if(entityCacheSize > 0){
                     indexConfig.setEntityCacheManager(new FastLRUCacheManager(entityCacheSize));
                 } //else no entityCache is used
                 if(skipAltTokensConfig != null){
                     indexConfig.setSkipAltTokens(skipAltTokensConfig);
                 }
+                indexConfig.setIncrementalUpdates(incrementalUpdates);
+                indexConfig.setDeltaMergeThreshold(deltaMergeThreshold);
                 //activate the index configuration
                 try {
                     //this will init the FST directory if necessary so we might run
@@ -801,9 +911,13 @@ public class FstLinkingEngineComponent {
                         Arrays.toString(langArray));
                 }
                 //check if we need to create some FST files
-                for(CorpusInfo fstInfo : indexConfig.getCorpora()){
-                    //check if the fst does not exist and the fstInfo allows creation
-                    if(!fstInfo.fst.exists() && fstInfo.allowCreation){
+                for(final CorpusInfo fstInfo : indexConfig.getCorpora()){
+                    //check if the fst does not exist or is known to be outdated
+                    //and the fstInfo allows creation. Outdated FST corpora 
+                    //are not rebuilt if they can be updated by a delta
+                    if(fstInfo.allowCreation && (!fstInfo.fst.exists() || 
+                            (fstInfo.isFstOutdated(indexConfig.getVersion()) &&
+                                (!incrementalUpdates || fstInfo.getSegments() == null)))){
                         //create a task on the FST corpus creation service
                         fstInfo.corpusLock.writeLock().lock();
                         try {
@@ -812,6 +926,14 @@ public class FstLinkingEngineComponent {
                         } finally {
                             fstInfo.corpusLock.writeLock().unlock();
                         }
+                    } else if(preloadCorpora && fstInfo.isFstFile()){
+                        log.debug(" ... enqueue loading of {}", fstInfo);
+                        fstCreatorService.submit(new Runnable() {
+                            @Override
+                            public void run() {
+                                fstInfo.getCorpus();
+                            }
+                        });
                     }
                 }
                 
@@ -135,6 +135,19 @@ public class IndexConfiguration {
      * tokens should cause an {@link UnsupportedTokenException}.
      */
     private boolean skipAltTokens;
+    /**
+     * If delta corpora are used for documents added to the index
+     */
+    private boolean incrementalUpdates = false;
+    /**
+     * The number of documents in a delta that triggers a rebuild
+     */
+    private int deltaMergeThreshold = DEFAULT_DELTA_MERGE_THRESHOLD;
+    /**
+     * The maximum time (in milliseconds) a tagging session waits for an 
+     * enqueued delta corpus
+     */
+    private long deltaWaitTime = DEFAULT_DELTA_WAIT_TIME;
 
     /**
      * The default language
@@ -159,6 +172,27 @@ public class IndexConfiguration {
      * For other Solr configurations users will neet to explicitly activate this.
      */
     public static final String SKIP_ALT_TOKENS = "enhancer.engines.linking.lucenefst.skipAltTokens";
+    /**
+     * If enabled, documents added to the Solr index after a FST corpus was
+     * built are indexed in a small delta corpus instead of rebuilding the
+     * whole FST corpus (see {@link DeltaCorpusCreationTask}). Requires runtime
+     * generation to be enabled.
+     */
+    public static final String INCREMENTAL_UPDATES = "enhancer.engines.linking.lucenefst.incrementalUpdates";
+    /**
+     * The number of documents in a delta corpus that triggers the rebuilding
+     * of the FST corpus (merging the delta).
+     */
+    public static final String DELTA_MERGE_THRESHOLD = "enhancer.engines.linking.lucenefst.deltaMergeThreshold";
+    /**
+     * By default the FST corpus is rebuilt if 10000 documents where added
+     */
+    public static final int DEFAULT_DELTA_MERGE_THRESHOLD = 10000;
+    /**
+     * By default tagging sessions wait up to 10 seconds for an enqueued
+     * delta corpus
+     */
+    public static final long DEFAULT_DELTA_WAIT_TIME = 10000;
     
     /**
      * Property used to configure the FieldName encoding of the SolrIndex. This
@@ -835,5 +869,45 @@ public class IndexConfiguration {
         this.skipAltTokens = skipAltTokens;
         
     }
+    /**
+     * If documents added to the Solr index are indexed in delta corpora
+     * @return the incremental update state
+     * @see #INCREMENTAL_UPDATES
+     */
+    public boolean isIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+    
+    public void setIncrementalUpdates(boolean incrementalUpdates) {
+        this.incrementalUpdates = incrementalUpdates;
+    }
+    /**
+     * The number of documents in a delta corpus that triggers rebuilding
+     * the FST corpus
+     * @return the merge threshold
+     * @see #DELTA_MERGE_THRESHOLD
+     */
+    public int getDeltaMergeThreshold() {
+        return deltaMergeThreshold;
+    }
+    
+    public void setDeltaMergeThreshold(int deltaMergeThreshold) {
+        this.deltaMergeThreshold = deltaMergeThreshold <= 0 ? 
+                DEFAULT_DELTA_MERGE_THRESHOLD : deltaMergeThreshold;
+    }
+    /**
+     * The maximum time (in milliseconds) a {@link TaggingSession} waits for
+     * an enqueued delta corpus. If the delta is not built in time the 
+     * previous delta (if any) is used.
+     * @return the wait time in milliseconds
+     */
+    public long getDeltaWaitTime() {
+        return deltaWaitTime;
+    }
+    
+    public void setDeltaWaitTime(long deltaWaitTime) {
+        this.deltaWaitTime = deltaWaitTime < 0 ? 
+                DEFAULT_DELTA_WAIT_TIME : deltaWaitTime;
+    }
 
 }
@@ -159,8 +159,9 @@ public class TaggingSession implements Closeable {
 
         //obtain the language specific fields for the session
         if(langCorpusInfo != null){
-            this.langCorpus = new Corpus(langCorpusInfo,
-                obtainFstCorpus(indexVersion,langCorpusInfo));
+            TaggerFstCorpus langFst = obtainFstCorpus(indexVersion,langCorpusInfo);
+            this.langCorpus = new Corpus(langCorpusInfo, langFst,
+                obtainDeltaCorpus(indexVersion, langCorpusInfo, langFst));
             this.labelField = langCorpusInfo.storedField;
             solrDocfields.add(labelField);
             this.labelLang = langCorpusInfo.language == null || 
@@ -171,8 +172,9 @@ public class TaggingSession implements Closeable {
             this.labelLang = null; 
         }
         if(defaultCorpusInfo != null && !defaultCorpusInfo.equals(langCorpusInfo)){
-            this.defaultCorpus = new Corpus(defaultCorpusInfo,
-                obtainFstCorpus(indexVersion,defaultCorpusInfo));
+            TaggerFstCorpus defaultFst = obtainFstCorpus(indexVersion,defaultCorpusInfo);
+            this.defaultCorpus = new Corpus(defaultCorpusInfo, defaultFst,
+                obtainDeltaCorpus(indexVersion, defaultCorpusInfo, defaultFst));
             this.defaultLabelField = defaultCorpusInfo.storedField;
             solrDocfields.add(defaultLabelField);
             this.defaultLabelLang = defaultCorpusInfo.language == null || 
@@ -366,7 +368,14 @@ public class TaggingSession implements Closeable {
             }
         } else { //fstCorpus != null
             //check if the current FST corpus is up to date with the Solr index
-            if(indexVersion != null && indexVersion.longValue() != fstCorpus.getIndexVersion()){
+            if(indexVersion != null && indexVersion.longValue() != fstCorpus.getIndexVersion() &&
+                    isIncrementalUpdates(fstInfo)){
+                //documents added since the corpus was built are tagged by using
+                //a delta corpus. Rebuilding the corpus (if enqueued) is done in
+                //the background
+                log.debug(" - FST corpus for language '{}' is outdated. Will use delta corpus",
+                    fstInfo.language);
+            } else if(indexVersion != null && indexVersion.longValue() != fstCorpus.getIndexVersion()){
                 log.debug(" - FST corpus for language '{}' is outdated", fstInfo.language);
                 fstInfo.corpusLock.readLock().lock();
                 try {
@@ -423,24 +432,71 @@ public class TaggingSession implements Closeable {
         return fstCorpus;
     }
     /**
-     * @param fstInfo
-     * @return
+     * If delta corpora are used for the parsed corpus info
+     * @param fstInfo the corpus info
+     * @return the state
      */
-    private Future<TaggerFstCorpus> enqueue(CorpusInfo fstInfo) {
-        Future<TaggerFstCorpus> enqueuedCorpus;
+    private boolean isIncrementalUpdates(CorpusInfo fstInfo){
+        return config.isIncrementalUpdates() && fstInfo.allowCreation && 
+                config.getExecutorService() != null;
+    }
+    /**
+     * Obtains the delta corpus with the labels of documents added to the
+     * index after the parsed FST corpus was built.
+     * @param indexVersion the current version of the index
+     * @param fstInfo the info about the corpus
+     * @param fstCorpus the FST corpus as returned by 
+     * {@link #obtainFstCorpus(Long, CorpusInfo)}
+     * @return the delta corpus or <code>null</code> if none is needed or
+     * available
+     */
+    private TaggerFstCorpus obtainDeltaCorpus(Long indexVersion, CorpusInfo fstInfo, 
+            TaggerFstCorpus fstCorpus) {
+        if(fstCorpus == null || indexVersion == null || !isIncrementalUpdates(fstInfo) ||
+                indexVersion.longValue() == fstCorpus.getIndexVersion()){
+            return null; //no delta needed
+        }
+        Future<TaggerFstCorpus> enqueuedDelta;
         fstInfo.corpusLock.writeLock().lock();
         try {
-            enqueuedCorpus = fstInfo.getEnqueued(); //check again in write lock
-            if(enqueuedCorpus == null){
-                //enqueue for re-creation
-                enqueuedCorpus = config.getExecutorService().submit(
-                    new CorpusCreationTask(config, fstInfo));
-                fstInfo.enqueued(enqueuedCorpus);;
+            if(fstInfo.getDeltaVersion() == indexVersion.longValue()){
+                log.debug(" - delta for FST corpus for language '{}' is up to date", 
+                    fstInfo.language);
+                return fstInfo.getDeltaCorpus();
+            }
+            enqueuedDelta = fstInfo.getEnqueuedDelta();
+            //do not build a delta while the corpus is rebuilt
+            if(enqueuedDelta == null && fstInfo.getEnqueued() == null){
+                log.debug(" - enqueue creation of delta for {}", fstInfo);
+                enqueuedDelta = config.getExecutorService().submit(
+                    new DeltaCorpusCreationTask(config, fstInfo));
+                fstInfo.enqueuedDelta(enqueuedDelta);
             }
         } finally {
             fstInfo.corpusLock.writeLock().unlock();
         }
-        return enqueuedCorpus;
+        if(enqueuedDelta != null){
+            try {
+                enqueuedDelta.get(config.getDeltaWaitTime(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); //recover interrupted state
+            } catch (ExecutionException e) {
+                log.warn("Unable to build delta for FST corpus " + fstInfo, e);
+            } catch (TimeoutException e) {
+                log.debug("unable to build delta for {} in time. Will use previous version", fstInfo);
+            } catch (CancellationException e) {
+                log.debug("building of delta for {} was cancelled. Will use previous version", fstInfo);
+            }
+        }
+        //NOTE: the delta might be outdated, but documents in it are still valid
+        return fstInfo.getDeltaCorpus();
+    }
+    /**
+     * @param fstInfo
+     * @return
+     */
+    private Future<TaggerFstCorpus> enqueue(CorpusInfo fstInfo) {
+        return CorpusCreationTask.enqueue(config, fstInfo);
     }
     /**
      * The current version of the SolrIndex as reported by the {@link IndexReader}
@@ -528,9 +584,9 @@ public class TaggingSession implements Closeable {
                             doc.add(new StringField(LOADED_FIELDS_FIELD_NAME, 
                                 loadedField, Store.NO));
                         }
-                        //NOTE: no need to update the cache, as we have updated the
-                        //cached value.
-                        //cache.cache(ID, doc);
+                        //NOTE: update the cache as implementations might not
+                        //cache the Document instance (e.g. off-heap caches)
+                        cache.cache(ID, doc);
                         docAppended++;
                     } else {
                         docCached++;
@@ -618,10 +674,12 @@ public class TaggingSession implements Closeable {
         
         private CorpusInfo corpusInfo;
         private TaggerFstCorpus fst;
+        private TaggerFstCorpus deltaFst;
 
-        Corpus(CorpusInfo corpusInfo, TaggerFstCorpus fst){
+        Corpus(CorpusInfo corpusInfo, TaggerFstCorpus fst, TaggerFstCorpus deltaFst){
             this.corpusInfo = corpusInfo;
             this.fst = fst;
+            this.deltaFst = deltaFst;
         }
         
         public String getLanugage(){
@@ -638,6 +696,14 @@ public class TaggingSession implements Closeable {
         public TaggerFstCorpus getFst(){
             return fst;
         }
+        /**
+         * The delta corpus for documents added to the index after the
+         * {@link #getFst() FST corpus} was built
+         * @return the delta corpus or <code>null</code> if none
+         */
+        public TaggerFstCorpus getDeltaFst(){
+            return deltaFst;
+        }
 
         public String getIndexedField() {
             return corpusInfo.indexedField;
@@ -16,6 +16,8 @@
 */
 package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
 
+import java.util.Map;
+
 import org.apache.lucene.document.Document;
 import org.apache.solr.common.SolrDocument;
 
@@ -54,6 +56,13 @@ public interface EntityCache {
      */
     int size();
     
+    /**
+     * The statistics for this Cache (e.g. lookups, hits, evictions and - if
+     * supported - the number of bytes used by the cache)
+     * @return the statistics as name value pairs
+     */
+    Map<String,Object> getStatistics();
+    
     /**
      * The statistics for this Cache
      * @return 
@@ -0,0 +1,634 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EntityCache} implementation that stores the fields of cached
+ * {@link Document}s in a compact binary form outside of the Java heap.
+ * <p>
+ * Cached documents are appended to a ring of direct {@link ByteBuffer} slabs.
+ * If the ring is full the oldest slab is evicted as a whole (FIFO semantic).
+ * Lucene document ids are mapped to the position of the data by a primitive
+ * open addressing hash map. Because of that the number of Java objects does
+ * not depend on the number of cached entities and caching a whole
+ * vocabulary does not increase garbage collection pauses. {@link Document}s
+ * are created on every call to {@link #get(Integer)}.
+ * <p>
+ * The size of the cache is configured in bytes. Slabs are allocated lazily.
+ * Memory of direct buffers is freed by the garbage collector after the cache
+ * was {@link #close() closed}.
+ */
+public class OffHeapEntityCache implements EntityCache {
+    
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_FLOAT = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_BINARY = 5;
+    /**
+     * Each entry starts with the Lucene document id and the length of the data
+     */
+    private static final int HEADER_SIZE = 8;
+    /**
+     * The minimum size of a slab (64 kByte)
+     */
+    protected static final int MIN_SLAB_SIZE = 64 * 1024;
+    /**
+     * The maximum size of a slab (4 MByte)
+     */
+    protected static final int MAX_SLAB_SIZE = 4 * 1024 * 1024;
+
+    private final Object version;
+    private final FieldNames fieldNames;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int slabSize;
+    private final ByteBuffer[] slabs;
+    private final int[] slabLimits;
+    private int writeSlab = 0;
+    private DocIndex index = new DocIndex();
+    private long usedBytes = 0;
+    private boolean closed;
+    /**
+     * The segments of the index this cache is used for. Used for warming
+     * caches of later versions
+     */
+    private volatile List<String> segments;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long inserts = 0;
+    private long evictions = 0;
+    private long rejected = 0;
+    private long warmed = 0;
+
+    /**
+     * Creates an off-heap EntityCache with the parsed maximum size
+     * @param version the version of the cache
+     * @param maxBytes the maximum number of bytes used by this cache. MUST
+     * BE at least two times {@link #MIN_SLAB_SIZE}
+     */
+    public OffHeapEntityCache(Object version, long maxBytes) {
+        this(version, maxBytes, new FieldNames());
+    }
+    
+    /**
+     * Creates an off-heap EntityCache that uses the parsed dictionary for 
+     * field names. Caches sharing the same dictionary can copy their raw data. 
+     */
+    OffHeapEntityCache(Object version, long maxBytes, FieldNames fieldNames) {
+        log.debug("> create {} for version {} (maxBytes: {})", new Object[]{
+                getClass().getSimpleName(), version, maxBytes});
+        if(maxBytes < 2 * MIN_SLAB_SIZE){
+            throw new IllegalArgumentException("The parsed maximum size of the cache "
+                + "MUST BE >= " + (2 * MIN_SLAB_SIZE) + " bytes (parsed: " + maxBytes + ")!");
+        }
+        this.version = version;
+        this.fieldNames = fieldNames;
+        //use ~64 slabs for big caches
+        this.slabSize = (int)Math.max(MIN_SLAB_SIZE, Math.min(MAX_SLAB_SIZE, maxBytes / 64));
+        int numSlabs = (int)Math.min(Integer.MAX_VALUE, maxBytes / slabSize);
+        this.slabs = new ByteBuffer[numSlabs];
+        this.slabLimits = new int[numSlabs];
+    }
+    
+    @Override
+    public Object getVersion() {
+        return version;
+    }
+
+    @Override
+    public Document get(Integer docId) {
+        if(docId == null){
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            if(closed){
+                return null;
+            }
+            long pointer = index.get(docId.intValue());
+            if(pointer < 0){
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            ByteBuffer data = slabs[getSlab(pointer)].duplicate();
+            data.position(getOffset(pointer) + HEADER_SIZE);
+            return decode(data);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void cache(Integer docId, Document doc) {
+        if(docId == null || doc == null){
+            return;
+        }
+        log.trace(" - cache id:{} | {}",docId, doc);
+        byte[] data = encode(doc); //encode outside of the lock
+        lock.writeLock().lock();
+        try {
+            if(!closed){
+                put(docId.intValue(), data, true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    /**
+     * The number of bytes used by the data of cached entities
+     * @return the used bytes
+     */
+    public long getUsedBytes(){
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    /**
+     * The maximum number of bytes used by this cache
+     * @return the capacity in bytes
+     */
+    public long getMaxBytes(){
+        return (long)slabSize * slabs.length;
+    }
+    
+    @Override
+    public Map<String,Object> getStatistics() {
+        Map<String,Object> stats = new LinkedHashMap<String,Object>();
+        long hits = this.hits.get();
+        long lookups = hits + misses.get();
+        lock.readLock().lock();
+        try {
+            long allocated = 0;
+            for(ByteBuffer slab : slabs){
+                if(slab != null){
+                    allocated = allocated + slab.capacity();
+                }
+            }
+            stats.put("size", index.size());
+            stats.put("usedBytes", usedBytes);
+            stats.put("allocatedBytes", allocated);
+            stats.put("maxBytes", getMaxBytes());
+            stats.put("lookups", lookups);
+            stats.put("hits", hits);
+            stats.put("hitratio", lookups > 0 ? Math.round(hits * 100d / lookups) / 100d : 0d);
+            stats.put("inserts", inserts);
+            stats.put("evictions", evictions);
+            stats.put("rejected", rejected);
+            stats.put("warmed", warmed);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+    
+    @Override
+    public String printStatistics() {
+        return getStatistics().toString();
+    }
+    
+    void setSegments(List<String> segments) {
+        this.segments = segments;
+    }
+    
+    List<String> getSegments() {
+        return segments;
+    }
+    
+    /**
+     * Copies all entries of the parsed cache with a Lucene document id 
+     * lower than the parsed value to this cache. Entries already present
+     * in this cache are not replaced.
+     * @param previous the cache to copy the entries from. MUST use the same
+     * {@link FieldNames} as this cache.
+     * @param maxDocId the exclusive upper bound for the copied document ids
+     * @return the number of copied entries
+     */
+    int warm(OffHeapEntityCache previous, int maxDocId){
+        if(previous.fieldNames != fieldNames){
+            throw new IllegalArgumentException("The parsed Cache uses a different "
+                + "field name dictionary!");
+        }
+        int count = 0;
+        //start with the oldest slab so that the newest entries are most recent
+        for(int age = 1; age <= previous.slabs.length; age++){
+            count = count + previous.copySlab(age, maxDocId, this);
+        }
+        return count;
+    }
+    /**
+     * Copies the live entries of a slab to the target cache
+     * @param age the age of the slab (<code>1</code> ... oldest; number of
+     * slabs ... the current slab)
+     */
+    private int copySlab(int age, int maxDocId, OffHeapEntityCache target){
+        lock.readLock().lock();
+        try {
+            if(closed){
+                return 0;
+            }
+            int slabIndex = (writeSlab + age) % slabs.length;
+            ByteBuffer slab = slabs[slabIndex];
+            if(slab == null){
+                return 0;
+            }
+            slab = slab.duplicate();
+            int limit = slabLimits[slabIndex];
+            int count = 0;
+            target.lock.writeLock().lock();
+            try {
+                if(target.closed){
+                    return 0;
+                }
+                int offset = 0;
+                while(offset < limit){
+                    int docId = slab.getInt(offset);
+                    int length = slab.getInt(offset + 4);
+                    if(docId < maxDocId && index.get(docId) == getPointer(slabIndex, offset)){
+                        byte[] data = new byte[length];
+                        slab.position(offset + HEADER_SIZE);
+                        slab.get(data);
+                        if(target.put(docId, data, false)){
+                            count++;
+                        }
+                    }
+                    offset = offset + HEADER_SIZE + length;
+                }
+                target.warmed = target.warmed + count;
+            } finally {
+                target.lock.writeLock().unlock();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    /**
+     * Appends the data to the current slab. MUST BE called while holding the
+     * write lock
+     * @param docId the Lucene document id
+     * @param data the encoded document
+     * @param replace if existing entries are replaced
+     * @return if the data where added
+     */
+    private boolean put(int docId, byte[] data, boolean replace){
+        int entrySize = HEADER_SIZE + data.length;
+        if(entrySize > slabSize){
+            log.debug("unable to cache document {} because its size {} exceeds the "
+                + "slab size {}", new Object[]{docId, entrySize, slabSize});
+            rejected++;
+            return false;
+        }
+        if(!replace && index.get(docId) >= 0){
+            return false;
+        }
+        if(slabLimits[writeSlab] + entrySize > slabSize){ //current slab is full
+            writeSlab = (writeSlab + 1) % slabs.length;
+            evict(writeSlab);
+        }
+        ByteBuffer slab = slabs[writeSlab];
+        if(slab == null){ //lazy allocation
+            slab = ByteBuffer.allocateDirect(slabSize);
+            slabs[writeSlab] = slab;
+        }
+        int offset = slabLimits[writeSlab];
+        slab.putInt(offset, docId);
+        slab.putInt(offset + 4, data.length);
+        ByteBuffer dup = slab.duplicate();
+        dup.position(offset + HEADER_SIZE);
+        dup.put(data);
+        slabLimits[writeSlab] = offset + entrySize;
+        long old = index.put(docId, getPointer(writeSlab, offset));
+        if(old >= 0){ //replaced an existing entry
+            usedBytes = usedBytes - HEADER_SIZE - slabs[getSlab(old)].getInt(getOffset(old) + 4);
+        }
+        usedBytes = usedBytes + entrySize;
+        inserts++;
+        return true;
+    }
+    /**
+     * Removes all entries stored in the parsed slab from the index. MUST BE
+     * called while holding the write lock
+     */
+    private void evict(int slabIndex){
+        ByteBuffer slab = slabs[slabIndex];
+        int limit = slabLimits[slabIndex];
+        int offset = 0;
+        while(offset < limit){
+            int docId = slab.getInt(offset);
+            int length = slab.getInt(offset + 4);
+            //entries might have been replaced by newer versions
+            if(index.get(docId) == getPointer(slabIndex, offset)){
+                index.remove(docId);
+                usedBytes = usedBytes - HEADER_SIZE - length;
+                evictions++;
+            }
+            offset = offset + HEADER_SIZE + length;
+        }
+        slabLimits[slabIndex] = 0;
+    }
+    
+    private static long getPointer(int slab, int offset){
+        return ((long)slab << 32) | offset;
+    }
+    private static int getSlab(long pointer){
+        return (int)(pointer >>> 32);
+    }
+    private static int getOffset(long pointer){
+        return (int)pointer;
+    }
+    
+    private byte[] encode(Document doc){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            List<IndexableField> fields = doc.getFields();
+            out.writeShort(fields.size());
+            for(IndexableField field : fields){
+                out.writeShort(fieldNames.getId(field.name()));
+                Number num = field.numericValue();
+                if(num != null){
+                    if(num instanceof Integer){
+                        out.writeByte(TYPE_INT);
+                        out.writeInt(num.intValue());
+                    } else if(num instanceof Long){
+                        out.writeByte(TYPE_LONG);
+                        out.writeLong(num.longValue());
+                    } else if(num instanceof Float){
+                        out.writeByte(TYPE_FLOAT);
+                        out.writeFloat(num.floatValue());
+                    } else {
+                        out.writeByte(TYPE_DOUBLE);
+                        out.writeDouble(num.doubleValue());
+                    }
+                } else if(field.stringValue() != null){
+                    out.writeByte(TYPE_STRING);
+                    byte[] value = field.stringValue().getBytes(UTF8);
+                    out.writeInt(value.length);
+                    out.write(value);
+                } else {
+                    BytesRef value = field.binaryValue();
+                    out.writeByte(TYPE_BINARY);
+                    if(value != null){
+                        out.writeInt(value.length);
+                        out.write(value.bytes, value.offset, value.length);
+                    } else {
+                        out.writeInt(0);
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) { //not thrown by ByteArrayOutputStream
+            throw new IllegalStateException("Unable to encode Document "+doc, e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private Document decode(ByteBuffer data){
+        Document doc = new Document();
+        int numFields = data.getShort();
+        for(int i = 0; i < numFields; i++){
+            String name = fieldNames.getName(data.getShort());
+            byte type = data.get();
+            switch (type) {
+                case TYPE_STRING:
+                    byte[] value = new byte[data.getInt()];
+                    data.get(value);
+                    doc.add(new StoredField(name, new String(value, UTF8)));
+                    break;
+                case TYPE_INT:
+                    doc.add(new StoredField(name, data.getInt()));
+                    break;
+                case TYPE_LONG:
+                    doc.add(new StoredField(name, data.getLong()));
+                    break;
+                case TYPE_FLOAT:
+                    doc.add(new StoredField(name, data.getFloat()));
+                    break;
+                case TYPE_DOUBLE:
+                    doc.add(new StoredField(name, data.getDouble()));
+                    break;
+                case TYPE_BINARY:
+                    byte[] binary = new byte[data.getInt()];
+                    data.get(binary);
+                    doc.add(new StoredField(name, binary));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown field type "+type
+                        +" for field "+name+"!");
+            }
+        }
+        return doc;
+    }
+    
+    @Override
+    public String toString() {
+        return new StringBuilder(getClass().getSimpleName()).append(" [version: ")
+                .append(version).append(" | maxBytes: ").append(getMaxBytes())
+                .append(']').toString();
+    }
+    
+    void close(){
+        lock.writeLock().lock();
+        try {
+            log.debug(" ... close EntityCache for version {} (size: {} | usedBytes: {})",
+                new Object[]{version, index.size(), usedBytes});
+            closed = true;
+            Arrays.fill(slabs, null); //direct buffers are freed by the GC
+            Arrays.fill(slabLimits, 0);
+            index = new DocIndex();
+            usedBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Dictionary for field names. Shared by all caches of an 
+     * {@link OffHeapEntityCacheManager}.
+     */
+    static final class FieldNames {
+        
+        private final Map<String,Integer> ids = new HashMap<String,Integer>();
+        private volatile String[] names = new String[0];
+        
+        synchronized int getId(String name){
+            Integer id = ids.get(name);
+            if(id == null){
+                String[] current = names;
+                if(current.length >= Short.MAX_VALUE){
+                    throw new IllegalStateException("Unable to encode more as "
+                        + Short.MAX_VALUE + " field names!");
+                }
+                id = Integer.valueOf(current.length);
+                String[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[id] = name;
+                names = updated;
+                ids.put(name, id);
+            }
+            return id.intValue();
+        }
+        
+        String getName(int id){
+            return names[id];
+        }
+    }
+    
+    /**
+     * Open addressing hash map with <code>int</code> keys and positive 
+     * <code>long</code> values. Not thread safe.
+     */
+    private static final class DocIndex {
+        
+        private static final long EMPTY = -1L;
+        
+        private int[] keys;
+        private long[] values;
+        private int mask;
+        private int size;
+        
+        DocIndex() {
+            init(1024);
+        }
+        
+        private void init(int capacity){
+            keys = new int[capacity];
+            values = new long[capacity];
+            Arrays.fill(values, EMPTY);
+            mask = capacity - 1;
+            size = 0;
+        }
+        
+        private static int hash(int key){
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+        
+        int size(){
+            return size;
+        }
+        /**
+         * @return the value or <code>-1</code> if not present
+         */
+        long get(int key){
+            int i = hash(key) & mask;
+            while(values[i] != EMPTY){
+                if(keys[i] == key){
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return EMPTY;
+        }
+        /**
+         * @return the old value or <code>-1</code> if none
+         */
+        long put(int key, long value){
+            if((size + 1) * 4L > keys.length * 3L){ //load factor 0.75
+                int[] oldKeys = keys;
+                long[] oldValues = values;
+                init(keys.length * 2);
+                for(int i = 0; i < oldKeys.length; i++){
+                    if(oldValues[i] != EMPTY){
+                        put(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            int i = hash(key) & mask;
+            while(values[i] != EMPTY){
+                if(keys[i] == key){
+                    long old = values[i];
+                    values[i] = value;
+                    return old;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return EMPTY;
+        }
+        /**
+         * @return the removed value or <code>-1</code> if not present
+         */
+        long remove(int key){
+            int gap = hash(key) & mask;
+            while(values[gap] != EMPTY && keys[gap] != key){
+                gap = (gap + 1) & mask;
+            }
+            if(values[gap] == EMPTY){
+                return EMPTY;
+            }
+            long old = values[gap];
+            //shift following entries of the cluster backwards
+            int i = (gap + 1) & mask;
+            while(values[i] != EMPTY){
+                int home = hash(keys[i]) & mask;
+                if(i > gap ? (home <= gap || home > i) : (home <= gap && home > i)){
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+                i = (i + 1) & mask;
+            }
+            values[gap] = EMPTY;
+            size--;
+            return old;
+        }
+    }
+}
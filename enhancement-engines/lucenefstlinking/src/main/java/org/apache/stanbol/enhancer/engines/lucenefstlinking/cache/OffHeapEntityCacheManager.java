@@ -0,0 +1,252 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.DeltaCorpusCreationTask;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.cache.OffHeapEntityCache.FieldNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of the {@link EntityCacheManager} based on the
+ * {@link OffHeapEntityCache}. The size of caches is configured in bytes.
+ * <p>
+ * If a {@link SolrCore} and an {@link ExecutorService} are parsed, new
+ * caches are warmed in the background by copying the entries of the previous
+ * version for Lucene documents in segments that are unchanged in the new 
+ * version of the index. This expects the version objects parsed to
+ * {@link #getCache(Object)} to be the {@link IndexReader#getVersion() version}
+ * of the index reader (as {@link Long}).
+ */
+public class OffHeapEntityCacheManager implements EntityCacheManager {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    
+    RefCounted<EntityCache> current;
+    private final long maxBytes;
+    private final SolrCore core;
+    private final ExecutorService executorService;
+    private final FieldNames fieldNames = new FieldNames();
+    private ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Creates a cache manager instance without support for warming
+     * @param maxBytes the maximum number of bytes used by a cache
+     */
+    public OffHeapEntityCacheManager(long maxBytes){
+        this(maxBytes, null, null);
+    }
+    /**
+     * Creates a cache manager instance with support for warming
+     * @param maxBytes the maximum number of bytes used by a cache
+     * @param core the SolrCore the cached entities are read from or 
+     * <code>null</code> to deactivate warming
+     * @param executorService the executor used to warm new caches or 
+     * <code>null</code> to deactivate warming
+     */
+    public OffHeapEntityCacheManager(long maxBytes, SolrCore core, ExecutorService executorService){
+        log.debug("> create {} (maxBytes: {}| core: {})", new Object[]{
+                getClass().getSimpleName(), maxBytes, core == null ? null : core.getName()});
+        if(maxBytes < 2 * OffHeapEntityCache.MIN_SLAB_SIZE){
+            throw new IllegalArgumentException("The parsed maximum size of the cache "
+                + "MUST BE >= " + (2 * OffHeapEntityCache.MIN_SLAB_SIZE) 
+                + " bytes (parsed: " + maxBytes + ")!");
+        }
+        this.maxBytes = maxBytes;
+        this.core = core;
+        this.executorService = executorService;
+    }
+    
+    @Override
+    public RefCounted<EntityCache> getCache(Object version) {
+        lock.readLock().lock();
+        try {
+            if(current != null && current.get().getVersion().equals(version)){
+                current.incref(); //this increase is for the holder of the returned instance
+                return current;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        //still here ... looks like we need to build a new one
+        lock.writeLock().lock();
+        try {
+            //check again ... an other thread might have already built the cache
+            //for the requested version
+            if(current == null || !current.get().getVersion().equals(version)){
+                RefCounted<EntityCache> previous = current;
+                log.debug(" > create EntityCache for version {}", version);
+                OffHeapEntityCache cache = new OffHeapEntityCache(version, maxBytes, fieldNames);
+                current = new RefCountedImpl(cache);
+                //add a reference to the new cache by this class. This will be removed
+                //as soon as the instance is outdated
+                current.incref();
+                if(previous != null){
+                    log.debug(" > invalidate EntityCache for version {}", previous.get().getVersion());
+                    previous.incref(); //keep the previous cache until warming is done
+                    //remove the reference to the old instance. This will allow to
+                    //destroy the old cache as soon as it is no longer used
+                    previous.decref(); 
+                }
+                warm(cache, previous);
+            }
+            current.incref(); //this increase is for the holder of the returned instance
+            return current;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    /**
+     * Enqueues the warming of the parsed cache. Releases the reference to
+     * the previous cache after warming.
+     */
+    private void warm(OffHeapEntityCache cache, RefCounted<EntityCache> previous) {
+        if(core != null && executorService != null){
+            try {
+                executorService.execute(new WarmingTask(cache, previous));
+                return;
+            } catch (RejectedExecutionException e) {
+                log.debug("unable to warm EntityCache for version {} ({})", 
+                    cache.getVersion(), e.getMessage());
+            }
+        }
+        if(previous != null){
+            previous.decref();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if(current != null){
+                log.debug(" > close EntityCache for version {}", current.get().getVersion());
+                current.decref();
+                current = null;
+            }
+        } finally{ 
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * The number of documents in the leading segments that are equal in both
+     * parsed lists. Lucene document ids of those documents are the same in
+     * both versions of the index.
+     * @param previous the segments of the previous version
+     * @param segments the segments of the current version
+     * @return the number of documents in unchanged segments
+     */
+    static int getUnchangedDocs(List<String> previous, List<String> segments){
+        if(previous == null || segments == null){
+            return 0;
+        }
+        int docs = 0;
+        for(int i = 0; i < previous.size() && i < segments.size(); i++){
+            //deletions do not change the ids of other documents of the segment
+            String[] prevSegment = previous.get(i).split(":");
+            String[] segment = segments.get(i).split(":");
+            if(prevSegment[0].equals(segment[0]) && prevSegment[1].equals(segment[1])){
+                docs = docs + Integer.parseInt(segment[1]);
+            } else {
+                break;
+            }
+        }
+        return docs;
+    }
+    
+    /**
+     * Warms a new cache with entries of the previous one 
+     */
+    private class WarmingTask implements Runnable {
+        
+        private final OffHeapEntityCache cache;
+        private final RefCounted<EntityCache> previous;
+
+        WarmingTask(OffHeapEntityCache cache, RefCounted<EntityCache> previous){
+            this.cache = cache;
+            this.previous = previous;
+        }
+        
+        @Override
+        public void run() {
+            RefCounted<SolrIndexSearcher> searcherRef = null;
+            try {
+                if(core.isClosed()){
+                    return;
+                }
+                searcherRef = core.getSearcher();
+                IndexReader reader = searcherRef.get().getIndexReader();
+                if(!cache.getVersion().equals(Long.valueOf(reader.getVersion()))){
+                    log.debug("index version changed. Unable to warm EntityCache for version {}", 
+                        cache.getVersion());
+                    return;
+                }
+                List<String> segments = DeltaCorpusCreationTask.getSegments(reader);
+                cache.setSegments(segments);
+                if(previous != null){
+                    OffHeapEntityCache previousCache = (OffHeapEntityCache)previous.get();
+                    int unchangedDocs = getUnchangedDocs(previousCache.getSegments(), segments);
+                    if(unchangedDocs > 0){
+                        long start = System.currentTimeMillis();
+                        int warmed = cache.warm(previousCache, unchangedDocs);
+                        log.info(" ... warmed EntityCache for version {} with {} entities "
+                            + "of version {} ({}ms)", new Object[]{cache.getVersion(), warmed,
+                                    previousCache.getVersion(), System.currentTimeMillis()-start});
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to warm EntityCache for version " + cache.getVersion(), e);
+            } finally {
+                if(searcherRef != null){
+                    searcherRef.decref();
+                }
+                if(previous != null){
+                    previous.decref();
+                }
+            }
+        }
+    }
+    
+    /**
+     * {@link RefCounted} implementation that closes the {@link OffHeapEntityCache}
+     * when {@link #close()} is called by the super implementation.
+     */
+    protected class RefCountedImpl extends RefCounted<EntityCache>{
+        
+        public RefCountedImpl(OffHeapEntityCache resource) {
+            super(resource);
+        }
+        /**
+         * closes the {@link OffHeapEntityCache}
+         */
+        protected void close(){
+            log.debug(" > close EntityCache for version {}", get().getVersion());
+            ((OffHeapEntityCache)get()).close();
+        }
+    }
+}
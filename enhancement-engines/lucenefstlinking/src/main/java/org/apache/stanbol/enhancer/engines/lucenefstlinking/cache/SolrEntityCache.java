@@ -16,7 +16,11 @@
 */
 package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.lucene.document.Document;
+import org.apache.solr.common.util.NamedList;
 import org.apache.solr.search.SolrCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +71,16 @@ public class SolrEntityCache implements EntityCache {
     public int size() {
         return cache.size();
     }
+    @Override
+    public Map<String,Object> getStatistics() {
+        NamedList<?> statistics = cache.getStatistics();
+        Map<String,Object> stats = new LinkedHashMap<String,Object>();
+        for(int i = 0; i < statistics.size(); i++){
+            stats.put(statistics.getName(i), statistics.getVal(i));
+        }
+        return stats;
+    }
+    
     @Override
     public String printStatistics() {
         return cache.getStatistics().toString();
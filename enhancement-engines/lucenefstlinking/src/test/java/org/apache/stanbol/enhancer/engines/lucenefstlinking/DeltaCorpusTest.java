@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.engines.lucenefstlinking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
+import org.apache.solr.core.SolrCore;
+import org.apache.stanbol.commons.solr.IndexReference;
+import org.apache.stanbol.commons.solr.managed.ManagedSolrServer;
+import org.apache.stanbol.commons.solr.managed.standalone.StandaloneEmbeddedSolrServerProvider;
+import org.apache.stanbol.enhancer.engines.lucenefstlinking.TaggingSession.Corpus;
+import org.apache.stanbol.enhancer.nlp.utils.LanguageConfiguration;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.yard.solr.impl.SolrYard;
+import org.apache.stanbol.entityhub.yard.solr.impl.SolrYardConfig;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests the use of delta corpora for documents added to the Solr index
+ * after the FST corpus was built (see {@link DeltaCorpusCreationTask}).<p>
+ * NOTE: This uses its own Solr core as documents are added to the index.
+ */
+public class DeltaCorpusTest {
+
+    private final static Logger log = LoggerFactory.getLogger(DeltaCorpusTest.class);
+
+    public static final String TEST_YARD_ID = "dbpediaDelta";
+    public static final String TEST_SOLR_CORE_NAME = "dbpedia-delta";
+    public static final String TEST_SOLR_CORE_CONFIGURATION = "dbpedia_26k.solrindex.bz2";
+    protected static final String TEST_INDEX_REL_PATH = File.separatorChar + "target" + File.separatorChar
+                                                        + ManagedSolrServer.DEFAULT_SOLR_DATA_DIR;
+    /**
+     * The maximal time we wait for the creation of an FST model in the test
+     */
+    public static final long FST_CREATION_WAIT_TIME = 2000; //seconds
+
+    private static final String SURFACE_FORM = "http://dbpedia.org/ontology/surfaceForm";
+    private static final String TEST_ENTITY = "urn:test:stanbol:entity:";
+
+    private static SolrYard yard;
+    private static SolrCore core;
+    private static IndexConfiguration fstConfig;
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        String prefix = System.getProperty("basedir") == null ? "." : "${basedir}";
+        String solrServerDir = prefix + TEST_INDEX_REL_PATH;
+        log.info("Test Solr Server Directory: {}", solrServerDir);
+        System.setProperty(ManagedSolrServer.MANAGED_SOLR_DIR_PROPERTY, solrServerDir);
+        SolrYardConfig config = new SolrYardConfig(TEST_YARD_ID, TEST_SOLR_CORE_NAME);
+        config.setIndexConfigurationName(TEST_SOLR_CORE_CONFIGURATION);
+        config.setAllowInitialisation(true);
+        config.setImmediateCommit(true); //added documents need to be searchable
+        IndexReference solrIndexRef = IndexReference.parse(config.getSolrServerLocation());
+        SolrServer server = StandaloneEmbeddedSolrServerProvider.getInstance().getSolrServer(
+            solrIndexRef, config.getIndexConfigurationName());
+        Assert.assertNotNull("Unable to initialise SolrServer for testing",server);
+        core = ((EmbeddedSolrServer)server).getCoreContainer().getCore(
+            solrIndexRef.getIndex());
+        Assert.assertNotNull("Unable to get SolrCore '" + config.getIndexConfigurationName()
+            + "' from SolrServer "+server, core);
+        yard = new SolrYard(server,config,null);
+        LanguageConfiguration langConf = new LanguageConfiguration("not.used",
+            new String[]{"en;field=dbpedia-ont:surfaceForm;generate=true"});
+        fstConfig = new IndexConfiguration(langConf, core, FieldEncodingEnum.SolrYard,"");
+        executor = Executors.newFixedThreadPool(1);
+        fstConfig.setExecutorService(executor);
+        fstConfig.setIncrementalUpdates(true);
+        //documents added by previous runs require a fresh FST corpus
+        fstConfig.setFstDirectory(new File(core.getDataDir(),
+            "fst-" + System.currentTimeMillis()));
+        fstConfig.activate();
+        List<Future<?>> creationTasks = new ArrayList<Future<?>>();
+        for(CorpusInfo corpus : fstConfig.getCorpora()){
+            creationTasks.add(executor.submit(new CorpusCreationTask(fstConfig, corpus)));
+        }
+        for(Future<?> future : creationTasks){
+            try {
+                future.get(FST_CREATION_WAIT_TIME,TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                // we assert on future.isDone instead
+            }
+            Assert.assertTrue("FST Model creation not finished after "
+                + FST_CREATION_WAIT_TIME +"seconds", future.isDone());
+        }
+    }
+
+    @AfterClass
+    public static void cleanup() throws Exception {
+        if(fstConfig != null){
+            fstConfig.deactivate();
+        }
+        if(executor != null){
+            executor.shutdownNow();
+        }
+        if(yard != null){
+            yard.close();
+        }
+        yard = null;
+    }
+    /**
+     * Tests that documents added after the creation of the FST corpus are
+     * looked up in a delta corpus and that an up to date delta is reused
+     */
+    @Test
+    public void testDeltaLookup() throws Exception {
+        CorpusInfo corpusInfo = fstConfig.getCorpus("en");
+        TaggerFstCorpus fst = corpusInfo.getCorpus();
+        assertNotNull(fst);
+        addEntity("delta", "Stanbolia Deltatown");
+        TaggingSession session = TaggingSession.createSession(fstConfig, "en");
+        try {
+            Corpus corpus = session.getLanguageCorpus();
+            //the corpus is not rebuilt ...
+            assertSame(fst, corpus.getFst());
+            assertTrue(session.getIndexVersion().longValue() != fst.getIndexVersion());
+            //... but the added document is in the delta
+            TaggerFstCorpus delta = corpus.getDeltaFst();
+            assertNotNull("delta corpus expected", delta);
+            assertNotNull(delta.getPhrases());
+            assertEquals(session.getIndexVersion().longValue(), delta.getIndexVersion());
+            assertEquals(session.getIndexVersion().longValue(), corpusInfo.getDeltaVersion());
+        } finally {
+            session.close();
+        }
+        //sessions for the same index version use the existing delta
+        TaggingSession other = TaggingSession.createSession(fstConfig, "en");
+        try {
+            assertSame(corpusInfo.getDeltaCorpus(), other.getLanguageCorpus().getDeltaFst());
+            assertTrue(corpusInfo.getEnqueuedDelta() == null);
+        } finally {
+            other.close();
+        }
+    }
+    /**
+     * Tests that sessions do not wait longer as the configured
+     * {@link IndexConfiguration#getDeltaWaitTime() delta wait time} for a
+     * delta that can not be built in time and use the previous delta instead
+     */
+    @Test
+    public void testDeltaTimeout() throws Exception {
+        CorpusInfo corpusInfo = fstConfig.getCorpus("en");
+        //occupy the executor so that the delta can not be built
+        final CountDownLatch blocked = new CountDownLatch(1);
+        Future<?> blocking = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        fstConfig.setDeltaWaitTime(200);
+        try {
+            TaggerFstCorpus previousDelta = corpusInfo.getDeltaCorpus();
+            long previousDeltaVersion = corpusInfo.getDeltaVersion();
+            addEntity("timeout", "Stanbolia Timeoutville");
+            long start = System.currentTimeMillis();
+            TaggingSession session = TaggingSession.createSession(fstConfig, "en");
+            try {
+                long duration = System.currentTimeMillis() - start;
+                assertTrue("session creation took " + duration + "ms",
+                    duration < IndexConfiguration.DEFAULT_DELTA_WAIT_TIME);
+                //the previous delta is used
+                assertSame(previousDelta, session.getLanguageCorpus().getDeltaFst());
+                assertEquals(previousDeltaVersion, corpusInfo.getDeltaVersion());
+                assertNotNull(corpusInfo.getEnqueuedDelta());
+            } finally {
+                session.close();
+            }
+            //release the executor and wait for the delta
+            Future<TaggerFstCorpus> enqueuedDelta = corpusInfo.getEnqueuedDelta();
+            blocked.countDown();
+            blocking.get(FST_CREATION_WAIT_TIME, TimeUnit.SECONDS);
+            TaggerFstCorpus delta = enqueuedDelta.get(FST_CREATION_WAIT_TIME, TimeUnit.SECONDS);
+            assertNotNull(delta);
+            assertSame(delta, corpusInfo.getDeltaCorpus());
+        } finally {
+            blocked.countDown();
+            fstConfig.setDeltaWaitTime(IndexConfiguration.DEFAULT_DELTA_WAIT_TIME);
+        }
+    }
+
+    private static void addEntity(String name, String label) throws Exception {
+        Representation rep = yard.getValueFactory().createRepresentation(TEST_ENTITY + name);
+        rep.addNaturalText(SURFACE_FORM, label, "en");
+        yard.store(rep);
+    }
+}
@@ -23,7 +23,11 @@ import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.DC_CREATOR;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.DC_LANGUAGE;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.ENHANCER_EXTRACTED_FROM;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -42,6 +46,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -55,6 +60,7 @@ import org.apache.clerezza.commons.rdf.Triple;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.commons.io.FileUtils;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.embedded.EmbeddedSolrServer;
 import org.apache.solr.core.SolrCore;
@@ -102,6 +108,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.opensextant.solrtexttagger.TaggerFstCorpus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -256,6 +263,76 @@ public class FstLinkingEngineTest {
         yard = null;
     }
     
+    /**
+     * Tests that the metadata of the FST corpora created by the 
+     * {@link #setup()} are written and match the version of the Solr index
+     */
+    @Test
+    public void testFstCorpusMetadata() throws Exception {
+        for(CorpusInfo corpusInfo : fstConfig.getCorpora()){
+            FstCorpusMetadata metadata = corpusInfo.getFstMetadata();
+            assertNotNull("No FST metadata for " + corpusInfo, metadata);
+            assertTrue(metadata.isValid(corpusInfo.fst, corpusInfo));
+            assertEquals(fstConfig.getVersion(), metadata.getIndexVersion());
+            assertFalse(corpusInfo.isFstOutdated(fstConfig.getVersion()));
+            assertTrue(corpusInfo.isFstOutdated(fstConfig.getVersion() + 1));
+            FstCorpusMetadata read = FstCorpusMetadata.read(corpusInfo.fst);
+            assertNotNull(read);
+            assertEquals(metadata.getIndexVersion(), read.getIndexVersion());
+            assertEquals(metadata.getSegments(), read.getSegments());
+            //the FST file and the metadata are published by moving temp files
+            File dir = corpusInfo.fst.getParentFile();
+            assertFalse(new File(dir, corpusInfo.fst.getName() + ".tmp").exists());
+            assertFalse(new File(dir, FstCorpusMetadata.getMetadataFile(
+                corpusInfo.fst).getName() + ".tmp").exists());
+        }
+    }
+    /**
+     * Tests that FST corpora are shared by the {@link FstCorpusRegistry} as
+     * long as the FST file is not modified
+     */
+    @Test
+    public void testFstCorpusRegistry() throws Exception {
+        CorpusInfo corpusInfo = fstConfig.getCorpora().iterator().next();
+        TaggerFstCorpus corpus = corpusInfo.getCorpus();
+        assertNotNull(corpus);
+        //other engines using the same FST file get the same instance
+        assertSame(corpus, FstCorpusRegistry.load(corpusInfo.fst));
+        final File copy = new File(corpusInfo.fst.getParentFile(), "copy-" + corpusInfo.fst.getName());
+        FileUtils.copyFile(corpusInfo.fst, copy);
+        try {
+            //concurrent requests load the FST file only once
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<TaggerFstCorpus>> loads = new ArrayList<Future<TaggerFstCorpus>>();
+            try {
+                for(int i = 0; i < 4; i++){
+                    loads.add(executor.submit(new Callable<TaggerFstCorpus>() {
+                        @Override
+                        public TaggerFstCorpus call() throws Exception {
+                            return FstCorpusRegistry.load(copy);
+                        }
+                    }));
+                }
+            } finally {
+                executor.shutdown();
+            }
+            TaggerFstCorpus copyCorpus = loads.get(0).get();
+            assertNotNull(copyCorpus);
+            assertNotSame(corpus, copyCorpus);
+            for(Future<TaggerFstCorpus> load : loads){
+                assertSame(copyCorpus, load.get());
+            }
+            //a modified FST file is loaded again
+            assertTrue(copy.setLastModified(copy.lastModified() - 10000));
+            TaggerFstCorpus reloaded = FstCorpusRegistry.load(copy);
+            assertNotNull(reloaded);
+            assertNotSame(copyCorpus, reloaded);
+            assertSame(reloaded, FstCorpusRegistry.load(copy));
+        } finally {
+            copy.delete();
+        }
+    }
+    
     /**
      * Initialises the {@link #ci} and {@link #content} fields for tests.
      * It creates a ContentItem containing a '<code>plain/text</code>' 
@@ -0,0 +1,135 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.engines.lucenefstlinking.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.junit.Test;
+
+public class OffHeapEntityCacheTest {
+
+    private static final long MAX_BYTES = 2 * OffHeapEntityCache.MIN_SLAB_SIZE;
+    
+    private static Document createDoc(int id){
+        Document doc = new Document();
+        doc.add(new StoredField("id", "http://www.example.org/entity/" + id));
+        doc.add(new StoredField("label", "Entity " + id));
+        doc.add(new StoredField("label", "Entität " + id)); //non ASCII
+        doc.add(new StoredField("rank", 0.5f));
+        doc.add(new StringField("__loadedFields__", "label", Store.NO));
+        return doc;
+    }
+    
+    @Test
+    public void testCacheAndGet(){
+        OffHeapEntityCache cache = new OffHeapEntityCache(1L, MAX_BYTES);
+        assertNull(cache.get(1));
+        cache.cache(1, createDoc(1));
+        Document doc = cache.get(1);
+        assertNotNull(doc);
+        assertEquals("http://www.example.org/entity/1", doc.get("id"));
+        assertEquals(Arrays.asList("Entity 1", "Entität 1"), Arrays.asList(doc.getValues("label")));
+        assertEquals(0.5f, doc.getField("rank").numericValue());
+        assertEquals("label", doc.get("__loadedFields__"));
+        assertEquals(1, cache.size());
+        Map<String,Object> stats = cache.getStatistics();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(2L, stats.get("lookups"));
+        assertEquals(cache.getUsedBytes(), stats.get("usedBytes"));
+        assertTrue(cache.getUsedBytes() > 0);
+    }
+    
+    @Test
+    public void testReplace(){
+        OffHeapEntityCache cache = new OffHeapEntityCache(1L, MAX_BYTES);
+        Document doc = createDoc(1);
+        cache.cache(1, doc);
+        long used = cache.getUsedBytes();
+        doc.add(new StoredField("type", "http://www.example.org/type/Person"));
+        cache.cache(1, doc);
+        assertEquals(1, cache.size());
+        assertTrue(cache.getUsedBytes() > used);
+        assertEquals("http://www.example.org/type/Person", cache.get(1).get("type"));
+    }
+    
+    @Test
+    public void testEviction(){
+        OffHeapEntityCache cache = new OffHeapEntityCache(1L, MAX_BYTES);
+        int num = 10000; //will not fit into the cache
+        for(int i = 0; i < num; i++){
+            cache.cache(i, createDoc(i));
+        }
+        assertTrue(cache.size() < num);
+        assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+        assertEquals((long)num - cache.size(), cache.getStatistics().get("evictions"));
+        //the oldest entries are evicted
+        assertNull(cache.get(0));
+        Document doc = cache.get(num - 1);
+        assertNotNull(doc);
+        assertEquals("http://www.example.org/entity/" + (num - 1), doc.get("id"));
+        //all remaining entries need to be readable
+        int found = 0;
+        for(int i = 0; i < num; i++){
+            doc = cache.get(i);
+            if(doc != null){
+                assertEquals("Entity " + i, doc.get("label"));
+                found++;
+            }
+        }
+        assertEquals(cache.size(), found);
+    }
+    
+    @Test
+    public void testWarming(){
+        OffHeapEntityCache.FieldNames fieldNames = new OffHeapEntityCache.FieldNames();
+        OffHeapEntityCache previous = new OffHeapEntityCache(1L, MAX_BYTES, fieldNames);
+        for(int i = 0; i < 100; i++){
+            previous.cache(i, createDoc(i));
+        }
+        OffHeapEntityCache cache = new OffHeapEntityCache(2L, MAX_BYTES, fieldNames);
+        cache.cache(10, createDoc(42)); //existing entries are not replaced
+        assertEquals(49, cache.warm(previous, 50));
+        assertEquals(50, cache.size());
+        assertEquals("http://www.example.org/entity/5", cache.get(5).get("id"));
+        assertEquals("http://www.example.org/entity/42", cache.get(10).get("id"));
+        assertNull(cache.get(50));
+        previous.close();
+        assertNull(previous.get(5));
+        assertNotNull(cache.get(5));
+    }
+    
+    @Test
+    public void testUnchangedDocs(){
+        assertEquals(0, OffHeapEntityCacheManager.getUnchangedDocs(null, 
+            Arrays.asList("_0:100:0")));
+        assertEquals(150, OffHeapEntityCacheManager.getUnchangedDocs(
+            Arrays.asList("_0:100:0","_1:50:0","_2:10:0"), 
+            Arrays.asList("_0:100:5","_1:50:0","_3:20:0")));
+        assertEquals(0, OffHeapEntityCacheManager.getUnchangedDocs(
+            Arrays.asList("_0:100:0"), Arrays.asList("_4:90:0")));
+    }
+}
@@ -44,6 +44,7 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.BatchProcessor;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.enhancer.engines.opennlp.chunker.model.PhraseTagSetRegistry;
 import org.apache.stanbol.enhancer.nlp.NlpProcessingRole;
@@ -92,6 +93,8 @@ import org.slf4j.LoggerFactory;
         @Property(name=OpenNlpChunkingEngine.CONFIG_LANGUAGES,
             value = {"de;model=OpenNLP_1.5.1-German-Chunker-TigerCorps07.zip","*"}),
         @Property(name=OpenNlpChunkingEngine.MIN_CHUNK_SCORE),
+        @Property(name=OpenNlpChunkingEngine.PARALLEL_THRESHOLD, 
+            intValue=BatchProcessor.DEFAULT_PARALLEL_THRESHOLD),
         @Property(name=Constants.SERVICE_RANKING,intValue=-100) //give the default instance a ranking < 0
 })
 public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeException,RuntimeException> implements ServiceProperties {
@@ -112,6 +115,11 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
     public static final String CONFIG_LANGUAGES = "org.apache.stanbol.enhancer.chunker.languages";
 
     public static final String MIN_CHUNK_SCORE = "org.apache.stanbol.enhancer.chunker.minScore";
+    /**
+     * The minimum number of sentences of a text required to chunk them in
+     * parallel. Values <code>&lt;= 0</code> deactivate parallel processing.
+     */
+    public static final String PARALLEL_THRESHOLD = "org.apache.stanbol.enhancer.chunker.parallelThreshold";
     
     private static final String MODEL_PARAM_NAME = "model";
 
@@ -120,6 +128,8 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
     private LanguageConfiguration languageConfiguration = new LanguageConfiguration(CONFIG_LANGUAGES, 
         new String []{"de;"+MODEL_PARAM_NAME+"=OpenNLP_1.5.1-German-Chunker-TigerCorps07.zip","*"});
     
+    private int parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
+    
     @Reference
     private OpenNLP openNLP;
     
@@ -186,8 +196,8 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
         AnalysedText at = getAnalysedText(this, ci, true);
         String language = getLanguage(this, ci, true);
         isLangaugeConfigured(this, languageConfiguration, language, true);
-        ChunkerME chunker = initChunker(language);
-        if(chunker == null){
+        final ChunkerModel chunkerModel = getChunkerModel(language);
+        if(chunkerModel == null){
             return;
         }
         //init the Phrase TagSet
@@ -216,13 +226,15 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
             if(!sentences.hasNext()){ //no sentences ... iterate over the whole text
                 sentences = Collections.singleton(at).iterator();
             }
+            List<List<Token>> sentenceTokens = new ArrayList<List<Token>>();
+            List<String[][]> chunkerInputs = new ArrayList<String[][]>();
             List<String> tokenTextList = new ArrayList<String>(64);
             List<String> posList = new ArrayList<String>(64);
-            List<Token> tokenList = new ArrayList<Token>(64);
-            //process each sentence seperatly
+            //collect the tokens of all sentences
             while(sentences.hasNext()){
                 // (1) get Tokens and POS information for the sentence
                 Section sentence = sentences.next();
+                List<Token> tokenList = new ArrayList<Token>(64);
                 Iterator<Token> tokens = sentence.getTokens();
                 while(tokens.hasNext()){
                     Token token = tokens.next();
@@ -247,16 +259,36 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
                 }
                 tokenTextList.clear(); //free memory
                 posList.clear(); //free memory
-                
-                // (2) Chunk the sentence
-                
-                String[] chunkTags = chunker.chunk(tokenStrings, tokenPos);
-                double[] chunkProb = chunker.probs();
+                sentenceTokens.add(tokenList);
+                chunkerInputs.add(new String[][]{tokenStrings, tokenPos});
+            }
+            
+            // (2) Chunk the sentences. ChunkerME is not thread safe so every
+            //     batch of sentences borrows its own instance from the pool
+            List<ChunkTags> chunkResults = new BatchProcessor<String[][],ChunkTags,ChunkerME>() {
+                @Override
+                protected ChunkerME borrowTool() {
+                    return openNLP.borrowChunker(chunkerModel);
+                }
+                @Override
+                protected void releaseTool(ChunkerME chunker) {
+                    openNLP.releaseTool(chunkerModel, chunker);
+                }
+                @Override
+                protected ChunkTags process(ChunkerME chunker, String[][] input) {
+                    String[] chunkTags = chunker.chunk(input[0], input[1]);
+                    return new ChunkTags(chunkTags, chunker.probs());
+                }
+            }.process(chunkerInputs, parallelThreshold);
+            chunkerInputs = null; //free memory
+            
+            for(int s = 0; s < sentenceTokens.size(); s++){
+                List<Token> tokenList = sentenceTokens.get(s);
+                String[] chunkTags = chunkResults.get(s).tags;
+                double[] chunkProb = chunkResults.get(s).probs;
                 if(log.isTraceEnabled()){
                     log.trace("Chunks: {}"+Arrays.toString(chunkTags));
                 }
-                tokenStrings = null; //free memory
-                tokenPos = null; //free memory
                 
                 // (3) Process the results and write the Annotations
                 double chunkProps = 0;
@@ -305,8 +337,6 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
                                 chunkProps/(double)chunkTokenCount));
                     
                 }
-                // (4) clean up
-                tokenList.clear();
             }
 
         } finally {
@@ -317,6 +347,20 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
         }
     }
     
+    /**
+     * The chunk tags and probabilities of the tokens of a sentence
+     */
+    private static class ChunkTags {
+        
+        final String[] tags;
+        final double[] probs;
+        
+        ChunkTags(String[] tags, double[] probs){
+            this.tags = tags;
+            this.probs = probs;
+        }
+    }
+    
     @Override
     public Map<String,Object> getServiceProperties() {
         return SERVICE_PROPERTIES;
@@ -395,6 +439,21 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
             this.minChunkScore = minScore;
         }
         
+        //read the parallel threshold
+        value = properties.get(PARALLEL_THRESHOLD);
+        if(value instanceof Number){
+            parallelThreshold = ((Number)value).intValue();
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                parallelThreshold = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(PARALLEL_THRESHOLD, 
+                    "The parallel threshold MUST BE an integer (parsed: '"+value+"')!", e);
+            }
+        } else {
+            parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
+        }
+        
         //read the language configuration
         languageConfiguration.setConfiguration(properties);
     }
@@ -403,12 +462,13 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
     protected void deactivate(ComponentContext context){
         this.languageConfiguration.setDefault();
         this.minChunkScore = null;
+        this.parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
         this.languageAdhocTags.clear();
         super.deactivate(context);
     }
     
    
-    private ChunkerME initChunker(String language) {
+    private ChunkerModel getChunkerModel(String language) {
         isLangaugeConfigured(this,languageConfiguration,language, true); //check if the parsed language is ok
         String modelName = languageConfiguration.getParameter(language, MODEL_PARAM_NAME);
         ChunkerModel model;
@@ -433,7 +493,7 @@ public class OpenNlpChunkingEngine extends AbstractEnhancementEngine<RuntimeExce
             log.trace("no Chunker Model for language {}",language);
             return null;
         } else {
-            return new ChunkerME(model);
+            return model;
         }
     }
 
@@ -40,6 +40,7 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.BatchProcessor;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileListener;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileTracker;
@@ -76,6 +77,8 @@ import org.slf4j.LoggerFactory;
         value={"person > http://dbpedia.org/ontology/Person",
                "organization > http://dbpedia.org/ontology/Organisation",
                "location > http://dbpedia.org/ontology/Place"}),
+    @Property(name=CustomNERModelEnhancementEngine.PARALLEL_THRESHOLD,
+        intValue=BatchProcessor.DEFAULT_PARALLEL_THRESHOLD),
     //set the ranking of the default config to a negative value (ConfigurationPolicy.OPTIONAL) 
     @Property(name=Constants.SERVICE_RANKING,intValue=-100) 
 })
@@ -98,6 +101,11 @@ public class CustomNERModelEnhancementEngine
      * Allows to define the list of custom NER models
      */
     public static final String NAME_FINDER_MODELS = "stanbol.engines.opennlp-ner.nameFinderModels";
+    /**
+     * The minimum number of sentences of a text required to process them in
+     * parallel. Values <code>&lt;= 0</code> deactivate parallel processing.
+     */
+    public static final String PARALLEL_THRESHOLD = "stanbol.engines.opennlp-ner.parallelThreshold";
 
     /**
      * The default value for the Execution of this Engine. Currently set to
@@ -182,6 +190,17 @@ public class CustomNERModelEnhancementEngine
         } else {
             log.debug("No Type mappings configured");
         }        
+        value = ctx.getProperties().get(PARALLEL_THRESHOLD);
+        if(value instanceof Number){
+            config.setParallelThreshold(((Number)value).intValue());
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                config.setParallelThreshold(Integer.parseInt(value.toString()));
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(PARALLEL_THRESHOLD, "The parallel "
+                    + "threshold MUST BE an integer (parsed: '"+value+"')!", e);
+            }
+        } //else use the default
         value = ctx.getProperties().get(NAME_FINDER_MODELS);
         Set<String> nameFinderModelNames = new HashSet<String>();
         if(value instanceof String[]){
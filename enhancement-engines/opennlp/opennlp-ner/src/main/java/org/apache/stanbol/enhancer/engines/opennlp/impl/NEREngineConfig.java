@@ -28,6 +28,7 @@ import java.util.TreeMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.commons.opennlp.BatchProcessor;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.enhancer.nlp.model.tag.TagSet;
 import org.apache.stanbol.enhancer.nlp.ner.NerTag;
@@ -68,6 +69,12 @@ public class NEREngineConfig {
     private Set<String> processedLanguages = new HashSet<String>();
     
     private String defaultLanguage;
+    /**
+     * The minimum number of sentences required to process the sentences of
+     * a text in parallel. Values <code>&lt;= 0</code> deactivate parallel
+     * processing.
+     */
+    private int parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
     
     public NEREngineConfig(){
         for(Entry<String,IRI> mapping : DEFAULT_ENTITY_TYPE_MAPPINGS.entrySet()){
@@ -130,6 +137,14 @@ public class NEREngineConfig {
     public String getDefaultLanguage() {
         return defaultLanguage;
     }
+    
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
         
     public Set<String> getDefaultModelTypes() {
         return defaultModelTypes;
@@ -28,10 +28,11 @@ import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.ENHANCER_ST
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +54,7 @@ import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
 import org.apache.commons.lang.StringUtils;
+import org.apache.stanbol.commons.opennlp.BatchProcessor;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.commons.stanboltools.datafileprovider.DataFileProvider;
 import org.apache.stanbol.enhancer.nlp.NlpAnnotations;
@@ -61,6 +63,8 @@ import org.apache.stanbol.enhancer.nlp.model.AnalysedTextUtils;
 import org.apache.stanbol.enhancer.nlp.model.Chunk;
 import org.apache.stanbol.enhancer.nlp.model.Section;
 import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.SpanCursor;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
 import org.apache.stanbol.enhancer.nlp.model.Token;
 import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
 import org.apache.stanbol.enhancer.nlp.ner.NerTag;
@@ -444,18 +448,19 @@ public abstract class NEREngineCore
     }
     /**
      * THis method extracts NamedEntity occurrences by using existing {@link Token}s and 
-     * {@link Sentence}s in the parsed {@link AnalysedText}.
+     * {@link Sentence}s in the parsed {@link AnalysedText}. If the text
+     * contains at least {@link NEREngineConfig#getParallelThreshold()} sentences
+     * batches of sentences are processed in parallel. 
      * @param nameFinderModel the model used to find NamedEntities
      * @param at the Analysed Text
      * @param language the language of the text
      * @return the found named Entity Occurrences
      */
-    protected Map<String,List<NameOccurrence>> extractNameOccurrences(TokenNameFinderModel nameFinderModel, 
+    protected Map<String,List<NameOccurrence>> extractNameOccurrences(final TokenNameFinderModel nameFinderModel, 
         AnalysedText at, String language) {
         // version with explicit sentence endings to reflect heading / paragraph
         // structure of an HTML or PDF document converted to text
 
-        NameFinderME finder = new NameFinderME(nameFinderModel);
         Map<String,List<NameOccurrence>> nameOccurrences = new LinkedHashMap<String,List<NameOccurrence>>();
         List<Section> sentences = new ArrayList<Section>();
         //Holds the tokens of the previouse (pos 0) current (pos 1) and next (pos 2) sentence
@@ -463,38 +468,65 @@ public abstract class NEREngineCore
         if(sentences.isEmpty()){ //no sentence annotations
             sentences.add(at); //process as a single section
         }
+        //(1) collect the tokens of the sentences
+        //reused for all sentences to avoid creating Token instances
+        SpanCursor tokenCursor = at.getCursor(EnumSet.of(SpanTypeEnum.Token));
+        List<SentenceTokens> sentenceTokens = new ArrayList<SentenceTokens>(sentences.size());
+        int[] tokenStarts = new int[32];
+        int[] tokenEnds = new int[32];
+        for (Section sentence : sentences) {
+            int count = 0;
+            tokenCursor.reset(sentence);
+            while(tokenCursor.next()){
+                if(count == tokenStarts.length){
+                    tokenStarts = Arrays.copyOf(tokenStarts, count*2);
+                    tokenEnds = Arrays.copyOf(tokenEnds, count*2);
+                }
+                tokenStarts[count] = tokenCursor.getStart();
+                tokenEnds[count] = tokenCursor.getEnd();
+                count++;
+            }
+            sentenceTokens.add(new SentenceTokens(at.getSpan(), 
+                Arrays.copyOf(tokenStarts, count), Arrays.copyOf(tokenEnds, count)));
+        }
+        //(2) find the names. NameFinderME is not thread safe so every batch
+        //borrows its own instance from the pool
+        List<NameSpans> names = new BatchProcessor<SentenceTokens,NameSpans,NameFinderME>() {
+            @Override
+            protected NameFinderME borrowTool() {
+                return openNLP.borrowNameFinder(nameFinderModel);
+            }
+            @Override
+            protected void releaseTool(NameFinderME finder) {
+                openNLP.releaseTool(nameFinderModel, finder);
+            }
+            @Override
+            protected NameSpans process(NameFinderME finder, SentenceTokens tokens) {
+                Span[] nameSpans = finder.find(tokens.words);
+                return new NameSpans(nameSpans, finder.probs());
+            }
+        }.process(sentenceTokens, config.getParallelThreshold());
+        //(3) write the results in the order of the sentences
         for (int i=0;i<sentences.size();i++) {
-            String sentence = sentences.get(i).getSpan();
-            
             // build a context by concatenating three sentences to be used for
             // similarity ranking / disambiguation + contextual snippet in the
             // extraction structure
-            List<String> contextElements = new ArrayList<String>();
-            contextElements.add(sentence);
             //three sentences as context
             String context = at.getSpan().substring(
                 sentences.get(Math.max(0, i-1)).getStart(),
                 sentences.get(Math.min(sentences.size()-1, i+1)).getEnd());
-
-            // get the tokens, words of the current sentence
-            List<Token> tokens = new ArrayList<Token>(32);
-            List<String> words = new ArrayList<String>(32);
-            for(Iterator<Token> it =sentences.get(i).getTokens();it.hasNext();){
-                Token t = it.next();
-                tokens.add(t);
-                words.add(t.getSpan());
-            }
-            Span[] nameSpans = finder.find(words.toArray(new String[words.size()]));
-            double[] probs = finder.probs();
+            SentenceTokens tokens = sentenceTokens.get(i);
+            Span[] nameSpans = names.get(i).spans;
+            double[] probs = names.get(i).probs;
             //int lastStartPosition = 0;
             for (int j = 0; j < nameSpans.length; j++) {
-                String name = at.getSpan().substring(tokens.get(nameSpans[j].getStart()).getStart(), 
-                    tokens.get(nameSpans[j].getEnd()-1).getEnd());
+                String name = at.getSpan().substring(tokens.starts[nameSpans[j].getStart()], 
+                    tokens.ends[nameSpans[j].getEnd()-1]);
                 Double confidence = 1.0;
                 for (int k = nameSpans[j].getStart(); k < nameSpans[j].getEnd(); k++) {
                     confidence *= probs[k];
                 }
-                int start = tokens.get(nameSpans[j].getStart()).getStart();
+                int start = tokens.starts[nameSpans[j].getStart()];
                 int end = start + name.length();
                 NerTag nerTag = config.getNerTag(nameSpans[j].getType());
                 //create the occurrence for writing fise:TextAnnotations
@@ -512,12 +544,53 @@ public abstract class NEREngineCore
                 chunk.addAnnotation(NER_ANNOTATION, Value.value(nerTag, confidence));
             }
         }
-        finder.clearAdaptiveData();
         log.debug("{} name occurrences found: {}", nameOccurrences.size(), nameOccurrences);
         return nameOccurrences;
     }    
     
+    /**
+     * The words and the character offsets of the tokens of a sentence
+     */
+    private static class SentenceTokens {
+        
+        final String[] words;
+        final int[] starts;
+        final int[] ends;
+
+        SentenceTokens(String text, int[] starts, int[] ends){
+            this.starts = starts;
+            this.ends = ends;
+            words = new String[starts.length];
+            for(int i = 0; i < starts.length; i++){
+                words[i] = text.substring(starts[i], ends[i]);
+            }
+        }
+    }
+    /**
+     * The names found in a sentence and the probabilities of the tokens
+     */
+    private static class NameSpans {
+        
+        final Span[] spans;
+        final double[] probs;
+        
+        NameSpans(Span[] spans, double[] probs){
+            this.spans = spans;
+            this.probs = probs;
+        }
+    }
+    
     protected Map<String,List<NameOccurrence>> extractNameOccurrences(TokenNameFinderModel nameFinderModel, String text, String language) {
+        //NameFinderME is not thread safe so we borrow one from the pool
+        NameFinderME finder = openNLP.borrowNameFinder(nameFinderModel);
+        try {
+            return extractNameOccurrences(finder, text, language);
+        } finally {
+            openNLP.releaseTool(nameFinderModel, finder);
+        }
+    }
+    
+    private Map<String,List<NameOccurrence>> extractNameOccurrences(NameFinderME finder, String text, String language) {
         // version with explicit sentence endings to reflect heading / paragraph
         // structure of an HTML or PDF document converted to text
         String textWithDots = text.replaceAll("\\n\\n", ".\n");
@@ -527,7 +600,6 @@ public abstract class NEREngineCore
 
         Span[] sentenceSpans = sentenceDetector.sentPosDetect(textWithDots);
 
-        NameFinderME finder = new NameFinderME(nameFinderModel);
         Tokenizer tokenizer = openNLP.getTokenizer(language);
         Map<String,List<NameOccurrence>> nameOccurrences = new LinkedHashMap<String,List<NameOccurrence>>();
         for (int i = 0; i < sentenceSpans.length; i++) {
@@ -589,7 +661,6 @@ public abstract class NEREngineCore
                 nameOccurrences.put(name, occurrences);
             }
         }
-        finder.clearAdaptiveData();
         log.debug("{} name occurrences found: {}", nameOccurrences.size(), nameOccurrences);
         return nameOccurrences;
     }
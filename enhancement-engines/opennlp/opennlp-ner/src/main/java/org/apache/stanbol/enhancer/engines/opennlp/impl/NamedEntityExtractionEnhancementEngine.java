@@ -32,6 +32,7 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.BatchProcessor;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.enhancer.nlp.NlpProcessingRole;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
@@ -58,6 +59,8 @@ import org.osgi.service.component.ComponentContext;
     @Property(name=EnhancementEngine.PROPERTY_NAME,value="opennlp-ner"),
     @Property(name=NamedEntityExtractionEnhancementEngine.PROCESSED_LANGUAGES,value=""),
     @Property(name=NamedEntityExtractionEnhancementEngine.DEFAULT_LANGUAGE,value=""),
+    @Property(name=NamedEntityExtractionEnhancementEngine.PARALLEL_THRESHOLD,
+        intValue=BatchProcessor.DEFAULT_PARALLEL_THRESHOLD),
     //set the ranking of the default config to a negative value (ConfigurationPolicy.OPTIONAL) 
     @Property(name=Constants.SERVICE_RANKING,intValue=-100) 
 })
@@ -85,6 +88,11 @@ public class NamedEntityExtractionEnhancementEngine
      * processes all languages.
      */
     public static final String PROCESSED_LANGUAGES = "stanbol.NamedEntityExtractionEnhancementEngine.processedLanguages";
+    /**
+     * The minimum number of sentences of a text required to process them in
+     * parallel. Values <code>&lt;= 0</code> deactivate parallel processing.
+     */
+    public static final String PARALLEL_THRESHOLD = "stanbol.NamedEntityExtractionEnhancementEngine.parallelThreshold";
 
     /**
      * The default value for the Execution of this Engine. Currently set to
@@ -143,6 +151,17 @@ public class NamedEntityExtractionEnhancementEngine
             config.getProcessedLanguages().remove(null); //remove null
             config.getProcessedLanguages().remove(""); //remove empty
         } //else no configuration
+        value = ctx.getProperties().get(PARALLEL_THRESHOLD);
+        if(value instanceof Number){
+            config.setParallelThreshold(((Number)value).intValue());
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                config.setParallelThreshold(Integer.parseInt(value.toString()));
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(PARALLEL_THRESHOLD, "The parallel "
+                    + "threshold MUST BE an integer (parsed: '"+value+"')!", e);
+            }
+        } //else use the default
         if(!config.getProcessedLanguages().isEmpty() && config.getDefaultLanguage() != null &&
                 !config.getProcessedLanguages().contains(config.getDefaultLanguage())){
             throw new ConfigurationException(PROCESSED_LANGUAGES, "The list of" +
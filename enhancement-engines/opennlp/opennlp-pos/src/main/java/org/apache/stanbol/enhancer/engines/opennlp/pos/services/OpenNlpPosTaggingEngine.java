@@ -30,7 +30,6 @@ import java.util.List;
 import java.util.Map;
 
 import opennlp.tools.postag.POSModel;
-import opennlp.tools.postag.POSTagger;
 import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.sentdetect.SentenceDetector;
 import opennlp.tools.sentdetect.SentenceDetectorME;
@@ -47,6 +46,7 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.opennlp.BatchProcessor;
 import org.apache.stanbol.commons.opennlp.OpenNLP;
 import org.apache.stanbol.enhancer.engines.opennlp.pos.model.PosTagSetRegistry;
 import org.apache.stanbol.enhancer.nlp.NlpProcessingRole;
@@ -92,6 +92,8 @@ import org.slf4j.LoggerFactory;
 @Properties(value={
         @Property(name= EnhancementEngine.PROPERTY_NAME,value="opennlp-pos"),
         @Property(name=OpenNlpPosTaggingEngine.CONFIG_LANGUAGES, value = {"*"},cardinality=Integer.MAX_VALUE),
+        @Property(name=OpenNlpPosTaggingEngine.CONFIG_PARALLEL_THRESHOLD, 
+            intValue=BatchProcessor.DEFAULT_PARALLEL_THRESHOLD),
         @Property(name=Constants.SERVICE_RANKING,intValue=-100) //give the default instance a ranking < 0
 })
 public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeException,RuntimeException> implements ServiceProperties {
@@ -111,6 +113,11 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
      * are the languages given as default value.
      */
     public static final String CONFIG_LANGUAGES = "org.apache.stanbol.enhancer.pos.languages";
+    /**
+     * The minimum number of sentences of a text required to POS tag them in
+     * parallel. Values <code>&lt;= 0</code> deactivate parallel processing.
+     */
+    public static final String CONFIG_PARALLEL_THRESHOLD = "org.apache.stanbol.enhancer.pos.parallelThreshold";
 
     /**
      * The parameter name used to configure the name of the OpenNLP model used for pos tagging
@@ -122,6 +129,8 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
 
     //Langauge configuration
     private LanguageConfiguration languageConfig = new LanguageConfiguration(CONFIG_LANGUAGES,new String[]{"*"});
+    
+    private int parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
 //    private Set<String> configuredLanguages;
 //    private Set<String> excludedLanguages;
 //    private boolean allowAll;
@@ -176,7 +185,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
             return CANNOT_ENHANCE;
         }
 
-        if(getPOSTagger(language) == null) {
+        if(getPOSModel(language) == null) {
             log.trace(" > can NOT enhance ContentItem {} because no POSTagger is"
                     + "is present for language {}",ci,language);
             return CANNOT_ENHANCE;
@@ -205,13 +214,20 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         AnalysedText at = initAnalysedText(this,analysedTextFactory,ci);
         String language = getLanguage(this, ci, true);
         
-        POSTagger posTagger = getPOSTagger(language);
-        if(posTagger == null){
+        POSModel posModel = getPOSModel(language);
+        if(posModel == null){
             //this means that the POS tagger became unavailable in-between
             //the call to canEnhance and computeEnhancement
             throw new EngineException("PosTagger for langauge '"+language
                 + "is not available."); 
         }
+        tagSentences(at, posModel, language);
+        if(log.isTraceEnabled()){
+            logAnnotations(at);
+        }
+    }
+    
+    private void tagSentences(AnalysedText at, final POSModel posModel, String language){
         TagSet<PosTag> tagSet = tagSetRegistry.getTagSet(language);
         if(tagSet == null){
             log.warn("No POS TagSet registered for Language '{}'. Will build an "
@@ -251,6 +267,8 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         }
         
         //for all sentences (or the whole Text - if no sentences available)
+        List<List<Token>> sentenceTokens = new ArrayList<List<Token>>(sentenceList.size());
+        List<String[]> sentenceTokenTexts = new ArrayList<String[]>(sentenceList.size());
         for(Section sentence : sentenceList){
 
             //(2) Tokenize Sentences
@@ -267,12 +285,34 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
                 AnalysedTextUtils.appandToList(tokens, tokenList);
             }
             
-            //(3) POS Tagging
-            posTag(tokenList, posTagger,tagSet,adhocTags,language);
-            
+            sentenceTokens.add(tokenList);
+            String[] tokenTexts = new String[tokenList.size()];
+            for(int i=0;i<tokenList.size(); i++){
+                tokenTexts[i] = tokenList.get(i).getSpan();
+            }
+            sentenceTokenTexts.add(tokenTexts);
         }
-        if(log.isTraceEnabled()){
-            logAnnotations(at);
+        //(3) POS Tagging
+        //POSTaggerME is not thread safe so every batch of sentences borrows
+        //its own instance from the pool
+        List<Sequence[]> posSequences = new BatchProcessor<String[],Sequence[],POSTaggerME>() {
+            @Override
+            protected POSTaggerME borrowTool() {
+                return openNLP.borrowPartOfSpeechTagger(posModel);
+            }
+            @Override
+            protected void releaseTool(POSTaggerME posTagger) {
+                openNLP.releaseTool(posModel, posTagger);
+            }
+            @Override
+            protected Sequence[] process(POSTaggerME posTagger, String[] tokenTexts) {
+                //get the topK POS tags and props
+                return posTagger.topKSequences(tokenTexts);
+            }
+        }.process(sentenceTokenTexts, parallelThreshold);
+        //(4) add the POS annotations in the order of the sentences
+        for(int i = 0; i < sentenceTokens.size(); i++){
+            posTag(sentenceTokens.get(i), posSequences.get(i), tagSet, adhocTags, language);
         }
     }
     
@@ -293,25 +333,19 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         }
     }
     /**
-     * POS tags the parsed tokens by using the pos tagger. Annotations are
-     * added based on the posModel and already created adhoc tags.
+     * Adds the POS tags of the parsed topK sequences to the parsed tokens.
+     * Annotations are added based on the posModel and already created adhoc tags.
      * @param tokenList
-     * @param posTagger
+     * @param posSequences the topK sequences as returned by the pos tagger
      * @param posModel
      * @param adhocTags
      * @param language
      */
     private void posTag(List<Token> tokenList,
-                        POSTagger posTagger,
+                        Sequence[] posSequences,
                         TagSet<PosTag> posModel,
                         Map<String,PosTag> adhocTags, 
                         String language) {
-        String[] tokenTexts = new String[tokenList.size()];
-        for(int i=0;i<tokenList.size(); i++){
-            tokenTexts[i] = tokenList.get(i).getSpan();
-        }
-        //get the topK POS tags and props and copy it over to the 2dim Arrays
-        Sequence[] posSequences = posTagger.topKSequences(tokenTexts);
         //extract the POS tags and props for the current token from the
         //posSequences.
         //NOTE: Sequence includes always POS tags for all Tokens. If
@@ -320,7 +354,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         //      We do not want such copies.
         PosTag[] actPos = new PosTag[posSequences.length];
         double[] actProp = new double[posSequences.length];
-        for(int i=0;i<tokenTexts.length;i++){
+        for(int i=0;i<tokenList.size();i++){
             Token token = tokenList.get(i);
             boolean done = false;
             int j = 0;
@@ -397,11 +431,25 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         Dictionary<String, Object> properties = ce.getProperties();
 
         languageConfig.setConfiguration(properties);
+        Object value = properties.get(CONFIG_PARALLEL_THRESHOLD);
+        if(value instanceof Number){
+            parallelThreshold = ((Number)value).intValue();
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                parallelThreshold = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(CONFIG_PARALLEL_THRESHOLD, 
+                    "The parallel threshold MUST BE an integer (parsed: '"+value+"')!", e);
+            }
+        } else {
+            parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
+        }
     }
     
     @Deactivate
     protected void deactivate(ComponentContext context) {
         languageConfig.setDefault();
+        parallelThreshold = BatchProcessor.DEFAULT_PARALLEL_THRESHOLD;
         super.deactivate(context);
     }
     
@@ -421,7 +469,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
         log.debug("Sentence Detection Model for Language '{}' not available.", language);
         return null;
     }
-    private POSTagger getPOSTagger(String language) {
+    private POSModel getPOSModel(String language) {
         String modelName = languageConfig.getParameter(language,MODEL_NAME_PARAM);
         try {
             POSModel model;
@@ -435,7 +483,7 @@ public class OpenNlpPosTaggingEngine extends AbstractEnhancementEngine<RuntimeEx
                     new Object[]{model.getClass().getSimpleName(), 
                                  model.getLanguage(), 
                                  model.getVersion() != null ? model.getVersion() : "undefined"});
-                return new POSTaggerME(model);
+                return model;
             }
         } catch (Exception e) {
             log.warn("Unable to load POS model for language '"+language+"'!",e);
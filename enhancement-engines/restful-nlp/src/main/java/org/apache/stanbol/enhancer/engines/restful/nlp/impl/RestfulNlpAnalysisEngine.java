@@ -40,6 +40,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -59,6 +60,7 @@ import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpException;
 import org.apache.http.HttpHeaders;
@@ -91,6 +93,7 @@ import org.apache.http.params.CoreProtocolPNames;
 import org.apache.http.protocol.ExecutionContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
+import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat;
 import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextParser;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedTextFactory;
@@ -197,6 +200,13 @@ public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOExcept
      */
     public static final IRI DOCUMENT_SENTIMENT_TYPE = new IRI(NamespaceEnum.fise+"DocumentSentiment");
 
+    /**
+     * The Accept header used for analysis requests. The binary format is
+     * preferred over JSON.
+     */
+    private static final String ANALYSIS_RESPONSE_ACCEPT = AnalyzedTextBinaryFormat.MEDIA_TYPE
+            + ", " + ContentType.APPLICATION_JSON.getMimeType() + "; q=0.9";
+
     private static final Map<String,Object> SERVICE_PROPERTIES;
     static {
         Map<String,Object> props = new HashMap<String,Object>();
@@ -302,6 +312,9 @@ public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOExcept
         final String language = getLanguage(this, ci, true);
         final HttpPost request = new HttpPost(analysisServiceUrl);
         request.addHeader(HttpHeaders.CONTENT_LANGUAGE, language);
+        //prefer the binary format but also accept JSON from services that do
+        //not support it
+        request.addHeader(HttpHeaders.ACCEPT, ANALYSIS_RESPONSE_ACCEPT);
         request.setEntity(new InputStreamEntity(
             blob.getStream(), blob.getContentLength(),
             ContentType.create(blob.getMimeType(), 
@@ -474,6 +487,11 @@ public class RestfulNlpAnalysisEngine extends AbstractEnhancementEngine<IOExcept
             InputStream in = null;
             try {
                 in = entity.getContent();
+                Header contentType = entity.getContentType();
+                if(contentType != null && contentType.getValue().trim().toLowerCase(Locale.ROOT)
+                        .startsWith(AnalyzedTextBinaryFormat.MEDIA_TYPE)){
+                    return analyzedTextParser.parseBinary(in, at);
+                }
                 Charset charset = entity.getContentEncoding() != null ? 
                         Charset.forName(entity.getContentEncoding().getValue()) : UTF8;
                 return analyzedTextParser.parse(in, charset, at);
@@ -22,6 +22,7 @@ import static org.apache.stanbol.enhancer.nlp.utils.NlpEngineHelper.getLanguage;
 
 import java.util.Collections;
 import java.util.Dictionary;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -43,6 +44,8 @@ import org.apache.stanbol.enhancer.nlp.NlpAnnotations;
 import org.apache.stanbol.enhancer.nlp.NlpProcessingRole;
 import org.apache.stanbol.enhancer.nlp.NlpServiceProperties;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.SpanCursor;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
 import org.apache.stanbol.enhancer.nlp.model.Token;
 import org.apache.stanbol.enhancer.nlp.model.annotation.Annotation;
 import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
@@ -262,14 +265,14 @@ public class SentimentEngine  extends AbstractEnhancementEngine<RuntimeException
         //TODO: locking for AnalysedText not yet defined
 //        ci.getLock().writeLock().lock();
 //        try {
-        Iterator<Token> tokens = analysedText.getTokens();
-        while(tokens.hasNext()){
-            Token token = tokens.next();
+        //use a cursor as Tokens are only needed for words with a sentiment
+        SpanCursor tokens = analysedText.getCursor(EnumSet.of(SpanTypeEnum.Token));
+        while(tokens.next()){
             Set<LexicalCategory> cats = null;
             boolean process = false;
             if(!adjectivesOnly){
                 process = true;
-                Value<PosTag> posTag = token.getAnnotation(NlpAnnotations.POS_ANNOTATION);
+                Value<PosTag> posTag = tokens.getAnnotation(NlpAnnotations.POS_ANNOTATION);
                 if(posTag != null && posTag.probability() == Value.UNKNOWN_PROBABILITY
                         || posTag.probability() >= (minPOSConfidence/2.0)){
                     cats = classifier.getCategories(posTag.value());
@@ -277,7 +280,7 @@ public class SentimentEngine  extends AbstractEnhancementEngine<RuntimeException
                     cats = Collections.emptySet();
                 }
             } else { //check PosTags if we need to lookup this word
-                Iterator<Value<PosTag>> posTags = token.getAnnotations(NlpAnnotations.POS_ANNOTATION).iterator();
+                Iterator<Value<PosTag>> posTags = tokens.getAnnotations(NlpAnnotations.POS_ANNOTATION).iterator();
                 boolean ignore = false;
                 while(!ignore && !process && posTags.hasNext()) {
                     Value<PosTag> value = posTags.next();
@@ -292,7 +295,8 @@ public class SentimentEngine  extends AbstractEnhancementEngine<RuntimeException
                 }
             } //else process all tokens ... no POS tag checking needed
             if(process){
-                String word = token.getSpan();
+                String word = analysedText.getText().subSequence(
+                    tokens.getStart(), tokens.getEnd()).toString();
                 double sentiment = 0.0;
                 if(cats.isEmpty()){
                     sentiment = classifier.classifyWord(null, word);
@@ -311,7 +315,7 @@ public class SentimentEngine  extends AbstractEnhancementEngine<RuntimeException
                     }
                 }
                 if(sentiment != 0.0){
-                    token.addAnnotation(SENTIMENT_ANNOTATION, new Value<Double>(sentiment));
+                    tokens.getSpan().addAnnotation(SENTIMENT_ANNOTATION, new Value<Double>(sentiment));
                 } //else do not set sentiments with 0.0
             } // else do not process
         }
@@ -26,6 +26,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -41,10 +42,12 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ByteBufferBlob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.ContentSink;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
+import org.apache.stanbol.enhancer.servicesapi.helper.ByteBufferInputStream;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.AbstractContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
@@ -75,6 +78,13 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
     public static final String DEFAULT_BINARY_MIMETYPE = "application/octet-stream";
 
     public static final String PARAM_BASE_DIR = "stanbol.enhancer.contentitem.file.baseDir";
+    /**
+     * The minimum size of {@link FileBlob}s that are memory mapped (256 
+     * KByte). Mapping a file is more expensive as reading it and mappings
+     * are only released by the garbage collector, so smaller files are read
+     * by using {@link FileInputStream}s.
+     */
+    public static final int MAP_THRESHOLD = 256 * 1024;
     
     private static FileContentItemFactory instance;
     
@@ -288,13 +298,25 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
      * Blob implementation that store the data in a temp file. NOTE that
      * all the other information such as {@link #getMimeType()},
      * {@link #getParameter()} are kept in memory. So this can NOT be used
-     * to persist a ContentItem!
+     * to persist a ContentItem!<p>
+     * Temp files with at least {@link FileContentItemFactory#MAP_THRESHOLD}
+     * bytes are memory mapped after the data are written. Both
+     * {@link #getStream()} and {@link #getByteBuffer()} do read from this
+     * mapping. Smaller files and files that are too big to be mapped 
+     * (&gt; 2GByte) are read by using {@link FileInputStream}s and
+     * {@link #getByteBuffer()} returns <code>null</code>.
      * @author Rupert Westenthaler
      *
      */
-    public class FileBlob implements Blob {
+    public class FileBlob implements ByteBufferBlob {
 
         private final File file;
+        /**
+         * The memory mapped data of the file or <code>null</code> if the
+         * file is smaller as the {@link FileContentItemFactory#MAP_THRESHOLD}
+         * or too big to be mapped.
+         */
+        private final ByteBuffer buffer;
         /**
          * This implementation generates the sha1 while copying the data
          * in the constructor to the file to avoid reading the data twice if a
@@ -321,6 +343,7 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
                 IOUtils.closeQuietly(in);
                 IOUtils.closeQuietly(out);
             }
+            buffer = ContentItemHelper.mapFile(file, MAP_THRESHOLD);
             Map<String,String> parameters;
             if(source.getMediaType() == null){
                 this.mimeType = DEFAULT_BINARY_MIMETYPE;
@@ -355,6 +378,9 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
 
         @Override
         public InputStream getStream() {
+            if(buffer != null){
+                return new ByteBufferInputStream(buffer.duplicate());
+            }
             try {
                 return new FileInputStream(file);
             } catch (FileNotFoundException e) {
@@ -362,6 +388,11 @@ public class FileContentItemFactory extends AbstractContentItemFactory implement
                         + file.getAbsolutePath()+"' no longer present!",e);
             }
         }
+        
+        @Override
+        public ByteBuffer getByteBuffer() {
+            return buffer == null ? null : buffer.asReadOnlyBuffer();
+        }
 
         @Override
         public Map<String,String> getParameter() {
@@ -0,0 +1,598 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.contentitem.hybrid;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.DEFAULT_CONTENT_ITEM_PREFIX;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.SHA1;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Properties;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ByteBufferBlob;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.ContentSink;
+import org.apache.stanbol.enhancer.servicesapi.ContentSource;
+import org.apache.stanbol.enhancer.servicesapi.helper.ByteBufferInputStream;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.impl.AbstractContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
+import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.osgi.framework.Constants;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ContentItemFactory that keeps the content of Blobs in memory as long as
+ * the size does not exceed a configurable threshold. Larger contents are
+ * transparently spilled to temporary files that are memory mapped for
+ * reading. This combines the low overhead of the 
+ * {@link org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory}
+ * for small contents with the ability of the 
+ * {@link org.apache.stanbol.enhancer.contentitem.file.FileContentItemFactory}
+ * to process contents that can not be kept in memory.
+ * <p>
+ * Statistics about spilled Blobs and the bytes held in memory are available
+ * via {@link #getStatistics()}.
+ */
+@Component(inherit=true)
+@Service(value=ContentItemFactory.class)
+@Properties(value={
+    @Property(name=HybridContentItemFactory.PARAM_THRESHOLD,
+        intValue=HybridContentItemFactory.DEFAULT_THRESHOLD),
+    @Property(name=HybridContentItemFactory.PARAM_BASE_DIR,value=""),
+    @Property(name=Constants.SERVICE_RANKING, intValue=75)
+})
+public class HybridContentItemFactory extends AbstractContentItemFactory implements ContentItemFactory {
+
+    private final Logger log = LoggerFactory.getLogger(HybridContentItemFactory.class);
+    
+    public static final String DEFAULT_BINARY_MIMETYPE = "application/octet-stream";
+    /**
+     * The maximum number of bytes of Blobs kept in memory. Larger Blobs are
+     * written to temporary files.
+     */
+    public static final String PARAM_THRESHOLD = "stanbol.enhancer.contentitem.hybrid.threshold";
+    /**
+     * The default threshold is 1 MByte
+     */
+    public static final int DEFAULT_THRESHOLD = 1024 * 1024;
+    /**
+     * The directory used to create temporary files. If not present the
+     * system temp directory is used.
+     */
+    public static final String PARAM_BASE_DIR = "stanbol.enhancer.contentitem.hybrid.baseDir";
+    
+    private static HybridContentItemFactory instance;
+    
+    private int threshold = DEFAULT_THRESHOLD;
+    /**
+     * Base directory used to create temp files
+     */
+    private File baseDir;
+    
+    private final AtomicLong inMemoryBlobs = new AtomicLong();
+    private final AtomicLong spilledBlobs = new AtomicLong();
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicLong spilledBytes = new AtomicLong();
+    
+    /**
+     * Getter for the singleton instance of this factory. Within an OSGI 
+     * environment this should not be used as this Factory is also registered
+     * as OSGI service.
+     * @return the singleton instance using the default threshold and the
+     * system default temporary file directory.
+     */
+    public static HybridContentItemFactory getInstance(){
+        if(instance == null){
+            instance = new HybridContentItemFactory();
+        }
+        return instance;
+    }
+    
+    public HybridContentItemFactory() {
+        super(true); //small contents are kept in memory
+    }
+    /**
+     * Creates a factory with the parsed configuration
+     * @param threshold the maximum size of Blobs kept in memory. If 
+     * <code>&lt; 0</code> the {@link #DEFAULT_THRESHOLD} is used.
+     * @param baseDir the directory for temporary files or <code>null</code>
+     * to use the system temp directory
+     * @throws IOException if the parsed directory does not exist and can
+     * not be created
+     */
+    public HybridContentItemFactory(int threshold, File baseDir) throws IOException {
+        this();
+        this.threshold = threshold < 0 ? DEFAULT_THRESHOLD : threshold;
+        if(baseDir != null){
+            this.baseDir = baseDir;
+            initBaseDir();
+        }
+    }
+    
+    @Activate
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
+        Object value = ctx.getProperties().get(PARAM_THRESHOLD);
+        if(value instanceof Number){
+            threshold = ((Number)value).intValue();
+        } else if(value != null && !value.toString().isEmpty()){
+            try {
+                threshold = Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(PARAM_THRESHOLD, "Unable to parse "
+                    + "the threshold from the configured value '"+value+"'!", e);
+            }
+        } else {
+            threshold = DEFAULT_THRESHOLD;
+        }
+        if(threshold < 0){
+            throw new ConfigurationException(PARAM_THRESHOLD, "The configured "
+                + "threshold MUST NOT be negative (configured: "+threshold+")!");
+        }
+        value = ctx.getProperties().get(PARAM_BASE_DIR);
+        if(value != null && !value.toString().isEmpty()){
+            String home = ctx.getBundleContext().getProperty("sling.home");
+            if(home != null){
+                baseDir = new File(home,value.toString());
+            } else {
+                baseDir = new File(value.toString());
+            }
+            try {
+                initBaseDir();
+            } catch (Exception e) {
+                throw new ConfigurationException(PARAM_BASE_DIR, "Unable to initialise"
+                    + "configured base Directory '"+value+"' (absolute path: '"
+                    + baseDir.getAbsolutePath()+"')!",e);
+            }
+        }
+        log.info("activate {} (threshold: {} bytes | temp directory: {})", new Object[]{
+                getClass().getSimpleName(), threshold, baseDir});
+    }
+    
+    /**
+     * Internally used to initialise the {@link #baseDir}
+     * @throws IOException if the configured directory does not exists but
+     * could not be created
+     */
+    private void initBaseDir() throws IOException {
+        if(baseDir.exists() && !baseDir.isDirectory()){
+            File file = baseDir;
+            baseDir = null;
+            throw new IllegalArgumentException("A File with the configured Directory '"
+                + file.getAbsolutePath()+ "' already exists, but is not a Directory!");
+        }
+        if(!baseDir.isDirectory()){
+            if(!baseDir.mkdirs()){
+                throw new IOException("Unable to create"
+                        + "temp-directory '"+baseDir.getAbsolutePath()+")!");
+            }
+        }
+    }
+    
+    @Deactivate
+    protected void deactivate(ComponentContext ctx){
+        log.info("deactivate {} (statistics: {})", getClass().getSimpleName(), getStatistics());
+        baseDir = null;
+    }
+    /**
+     * The maximum number of bytes of Blobs kept in memory
+     * @return the threshold
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+    /**
+     * Statistics of this factory: <ul>
+     * <li><code>inMemoryBlobs</code>: the number of Blobs kept in memory
+     * <li><code>spilledBlobs</code>: the number of Blobs spilled to disk
+     * <li><code>spilledBytes</code>: the number of bytes written to disk
+     * <li><code>residentBytes</code>: the number of bytes currently held
+     * in memory by Blobs. Decreases when Blobs are garbage collected.
+     * </ul>
+     * @return the statistics
+     */
+    public Map<String,Long> getStatistics(){
+        Map<String,Long> stats = new LinkedHashMap<String,Long>();
+        stats.put("inMemoryBlobs", inMemoryBlobs.get());
+        stats.put("spilledBlobs", spilledBlobs.get());
+        stats.put("spilledBytes", spilledBytes.get());
+        stats.put("residentBytes", residentBytes.get());
+        return stats;
+    }
+    
+    @Override
+    protected ContentItem createContentItem(IRI id, Blob blob, Graph metadata) {
+        return new HybridContentItem(id == null ? getDefaultUri(blob, DEFAULT_CONTENT_ITEM_PREFIX) : id, 
+            blob, metadata);
+    }
+
+    @Override
+    protected ContentItem createContentItem(String prefix, Blob blob, Graph metadata) {
+        return new HybridContentItem(getDefaultUri(blob, prefix), blob, metadata);
+    }
+
+    @Override
+    public Blob createBlob(ContentSource source) throws IOException {
+        if(source == null){
+            throw new IllegalArgumentException("The parsed ContentSource MUST NOT be NULL!");
+        }
+        final InputStream in;
+        if(source instanceof ByteArraySource || source instanceof StringSource){
+            //use source.getData to avoid making copies of byte arrays
+            byte[] data = source.getData();
+            if(data.length <= threshold){
+                String sha1 = ContentItemHelper.streamDigest(
+                    new ByteArrayInputStream(data), null, SHA1);
+                inMemoryBlobs.incrementAndGet();
+                residentBytes.addAndGet(data.length);
+                return new HybridBlob(source.getMediaType(), sha1, data, null);
+            } //else spill to disk
+            in = new ByteArrayInputStream(data);
+        } else {
+            in = source.getStream();
+        }
+        SpillingOutputStream out = new SpillingOutputStream();
+        String sha1;
+        try {
+            sha1 = ContentItemHelper.streamDigest(in, out, SHA1);
+        } finally {
+            IOUtils.closeQuietly(in);
+            IOUtils.closeQuietly(out);
+        }
+        if(out.isInMemory()){
+            inMemoryBlobs.incrementAndGet();
+            return new HybridBlob(source.getMediaType(), sha1, out.getData(), null);
+        } else {
+            return new HybridBlob(source.getMediaType(), sha1, null, out.getFile());
+        }
+    }
+    
+    @Override
+    public ContentSink createContentSink(String mediaType) throws IOException {
+        return new HybridContentSink(mediaType);
+    }
+    /**
+     * Maps the parsed file in memory. Only data bigger as the 
+     * {@link #threshold} are spilled to files, so all files are mapped.
+     * @param file the file
+     * @return the buffer or <code>null</code> if the file is to big to be
+     * mapped
+     * @throws IOException on any error while mapping the file
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        return ContentItemHelper.mapFile(file, 0);
+    }
+    /**
+     * Opens a stream over the parsed file by using the parsed memory mapped 
+     * buffer (if available)
+     */
+    private static InputStream openStream(File file, ByteBuffer buffer){
+        if(buffer != null){
+            return new ByteBufferInputStream(buffer.duplicate());
+        }
+        try {
+            return new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("temporary file '"
+                    + file.getAbsolutePath()+"' no longer present!",e);
+        }
+    }
+    
+    private static Map<String,String> parseMediaType(String mediaType){
+        Map<String,String> parameters;
+        if(mediaType == null){
+            parameters = new HashMap<String,String>();
+            parameters.put(null, DEFAULT_BINARY_MIMETYPE);
+        } else {
+            parameters = ContentItemHelper.parseMimeType(mediaType);
+        }
+        return parameters;
+    }
+    
+    /**
+     * Keeps data in memory until the threshold is reached. Than the data
+     * are written to a temporary file. Updates the statistics of the factory.
+     */
+    private class SpillingOutputStream extends DeferredFileOutputStream {
+
+        /**
+         * The number of bytes accounted as resident by this stream
+         */
+        private long resident = 0;
+        
+        SpillingOutputStream() {
+            super(threshold, "blob", null, baseDir);
+        }
+
+        @Override
+        protected void thresholdReached() throws IOException {
+            super.thresholdReached(); //writes the data to the file
+            File file = getFile();
+            if(file != null){
+                file.deleteOnExit();
+                log.debug(" - spill data to {} (threshold: {} bytes)", file, threshold);
+            }
+            spilledBlobs.incrementAndGet();
+            spilledBytes.addAndGet(resident);
+            release();
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            written(1);
+        }
+        
+        @Override
+        public void write(byte[] b) throws IOException {
+            super.write(b);
+            written(b.length);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            written(len);
+        }
+        
+        private void written(int len){
+            if(isInMemory()){
+                resident = resident + len;
+                residentBytes.addAndGet(len);
+            } else {
+                spilledBytes.addAndGet(len);
+            }
+        }
+        /**
+         * Removes the bytes accounted by this stream from the resident bytes
+         */
+        void release(){
+            residentBytes.addAndGet(-resident);
+            resident = 0;
+        }
+    }
+    
+    /**
+     * Blob that holds its data in a byte array or in a memory mapped
+     * temporary file. NOTE that all the other information such as 
+     * {@link #getMimeType()}, {@link #getParameter()} are kept in memory.
+     */
+    protected class HybridBlob implements ByteBufferBlob {
+        
+        private final byte[] data;
+        private final File file;
+        private final ByteBuffer buffer;
+        private final long length;
+        /**
+         * The sha1 is calculated while reading the data from the source
+         */
+        private final String sha1;
+        private final String mimeType;
+        private final Map<String,String> parameters;
+
+        protected HybridBlob(String mediaType, String sha1, byte[] data, File file) throws IOException {
+            this.sha1 = sha1;
+            this.data = data;
+            this.file = file;
+            if(file != null){
+                this.buffer = map(file);
+                this.length = file.length();
+            } else {
+                this.buffer = null;
+                this.length = data.length;
+            }
+            Map<String,String> parameters = parseMediaType(mediaType);
+            this.mimeType = parameters.remove(null);
+            this.parameters = Collections.unmodifiableMap(parameters);
+        }
+        /**
+         * If the data of this Blob where spilled to disk
+         * @return <code>true</code> if the data are stored in a file
+         */
+        public boolean isSpilled(){
+            return file != null;
+        }
+        /**
+         * The sha1 of this Blob - typically used to generate the default IDs
+         * of a ContentItem
+         * @return the sha1
+         */
+        protected final String getSha1() {
+            return sha1;
+        }
+        
+        @Override
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        @Override
+        public InputStream getStream() {
+            if(data != null){
+                return new ByteArrayInputStream(data);
+            } else {
+                return openStream(file, buffer);
+            }
+        }
+
+        @Override
+        public ByteBuffer getByteBuffer() {
+            if(data != null){
+                return ByteBuffer.wrap(data).asReadOnlyBuffer();
+            } else {
+                return buffer == null ? null : buffer.asReadOnlyBuffer();
+            }
+        }
+
+        @Override
+        public Map<String,String> getParameter() {
+            return parameters;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+        
+        @Override
+        protected void finalize() throws Throwable {
+            if(data != null){
+                residentBytes.addAndGet(-length);
+            } else {
+                file.delete();
+            }
+            super.finalize();
+        }
+    }
+    
+    public class HybridContentSink implements ContentSink {
+
+        private final WriteableHybridBlob blob;
+        
+        protected HybridContentSink(String mediaType){
+            blob = new WriteableHybridBlob(mediaType);
+        }
+        @Override
+        public OutputStream getOutputStream() {
+            return blob.out;
+        }
+
+        @Override
+        public Blob getBlob() {
+            return blob;
+        }
+    }
+    /**
+     * Blob used by the {@link HybridContentSink}. Data written to the sink
+     * are kept in memory until the threshold is reached. Calls to 
+     * {@link #getStream()} return the data available at the time of the call.
+     */
+    protected class WriteableHybridBlob implements Blob {
+        
+        private final SpillingOutputStream out;
+        private final String mimeType;
+        private final Map<String,String> parameters;
+
+        protected WriteableHybridBlob(String mediaType){
+            this.out = new SpillingOutputStream();
+            Map<String,String> parameters = parseMediaType(mediaType);
+            this.mimeType = parameters.remove(null);
+            this.parameters = Collections.unmodifiableMap(parameters);
+        }
+        
+        @Override
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        @Override
+        public InputStream getStream() {
+            byte[] data = out.getData();
+            if(data != null){
+                return new ByteArrayInputStream(data);
+            }
+            File file = out.getFile();
+            try {
+                return openStream(file, map(file));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to map temporary file '"
+                        + file.getAbsolutePath()+"'!",e);
+            }
+        }
+
+        @Override
+        public Map<String,String> getParameter() {
+            return parameters;
+        }
+
+        @Override
+        public long getContentLength() {
+            return out.getByteCount();
+        }
+        
+        @Override
+        protected void finalize() throws Throwable {
+            IOUtils.closeQuietly(out);
+            out.release();
+            File file = out.getFile();
+            if(file != null){
+                file.delete();
+            }
+            super.finalize();
+        }
+    }
+    /**
+     * Returns the ID for a ContentItem. Uses the {@link HybridBlob#getSha1()}
+     * if available.
+     * @param blob the blob
+     * @param prefix the prefix
+     * @return the id
+     * @throws IllegalArgumentException if the parsed {@link Blob} or the
+     * prefix is <code>null</code>
+     */
+    protected IRI getDefaultUri(Blob blob, String prefix) {
+        if(blob == null){
+            throw new IllegalArgumentException("The parsed Blob MUST NOT be NULL!");
+        }
+        if(prefix == null){
+            throw new IllegalArgumentException("The parsed prefix MUST NOT be NULL!");
+        }
+        if(blob instanceof HybridBlob) {
+            //NOTE: same logic as in ContentItemHelper#makeDefaultUri(..)
+            if (!prefix.startsWith("urn:") && !prefix.endsWith("/")) {
+                prefix += "/";
+            }
+            return new IRI(prefix+SHA1.toLowerCase()+ '-' + ((HybridBlob)blob).getSha1());
+        } else {
+            return ContentItemHelper.makeDefaultUri(prefix, blob);
+        }
+    }
+
+    protected class HybridContentItem extends ContentItemImpl implements ContentItem {
+        
+        public HybridContentItem(IRI id, Blob blob,Graph metadata) {
+            super(id, blob, metadata == null ? new IndexedGraph() : metadata);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.HashMap;
@@ -27,6 +28,7 @@ import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ByteBufferBlob;
 import org.apache.stanbol.enhancer.servicesapi.ContentReference;
 import org.apache.stanbol.enhancer.servicesapi.ContentSink;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
@@ -51,7 +53,7 @@ import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
  * The default mime-types (if <code>null</code> is parsed as mimeType) are for
  * Strings "text/plain" and in all other cases "application/octet-stream".
  */
-public class InMemoryBlob implements Blob {
+public class InMemoryBlob implements ByteBufferBlob {
     private static final Charset UTF8 = Charset.forName("utf-8");
     public static final String DEFAULT_TEXT_MIMETYPE = "text/plain";
     public static final String DEFAULT_BINARY_MIMETYPE = "application/octet-stream";
@@ -164,13 +166,23 @@ public class InMemoryBlob implements Blob {
     }
 	@Override
 	public final InputStream getStream() {
+		return new ByteArrayInputStream(getData());
+	}
+	@Override
+	public final ByteBuffer getByteBuffer() {
+	    return ByteBuffer.wrap(getData()).asReadOnlyBuffer();
+	}
+	/**
+	 * The current data of this blob
+	 */
+	private byte[] getData(){
 	    //if a ByteArrayOutputStream is used to stream the data to the blob,
 	    //than check if we need to create a new array for creating the stream.
 	    if(bao != null && bao.size() != size){
 	        data = bao.toByteArray();
 	        size = data.length;
 	    }
-		return new ByteArrayInputStream(data);
+	    return data;
 	}
 	@Override
 	public final long getContentLength() {
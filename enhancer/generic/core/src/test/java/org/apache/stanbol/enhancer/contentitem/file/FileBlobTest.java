@@ -16,12 +16,21 @@
 */
 package org.apache.stanbol.enhancer.contentitem.file;
 
+import static org.apache.stanbol.enhancer.contentitem.file.FileContentItemFactory.MAP_THRESHOLD;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
 import org.apache.stanbol.enhancer.test.BlobTest;
+import org.junit.Assert;
+import org.junit.Test;
 
 public class FileBlobTest extends BlobTest {
 
@@ -31,5 +40,25 @@ public class FileBlobTest extends BlobTest {
     protected Blob createBlob(ContentSource cs) throws IOException {
         return factory.createBlob(cs);
     }
+    /**
+     * Only files with at least {@link FileContentItemFactory#MAP_THRESHOLD}
+     * bytes are memory mapped
+     */
+    @Test
+    public void testMapThreshold() throws IOException {
+        byte[] data = new byte[MAP_THRESHOLD];
+        for(int i=0;i<data.length;i++){
+            data[i] = (byte)(i%127);
+        }
+        Blob small = createBlob(new ByteArraySource(Arrays.copyOf(data, MAP_THRESHOLD-1)));
+        Assert.assertNull(ContentItemHelper.getByteBuffer(small));
+        Assert.assertArrayEquals(Arrays.copyOf(data, MAP_THRESHOLD-1), 
+            IOUtils.toByteArray(small.getStream()));
+        Blob mapped = createBlob(new ByteArraySource(data));
+        ByteBuffer buffer = ContentItemHelper.getByteBuffer(mapped);
+        Assert.assertNotNull(buffer);
+        Assert.assertEquals(MAP_THRESHOLD, buffer.remaining());
+        Assert.assertArrayEquals(data, IOUtils.toByteArray(mapped.getStream()));
+    }
 
 }
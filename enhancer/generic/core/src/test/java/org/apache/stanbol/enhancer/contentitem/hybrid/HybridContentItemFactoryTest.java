@@ -0,0 +1,137 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.contentitem.hybrid;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.stanbol.enhancer.contentitem.hybrid.HybridContentItemFactory.HybridBlob;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.ContentSink;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
+import org.apache.stanbol.enhancer.servicesapi.impl.StreamSource;
+import org.apache.stanbol.enhancer.test.ContentItemFactoryTest;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class HybridContentItemFactoryTest extends ContentItemFactoryTest {
+
+    /**
+     * Small threshold so that the tests do cover both in-memory and
+     * spilled Blobs
+     */
+    private static final int THRESHOLD = 64;
+    
+    private static File customDir;
+    private static HybridContentItemFactory factory;
+    
+    @BeforeClass
+    public static void init(){
+        String prefix = System.getProperty("basedir",".");
+        File targetDir = new File(prefix,"target");
+        customDir = new File(targetDir,"hybridContentItem");
+    }
+    
+    @Override
+    protected ContentItemFactory createContentItemFactory() throws IOException {
+        if(factory == null){
+            factory = new HybridContentItemFactory(THRESHOLD, customDir);
+        }
+        return factory;
+    }
+    
+    private static byte[] createData(int size){
+        byte[] data = new byte[size];
+        for(int i=0;i<size;i++){
+            data[i] = (byte)(i%127);
+        }
+        return data;
+    }
+    
+    @Test
+    public void testInMemoryBlob() throws IOException {
+        byte[] data = createData(THRESHOLD);
+        long inMemory = factory.getStatistics().get("inMemoryBlobs");
+        Blob blob = factory.createBlob(new ByteArraySource(data));
+        assertTrue(blob instanceof HybridBlob);
+        assertFalse("Blobs with a size <= threshold MUST NOT be spilled",
+            ((HybridBlob)blob).isSpilled());
+        assertEquals(inMemory+1, factory.getStatistics().get("inMemoryBlobs").longValue());
+        assertTrue(Arrays.equals(data, IOUtils.toByteArray(blob.getStream())));
+        assertEquals(data.length, blob.getContentLength());
+    }
+    
+    @Test
+    public void testSpilledBlob() throws IOException {
+        byte[] data = createData(THRESHOLD*10);
+        Map<String,Long> stats = factory.getStatistics();
+        long spilled = stats.get("spilledBlobs");
+        long spilledBytes = stats.get("spilledBytes");
+        int numFiles = customDir.list().length;
+        Blob blob = factory.createBlob(new StreamSource(new ByteArrayInputStream(data)));
+        assertTrue(blob instanceof HybridBlob);
+        assertTrue("Blobs with a size > threshold MUST BE spilled",
+            ((HybridBlob)blob).isSpilled());
+        assertEquals("Spilling a Blob has not increased the number of files by one!",
+            numFiles, customDir.list().length-1);
+        stats = factory.getStatistics();
+        assertEquals(spilled+1, stats.get("spilledBlobs").longValue());
+        assertEquals(spilledBytes+data.length, stats.get("spilledBytes").longValue());
+        assertEquals(data.length, blob.getContentLength());
+        InputStream in = blob.getStream();
+        assertTrue(in.markSupported());
+        in.mark(THRESHOLD);
+        byte[] start = new byte[THRESHOLD];
+        assertEquals(THRESHOLD, IOUtils.read(in, start));
+        in.reset(); //read the content again
+        assertTrue(Arrays.equals(data, IOUtils.toByteArray(in)));
+        //the mapped buffer is not shared between streams
+        assertTrue(Arrays.equals(data, IOUtils.toByteArray(blob.getStream())));
+    }
+
+    @Test
+    public void testSpillingContentSink() throws IOException {
+        byte[] data = createData(THRESHOLD*3);
+        ContentSink sink = factory.createContentSink("text/plain; charset=UTF-8");
+        assertNotNull(sink);
+        Blob blob = sink.getBlob();
+        OutputStream out = sink.getOutputStream();
+        out.write(data, 0, THRESHOLD);
+        assertEquals(THRESHOLD, blob.getContentLength());
+        assertTrue(Arrays.equals(Arrays.copyOf(data, THRESHOLD), 
+            IOUtils.toByteArray(blob.getStream())));
+        out.write(data, THRESHOLD, data.length-THRESHOLD);
+        out.flush();
+        assertEquals(data.length, blob.getContentLength());
+        assertTrue(Arrays.equals(data, IOUtils.toByteArray(blob.getStream())));
+        out.close();
+        assertEquals("text/plain", blob.getMimeType());
+        assertEquals("UTF-8", blob.getParameter().get("charset"));
+    }
+}
@@ -0,0 +1,333 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.json;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+
+/**
+ * Compact binary alternative to the JSON serialisation of {@link org.apache.stanbol.enhancer.nlp.model.AnalysedText}s
+ * as written by the {@link AnalyzedTextSerializer#serializeBinary(org.apache.stanbol.enhancer.nlp.model.AnalysedText, OutputStream)}
+ * and read by the {@link AnalyzedTextParser#parseBinary(InputStream, org.apache.stanbol.enhancer.nlp.model.AnalysedText)}
+ * methods.<p>
+ * The layout is:<ul>
+ * <li> the {@link #MAGIC} bytes followed by the {@link #VERSION}
+ * <li> a sequence of spans (the first MUST BE the 'Text' span) terminated by
+ * a <code>0</code> byte. Each span starts with the ordinal of its 
+ * {@link org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum} + 1 followed by
+ * the start as (zig-zag) varint delta to the start of the previous span, the
+ * length as varint, the number of annotation keys and for each key the
+ * number of values followed by the values.
+ * <li> values are the JSON objects created by the 
+ * {@link org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializer}s
+ * encoded as tagged binary nodes. All Strings (keys, class names, tags ...)
+ * up to {@link #MAX_INTERNED_LENGTH} chars are interned: only the first 
+ * occurrence is written, later ones refer to it by index.
+ * </ul>
+ * Both sides process the data span by span, so the document is never 
+ * materialised as a tree.
+ */
+public final class AnalyzedTextBinaryFormat {
+
+    private AnalyzedTextBinaryFormat(){}
+    
+    /**
+     * The media type used for the binary format
+     */
+    public static final String MEDIA_TYPE = "application/x-stanbol-nlp-binary";
+    
+    static final byte[] MAGIC = new byte[]{'S','N','L','P'};
+    
+    static final int VERSION = 1;
+    /**
+     * Marks the end of the span sequence
+     */
+    static final int END = 0;
+    /**
+     * Strings longer as this are written as literals and are not interned
+     */
+    static final int MAX_INTERNED_LENGTH = 64;
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int STRING_LITERAL = 0;
+    private static final int STRING_NEW = 1;
+    private static final int STRING_REF_OFFSET = 2;
+    
+    private static final int NODE_NULL = 0;
+    private static final int NODE_FALSE = 1;
+    private static final int NODE_TRUE = 2;
+    private static final int NODE_INT = 3;
+    private static final int NODE_LONG = 4;
+    private static final int NODE_DOUBLE = 5;
+    private static final int NODE_STRING = 6;
+    private static final int NODE_BIG_INTEGER = 7;
+    private static final int NODE_BIG_DECIMAL = 8;
+    private static final int NODE_ARRAY = 9;
+    private static final int NODE_OBJECT = 10;
+    
+    /**
+     * Writes the binary format. Not thread safe as it keeps the table of
+     * interned strings.
+     */
+    static final class Encoder {
+        
+        private final OutputStream out;
+        private final Map<String,Integer> strings = new HashMap<String,Integer>();
+        
+        Encoder(OutputStream out){
+            this.out = out;
+        }
+        
+        void writeHeader() throws IOException {
+            out.write(MAGIC);
+            out.write(VERSION);
+        }
+        
+        void writeByte(int b) throws IOException {
+            out.write(b);
+        }
+        
+        void writeVarInt(int value) throws IOException {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+        
+        void writeSignedVarInt(int value) throws IOException {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+        
+        private void writeVarLong(long value) throws IOException {
+            while((value & ~0x7FL) != 0){
+                out.write((int)((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int)value);
+        }
+        
+        void writeString(String value) throws IOException {
+            if(value.length() <= MAX_INTERNED_LENGTH){
+                Integer index = strings.get(value);
+                if(index != null){
+                    writeVarInt(index + STRING_REF_OFFSET);
+                    return;
+                }
+                strings.put(value, strings.size());
+                writeVarInt(STRING_NEW);
+            } else {
+                writeVarInt(STRING_LITERAL);
+            }
+            byte[] data = value.getBytes(UTF8);
+            writeVarInt(data.length);
+            out.write(data);
+        }
+        
+        void writeNode(JsonNode node) throws IOException {
+            if(node.isObject()){
+                out.write(NODE_OBJECT);
+                writeVarInt(node.size());
+                for(Iterator<Entry<String,JsonNode>> fields = node.getFields(); fields.hasNext();){
+                    Entry<String,JsonNode> field = fields.next();
+                    writeString(field.getKey());
+                    writeNode(field.getValue());
+                }
+            } else if(node.isArray()){
+                out.write(NODE_ARRAY);
+                writeVarInt(node.size());
+                for(JsonNode element : node){
+                    writeNode(element);
+                }
+            } else if(node.isTextual()){
+                out.write(NODE_STRING);
+                writeString(node.getTextValue());
+            } else if(node.isInt()){
+                out.write(NODE_INT);
+                writeSignedVarInt(node.getIntValue());
+            } else if(node.isLong()){
+                out.write(NODE_LONG);
+                long value = node.getLongValue();
+                writeVarLong((value << 1) ^ (value >> 63));
+            } else if(node.isDouble()){
+                out.write(NODE_DOUBLE);
+                long bits = Double.doubleToLongBits(node.getDoubleValue());
+                for(int shift = 56; shift >= 0; shift -= 8){
+                    out.write((int)(bits >>> shift));
+                }
+            } else if(node.isBigInteger()){
+                out.write(NODE_BIG_INTEGER);
+                writeString(node.getBigIntegerValue().toString());
+            } else if(node.isBigDecimal()){
+                out.write(NODE_BIG_DECIMAL);
+                writeString(node.getDecimalValue().toString());
+            } else if(node.isBoolean()){
+                out.write(node.getBooleanValue() ? NODE_TRUE : NODE_FALSE);
+            } else if(node.isNull() || node.isMissingNode()){
+                out.write(NODE_NULL);
+            } else { //binary and POJO nodes
+                out.write(NODE_STRING);
+                writeString(node.asText());
+            }
+        }
+    }
+    
+    /**
+     * Reads the binary format. Not thread safe as it keeps the table of
+     * interned strings.
+     */
+    static final class Decoder {
+        
+        private final InputStream in;
+        private final List<String> strings = new ArrayList<String>();
+        private final JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
+        
+        Decoder(InputStream in){
+            this.in = in;
+        }
+        
+        void readHeader() throws IOException {
+            for(int i = 0; i < MAGIC.length; i++){
+                if(readByte() != MAGIC[i]){
+                    throw new IOException("The parsed data do not start with the magic bytes "
+                        + "of the binary AnalyzedText format!");
+                }
+            }
+            int version = readByte();
+            if(version != VERSION){
+                throw new IOException("Unsupported version "+version+" of the binary "
+                    + "AnalyzedText format (supported: "+VERSION+")!");
+            }
+        }
+        
+        int readByte() throws IOException {
+            int b = in.read();
+            if(b < 0){
+                throw new EOFException("Unexpected end of binary AnalyzedText data!");
+            }
+            return b;
+        }
+        
+        int readVarInt() throws IOException {
+            long value = readVarLong();
+            if(value > 0xFFFFFFFFL){
+                throw new IOException("Illegal varint value "+value+" in binary AnalyzedText data!");
+            }
+            return (int)value;
+        }
+        
+        int readSignedVarInt() throws IOException {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+        
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for(int shift = 0; shift < 64; shift += 7){
+                int b = readByte();
+                value |= (long)(b & 0x7F) << shift;
+                if((b & 0x80) == 0){
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in binary AnalyzedText data!");
+        }
+        
+        String readString() throws IOException {
+            int ref = readVarInt();
+            if(ref >= STRING_REF_OFFSET){
+                int index = ref - STRING_REF_OFFSET;
+                if(index >= strings.size()){
+                    throw new IOException("Reference to unknown String "+index
+                        + " in binary AnalyzedText data!");
+                }
+                return strings.get(index);
+            }
+            byte[] data = new byte[readVarInt()];
+            int read = 0;
+            while(read < data.length){
+                int r = in.read(data, read, data.length - read);
+                if(r < 0){
+                    throw new EOFException("Unexpected end of binary AnalyzedText data!");
+                }
+                read += r;
+            }
+            String value = new String(data, UTF8);
+            if(ref == STRING_NEW){
+                strings.add(value);
+            }
+            return value;
+        }
+        
+        JsonNode readNode() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case NODE_OBJECT:
+                    ObjectNode jObject = nodeFactory.objectNode();
+                    for(int i = readVarInt(); i > 0; i--){
+                        String key = readString();
+                        jObject.put(key, readNode());
+                    }
+                    return jObject;
+                case NODE_ARRAY:
+                    ArrayNode jArray = nodeFactory.arrayNode();
+                    for(int i = readVarInt(); i > 0; i--){
+                        jArray.add(readNode());
+                    }
+                    return jArray;
+                case NODE_STRING:
+                    return nodeFactory.textNode(readString());
+                case NODE_INT:
+                    return nodeFactory.numberNode(readSignedVarInt());
+                case NODE_LONG:
+                    long value = readVarLong();
+                    return nodeFactory.numberNode((value >>> 1) ^ -(value & 1));
+                case NODE_DOUBLE:
+                    long bits = 0;
+                    for(int i = 0; i < 8; i++){
+                        bits = (bits << 8) | readByte();
+                    }
+                    return nodeFactory.numberNode(Double.longBitsToDouble(bits));
+                case NODE_BIG_INTEGER:
+                    return nodeFactory.numberNode(new BigInteger(readString()));
+                case NODE_BIG_DECIMAL:
+                    return nodeFactory.numberNode(new BigDecimal(readString()));
+                case NODE_TRUE:
+                    return nodeFactory.booleanNode(true);
+                case NODE_FALSE:
+                    return nodeFactory.booleanNode(false);
+                case NODE_NULL:
+                    return nodeFactory.nullNode();
+                default:
+                    throw new IOException("Unknown node type "+tag+" in binary AnalyzedText data!");
+            }
+        }
+    }
+}
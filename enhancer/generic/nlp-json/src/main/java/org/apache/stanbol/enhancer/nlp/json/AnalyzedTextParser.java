@@ -16,6 +16,7 @@
 */
 package org.apache.stanbol.enhancer.nlp.json;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -172,32 +173,8 @@ public class AnalyzedTextParser {
                 return;
             }
             //now create the Span
-            Span span;
-            switch (spanType) {
-                case Text:
-                    log.warn("Encounterd 'Text' span that is not the first span in the "
-                        + "'spans' array (ignored, json: "+node+")");
-                    return;
-                case TextSection:
-                    log.warn("Encountered 'TextSection' span. This SpanTypeEnum entry "
-                        + "is currently unused. If this is no longer the case please "
-                        + "update this implementation (ignored, json: "+node+")"); 
-                    return;
-                case Sentence:
-                    span = at.addSentence(spanPos[0], spanPos[1]);
-                    break;
-                case Chunk:
-                    span = at.addChunk(spanPos[0], spanPos[1]);
-                    break;
-                case Token:
-                    span = at.addToken(spanPos[0], spanPos[1]);
-                    break;
-                default:
-                    log.warn("Unsupported SpanTypeEnum  '"+spanType+"'!. Please "
-                            + "update this implementation (ignored, json: "+node+")"); 
-                    return;
-            }
-            if(!jAnnotations.isEmpty()){
+            Span span = createSpan(at, spanType, spanPos[0], spanPos[1], node);
+            if(span != null && !jAnnotations.isEmpty()){
                 parseAnnotations(span,jAnnotations);
             }
         } else {
@@ -205,6 +182,102 @@ public class AnalyzedTextParser {
         }
     }
 
+    /**
+     * Adds a span of the parsed type to the {@link AnalysedText}
+     * @param source the serialized form of the span (used for logging)
+     * @return the created span or <code>null</code> if the type is not
+     * supported
+     */
+    private Span createSpan(AnalysedText at, SpanTypeEnum spanType, int start, int end, Object source) {
+        switch (spanType) {
+            case Text:
+                log.warn("Encounterd 'Text' span that is not the first span in the "
+                    + "'spans' array (ignored, json: "+source+")");
+                return null;
+            case TextSection:
+                log.warn("Encountered 'TextSection' span. This SpanTypeEnum entry "
+                    + "is currently unused. If this is no longer the case please "
+                    + "update this implementation (ignored, json: "+source+")"); 
+                return null;
+            case Sentence:
+                return at.addSentence(start, end);
+            case Chunk:
+                return at.addChunk(start, end);
+            case Token:
+                return at.addToken(start, end);
+            default:
+                log.warn("Unsupported SpanTypeEnum  '"+spanType+"'!. Please "
+                        + "update this implementation (ignored, json: "+source+")"); 
+                return null;
+        }
+    }
+    
+    /**
+     * Parses {@link AnalysedText} {@link Span}s including annotations from
+     * the {@link InputStream} containing data in the 
+     * {@link AnalyzedTextBinaryFormat}. Spans are added to the parsed
+     * {@link AnalysedText} as they are read from the stream.
+     * @param in The stream to read the data from
+     * @param at The {@link AnalysedText} instance used to add the data to
+     * @return the parsed {@link AnalysedText} instance enrichted with the
+     * information parsed from the Stream
+     * @throws IOException on any Error while reading or parsing the data
+     * from the Stream
+     */
+    public AnalysedText parseBinary(InputStream in, final AnalysedText at) throws IOException {
+        if(in == null){
+            throw new IllegalArgumentException("The parsed InputStream MUST NOT be NULL!");
+        }
+        AnalyzedTextBinaryFormat.Decoder decoder = new AnalyzedTextBinaryFormat.Decoder(
+            new BufferedInputStream(in));
+        decoder.readHeader();
+        SpanTypeEnum[] spanTypes = SpanTypeEnum.values();
+        int start = 0;
+        boolean first = true;
+        for(int type = decoder.readByte(); type != AnalyzedTextBinaryFormat.END; type = decoder.readByte()){
+            if(type > spanTypes.length){
+                throw new IOException("Unknown SpanType "+(type-1)+" in binary AnalyzedText data!");
+            }
+            SpanTypeEnum spanType = spanTypes[type-1];
+            start = start + decoder.readSignedVarInt();
+            int end = start + decoder.readVarInt();
+            Span span;
+            if(first){
+                if(spanType != SpanTypeEnum.Text || start != 0){
+                    throw new IOException("The first span of binary AnalyzedText data MUST BE "
+                        + "the 'Text' span starting at '0' (found: "+spanType+" ["+start+","+end+"])!");
+                }
+                if(at.getEnd() != end){
+                    throw new IOException("The size of the local text '"+at.getEnd()+"' does not "
+                        + "match the span of the parsed AnalyzedText [0,"+end+"]!");
+                }
+                span = at;
+                first = false;
+            } else {
+                span = createSpan(at, spanType, start, end, spanType+" ["+start+","+end+"]");
+            }
+            for(int keys = decoder.readVarInt(); keys > 0; keys--){
+                String key = decoder.readString();
+                for(int values = decoder.readVarInt(); values > 0; values--){
+                    JsonNode jValue = decoder.readNode();
+                    if(span == null){
+                        continue; //consume the annotations of ignored spans
+                    }
+                    if(jValue.isObject()){
+                        parseAnnotation(span, key, (ObjectNode)jValue);
+                    } else {
+                        log.warn("unable to parse Annotation {} because value is no JSON object (ignored, json: {}",
+                            key, jValue);
+                    }
+                }
+            }
+        }
+        if(first){
+            throw new IOException("Binary AnalyzedText data MUST contain the 'Text' span!");
+        }
+        return at;
+    }
+
     /**
      * @param jSpan
      * @param spanPos
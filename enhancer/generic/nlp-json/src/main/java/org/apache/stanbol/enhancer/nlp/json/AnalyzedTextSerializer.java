@@ -16,7 +16,7 @@
 */
 package org.apache.stanbol.enhancer.nlp.json;
 
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -24,6 +24,7 @@ import java.nio.charset.Charset;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.ConfigurationPolicy;
@@ -125,6 +126,53 @@ public class AnalyzedTextSerializer {
         jg.close();
     }
 
+    /**
+     * Serializes the parsed {@link AnalysedText} by using the compact binary
+     * {@link AnalyzedTextBinaryFormat}. Spans are written one by one to the
+     * parsed stream. The stream is flushed but not closed.
+     * @param at the {@link AnalysedText} to serialize
+     * @param out the {@link OutputStream}
+     * @throws IOException on any error while writing to the stream
+     */
+    public void serializeBinary(AnalysedText at, OutputStream out) throws IOException {
+        if(at == null){
+            throw new IllegalArgumentException("The parsed AnalysedText MUST NOT be NULL!");
+        }
+        if(out == null){
+            throw new IllegalArgumentException("The parsed OutputStream MUST NOT be NULL");
+        }
+        BufferedOutputStream bout = new BufferedOutputStream(out);
+        AnalyzedTextBinaryFormat.Encoder encoder = new AnalyzedTextBinaryFormat.Encoder(bout);
+        encoder.writeHeader();
+        int lastStart = writeSpan(encoder, at, 0);
+        for(Iterator<Span> it = at.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));it.hasNext();){
+            lastStart = writeSpan(encoder, it.next(), lastStart);
+        }
+        encoder.writeByte(AnalyzedTextBinaryFormat.END);
+        bout.flush();
+    }
+    
+    /**
+     * Writes the parsed span in the binary format
+     * @return the start of the written span
+     */
+    private int writeSpan(AnalyzedTextBinaryFormat.Encoder encoder, Span span, int lastStart) throws IOException {
+        encoder.writeByte(span.getType().ordinal()+1);
+        encoder.writeSignedVarInt(span.getStart() - lastStart);
+        encoder.writeVarInt(span.getEnd() - span.getStart());
+        Set<String> keys = span.getKeys();
+        encoder.writeVarInt(keys.size());
+        for(String key : keys){
+            List<Value<?>> values = span.getValues(key);
+            encoder.writeString(key);
+            encoder.writeVarInt(values.size());
+            for(Value<?> value : values){
+                encoder.writeNode(writeValue(value));
+            }
+        }
+        return span.getStart();
+    }
+
     private ObjectNode writeSpan(Span span) throws IOException {
         log.trace("wirte {}",span);
         ObjectNode jSpan = mapper.createObjectNode();
@@ -34,6 +34,7 @@ import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
 
 import org.apache.felix.scr.annotations.Reference;
+import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextBinaryFormat;
 import org.apache.stanbol.enhancer.nlp.json.AnalyzedTextSerializer;
 import org.apache.stanbol.enhancer.nlp.json.valuetype.ValueTypeSerializer;
 import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
@@ -64,11 +65,13 @@ import org.slf4j.LoggerFactory;
  *
  */
 @Provider
-@Produces(value=MediaType.APPLICATION_JSON)
+@Produces(value={MediaType.APPLICATION_JSON, AnalyzedTextBinaryFormat.MEDIA_TYPE})
 public class AnalyzedTextWriter implements MessageBodyWriter<AnalysedText> {
 
     Logger log = LoggerFactory.getLogger(AnalyzedTextWriter.class);
     
+    private static final MediaType BINARY_MEDIA_TYPE = MediaType.valueOf(AnalyzedTextBinaryFormat.MEDIA_TYPE);
+    
     @Context
     protected ServletContext servletContext;
     /**
@@ -135,6 +138,10 @@ public class AnalyzedTextWriter implements MessageBodyWriter<AnalysedText> {
     public void writeTo(AnalysedText at, Class<?> type, Type genericType, Annotation[] annotations,
             MediaType mediaType, MultivaluedMap<String,Object> httpHeaders, OutputStream entityStream)
             throws IOException, WebApplicationException {
+        if(BINARY_MEDIA_TYPE.isCompatible(mediaType)){
+            getSerializer().serializeBinary(at, entityStream);
+            return;
+        }
         String charsetName = mediaType.getParameters().get("charset");
         Charset charset = null;
         if(charsetName != null){
@@ -195,6 +195,44 @@ public class AnalyzedTextSerializerAndParserTest {
         AnalyzedTextParser parser = AnalyzedTextParser.getDefaultInstance();
         AnalysedText parsedAt = parser.parse(new ByteArrayInputStream(data), null, 
             atFactory.createAnalysedText(textBlob.getValue()));
+        assertSameSpans(parsedAt);
+    }
+    
+    @Test
+    public void testBinarySerialization() throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        AnalyzedTextSerializer serializer = AnalyzedTextSerializer.getDefaultInstance();
+        serializer.serializeBinary(analysedTextWithData, bout);
+        byte[] data = bout.toByteArray();
+        bout = new ByteArrayOutputStream();
+        serializer.serialize(analysedTextWithData, bout, null);
+        log.info("binary size: {} bytes (JSON: {} bytes)", data.length, bout.size());
+        Assert.assertTrue(data.length < bout.size());
+        //deserialize
+        AnalyzedTextParser parser = AnalyzedTextParser.getDefaultInstance();
+        AnalysedText parsedAt = parser.parseBinary(new ByteArrayInputStream(data), 
+            atFactory.createAnalysedText(textBlob.getValue()));
+        assertSameSpans(parsedAt);
+    }
+    
+    @Test(expected=IOException.class)
+    public void testBinaryParseOfJson() throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        AnalyzedTextSerializer.getDefaultInstance().serialize(analysedTextWithData, bout, null);
+        AnalyzedTextParser.getDefaultInstance().parseBinary(
+            new ByteArrayInputStream(bout.toByteArray()), at);
+    }
+    
+    @Test(expected=IOException.class)
+    public void testBinaryParseTruncated() throws IOException {
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        AnalyzedTextSerializer.getDefaultInstance().serializeBinary(analysedTextWithData, bout);
+        byte[] data = bout.toByteArray();
+        AnalyzedTextParser.getDefaultInstance().parseBinary(
+            new ByteArrayInputStream(data, 0, data.length/2), at);
+    }
+
+    private void assertSameSpans(AnalysedText parsedAt) {
         Assert.assertEquals(analysedTextWithData, parsedAt);
         Iterator<Span> origSpanIt = analysedTextWithData.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));
         Iterator<Span> parsedSpanIt = parsedAt.getEnclosed(EnumSet.allOf(SpanTypeEnum.class));
@@ -18,6 +18,7 @@ package org.apache.stanbol.enhancer.nlp.model;
 
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.Set;
 
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
@@ -79,6 +80,16 @@ public interface AnalysedText extends Section{
      */
     Iterator<Chunk> getChunks();
 
+    /**
+     * Creates a {@link SpanCursor} over all Spans of the parsed types of this
+     * analysed text. Use {@link SpanCursor#reset(Span)} to iterate over the
+     * Spans of a single section.<p>
+     * The returned cursor MUST consider additions of Spans.
+     * @param types the {@link SpanTypeEnum types} of Spans included
+     * @return the cursor positioned before the first Span
+     */
+    SpanCursor getCursor(Set<SpanTypeEnum> types);
+
     /**
      * Getter for the text.
      * @return 
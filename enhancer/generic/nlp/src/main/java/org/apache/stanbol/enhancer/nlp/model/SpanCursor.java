@@ -0,0 +1,109 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.annotation.Annotation;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+
+/**
+ * Cursor over the {@link Span}s of an {@link AnalysedText}. In contrast to
+ * the {@link Iterator}s returned by {@link Section#getEnclosed(Set)} moving
+ * the cursor and reading the type, start, end and annotations of the current
+ * span does not create any objects. This makes it the preferred way to
+ * process all Tokens of long texts.<p>
+ * A cursor can be reused for several sections by calling 
+ * {@link #reset(Span)} or {@link #reset(int, int)}. Instances are obtained 
+ * by calling {@link AnalysedText#getCursor(Set)}.<p>
+ * Typical usage:<pre><code>
+ *     SpanCursor cursor = at.getCursor(EnumSet.of(SpanTypeEnum.Token));
+ *     Iterator&lt;Sentence&gt; sentences = at.getSentences();
+ *     while(sentences.hasNext()){
+ *         cursor.reset(sentences.next());
+ *         while(cursor.next()){
+ *             Value&lt;PosTag&gt; pos = cursor.getAnnotation(POS_ANNOTATION);
+ *             //...
+ *         }
+ *     }
+ * </code></pre>
+ * As with Iterators Spans added while using the cursor are considered.
+ * Cursors are not thread safe.
+ */
+public interface SpanCursor {
+
+    /**
+     * Resets the cursor to iterate over the Spans enclosed by the parsed
+     * Span. The parsed Span itself is not included.
+     * @param section the section (typically a {@link Sentence} or 
+     * the {@link AnalysedText})
+     */
+    void reset(Span section);
+    /**
+     * Resets the cursor to iterate over the Spans that start within 
+     * <code>[start,end)</code> and do not end after <code>end</code>.
+     * @param start the absolute start index
+     * @param end the absolute end index
+     * @throws IllegalArgumentException if start is negative or end &lt; start
+     */
+    void reset(int start, int end);
+    /**
+     * Moves the cursor to the next Span
+     * @return <code>true</code> if the cursor was moved to the next span or
+     * <code>false</code> if there are no more Spans
+     */
+    boolean next();
+    /**
+     * The type of the current span
+     * @throws IllegalStateException if the cursor is not positioned on a Span
+     */
+    SpanTypeEnum getType();
+    /**
+     * The absolute start index of the current span
+     * @throws IllegalStateException if the cursor is not positioned on a Span
+     */
+    int getStart();
+    /**
+     * The absolute end index of the current span
+     * @throws IllegalStateException if the cursor is not positioned on a Span
+     */
+    int getEnd();
+    /**
+     * Getter for the annotation value with the highest probability of the
+     * current span.
+     * @see Span#getAnnotation(Annotation)
+     * @throws IllegalStateException if the cursor is not positioned on a Span
+     */
+    <V> Value<V> getAnnotation(Annotation<V> annotation);
+    /**
+     * Getter for all annotation values of the current span. NOTE that this
+     * may create a {@link List} instance.
+     * @see Span#getAnnotations(Annotation)
+     * @throws IllegalStateException if the cursor is not positioned on a Span
+     */
+    <V> List<Value<V>> getAnnotations(Annotation<V> annotation);
+    /**
+     * Getter for the current span. Depending on the implementation of the
+     * {@link AnalysedText} this may create a new {@link Span} instance. 
+     * Users should only call this method if they need to keep or modify
+     * the current Span.
+     * @throws IllegalStateException if the cursor is not positioned on a Span
+     */
+    Span getSpan();
+}
@@ -16,15 +16,21 @@
 */
 package org.apache.stanbol.enhancer.nlp.model.impl;
 
+import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NavigableMap;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
 import org.apache.stanbol.enhancer.nlp.model.Chunk;
 import org.apache.stanbol.enhancer.nlp.model.Sentence;
 import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanCursor;
 import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Annotation;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 
 /**
@@ -86,6 +92,11 @@ public class AnalysedTextImpl extends SectionImpl implements AnalysedText {
     public Iterator<Chunk> getChunks(){
         return filter(Chunk.class);
     }
+    @Override
+    public SpanCursor getCursor(Set<SpanTypeEnum> types) {
+        return new TreeSpanCursor(types);
+    }
+    
     /**
      * Reference to the Blob those data got analysed
      * @return
@@ -103,4 +114,103 @@ public class AnalysedTextImpl extends SectionImpl implements AnalysedText {
     public Blob getBlob() {
         return blob;
     }
+    
+    /**
+     * {@link SpanCursor} implementation that uses 
+     * {@link NavigableMap#higherKey(Object)} to move to the next Span. As
+     * Spans are already objects within this implementation no objects are
+     * created while moving the cursor.
+     */
+    private class TreeSpanCursor implements SpanCursor {
+        
+        private final Set<SpanTypeEnum> types;
+        /**
+         * The span before the first span of the current section
+         */
+        private Span from;
+        /**
+         * The end of the current section
+         */
+        private int end;
+        private Span current;
+        private boolean done;
+        
+        TreeSpanCursor(Set<SpanTypeEnum> types){
+            this.types = EnumSet.copyOf(types);
+            reset(AnalysedTextImpl.this);
+        }
+        
+        @Override
+        public void reset(Span section) {
+            from = section;
+            end = section.getEnd();
+            current = null;
+            done = false;
+        }
+        
+        @Override
+        public void reset(int start, int end) {
+            if(start < 0 || end < start){
+                throw new IllegalArgumentException("Illegal section ["+start+','+end+']');
+            }
+            //use the lowest possible Span starting at start as section
+            reset(new SubSetHelperSpan(start, Integer.MAX_VALUE));
+            this.end = end;
+        }
+        
+        @Override
+        public boolean next() {
+            if(done){
+                return false;
+            }
+            Span span = current == null ? from : current;
+            for(span = spans.higherKey(span); span != null && span.getStart() < end; 
+                    span = spans.higherKey(span)){
+                if(span.getEnd() <= end && types.contains(span.getType())){
+                    current = span;
+                    return true;
+                }
+            }
+            current = null;
+            done = true;
+            return false;
+        }
+        
+        private Span current(){
+            if(current == null){
+                throw new IllegalStateException("The cursor is not positioned on a Span!");
+            }
+            return current;
+        }
+        
+        @Override
+        public SpanTypeEnum getType() {
+            return current().getType();
+        }
+        
+        @Override
+        public int getStart() {
+            return current().getStart();
+        }
+        
+        @Override
+        public int getEnd() {
+            return current().getEnd();
+        }
+        
+        @Override
+        public <V> Value<V> getAnnotation(Annotation<V> annotation) {
+            return current().getAnnotation(annotation);
+        }
+        
+        @Override
+        public <V> List<Value<V>> getAnnotations(Annotation<V> annotation) {
+            return current().getAnnotations(annotation);
+        }
+        
+        @Override
+        public Span getSpan() {
+            return current();
+        }
+    }
 }
@@ -0,0 +1,173 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.columnar;
+
+import static org.apache.stanbol.enhancer.nlp.NlpAnnotations.MORPHO_ANNOTATION;
+import static org.apache.stanbol.enhancer.nlp.NlpAnnotations.NER_ANNOTATION;
+import static org.apache.stanbol.enhancer.nlp.NlpAnnotations.PHRASE_ANNOTATION;
+import static org.apache.stanbol.enhancer.nlp.NlpAnnotations.POS_ANNOTATION;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+
+/**
+ * Stores the annotations of Spans in columns. Each column holds the values
+ * for a single annotation key indexed by the id of the Span (see 
+ * {@link SpanStore}). Values are stored as single {@link Value} or as sorted
+ * <code>{@link Value}[]</code> (see 
+ * {@link org.apache.stanbol.enhancer.nlp.model.impl.AbstractAnnotated}).<p>
+ * The columns for {@link org.apache.stanbol.enhancer.nlp.NlpAnnotations#POS_ANNOTATION POS},
+ * {@link org.apache.stanbol.enhancer.nlp.NlpAnnotations#NER_ANNOTATION NER},
+ * {@link org.apache.stanbol.enhancer.nlp.NlpAnnotations#PHRASE_ANNOTATION phrase} and
+ * {@link org.apache.stanbol.enhancer.nlp.NlpAnnotations#MORPHO_ANNOTATION morpho}
+ * annotations are directly referenced to avoid map lookups for the most
+ * frequently used annotations. Columns for other keys are created on demand.
+ * <p>
+ * This class is not thread safe.
+ */
+final class AnnotationColumns {
+
+    private final Column pos = new Column(POS_ANNOTATION.getKey());
+    private final Column ner = new Column(NER_ANNOTATION.getKey());
+    private final Column phrase = new Column(PHRASE_ANNOTATION.getKey());
+    private final Column morpho = new Column(MORPHO_ANNOTATION.getKey());
+    /**
+     * Columns for other annotations (lazily initialised)
+     */
+    private Map<String,Column> columns;
+    
+    private Column getColumn(String key, boolean create){
+        if(pos.key.equals(key)){
+            return pos;
+        } else if(ner.key.equals(key)){
+            return ner;
+        } else if(phrase.key.equals(key)){
+            return phrase;
+        } else if(morpho.key.equals(key)){
+            return morpho;
+        }
+        Column column = columns == null ? null : columns.get(key);
+        if(column == null && create){
+            if(columns == null){
+                columns = new HashMap<String,Column>();
+            }
+            column = new Column(key);
+            columns.put(key, column);
+        }
+        return column;
+    }
+    /**
+     * Getter for the value of the parsed key for the Span with the parsed id
+     * @return the {@link Value}, <code>{@link Value}[]</code> or
+     * <code>null</code> if none
+     */
+    Object get(int id, String key){
+        Column column = getColumn(key, false);
+        return column == null ? null : column.get(id);
+    }
+    /**
+     * Setter for the value of the parsed key for the Span with the parsed id
+     * @param value the {@link Value}, <code>{@link Value}[]</code> or
+     * <code>null</code> to remove the current value
+     */
+    void set(int id, String key, Object value){
+        Column column = getColumn(key, value != null);
+        if(column != null){
+            column.set(id, value);
+        }
+    }
+    /**
+     * The keys of the annotations present for the Span with the parsed id
+     */
+    Set<String> getKeys(int id){
+        Set<String> keys = null;
+        keys = addKey(keys, pos, id);
+        keys = addKey(keys, ner, id);
+        keys = addKey(keys, phrase, id);
+        keys = addKey(keys, morpho, id);
+        if(columns != null){
+            for(Column column : columns.values()){
+                keys = addKey(keys, column, id);
+            }
+        }
+        if(keys == null){
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(keys);
+    }
+    
+    private static Set<String> addKey(Set<String> keys, Column column, int id){
+        if(column.get(id) != null){
+            if(keys == null){
+                keys = new LinkedHashSet<String>();
+            }
+            keys.add(column.key);
+        }
+        return keys;
+    }
+    /**
+     * Removes all annotations of the span with the parsed id
+     */
+    void clear(int id){
+        pos.set(id, null);
+        ner.set(id, null);
+        phrase.set(id, null);
+        morpho.set(id, null);
+        if(columns != null){
+            for(Column column : columns.values()){
+                column.set(id, null);
+            }
+        }
+    }
+    
+    /**
+     * A single column. The array is only allocated on the first value
+     * and grows up to the highest id with a value.
+     */
+    private static final class Column {
+        
+        private final String key;
+        private Object[] values;
+        
+        Column(String key){
+            this.key = key;
+        }
+        
+        Object get(int id){
+            return values == null || id >= values.length ? null : values[id];
+        }
+        
+        void set(int id, Object value){
+            if(values == null || id >= values.length){
+                if(value == null){
+                    return; //nothing to remove
+                }
+                int capacity = Math.max(16, Math.max(id + 1, 
+                    values == null ? 0 : values.length + (values.length >> 1)));
+                values = values == null ? new Object[capacity] : 
+                    Arrays.copyOf(values, capacity);
+            }
+            values[id] = value;
+        }
+    }
+}
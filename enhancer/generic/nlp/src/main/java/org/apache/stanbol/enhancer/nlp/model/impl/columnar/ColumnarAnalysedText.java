@@ -0,0 +1,537 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.columnar;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanCursor;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Annotation;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.apache.stanbol.enhancer.nlp.model.impl.AnalysedTextImpl;
+import org.apache.stanbol.enhancer.nlp.model.impl.AnnotatedImpl;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link AnalysedText} implementation that stores the boundaries and types
+ * of all Spans in sorted primitive arrays (see {@link SpanStore}) and their
+ * annotations in columns (see {@link AnnotationColumns}).<p>
+ * In contrast to the {@link AnalysedTextImpl} no objects are kept for
+ * {@link Sentence}s, {@link Chunk}s and {@link Token}s. Such objects are
+ * only created when accessed (e.g. while iterating) and can be garbage 
+ * collected after usage. Two instances that represent the same Span are
+ * {@link Object#equals(Object) equal} but not necessarily the same. This
+ * considerably reduces the memory footprint for long texts and avoids tree
+ * walks for iterating over enclosed spans.<p>
+ * As the {@link AnalysedTextImpl} this class is not thread safe.
+ */
+public class ColumnarAnalysedText extends AnnotatedImpl implements AnalysedText {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarAnalysedText.class);
+
+    private static final SpanTypeEnum[] SPAN_TYPES = SpanTypeEnum.values();
+    
+    private static final int TOKEN_MASK = mask(SpanTypeEnum.Token);
+    private static final int CHUNK_MASK = mask(SpanTypeEnum.Chunk);
+    private static final int SENTENCE_MASK = mask(SpanTypeEnum.Sentence);
+    
+    private final Blob blob;
+    /**
+     * The analysed text
+     */
+    private final String text;
+    
+    final SpanStore store;
+    
+    final AnnotationColumns annotations;
+    
+    public ColumnarAnalysedText(Blob blob, String text){
+        if(text == null){
+            throw new IllegalArgumentException("The parsed text MUST NOT be NULL!");
+        }
+        this.blob = blob;
+        this.text = text;
+        //assume a token about every 6 chars
+        this.store = new SpanStore(text.length() / 6);
+        this.annotations = new AnnotationColumns();
+    }
+    
+    @Override
+    public SpanTypeEnum getType() {
+        return SpanTypeEnum.Text;
+    }
+    
+    @Override
+    public int getStart() {
+        return 0;
+    }
+    
+    @Override
+    public int getEnd() {
+        return text.length();
+    }
+    
+    @Override
+    public AnalysedText getContext() {
+        return this;
+    }
+    
+    @Override
+    public String getSpan() {
+        return text;
+    }
+    
+    @Override
+    public CharSequence getText() {
+        return text;
+    }
+
+    @Override
+    public Blob getBlob() {
+        return blob;
+    }
+    
+    @Override
+    public Sentence addSentence(int start, int end) {
+        return (Sentence)add(this, SpanTypeEnum.Sentence, start, end);
+    }
+    
+    @Override
+    public Chunk addChunk(int start, int end) {
+        return (Chunk)add(this, SpanTypeEnum.Chunk, start, end);
+    }
+    
+    @Override
+    public Token addToken(int start, int end) {
+        return (Token)add(this, SpanTypeEnum.Token, start, end);
+    }
+    
+    @Override
+    public Iterator<Sentence> getSentences() {
+        return iterator(this, SENTENCE_MASK);
+    }
+    
+    @Override
+    public Iterator<Chunk> getChunks() {
+        return iterator(this, CHUNK_MASK);
+    }
+    
+    @Override
+    public Iterator<Token> getTokens() {
+        return iterator(this, TOKEN_MASK);
+    }
+    
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types) {
+        return iterator(this, mask(types));
+    }
+    
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types, int startOffset, int endOffset) {
+        return getEnclosed(this, types, startOffset, endOffset);
+    }
+    
+    @Override
+    public SpanCursor getCursor(Set<SpanTypeEnum> types) {
+        return new ColumnarSpanCursor(mask(types));
+    }
+    
+    @Override
+    public int compareTo(Span o) {
+        return compare(this, o);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: [%d, %d]", getType(), getStart(), getEnd());
+    }
+    
+    /*
+     * Internal methods used by the Span implementations
+     */
+    
+    /**
+     * Adds a Span. If the Span already exists the existing one is returned.
+     * @param relativeTo the span the parsed start/end are relative to or
+     * <code>null</code> if the parsed start/end are absolute.
+     * @param type the type of the Span
+     * @param start the start
+     * @param end the end
+     * @return the added or existing Span
+     * @throws IllegalArgumentException if the parsed span is illegal or 
+     * does extend the parsed relativeTo span.
+     */
+    Span add(Span relativeTo, SpanTypeEnum type, int start, int end){
+        int absStart = relativeTo == null ? start : relativeTo.getStart() + start;
+        int absEnd = relativeTo == null ? end : relativeTo.getStart() + end;
+        if(absStart < 0 || absEnd < absStart){
+            throw new IllegalArgumentException("Illegal span ["+absStart+','+absEnd+']');
+        }
+        //check that Spans that are created relative to an other do not cross
+        //the borders of that span
+        if(relativeTo != null && relativeTo.getEnd() < absEnd){
+            throw new IllegalArgumentException("Illegal span ["+start+','+end
+                + "] for "+type+" relative to "+relativeTo+" : Span of the "
+                + " contained Token MUST NOT extend the others!");
+        }
+        return getSpan(store.add(absStart, absEnd, type.ordinal()));
+    }
+    /**
+     * Creates the Span object for the parsed id
+     */
+    Span getSpan(int id){
+        switch (SPAN_TYPES[store.type(id)]) {
+            case Sentence:
+                return new ColumnarSentence(this, id);
+            case Chunk:
+                return new ColumnarChunk(this, id);
+            case Token:
+                return new ColumnarToken(this, id);
+            default:
+                throw new IllegalStateException("Unsupported Span type "
+                    + store.type(id) + " for Span with id " + id + "!");
+        }
+    }
+    /**
+     * Iterates over all Spans of the parsed types within the parsed section
+     */
+    <T extends Span> Iterator<T> iterator(Span section, int typeMask){
+        return new SpanIterator<T>(section.getStart(), section.getEnd(), 
+            section.getType().ordinal(), section.getEnd(), typeMask);
+    }
+    /**
+     * Implementation of {@link org.apache.stanbol.enhancer.nlp.model.Section#getEnclosed(Set, int, int)}
+     */
+    Iterator<Span> getEnclosed(Span section, Set<SpanTypeEnum> types, int startOffset, int endOffset){
+        int start = section.getStart();
+        int end = section.getEnd();
+        if(startOffset >= (end - start)){ //start is outside the span
+            return Collections.<Span>emptySet().iterator();
+        }
+        int startIdx = startOffset < 0 ? start : (start + startOffset);
+        int endIdx = start + endOffset;
+        if(endIdx <= startIdx) {
+            return Collections.<Span>emptySet().iterator();
+        } else if(endIdx > end){
+            endIdx = end;
+        }
+        //start with the lowest type for the window
+        return new SpanIterator<Span>(startIdx, endIdx, SpanTypeEnum.Text.ordinal(), 
+            endIdx, mask(types));
+    }
+    
+    static int mask(SpanTypeEnum type){
+        return 1 << type.ordinal();
+    }
+    
+    static int mask(Set<SpanTypeEnum> types){
+        int mask = 0;
+        for(SpanTypeEnum type : types){
+            mask = mask | mask(type);
+        }
+        return mask;
+    }
+    /**
+     * Compares the parsed Spans by using the same order as 
+     * <code>SpanImpl#compareTo(Span)</code>
+     */
+    static int compare(Span span, Span o){
+        if(span.getContext() != null && o.getContext() != null && 
+                span.getContext() != o.getContext()){
+            log.warn("Comparing Spans with different Context. This is not an " +
+                "intended usage of this class as start|end|type parameters " +
+                "do not have a natural oder over different texts.");
+        }
+        int start = span.getStart();
+        int oStart = o.getStart();
+        if(start != oStart){
+            return start < oStart ? -1 : 1;
+        }
+        int end = span.getEnd();
+        int oEnd = o.getEnd();
+        if(end != oEnd){ //end in DESC order
+            return end < oEnd ? 1 : -1;
+        }
+        int t1 = span.getType().ordinal();
+        int t2 = o.getType().ordinal();
+        return t1 < t2 ? -1 : t1 == t2 ? 0 : 1;
+    }
+    
+    /**
+     * Iterator over the Spans of the {@link SpanStore} that does not throw
+     * {@link java.util.ConcurrentModificationException}s but considers
+     * Spans added while iterating. As long as the store is not modified the
+     * iterator just moves to the next position. After modifications the
+     * position is looked up by a binary search for the last returned Span.
+     */
+    private class SpanIterator<T extends Span> implements Iterator<T> {
+        
+        /**
+         * Spans that start at or after this position are not iterated
+         */
+        private final int endPos;
+        private final int typeMask;
+        /*
+         * The last returned span (initially the section)
+         */
+        private int start;
+        private int end;
+        private int type;
+        /**
+         * The index of the last returned span or <code>-1</code> if unknown
+         */
+        private int index = -1;
+        private int modCount;
+        /*
+         * cached next index (calculated by hasNext())
+         */
+        private int nextIndex = -1;
+        private int nextModCount;
+        
+        private boolean init = false;
+        private boolean removed = true;
+        
+        SpanIterator(int start, int end, int type, int endPos, int typeMask){
+            this.start = start;
+            this.end = end;
+            this.type = type;
+            this.endPos = endPos;
+            this.typeMask = typeMask;
+        }
+        
+        private int getNext(){
+            int current = store.modCount();
+            if(nextIndex >= 0 && nextModCount == current){
+                return nextIndex;
+            }
+            int i = index >= 0 && modCount == current ? index + 1 : 
+                store.higher(start, end, type);
+            int count = store.count();
+            int next = -1;
+            for(; i < count && next < 0; i++){
+                int id = store.idAt(i);
+                if(store.start(id) >= endPos){
+                    break;
+                }
+                if((typeMask & (1 << store.type(id))) != 0){
+                    next = i;
+                }
+            }
+            nextIndex = next;
+            nextModCount = current;
+            return next;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return getNext() >= 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T next() {
+            int next = getNext();
+            if(next < 0){
+                throw new NoSuchElementException();
+            }
+            init = true;
+            removed = false;
+            index = next;
+            modCount = nextModCount;
+            nextIndex = -1;
+            int id = store.idAt(index);
+            start = store.start(id);
+            end = store.end(id);
+            type = store.type(id);
+            return (T)getSpan(id);
+        }
+
+        @Override
+        public void remove() {
+            if(!init){
+                throw new IllegalStateException("remove can not be called before the first call to next");
+            }
+            if(removed){
+                throw new IllegalStateException("the current Span was already removed!");
+            }
+            if(modCount != store.modCount()){ //lookup the current position
+                index = store.search(start, end, type);
+                if(index < 0){
+                    throw new IllegalStateException("the current Span was already removed!");
+                }
+            }
+            int id = store.remove(index);
+            annotations.clear(id);
+            index = -1; //search the next based on the removed one
+            nextIndex = -1;
+            removed = true;
+        }
+    }
+    
+    /**
+     * {@link SpanCursor} that directly operates on the {@link SpanStore} and
+     * the {@link AnnotationColumns}. Objects are only created on calls to
+     * {@link #getSpan()} and {@link #getAnnotations(Annotation)}.
+     */
+    private class ColumnarSpanCursor implements SpanCursor {
+        
+        private final int typeMask;
+        /*
+         * The current span (initially the section)
+         */
+        private int start;
+        private int end;
+        private int type;
+        /**
+         * The end of the section
+         */
+        private int endPos;
+        /**
+         * The index of the current span or <code>-1</code> if unknown
+         */
+        private int index = -1;
+        private int id = -1;
+        private int modCount;
+        private boolean done;
+        
+        ColumnarSpanCursor(int typeMask){
+            this.typeMask = typeMask;
+            reset(ColumnarAnalysedText.this);
+        }
+
+        @Override
+        public void reset(Span section) {
+            reset(section.getStart(), section.getEnd(), section.getType().ordinal(),
+                section.getEnd());
+        }
+
+        @Override
+        public void reset(int start, int end) {
+            if(start < 0 || end < start){
+                throw new IllegalArgumentException("Illegal section ["+start+','+end+']');
+            }
+            //the lowest possible span at start
+            reset(start, Integer.MAX_VALUE, SpanTypeEnum.Text.ordinal(), end);
+        }
+        
+        private void reset(int start, int end, int type, int endPos){
+            this.start = start;
+            this.end = end;
+            this.type = type;
+            this.endPos = endPos;
+            this.index = -1;
+            this.id = -1;
+            this.done = false;
+        }
+
+        @Override
+        public boolean next() {
+            if(done){
+                return false;
+            }
+            int i = index >= 0 && modCount == store.modCount() ? index + 1 : 
+                store.higher(start, end, type);
+            int count = store.count();
+            for(; i < count; i++){
+                int id = store.idAt(i);
+                if(store.start(id) >= endPos){
+                    break;
+                }
+                if(store.end(id) <= endPos && (typeMask & (1 << store.type(id))) != 0){
+                    this.index = i;
+                    this.id = id;
+                    this.modCount = store.modCount();
+                    this.start = store.start(id);
+                    this.end = store.end(id);
+                    this.type = store.type(id);
+                    return true;
+                }
+            }
+            index = -1;
+            id = -1;
+            done = true;
+            return false;
+        }
+        
+        private int current(){
+            if(id < 0){
+                throw new IllegalStateException("The cursor is not positioned on a Span!");
+            }
+            return id;
+        }
+
+        @Override
+        public SpanTypeEnum getType() {
+            return SPAN_TYPES[store.type(current())];
+        }
+
+        @Override
+        public int getStart() {
+            current();
+            return start;
+        }
+
+        @Override
+        public int getEnd() {
+            current();
+            return end;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <V> Value<V> getAnnotation(Annotation<V> annotation) {
+            Object value = annotations.get(current(), annotation.getKey());
+            if(value instanceof Value<?>){
+                return (Value<V>)value;
+            } else if(value != null){
+                return ((Value<V>[])value)[0];
+            } else {
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <V> List<Value<V>> getAnnotations(Annotation<V> annotation) {
+            Object value = annotations.get(current(), annotation.getKey());
+            if(value instanceof Value<?>){
+                return Collections.singletonList((Value<V>)value);
+            } else if(value != null){
+                return Arrays.asList((Value<V>[])value);
+            } else {
+                return Collections.emptyList();
+            }
+        }
+
+        @Override
+        public Span getSpan() {
+            return ColumnarAnalysedText.this.getSpan(current());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.columnar;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.Section;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+
+/**
+ * A {@link ColumnarSpan} that encloses other Spans
+ */
+abstract class ColumnarSection extends ColumnarSpan implements Section {
+
+    protected ColumnarSection(ColumnarAnalysedText context, int id) {
+        super(context, id);
+    }
+
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types) {
+        return context.iterator(this, ColumnarAnalysedText.mask(types));
+    }
+
+    @Override
+    public Iterator<Span> getEnclosed(Set<SpanTypeEnum> types, int startOffset, int endOffset) {
+        return context.getEnclosed(this, types, startOffset, endOffset);
+    }
+
+    @Override
+    public Token addToken(int start, int end) {
+        return (Token)context.add(this, SpanTypeEnum.Token, start, end);
+    }
+
+    @Override
+    public Iterator<Token> getTokens() {
+        return context.iterator(this, ColumnarAnalysedText.mask(SpanTypeEnum.Token));
+    }
+}
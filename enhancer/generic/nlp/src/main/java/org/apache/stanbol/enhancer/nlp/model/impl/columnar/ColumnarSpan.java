@@ -0,0 +1,108 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.columnar;
+
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.impl.AbstractAnnotated;
+
+/**
+ * Lightweight {@link Span} that reads its annotations from the 
+ * {@link AnnotationColumns} of the {@link ColumnarAnalysedText}. Instances
+ * are created on access and only hold the reference to the context, the id
+ * and the boundaries of the span.
+ */
+abstract class ColumnarSpan extends AbstractAnnotated implements Span {
+
+    protected final ColumnarAnalysedText context;
+    protected final int id;
+    protected final int start;
+    protected final int end;
+    
+    protected ColumnarSpan(ColumnarAnalysedText context, int id){
+        this.context = context;
+        this.id = id;
+        this.start = context.store.start(id);
+        this.end = context.store.end(id);
+    }
+    
+    @Override
+    public final int getStart() {
+        return start;
+    }
+
+    @Override
+    public final int getEnd() {
+        return end;
+    }
+
+    @Override
+    public final AnalysedText getContext() {
+        return context;
+    }
+
+    @Override
+    public String getSpan() {
+        return context.getText().subSequence(start, end).toString();
+    }
+    
+    @Override
+    public Set<String> getKeys() {
+        return context.annotations.getKeys(id);
+    }
+    
+    @Override
+    protected Object getAnnotationValue(String key) {
+        return context.annotations.get(id, key);
+    }
+    
+    @Override
+    protected void setAnnotationValue(String key, Object value) {
+        context.annotations.set(id, key, value);
+    }
+
+    @Override
+    public int compareTo(Span o) {
+        return ColumnarAnalysedText.compare(this, o);
+    }
+    
+    @Override
+    public int hashCode() {
+        //same as Arrays.hashCode(new int[]{start,end})
+        return 31 * (31 + start) + end;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if(obj == this){
+            return true;
+        }
+        if(!(obj instanceof ColumnarSpan)){
+            return false;
+        }
+        ColumnarSpan other = (ColumnarSpan)obj;
+        return start == other.start && end == other.end && 
+                getType() == other.getType() && context == other.context;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: [%d, %d]", getType(), start, end);
+    }
+}
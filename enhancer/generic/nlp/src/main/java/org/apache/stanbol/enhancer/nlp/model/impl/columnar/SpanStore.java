@@ -0,0 +1,211 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.columnar;
+
+import java.util.Arrays;
+
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+
+/**
+ * Stores the boundaries and types of Spans in primitive arrays. Spans are
+ * identified by an <code>id</code> assigned on {@link #add(int, int, int)}.
+ * Ids are stable (they are never reused or moved) and are used as index
+ * for the {@link AnnotationColumns}.<p>
+ * The sort order of the Spans is kept in an additional <code>int[]</code>
+ * holding the ids. The order is the same as defined by 
+ * <code>SpanImpl#compareTo(Span)</code>: start ASC, end DESC and 
+ * {@link SpanTypeEnum#ordinal()} ASC.<p>
+ * This class is not thread safe.
+ */
+final class SpanStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Type used to mark removed spans
+     */
+    private static final byte REMOVED = -1;
+
+    private int[] starts;
+    private int[] ends;
+    private byte[] types;
+    /**
+     * The number of ids
+     */
+    private int size;
+    /**
+     * The ids sorted by start, end and type
+     */
+    private int[] order;
+    /**
+     * The number of Spans in {@link #order}
+     */
+    private int count;
+    /**
+     * Incremented on every change of the {@link #order}. Used by iterators
+     * to detect changes.
+     */
+    private int modCount;
+    
+    SpanStore(){
+        this(INITIAL_CAPACITY);
+    }
+    
+    SpanStore(int capacity){
+        capacity = Math.max(capacity, 1);
+        starts = new int[capacity];
+        ends = new int[capacity];
+        types = new byte[capacity];
+        order = new int[capacity];
+    }
+    
+    int start(int id){
+        return starts[id];
+    }
+    
+    int end(int id){
+        return ends[id];
+    }
+    
+    int type(int id){
+        return types[id];
+    }
+    /**
+     * The number of ids used so far (including ids of removed spans)
+     */
+    int size(){
+        return size;
+    }
+    /**
+     * The number of Spans
+     */
+    int count(){
+        return count;
+    }
+    
+    int modCount(){
+        return modCount;
+    }
+    /**
+     * The id of the Span at the parsed position within the sort order
+     */
+    int idAt(int index){
+        return order[index];
+    }
+    /**
+     * Compares the Span with the parsed id with the parsed start, end and
+     * type.
+     */
+    int compare(int id, int start, int end, int type){
+        int s = starts[id];
+        if(s != start){
+            return s < start ? -1 : 1;
+        }
+        int e = ends[id];
+        if(e != end){ //end in DESC order
+            return e < end ? 1 : -1;
+        }
+        int t = types[id];
+        return t < type ? -1 : t == type ? 0 : 1;
+    }
+    /**
+     * Binary search over the sort order.
+     * @return the index of the Span or <code>-(insertion point) - 1</code>
+     */
+    int search(int start, int end, int type){
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(order[mid], start, end, type);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+    /**
+     * The index of the first Span that sorts after the parsed span
+     * @return the index. {@link #count()} if there is no such Span
+     */
+    int higher(int start, int end, int type){
+        int index = search(start, end, type);
+        return index < 0 ? -(index + 1) : index + 1;
+    }
+    /**
+     * Adds a span if not already present
+     * @return the id of the new or the already existing Span
+     */
+    int add(int start, int end, int type){
+        int index;
+        //optimize for the typical case that Spans are added in order
+        if(count == 0 || compare(order[count-1], start, end, type) < 0){
+            index = -(count + 1);
+        } else {
+            index = search(start, end, type);
+        }
+        if(index >= 0){
+            return order[index];
+        }
+        index = -(index + 1);
+        if(size == starts.length){
+            int capacity = size + (size >> 1) + 1;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        int id = size;
+        starts[id] = start;
+        ends[id] = end;
+        types[id] = (byte)type;
+        size++;
+        if(count == order.length){
+            order = Arrays.copyOf(order, count + (count >> 1) + 1);
+        }
+        if(index < count){
+            System.arraycopy(order, index, order, index + 1, count - index);
+        }
+        order[index] = id;
+        count++;
+        modCount++;
+        return id;
+    }
+    /**
+     * Removes the span at the parsed position within the sort order.
+     * @return the id of the removed Span
+     */
+    int remove(int index){
+        if(index < 0 || index >= count){
+            throw new IndexOutOfBoundsException("index: "+index+" | count: "+count);
+        }
+        int id = order[index];
+        count--;
+        if(index < count){
+            System.arraycopy(order, index + 1, order, index, count - index);
+        }
+        types[id] = REMOVED;
+        modCount++;
+        return id;
+    }
+    
+    boolean isRemoved(int id){
+        return types[id] == REMOVED;
+    }
+}
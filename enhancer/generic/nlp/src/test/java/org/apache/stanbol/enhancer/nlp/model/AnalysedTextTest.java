@@ -446,6 +446,57 @@ public class AnalysedTextTest {
         return count;
     }
     
+    /**
+     * Tests that the {@link SpanCursor} returns the same Spans as the
+     * Iterators
+     */
+    @Test
+    public void testCursor(){
+        Set<SpanTypeEnum> types = EnumSet.of(SpanTypeEnum.Token);
+        SpanCursor cursor = analysedTextWithData.getCursor(types);
+        Iterator<Token> tokens = analysedTextWithData.getTokens();
+        while(cursor.next()){
+            Assert.assertTrue(tokens.hasNext());
+            Token token = tokens.next();
+            Assert.assertEquals(token.getStart(), cursor.getStart());
+            Assert.assertEquals(token.getEnd(), cursor.getEnd());
+            Assert.assertEquals(SpanTypeEnum.Token, cursor.getType());
+            Assert.assertEquals(token, cursor.getSpan());
+        }
+        Assert.assertFalse(tokens.hasNext());
+        Assert.assertFalse(cursor.next());
+        //reuse the cursor for sentences
+        Iterator<Sentence> sentences = analysedTextWithData.getSentences();
+        while(sentences.hasNext()){
+            Sentence sentence = sentences.next();
+            cursor.reset(sentence);
+            tokens = sentence.getTokens();
+            while(tokens.hasNext()){
+                Assert.assertTrue(cursor.next());
+                Assert.assertEquals(tokens.next(), cursor.getSpan());
+            }
+            Assert.assertFalse(cursor.next());
+        }
+        //sections with absolute indexes
+        Token first = analysedTextWithData.getTokens().next();
+        cursor.reset(first.getStart(), first.getEnd());
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(first, cursor.getSpan());
+        Assert.assertFalse(cursor.next());
+        //annotations
+        at.addToken(0, 3).addAnnotation(testAnnotation, new Value<Number>(1));
+        cursor = at.getCursor(types);
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(1, cursor.getAnnotation(testAnnotation).value());
+        Assert.assertEquals(1, cursor.getAnnotations(testAnnotation).size());
+        //spans added while using the cursor are considered
+        at.addToken(4, 7);
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(4, cursor.getStart());
+        Assert.assertNull(cursor.getAnnotation(testAnnotation));
+        Assert.assertFalse(cursor.next());
+    }
+    
     @Test
     public void testAnnotation(){
         List<Value<Number>> values = new ArrayList<Value<Number>>();
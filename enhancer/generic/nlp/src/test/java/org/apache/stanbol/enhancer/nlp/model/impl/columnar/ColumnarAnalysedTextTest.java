@@ -0,0 +1,486 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.nlp.model.impl.columnar;
+
+import static org.apache.stanbol.enhancer.nlp.NlpAnnotations.NER_ANNOTATION;
+import static org.apache.stanbol.enhancer.nlp.NlpAnnotations.POS_ANNOTATION;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.stanbol.enhancer.nlp.model.AnalysedText;
+import org.apache.stanbol.enhancer.nlp.model.Chunk;
+import org.apache.stanbol.enhancer.nlp.model.Section;
+import org.apache.stanbol.enhancer.nlp.model.Sentence;
+import org.apache.stanbol.enhancer.nlp.model.Span;
+import org.apache.stanbol.enhancer.nlp.model.SpanCursor;
+import org.apache.stanbol.enhancer.nlp.model.SpanTypeEnum;
+import org.apache.stanbol.enhancer.nlp.model.Token;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Annotation;
+import org.apache.stanbol.enhancer.nlp.model.annotation.Value;
+import org.apache.stanbol.enhancer.nlp.model.impl.AnalysedTextImpl;
+import org.apache.stanbol.enhancer.nlp.ner.NerTag;
+import org.apache.stanbol.enhancer.nlp.pos.PosTag;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tests the {@link ColumnarAnalysedText} mainly by comparing it with the
+ * {@link AnalysedTextImpl}.
+ */
+public class ColumnarAnalysedTextTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(ColumnarAnalysedTextTest.class);
+
+    private static final Set<SpanTypeEnum> ALL_TYPES = EnumSet.allOf(SpanTypeEnum.class);
+    /**
+     * System property used to enable performance tests
+     */
+    private static final String PERFORMANCE_TESTS = "stanbol.test.performance";
+    
+    private static final Annotation<Number> testAnnotation = 
+            new Annotation<Number>("test", Number.class);
+    
+    private static String createText(int words){
+        StringBuilder sb = new StringBuilder();
+        for(int i=0;i<words;i++){
+            sb.append("word").append(i%10);
+            sb.append(i%10 == 9 ? ". " : " ");
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Adds sentences, chunks and tokens in an order that requires insertions
+     * in the middle of the store (and also some duplicates)
+     */
+    private static void fill(AnalysedText at, long seed){
+        Random random = new Random(seed);
+        String text = at.getText().toString();
+        List<int[]> sentences = new ArrayList<int[]>();
+        int start = 0;
+        for(int end = text.indexOf(". "); end > 0; end = text.indexOf(". ", start)){
+            sentences.add(new int[]{start,end+1});
+            start = end + 2;
+        }
+        for(int[] s : sentences){
+            at.addSentence(s[0], s[1]);
+        }
+        Iterator<Sentence> sentIt = at.getSentences();
+        while(sentIt.hasNext()){
+            Sentence sent = sentIt.next();
+            String sentText = sent.getSpan();
+            int tokenStart = 0;
+            List<int[]> tokens = new ArrayList<int[]>();
+            for(int tokenEnd = sentText.indexOf(' '); tokenEnd > 0; 
+                    tokenEnd = sentText.indexOf(' ', tokenStart)){
+                tokens.add(new int[]{tokenStart,tokenEnd});
+                tokenStart = tokenEnd + 1;
+            }
+            tokens.add(new int[]{tokenStart, sentText.length()-1});
+            //add tokens in reverse order
+            for(int i = tokens.size()-1; i >= 0; i--){
+                Token token = sent.addToken(tokens.get(i)[0], tokens.get(i)[1]);
+                token.addAnnotation(POS_ANNOTATION, Value.value(new PosTag("N"+i)));
+            }
+            //add a duplicate token
+            sent.addToken(tokens.get(0)[0], tokens.get(0)[1]);
+            //add some chunks
+            int chunkStart = random.nextInt(tokens.size());
+            int chunkEnd = chunkStart + random.nextInt(tokens.size() - chunkStart);
+            Chunk chunk = sent.addChunk(tokens.get(chunkStart)[0], tokens.get(chunkEnd)[1]);
+            chunk.addAnnotation(NER_ANNOTATION, Value.value(new NerTag("PER"), 0.8));
+            //a chunk with the same span as the sentence
+            sent.addChunk(0, sent.getEnd()-sent.getStart());
+        }
+    }
+    
+    private static void assertSameSpans(Iterator<? extends Span> expected, Iterator<? extends Span> actual){
+        while(expected.hasNext()){
+            Assert.assertTrue(actual.hasNext());
+            Span e = expected.next();
+            Span a = actual.next();
+            Assert.assertEquals(e.getType(), a.getType());
+            Assert.assertEquals(e.getStart(), a.getStart());
+            Assert.assertEquals(e.getEnd(), a.getEnd());
+            Assert.assertEquals(e.getSpan(), a.getSpan());
+            Assert.assertEquals(e.getKeys(), a.getKeys());
+            for(String key : e.getKeys()){
+                Assert.assertEquals(e.getValues(key), a.getValues(key));
+            }
+        }
+        Assert.assertFalse(actual.hasNext());
+    }
+    
+    private static int count(Iterator<?> it){
+        int count = 0;
+        while(it.hasNext()){
+            it.next();
+            count++;
+        }
+        return count;
+    }
+    
+    @Test
+    public void testSameAsAnalysedTextImpl(){
+        String text = createText(500);
+        AnalysedText expected = new AnalysedTextImpl(null, text);
+        AnalysedText actual = new ColumnarAnalysedText(null, text);
+        fill(expected, 42);
+        fill(actual, 42);
+        assertSameSpans(expected.getEnclosed(ALL_TYPES), actual.getEnclosed(ALL_TYPES));
+        assertSameSpans(expected.getSentences(), actual.getSentences());
+        assertSameSpans(expected.getChunks(), actual.getChunks());
+        assertSameSpans(expected.getTokens(), actual.getTokens());
+        Iterator<Sentence> expectedSentences = expected.getSentences();
+        Iterator<Sentence> actualSentences = actual.getSentences();
+        while(expectedSentences.hasNext()){
+            Sentence e = expectedSentences.next();
+            Sentence a = actualSentences.next();
+            assertSameSpans(e.getTokens(), a.getTokens());
+            assertSameSpans(e.getChunks(), a.getChunks());
+            assertSameSpans(e.getEnclosed(ALL_TYPES), a.getEnclosed(ALL_TYPES));
+            Iterator<Chunk> expectedChunks = e.getChunks();
+            Iterator<Chunk> actualChunks = a.getChunks();
+            while(expectedChunks.hasNext()){
+                assertSameSpans(expectedChunks.next().getTokens(), 
+                    actualChunks.next().getTokens());
+            }
+        }
+        //sub section iteration
+        int length = text.length();
+        for(int[] window : new int[][]{{0,10},{-5,20},{7,250},{100,length+10},{length,length+5},{30,30}}){
+            assertSameSpans(expected.getEnclosed(ALL_TYPES, window[0], window[1]), 
+                actual.getEnclosed(ALL_TYPES, window[0], window[1]));
+            Sentence e = expected.getSentences().next();
+            Sentence a = actual.getSentences().next();
+            assertSameSpans(e.getEnclosed(ALL_TYPES, window[0], window[1]), 
+                a.getEnclosed(ALL_TYPES, window[0], window[1]));
+        }
+    }
+    
+    private static void assertSameSpans(Iterator<? extends Span> expected, SpanCursor actual){
+        while(expected.hasNext()){
+            Assert.assertTrue(actual.next());
+            Span e = expected.next();
+            Assert.assertEquals(e.getType(), actual.getType());
+            Assert.assertEquals(e.getStart(), actual.getStart());
+            Assert.assertEquals(e.getEnd(), actual.getEnd());
+            Assert.assertEquals(e.getAnnotations(POS_ANNOTATION), 
+                actual.getAnnotations(POS_ANNOTATION));
+            Assert.assertEquals(e.getAnnotation(NER_ANNOTATION), 
+                actual.getAnnotation(NER_ANNOTATION));
+            Assert.assertEquals(e.getSpan(), actual.getSpan().getSpan());
+        }
+        Assert.assertFalse(actual.next());
+    }
+    
+    @Test
+    public void testCursor(){
+        String text = createText(200);
+        AnalysedText expected = new AnalysedTextImpl(null, text);
+        AnalysedText actual = new ColumnarAnalysedText(null, text);
+        fill(expected, 7);
+        fill(actual, 7);
+        for(AnalysedText at : new AnalysedText[]{expected, actual}){
+            assertSameSpans(expected.getEnclosed(ALL_TYPES), at.getCursor(ALL_TYPES));
+            assertSameSpans(expected.getTokens(), at.getCursor(EnumSet.of(SpanTypeEnum.Token)));
+            SpanCursor cursor = at.getCursor(EnumSet.of(SpanTypeEnum.Token, SpanTypeEnum.Chunk));
+            Iterator<Sentence> sentences = expected.getSentences();
+            while(sentences.hasNext()){
+                Sentence sentence = sentences.next();
+                cursor.reset(sentence);
+                assertSameSpans(sentence.getEnclosed(
+                    EnumSet.of(SpanTypeEnum.Token, SpanTypeEnum.Chunk)), cursor);
+                cursor.reset(sentence.getStart(), sentence.getEnd());
+                Assert.assertTrue(cursor.next());
+                Assert.assertEquals(SpanTypeEnum.Chunk, cursor.getType());
+                Assert.assertEquals(sentence.getStart(), cursor.getStart());
+                Assert.assertEquals(sentence.getEnd(), cursor.getEnd());
+            }
+        }
+    }
+    
+    /**
+     * Asserts the order of the Spans returned by the {@link SpanCursor} and
+     * the filtering by type for Spans that are not added in order. Spans
+     * are sorted by start (ASC), end (DESC) and type.
+     */
+    @Test
+    public void testCursorOrder(){
+        String text = "The quick fox. It runs.";
+        for(AnalysedText at : new AnalysedText[]{
+                new AnalysedTextImpl(null, text), new ColumnarAnalysedText(null, text)}){
+            at.addToken(22, 23);
+            at.addToken(4, 9);
+            at.addSentence(15, 23);
+            at.addToken(15, 17);
+            at.addChunk(15, 17);
+            at.addToken(13, 14);
+            at.addToken(0, 3);
+            at.addChunk(0, 13);
+            at.addToken(18, 22);
+            at.addSentence(0, 14);
+            at.addToken(10, 13);
+            String type = at.getClass().getSimpleName();
+            Assert.assertEquals(type, Arrays.asList("Sentence[0,14]", "Chunk[0,13]",
+                "Token[0,3]", "Token[4,9]", "Token[10,13]", "Token[13,14]",
+                "Sentence[15,23]", "Chunk[15,17]", "Token[15,17]", "Token[18,22]",
+                "Token[22,23]"), toList(at.getCursor(EnumSet.of(SpanTypeEnum.Sentence,
+                    SpanTypeEnum.Chunk, SpanTypeEnum.Token))));
+            Assert.assertEquals(type, Arrays.asList("Token[0,3]", "Token[4,9]",
+                "Token[10,13]", "Token[13,14]", "Token[15,17]", "Token[18,22]",
+                "Token[22,23]"), toList(at.getCursor(EnumSet.of(SpanTypeEnum.Token))));
+            Assert.assertEquals(type, Arrays.asList("Sentence[0,14]", "Chunk[0,13]",
+                "Sentence[15,23]", "Chunk[15,17]"), toList(at.getCursor(
+                    EnumSet.of(SpanTypeEnum.Sentence, SpanTypeEnum.Chunk))));
+            Assert.assertEquals(type, Arrays.asList(), toList(at.getCursor(
+                EnumSet.of(SpanTypeEnum.TextSection))));
+            //reset to the second sentence
+            SpanCursor cursor = at.getCursor(EnumSet.of(SpanTypeEnum.Chunk, SpanTypeEnum.Token));
+            cursor.reset(15, 23);
+            Assert.assertEquals(type, Arrays.asList("Chunk[15,17]", "Token[15,17]",
+                "Token[18,22]", "Token[22,23]"), toList(cursor));
+            //spans crossing the end are not included
+            cursor.reset(0, 10);
+            Assert.assertEquals(type, Arrays.asList("Token[0,3]", "Token[4,9]"), toList(cursor));
+        }
+    }
+
+    private static List<String> toList(SpanCursor cursor){
+        List<String> spans = new ArrayList<String>();
+        while(cursor.next()){
+            spans.add(cursor.getType() + "[" + cursor.getStart() + "," + cursor.getEnd() + "]");
+        }
+        return spans;
+    }
+
+    /**
+     * Compares the time needed to read the POS tags of all Tokens of all
+     * Sentences using the {@link Iterator} API and the {@link SpanCursor}.
+     * Results are only logged. Only executed if the 
+     * {@link #PERFORMANCE_TESTS} system property is set to <code>true</code>
+     * (e.g. <code>mvn test -Dstanbol.test.performance=true</code>).
+     */
+    @Test
+    public void testCursorPerformance(){
+        Assume.assumeTrue(Boolean.getBoolean(PERFORMANCE_TESTS));
+        int iterations = 20;
+        String text = createText(20000);
+        AnalysedText[] ats = new AnalysedText[]{
+                new AnalysedTextImpl(null, text), new ColumnarAnalysedText(null, text)};
+        for(AnalysedText at : ats){
+            fill(at, 42);
+            log.info(" --- TEST {} ({} iterations) ---", 
+                at.getClass().getSimpleName(), iterations);
+            long start = System.currentTimeMillis();
+            int iteratorCount = 0;
+            for(int i=0; i < iterations; i++){
+                Iterator<Sentence> sentences = at.getSentences();
+                while(sentences.hasNext()){
+                    Iterator<Token> tokens = sentences.next().getTokens();
+                    while(tokens.hasNext()){
+                        if(tokens.next().getAnnotation(POS_ANNOTATION) != null){
+                            iteratorCount++;
+                        }
+                    }
+                }
+            }
+            log.info("  ... Iterator: {}ms", System.currentTimeMillis()-start);
+            start = System.currentTimeMillis();
+            int cursorCount = 0;
+            SpanCursor sentences = at.getCursor(EnumSet.of(SpanTypeEnum.Sentence));
+            SpanCursor tokens = at.getCursor(EnumSet.of(SpanTypeEnum.Token));
+            for(int i=0; i < iterations; i++){
+                sentences.reset(0, text.length());
+                while(sentences.next()){
+                    tokens.reset(sentences.getStart(), sentences.getEnd());
+                    while(tokens.next()){
+                        if(tokens.getAnnotation(POS_ANNOTATION) != null){
+                            cursorCount++;
+                        }
+                    }
+                }
+            }
+            log.info("  ... SpanCursor: {}ms", System.currentTimeMillis()-start);
+            Assert.assertEquals(iteratorCount, cursorCount);
+        }
+    }
+    
+    @Test(expected=IllegalStateException.class)
+    public void testCursorNotPositioned(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        at.addToken(0, 4);
+        SpanCursor cursor = at.getCursor(ALL_TYPES);
+        cursor.getStart();
+    }
+    
+    @Test
+    public void testSpanIdentity(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        Sentence sent = at.addSentence(0, 10);
+        Token token = sent.addToken(0, 5);
+        Token other = at.getTokens().next();
+        Assert.assertNotSame(token, other);
+        Assert.assertEquals(token, other);
+        Assert.assertEquals(token.hashCode(), other.hashCode());
+        Assert.assertEquals(0, token.compareTo(other));
+        Assert.assertTrue(sent.compareTo(token) < 0);
+        Assert.assertTrue(at.compareTo(sent) < 0);
+        //annotations are shared
+        token.addAnnotation(POS_ANNOTATION, Value.value(new PosTag("NN")));
+        Assert.assertEquals("NN", other.getAnnotation(POS_ANNOTATION).value().getTag());
+        //adding an existing span returns an equal instance
+        Assert.assertEquals(token, at.addToken(0, 5));
+        Assert.assertEquals(sent, at.addSentence(0, 10));
+        //chunk with the same span is not equal
+        Assert.assertFalse(token.equals(at.addChunk(0, 5)));
+    }
+    
+    @Test
+    public void testAnnotations(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        Token token = at.addToken(0, 5);
+        Assert.assertTrue(token.getKeys().isEmpty());
+        Assert.assertNull(token.getAnnotation(POS_ANNOTATION));
+        Assert.assertTrue(token.getAnnotations(testAnnotation).isEmpty());
+        List<Value<Number>> values = new ArrayList<Value<Number>>();
+        values.add(new Value<Number>(26,0.6));
+        values.add(new Value<Number>(27l));
+        values.add(new Value<Number>(25.0,0.8));
+        token.addAnnotations(testAnnotation, values);
+        token.addAnnotation(POS_ANNOTATION, Value.value(new PosTag("NN"),0.5));
+        token.addAnnotation(POS_ANNOTATION, Value.value(new PosTag("NE"),0.7));
+        Assert.assertEquals(2, token.getKeys().size());
+        Assert.assertTrue(token.getKeys().contains(testAnnotation.getKey()));
+        Assert.assertTrue(token.getKeys().contains(POS_ANNOTATION.getKey()));
+        //values are sorted by probability
+        Assert.assertEquals(25.0, token.getAnnotation(testAnnotation).value());
+        Assert.assertEquals(3, token.getAnnotations(testAnnotation).size());
+        Assert.assertEquals("NE", token.getAnnotation(POS_ANNOTATION).value().getTag());
+        //other spans are not affected
+        Token other = at.addToken(6, 10);
+        Assert.assertTrue(other.getKeys().isEmpty());
+        //set and remove
+        token.setAnnotation(POS_ANNOTATION, Value.value(new PosTag("V")));
+        Assert.assertEquals(1, token.getAnnotations(POS_ANNOTATION).size());
+        token.setAnnotations(testAnnotation, null);
+        Assert.assertEquals(Arrays.asList(POS_ANNOTATION.getKey()), 
+            new ArrayList<String>(token.getKeys()));
+        //annotations of the text are not stored in the columns
+        at.addAnnotation(POS_ANNOTATION, Value.value(new PosTag("X")));
+        Assert.assertEquals("V", token.getAnnotation(POS_ANNOTATION).value().getTag());
+    }
+    
+    @Test
+    public void testAddWhileIterating(){
+        String text = createText(100);
+        AnalysedText at = new ColumnarAnalysedText(null, text);
+        for(int i = 0; i < 10; i++){
+            at.addSentence(i*10, i*10+10);
+        }
+        int count = 0;
+        Iterator<Span> it = at.getEnclosed(ALL_TYPES);
+        while(it.hasNext()){
+            Span span = it.next();
+            count++;
+            if(span.getType() == SpanTypeEnum.Sentence){
+                ((Section)span).addToken(0, 5);
+                ((Section)span).addToken(5, 10);
+                //add a span before the current one (MUST NOT be iterated)
+                if(span.getStart() > 0){
+                    at.addToken(span.getStart()-1, span.getStart());
+                }
+            }
+        }
+        Assert.assertEquals(30, count);
+        Assert.assertEquals(39, count(at.getEnclosed(ALL_TYPES)));
+    }
+    
+    @Test
+    public void testRemove(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        Sentence sent = at.addSentence(0, 20);
+        for(int i = 0; i < 4; i++){
+            Token token = sent.addToken(i*5, i*5+4);
+            token.addAnnotation(POS_ANNOTATION, Value.value(new PosTag("N")));
+        }
+        Iterator<Token> tokens = sent.getTokens();
+        int i = 0;
+        while(tokens.hasNext()){
+            tokens.next();
+            if(i%2 == 0){
+                tokens.remove();
+            }
+            i++;
+        }
+        Assert.assertEquals(4, i);
+        tokens = sent.getTokens();
+        Assert.assertEquals(5, tokens.next().getStart());
+        Assert.assertEquals(15, tokens.next().getStart());
+        Assert.assertFalse(tokens.hasNext());
+        //re-adding a removed span does not restore its annotations
+        Token token = sent.addToken(0, 4);
+        Assert.assertNull(token.getAnnotation(POS_ANNOTATION));
+        Assert.assertEquals(3, count(sent.getTokens()));
+    }
+    
+    @Test(expected=IllegalStateException.class)
+    public void testRemoveTwice(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        at.addToken(0, 4);
+        Iterator<Token> tokens = at.getTokens();
+        tokens.next();
+        tokens.remove();
+        tokens.remove();
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testExceedsRelativeSpan(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        Sentence sent = at.addSentence(0, 10);
+        sent.addChunk(5, 15); //Invalid
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeStart(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        at.addSentence(-1, 10);
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testRelativeNegativeStart(){
+        AnalysedText at = new ColumnarAnalysedText(null, createText(20));
+        Sentence sent = at.addSentence(0, 10);
+        sent.addToken(-1, 5);
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testExceedsText(){
+        String text = createText(2);
+        AnalysedText at = new ColumnarAnalysedText(null, text);
+        at.addToken(0, text.length()+1);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+import java.util.concurrent.Future;
+
+/**
+ * Extension of the {@link EnhancementJobManager} interface that allows to
+ * enhance {@link ContentItem}s without blocking the calling thread until the
+ * execution of the {@link Chain} has finished.<p>
+ * This is especially useful for components (like the RESTful interface of
+ * the Stanbol Enhancer) that would otherwise need to keep a thread parked
+ * for the whole duration of the enhancement process.
+ */
+public interface AsyncEnhancementJobManager extends EnhancementJobManager {
+
+    /**
+     * Starts the processing of the parsed {@link ContentItem} by using the 
+     * {@link Chain#getExecutionPlan() execution plan} provided by the
+     * {@link Chain}. This method returns immediately.<p>
+     * The parsed callback is notified exactly once. This is also the case if
+     * the enhancement process does not finish within the maximum time
+     * configured for the {@link EnhancementJobManager}.
+     * @param ci the ContentItem to be enhanced
+     * @param chain the enhancement Chain used to process the content item
+     * @param callback the callback notified as soon as the enhancement process
+     * has finished or <code>null</code> if only the returned {@link Future}
+     * is used.
+     * @return the future for the enhanced ContentItem. {@link Future#get()}
+     * will throw an {@link java.util.concurrent.ExecutionException} with the
+     * same Exception as parsed to {@link EnhancementJobCallback#failed(ContentItem, Exception)}
+     * as cause if the enhancement process fails.
+     * @throws EnhancementException if the enhancement process could not be
+     * started (e.g. because the {@link EnhancementJobManager} is no longer
+     * active)
+     * @throws IllegalArgumentException if <code>null</code> is parsed as
+     * content item or chain
+     */
+    Future<ContentItem> enhanceContent(ContentItem ci, Chain chain, 
+            EnhancementJobCallback callback) throws EnhancementException;
+
+    /**
+     * The maximum time the enhancement of a {@link ContentItem} may take
+     * before the {@link EnhancementJobCallback} is notified about the
+     * timeout. Callers can use this to configure their own timeouts
+     * accordingly.
+     * @return the maximum wait time in milliseconds
+     * @since 1.0.1
+     */
+    long getMaxEnhancementJobWaitTime();
+
+}
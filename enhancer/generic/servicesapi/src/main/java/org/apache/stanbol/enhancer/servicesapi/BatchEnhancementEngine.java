@@ -0,0 +1,72 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+import java.util.List;
+
+/**
+ * Optional extension of {@link EnhancementEngine} for engines that can
+ * amortise the overhead of a call (e.g. requests to a remote service or
+ * a search index, evaluation of a model) over several {@link ContentItem}s.
+ * <p>
+ * {@link EnhancementJobManager} implementations MAY coalesce executions of
+ * the same engine for {@link ContentItem}s of concurrently processed
+ * enhancement jobs and call {@link #computeEnhancements(List)} with the
+ * collected content items. They MAY also call
+ * {@link #computeEnhancements(ContentItem)} for single content items so
+ * implementations need to support both methods.
+ * <p>
+ * Only content items for which {@link #canEnhance(ContentItem)} returned
+ * {@link #ENHANCE_ASYNC} are processed in batches. As no locks are acquired
+ * by the {@link EnhancementJobManager} implementations MUST use the
+ * {@link ContentItem#getLock()} of the parsed content items to read and
+ * write information.
+ *
+ * @since 1.0.1
+ */
+public interface BatchEnhancementEngine extends EnhancementEngine {
+
+    /**
+     * The maximum number of {@link ContentItem}s this engine wants to process
+     * with a single call to {@link #computeEnhancements(List)}.
+     * @return the maximum batch size. Values <code>&lt;= 1</code> disable
+     * batching for this engine.
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Compute enhancements for the parsed {@link ContentItem}s. The results
+     * are expected to be stored in the {@link ContentItem#getMetadata() metadata}
+     * of the respective content item (see
+     * {@link #computeEnhancements(ContentItem)} for details).
+     * <p>
+     * Throwing an {@link EngineException} marks the execution of this engine
+     * as failed for all parsed content items. To report errors for single
+     * content items implementations need to return a list with the exception
+     * at the index of the failed content item.
+     *
+     * @param contentItems the content items to enhance. The list contains
+     * at least a single and at most {@link #getMaxBatchSize()} items.
+     * @return <code>null</code> if all content items where processed
+     * successfully. Otherwise a list with the same size as the parsed one
+     * holding the {@link EngineException} for failed content items and
+     * <code>null</code> for successfully processed ones.
+     * @throws EngineException if the processing failed for all content items
+     */
+    List<EngineException> computeEnhancements(List<ContentItem> contentItems) throws EngineException;
+
+}
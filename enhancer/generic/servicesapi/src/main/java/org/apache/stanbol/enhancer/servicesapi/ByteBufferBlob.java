@@ -0,0 +1,46 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Optional extension of the {@link Blob} interface implemented by Blobs that
+ * can provide direct access to their data by a {@link ByteBuffer} - e.g. 
+ * because the data are kept in a byte array or a memory mapped file.<p>
+ * Components that need to read the data of a Blob several times should 
+ * check for this interface to avoid the overhead of copying the data via
+ * {@link #getStream()}. Use 
+ * {@link org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper#getByteBuffer(Blob)}
+ * to transparently handle Blobs that do not implement this interface.
+ */
+public interface ByteBufferBlob extends Blob {
+
+    /**
+     * Getter for the data of this Blob as read-only {@link ByteBuffer}.
+     * Multiple calls MUST return different instances (typically 
+     * {@link ByteBuffer#duplicate() duplicates}) so that changes to the 
+     * position, limit and mark of the returned buffer do not affect other
+     * users. The position of the returned buffer is <code>0</code> and
+     * the limit is set to the {@link #getContentLength() content length}.
+     * @return the data of this Blob or <code>null</code> if the data of
+     * this Blob can not be accessed as ByteBuffer (e.g. because the data are
+     * too big to be mapped into memory). In that case {@link #getStream()}
+     * MUST BE used to read the data.
+     */
+    ByteBuffer getByteBuffer();
+}
@@ -19,6 +19,7 @@ package org.apache.stanbol.enhancer.servicesapi;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceReference;
 
@@ -122,4 +123,16 @@ public interface ChainManager {
      * @return the default Chain or <code>null</code> if no Chain is available
      */
     Chain getDefault();
+    /**
+     * Getter for the {@link CompiledExecutionPlan} of the parsed {@link Chain}.
+     * Implementations are expected to compile the execution plan only once
+     * and to return the cached instance as long as the parsed chain returns
+     * the same {@link Chain#getExecutionPlan() execution plan}.
+     * @param chain the chain. MUST NOT be <code>null</code>
+     * @return the compiled execution plan
+     * @throws ChainException if the execution plan of the parsed chain is
+     * not available
+     * @throws IllegalArgumentException if <code>null</code> is parsed as chain
+     */
+    CompiledExecutionPlan getCompiledExecutionPlan(Chain chain) throws ChainException;
 }
@@ -0,0 +1,48 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi;
+
+/**
+ * Callback notified by an {@link AsyncEnhancementJobManager} as soon as the
+ * enhancement of a {@link ContentItem} has finished.<p>
+ * Implementations are called by threads managed by the 
+ * {@link EnhancementJobManager}. They MUST NOT block for longer periods of
+ * time and SHOULD hand over expensive work (e.g. the serialization of the
+ * results) to other threads if possible.
+ * 
+ * @see AsyncEnhancementJobManager#enhanceContent(ContentItem, Chain, EnhancementJobCallback)
+ */
+public interface EnhancementJobCallback {
+
+    /**
+     * Called after the parsed {@link ContentItem} was successfully processed
+     * by the {@link Chain}
+     * @param ci the enhanced content item
+     */
+    void completed(ContentItem ci);
+    
+    /**
+     * Called if the enhancement of the parsed {@link ContentItem} has failed
+     * or did not complete within the time configured for the 
+     * {@link EnhancementJobManager}.
+     * @param ci the content item
+     * @param e the exception. Typically an {@link EnhancementException} but
+     * {@link RuntimeException}s (e.g. {@link SecurityException}s) are
+     * also parsed as they are.
+     */
+    void failed(ContentItem ci, Exception e);
+}
@@ -40,6 +40,18 @@ public interface ServiceProperties {
      */
     String ENHANCEMENT_ENGINE_ORDERING = "org.apache.stanbol.enhancer.engine.order";
 
+    /**
+     * Property Key used by {@link EnhancementEngine}s to declare that the
+     * enhancements they compute for the same content and configuration may
+     * differ between calls (e.g. because they depend on external services or
+     * the current time). {@link EnhancementJobManager}s MUST NOT reuse cached
+     * enhancement results of chains that include such engines. This property
+     * expects a single {@link Boolean} as value. If not present engines are
+     * considered deterministic.
+     * @since 1.0.1
+     */
+    String ENHANCEMENT_ENGINE_NONDETERMINISTIC = "org.apache.stanbol.enhancer.engine.nondeterministic";
+
     /**
      * Ordering values >= this value indicate, that an enhancement engine
      * dose some pre processing on the content
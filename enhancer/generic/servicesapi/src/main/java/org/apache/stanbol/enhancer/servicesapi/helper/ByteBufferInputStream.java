@@ -0,0 +1,93 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi.helper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+
+import org.apache.stanbol.enhancer.servicesapi.ByteBufferBlob;
+
+/**
+ * {@link InputStream} over the remaining bytes of a {@link ByteBuffer}. 
+ * Changes of the position of the parsed buffer are not visible to other
+ * users if a {@link ByteBuffer#duplicate() duplicate} is parsed.<p>
+ * Typically used by {@link ByteBufferBlob} implementations to provide the
+ * {@link ByteBufferBlob#getStream()} view over the 
+ * {@link ByteBufferBlob#getByteBuffer() buffer}.
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer){
+        if(buffer == null){
+            throw new IllegalArgumentException("The parsed ByteBuffer MUST NOT be NULL!");
+        }
+        this.buffer = buffer;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(len == 0){
+            return 0;
+        }
+        if(!buffer.hasRemaining()){
+            return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+    
+    @Override
+    public long skip(long n) throws IOException {
+        int skip = (int)Math.min(Math.max(n, 0), buffer.remaining());
+        buffer.position(buffer.position() + skip);
+        return skip;
+    }
+    
+    @Override
+    public int available() throws IOException {
+        return buffer.remaining();
+    }
+    
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+    
+    @Override
+    public synchronized void mark(int readlimit) {
+        buffer.mark();
+    }
+    
+    @Override
+    public synchronized void reset() throws IOException {
+        try {
+            buffer.reset();
+        } catch (InvalidMarkException e) {
+            throw new IOException("The stream was not marked!", e);
+        }
+    }
+}
@@ -17,11 +17,16 @@
 package org.apache.stanbol.enhancer.servicesapi.helper;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
@@ -36,8 +41,10 @@ import java.util.StringTokenizer;
 import org.apache.clerezza.commons.rdf.IRI;
 import org.apache.commons.io.IOUtils;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ByteBufferBlob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
+import org.apache.stanbol.enhancer.servicesapi.impl.ContentItemImpl;
 
 
 /**
@@ -338,8 +345,69 @@ public final class ContentItemHelper {
             throw new IllegalArgumentException("The parsed Blob MUST NOT be NULL!");
         }
         String charset = blob.getParameter().get("charset");
+        ByteBuffer buffer = getByteBuffer(blob);
+        if(buffer != null){ //decode directly from the buffer
+            Charset cs;
+            try {
+                cs = Charset.forName(charset != null ? charset : UTF8);
+            } catch (IllegalArgumentException e) {
+                throw new UnsupportedEncodingException(charset);
+            }
+            return cs.decode(buffer).toString();
+        }
         return IOUtils.toString(blob.getStream(), charset != null ? charset : UTF8);
     }
+    /**
+     * Getter for the data of the parsed {@link Blob} as read-only 
+     * {@link ByteBuffer}. This avoids copying the data for Blobs that
+     * implement {@link ByteBufferBlob} (e.g. Blobs backed by byte arrays or
+     * memory mapped files).
+     * @param blob the {@link Blob}. MUST NOT be <code>null</code>.
+     * @return the buffer or <code>null</code> if the parsed Blob does not
+     * support direct access to its data. In this case the data need to be
+     * read by using {@link Blob#getStream()}.
+     * @throws IllegalArgumentException if the parsed Blob is <code>null</code>
+     */
+    public static ByteBuffer getByteBuffer(Blob blob){
+        if(blob == null){
+            throw new IllegalArgumentException("The parsed Blob MUST NOT be NULL!");
+        }
+        return blob instanceof ByteBufferBlob ? 
+                ((ByteBufferBlob)blob).getByteBuffer() : null;
+    }
+    /**
+     * Maps the parsed file read-only into memory. Intended to be used by
+     * {@link ByteBufferBlob} implementations that store their data in files.
+     * Streams over the returned buffer can be created by using the
+     * {@link ByteBufferInputStream}.<p>
+     * Mapping a file is considerable more expensive as reading it with a
+     * {@link java.io.FileInputStream}. It only pays off for bigger files
+     * that are read several times. Use the <code>minSize</code> parameter
+     * to avoid mapping small files.
+     * @param file the file. MUST NOT be <code>null</code>.
+     * @param minSize the minimum size of files to be mapped. Use 
+     * <code>0</code> to map all files.
+     * @return the buffer or <code>null</code> if the file is smaller as the
+     * parsed minimum size or too big to be mapped (&gt; 2GByte)
+     * @throws IOException on any error while mapping the file
+     * @throws IllegalArgumentException if the parsed file is <code>null</code>
+     * @since 1.0.1
+     */
+    public static ByteBuffer mapFile(File file, long minSize) throws IOException {
+        if(file == null){
+            throw new IllegalArgumentException("The parsed File MUST NOT be NULL!");
+        }
+        long length = file.length();
+        if(length < minSize || length > Integer.MAX_VALUE){
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try { //the mapping stays valid after closing the file
+            return raf.getChannel().map(MapMode.READ_ONLY, 0, length);
+        } finally {
+            IOUtils.closeQuietly(raf);
+        }
+    }
     /**
      * Creates the "{type}/{subtime}; [{param}={value}]+" mime type representation
      * for the {@link Blob#getMimeType()} and {@link Blob#getParameter()} values
@@ -375,6 +443,35 @@ public final class ContentItemHelper {
     @Deprecated
     private static final IRI WEB_ENHANCEMENT_PROPERTIES_URI = new IRI(
         "urn:apache.org:stanbol.web:enhancement.properties");
+    /**
+     * The prefix of request properties used by the RESTful interface of the
+     * Stanbol Enhancer to control how enhancement results are returned to
+     * the client (e.g. the serialisation format). Such properties do not
+     * affect the enhancement results.
+     * @since 1.0.1
+     */
+    public static final String WEB_REQUEST_PROPERTY_PREFIX = "stanbol.enhancer.web.";
+    /**
+     * Request property with the {@link java.util.Collection Collection&lt;String&gt;}
+     * of mime types of the content versions to be included in the response.
+     * @since 1.0.1
+     */
+    public static final String REQUEST_PROPERTY_OUTPUT_CONTENT = 
+            WEB_REQUEST_PROPERTY_PREFIX + "outputContent";
+    /**
+     * Request property with the {@link java.util.Collection Collection&lt;String&gt;}
+     * of URIs of the content parts to be included in the response.
+     * @since 1.0.1
+     */
+    public static final String REQUEST_PROPERTY_OUTPUT_CONTENT_PART = 
+            WEB_REQUEST_PROPERTY_PREFIX + "outputContentPart";
+    /**
+     * Boolean request property used to request the execution metadata to
+     * be included in the response.
+     * @since 1.0.1
+     */
+    public static final String REQUEST_PROPERTY_INCLUDE_EXECUTION_METADATA = 
+            WEB_REQUEST_PROPERTY_PREFIX + "executionmetadata";
     
     /**
      * Getter for the content part holding the request scoped EnhancementProperties.
@@ -486,4 +583,27 @@ public final class ContentItemHelper {
         }
     }
     
+    /**
+     * Freezes the metadata of the parsed ContentItem if supported by the
+     * ContentItem implementation.
+     * @param ci the content item
+     * @return <code>true</code> if the metadata of the ContentItem are
+     * now read-only. <code>false</code> if the ContentItem implementation
+     * does not support this feature.
+     * @throws IllegalArgumentException if <code>null</code> is parsed as
+     * {@link ContentItem}.
+     * @see ContentItemImpl#freezeMetadata()
+     */
+    public static boolean freezeMetadata(ContentItem ci){
+        if(ci == null){
+            throw new IllegalArgumentException("The parsed ContentItem MUST NOT be NULL!");
+        }
+        if(ci instanceof ContentItemImpl){
+            ((ContentItemImpl)ci).freezeMetadata();
+            return true;
+        } else {
+            return false;
+        }
+    }
+    
 }
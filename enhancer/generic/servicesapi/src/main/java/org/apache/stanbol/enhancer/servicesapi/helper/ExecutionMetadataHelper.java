@@ -97,8 +97,22 @@ public final class ExecutionMetadataHelper {
     
     public static BlankNodeOrIRI createEngineExecution(Graph graph, BlankNodeOrIRI chainExecution,
                                      BlankNodeOrIRI executionNode){
-        
-        BlankNodeOrIRI node = new BlankNode();
+        return createEngineExecution(graph, chainExecution, executionNode, new BlankNode());
+    }
+    /**
+     * Writes the triples of an em:EngineExecution by using the parsed node.
+     * This allows {@link EnhancementJobManager} implementations to write
+     * execution metadata for em:Execution nodes they have already used
+     * internally (e.g. when execution metadata are only written on request).
+     * @param graph the graph with the execution metadata
+     * @param chainExecution the em:ChainExecution
+     * @param executionNode the ep:ExecutionNode
+     * @param node the node used for the em:EngineExecution
+     * @return the parsed node
+     * @since 1.0.1
+     */
+    public static BlankNodeOrIRI createEngineExecution(Graph graph, BlankNodeOrIRI chainExecution,
+            BlankNodeOrIRI executionNode, BlankNodeOrIRI node){
         graph.add(new TripleImpl(node, RDF_TYPE, EXECUTION));
         graph.add(new TripleImpl(node, RDF_TYPE, ENGINE_EXECUTION));
         graph.add(new TripleImpl(node, EXECUTION_PART, chainExecution));
@@ -183,6 +197,40 @@ public final class ExecutionMetadataHelper {
         graph.add(new TripleImpl(execution, STARTED, dateTime));
     }
     
+    /**
+     * Sets the state of an execution node to the parsed values. Other than
+     * the <code>setExecution**</code> methods this does not use the current
+     * time but the parsed started and completed dates. Existing values are
+     * replaced.
+     * @param graph the graph holding the execution metadata
+     * @param execution the execution node
+     * @param status the status
+     * @param started the start date or <code>null</code> if not started
+     * @param completed the completion date or <code>null</code> if not completed
+     * @param message the status message or <code>null</code> if none
+     * @since 1.0.1
+     */
+    public static void setExecutionStatus(Graph graph, BlankNodeOrIRI execution, IRI status,
+            Date started, Date completed, String message){
+        setStatus(graph, execution, status);
+        for(IRI property : new IRI[]{STARTED, COMPLETED, STATUS_MESSAGE}){
+            Iterator<Triple> it = graph.filter(execution, property, null);
+            while(it.hasNext()){
+                it.next();
+                it.remove();
+            }
+        }
+        if(started != null){
+            graph.add(new TripleImpl(execution, STARTED, lf.createTypedLiteral(started)));
+        }
+        if(completed != null){
+            graph.add(new TripleImpl(execution, COMPLETED, lf.createTypedLiteral(completed)));
+        }
+        if(message != null){
+            graph.add(new TripleImpl(execution, STATUS_MESSAGE, new PlainLiteralImpl(message)));
+        }
+    }
+    
     /**
      * Removes the current value of {@link ExecutionMetadata#STATUS} and set it
      * to the parsed value.
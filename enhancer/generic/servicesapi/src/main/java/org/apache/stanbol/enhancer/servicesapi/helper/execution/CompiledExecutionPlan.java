@@ -0,0 +1,234 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.servicesapi.helper.execution;
+
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan.DEPENDS_ON;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan.EXECUTION_NODE;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.Properties.RDF_TYPE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan;
+
+/**
+ * In-memory representation of an {@link ImmutableGraph execution plan} as
+ * a directed acyclic graph of int indexed nodes.<p>
+ * All {@link ExecutionPlan#EXECUTION_NODE}s of the parsed execution plan are
+ * assigned an index in the range <code>[0..{@link #size()})</code>. The
+ * {@link ExecutionPlan#DEPENDS_ON} relations are stored as {@link BitSet}s over
+ * those indexes. This allows EnhancementJobManager implementations to track
+ * the state of an enhancement job by using {@link BitSet}s for completed and
+ * running nodes and to calculate executable nodes by simple bit operations
+ * instead of filtering the RDF graph of the execution plan (as done by
+ * {@link ExecutionPlanHelper#getExecutable(org.apache.clerezza.commons.rdf.Graph, Set)}).<p>
+ * Instances are immutable and can therefore be shared by all enhancement jobs
+ * using the same execution plan (see
+ * {@link org.apache.stanbol.enhancer.servicesapi.ChainManager#getCompiledExecutionPlan(org.apache.stanbol.enhancer.servicesapi.Chain)}).
+ */
+public final class CompiledExecutionPlan {
+
+    private final ImmutableGraph executionPlan;
+    private final BlankNodeOrIRI[] nodes;
+    private final String[] engines;
+    private final Map<BlankNodeOrIRI,Integer> indexes;
+    private final BitSet optional;
+    private final BitSet[] dependsOn;
+    /**
+     * Nodes that depend on something that is not an ep:ExecutionNode of the
+     * plan. Such nodes can never be executed (the same as with
+     * {@link ExecutionPlanHelper#getExecutable(org.apache.clerezza.commons.rdf.Graph, Set)})
+     */
+    private final BitSet blocked;
+    /**
+     * Compiles the parsed execution plan.
+     * @param executionPlan the execution plan. Only {@link ImmutableGraph}s
+     * are accepted as the compiled plan would not reflect later changes.
+     * @throws IllegalArgumentException if <code>null</code> is parsed or if
+     * a {@link ExecutionPlan#DEPENDS_ON} value is not a resource
+     */
+    public CompiledExecutionPlan(ImmutableGraph executionPlan){
+        if(executionPlan == null){
+            throw new IllegalArgumentException("The parsed execution plan MUST NOT be NULL!");
+        }
+        this.executionPlan = executionPlan;
+        List<BlankNodeOrIRI> nodeList = new ArrayList<BlankNodeOrIRI>();
+        Map<BlankNodeOrIRI,Integer> indexes = new HashMap<BlankNodeOrIRI,Integer>();
+        for(Iterator<Triple> it = executionPlan.filter(null, RDF_TYPE, EXECUTION_NODE);it.hasNext();){
+            BlankNodeOrIRI node = it.next().getSubject();
+            if(!indexes.containsKey(node)){
+                indexes.put(node, nodeList.size());
+                nodeList.add(node);
+            }
+        }
+        this.nodes = nodeList.toArray(new BlankNodeOrIRI[nodeList.size()]);
+        this.indexes = Collections.unmodifiableMap(indexes);
+        this.engines = new String[nodes.length];
+        this.optional = new BitSet(nodes.length);
+        this.blocked = new BitSet(nodes.length);
+        this.dependsOn = new BitSet[nodes.length];
+        for(int i = 0; i < nodes.length; i++){
+            engines[i] = ExecutionPlanHelper.getEngine(executionPlan, nodes[i]);
+            if(ExecutionPlanHelper.isOptional(executionPlan, nodes[i])){
+                optional.set(i);
+            }
+            BitSet deps = new BitSet(nodes.length);
+            for(Iterator<Triple> it = executionPlan.filter(nodes[i], DEPENDS_ON, null);it.hasNext();){
+                RDFTerm o = it.next().getObject();
+                if(!(o instanceof BlankNodeOrIRI)){
+                    throw new IllegalArgumentException("Execution Node "+nodes[i]
+                        + " defines the literal '"+o+"' as value for the "+DEPENDS_ON
+                        + " property. However this property requires values to be "
+                        + "bNodes or URIs.");
+                }
+                Integer index = indexes.get(o);
+                if(index == null){
+                    blocked.set(i);
+                } else {
+                    deps.set(index);
+                }
+            }
+            dependsOn[i] = deps;
+        }
+    }
+    /**
+     * The execution plan this instance was compiled from
+     * @return the execution plan
+     */
+    public ImmutableGraph getExecutionPlan() {
+        return executionPlan;
+    }
+    /**
+     * The number of ep:ExecutionNodes
+     * @return the number of nodes
+     */
+    public int size(){
+        return nodes.length;
+    }
+    /**
+     * Getter for the index of an ep:ExecutionNode
+     * @param executionNode the ep:ExecutionNode
+     * @return the index or <code>-1</code> if the parsed node is not part of
+     * this execution plan
+     */
+    public int indexOf(BlankNodeOrIRI executionNode){
+        Integer index = indexes.get(executionNode);
+        return index == null ? -1 : index.intValue();
+    }
+    /**
+     * Getter for the ep:ExecutionNode with the parsed index
+     * @param index the index
+     * @return the ep:ExecutionNode
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public BlankNodeOrIRI getNode(int index){
+        return nodes[index];
+    }
+    /**
+     * The name of the Engine executed by the node with the parsed index
+     * @param index the index
+     * @return the name of the engine
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public String getEngine(int index){
+        return engines[index];
+    }
+    /**
+     * If the node with the parsed index is optional
+     * @param index the index
+     * @return the optional state
+     */
+    public boolean isOptional(int index){
+        return optional.get(index);
+    }
+    /**
+     * Getter for the indexes of the nodes the node with the parsed index
+     * depends on.
+     * @param index the index
+     * @return a copy of the dependencies
+     * @throws IndexOutOfBoundsException if the index is not valid
+     */
+    public BitSet getDependsOn(int index){
+        return (BitSet)dependsOn[index].clone();
+    }
+    /**
+     * Checks if all dependencies of the node with the parsed index are
+     * contained in the parsed set of completed nodes.
+     * @param index the index
+     * @param completed the indexes of the completed nodes
+     * @return <code>true</code> if all dependencies are completed
+     */
+    public boolean isSatisfied(int index, BitSet completed){
+        if(blocked.get(index)){
+            return false;
+        }
+        BitSet deps = dependsOn[index];
+        for(int i = deps.nextSetBit(0); i >= 0; i = deps.nextSetBit(i+1)){
+            if(!completed.get(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * Calculates the nodes that are executable based on the parsed set of
+     * completed nodes (the compiled variant of
+     * {@link ExecutionPlanHelper#getExecutable(org.apache.clerezza.commons.rdf.Graph, Set)}).
+     * @param completed the indexes of the completed nodes
+     * @return the indexes of the nodes that are not completed but do have
+     * all dependencies completed
+     */
+    public BitSet getExecutable(BitSet completed){
+        BitSet executable = new BitSet(nodes.length);
+        for(int i = completed.nextClearBit(0); i < nodes.length; i = completed.nextClearBit(i+1)){
+            if(isSatisfied(i, completed)){
+                executable.set(i);
+            }
+        }
+        return executable;
+    }
+    /**
+     * Converts the parsed indexes to the ep:ExecutionNodes
+     * @param indexes the indexes
+     * @return the ep:ExecutionNodes
+     */
+    public Set<BlankNodeOrIRI> getNodes(BitSet indexes){
+        Set<BlankNodeOrIRI> nodes = new HashSet<BlankNodeOrIRI>(indexes.cardinality());
+        for(int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i+1)){
+            nodes.add(this.nodes[i]);
+        }
+        return nodes;
+    }
+    
+    @Override
+    public String toString() {
+        return "CompiledExecutionPlan "+Arrays.toString(engines);
+    }
+}
@@ -25,9 +25,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
 import org.apache.stanbol.enhancer.servicesapi.ChainManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
@@ -64,6 +68,12 @@ public class ChainsTracker implements ChainManager{
     private Set<String> trackedChains;
 
     private NameBasedServiceTrackingState nameTracker;
+    /**
+     * Cache for the compiled execution plans of chains. Weak keys ensure that
+     * entries are removed for no longer used chain instances.
+     */
+    private final Map<Chain,CompiledExecutionPlan> compiledPlans = 
+            new WeakHashMap<Chain,CompiledExecutionPlan>();
     /**
      * Protected constructor intended to be used by subclasses that do not want
      * to compete the initialisation as part of construction(e.g.
@@ -314,6 +324,27 @@ public class ChainsTracker implements ChainManager{
         }
         return chain;
     }
+    /*
+     * (non-Javadoc)
+     * @see org.apache.stanbol.enhancer.servicesapi.ChainManager#getCompiledExecutionPlan(org.apache.stanbol.enhancer.servicesapi.Chain)
+     */
+    @Override
+    public CompiledExecutionPlan getCompiledExecutionPlan(Chain chain) throws ChainException {
+        if(chain == null){
+            throw new IllegalArgumentException("The parsed Chain MUST NOT be NULL!");
+        }
+        ImmutableGraph executionPlan = chain.getExecutionPlan();
+        synchronized (compiledPlans) {
+            CompiledExecutionPlan compiled = compiledPlans.get(chain);
+            //chains return a new graph instance if the execution plan changes
+            if(compiled == null || compiled.getExecutionPlan() != executionPlan){
+                compiled = new CompiledExecutionPlan(executionPlan);
+                log.debug("compiled execution plan for Chain {}: {}",chain.getName(), compiled);
+                compiledPlans.put(chain, compiled);
+            }
+            return compiled;
+        }
+    }
     /**
      * Getter for the name based service tracker. {@link ServiceReference}s
      * returned by this instance are guaranteed to refer to {@link Chain}
@@ -24,6 +24,8 @@ import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.commons.indexedgraph.CompactIndexedImmutableGraph;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
@@ -69,7 +71,16 @@ public abstract class ContentItemImpl implements ContentItem {
 	 */
 	private final IRI mainBlobUri;
 
-    private final Graph metadata; 
+    /**
+     * The metadata. Replaced by a read-only copy on {@link #freezeMetadata()}
+     */
+    private volatile Graph metadata; 
+    /**
+     * The lock of the {@link Graph} parsed in the constructor. Kept as the
+     * {@link #getLock() lock} of this content item after the metadata are
+     * {@link #freezeMetadata() frozen}.
+     */
+    private final ReadWriteLock lock;
 
     protected final Lock readLock;
     protected final Lock writeLock;
@@ -89,8 +100,9 @@ public abstract class ContentItemImpl implements ContentItem {
         this.parts.put(mainBlobUri, main);
         this.metadata = metadata;
         //init the read and write lock
-        this.readLock = this.metadata.getLock().readLock();
-        this.writeLock = this.metadata.getLock().writeLock();
+        this.lock = metadata.getLock();
+        this.readLock = lock.readLock();
+        this.writeLock = lock.writeLock();
 		//Better parse the Blob in the Constructor than calling a public
 		//method on a may be not fully initialised instance
 		//parts.put(new IRI(uri.getUnicodeString()+"_main"), getBlob());
@@ -98,7 +110,7 @@ public abstract class ContentItemImpl implements ContentItem {
 	
 	@Override
 	public final ReadWriteLock getLock() {
-	    return metadata.getLock();
+	    return lock;
 	}
 	
 	/**
@@ -248,6 +260,40 @@ public abstract class ContentItemImpl implements ContentItem {
 	public Graph getMetadata() {
 	    return metadata;
 	}
+	/**
+	 * Replaces the {@link #getMetadata() metadata} with a compact read-only
+	 * copy ({@link CompactIndexedImmutableGraph}). Intended to be called
+	 * after the enhancement of this ContentItem has completed and the
+	 * metadata are only read (e.g. by serializers or while the ContentItem
+	 * is kept in some cache).<p>
+	 * The frozen metadata require less memory and can be read without
+	 * acquiring the {@link #getLock() read lock}. Any attempt to modify them
+	 * will result in an {@link UnsupportedOperationException}. Content parts
+	 * are not affected and still need to be accessed by using the
+	 * {@link #getLock() lock} of this ContentItem.
+	 * @return <code>true</code> if the metadata where frozen by this call or
+	 * <code>false</code> if they are already read-only.
+	 */
+	public boolean freezeMetadata() {
+	    writeLock.lock();
+	    try {
+	        if(metadata instanceof ImmutableGraph){
+	            return false;
+	        }
+	        metadata = new CompactIndexedImmutableGraph(metadata);
+	        return true;
+	    } finally {
+	        writeLock.unlock();
+	    }
+	}
+	/**
+	 * If the metadata of this content item are read-only
+	 * @return the state
+	 * @see #freezeMetadata()
+	 */
+	public boolean isMetadataFrozen() {
+	    return metadata instanceof ImmutableGraph;
+	}
 	@Override
 	public int hashCode() {
 	    return uri.hashCode();
@@ -0,0 +1,122 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.serviceapi.helper;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledExecutionPlanTest {
+
+    private ImmutableGraph executionPlan;
+    private BlankNodeOrIRI langId;
+    private BlankNodeOrIRI nlp;
+    private BlankNodeOrIRI ner;
+    private BlankNodeOrIRI linking;
+    private BlankNodeOrIRI metaxa;
+
+    /**
+     * creates an execution plan with the dependencies
+     * <code>langId <- nlp <- [ner, linking]</code> and an optional metaxa node
+     */
+    @Before
+    public void initExecutionPlan(){
+        Graph graph = new IndexedGraph();
+        BlankNodeOrIRI ep = createExecutionPlan(graph, "test", null);
+        langId = writeExecutionNode(graph, ep, "langid", false, null, null);
+        nlp = writeExecutionNode(graph, ep, "nlp", false, 
+            Collections.singleton(langId), null);
+        ner = writeExecutionNode(graph, ep, "ner", false, 
+            Collections.singleton(nlp), null);
+        linking = writeExecutionNode(graph, ep, "linking", true, 
+            Collections.singleton(nlp), null);
+        metaxa = writeExecutionNode(graph, ep, "metaxa", true, null, null);
+        executionPlan = graph.getImmutableGraph();
+    }
+    
+    @Test
+    public void testCompile(){
+        CompiledExecutionPlan plan = new CompiledExecutionPlan(executionPlan);
+        Assert.assertEquals(5, plan.size());
+        Assert.assertSame(executionPlan, plan.getExecutionPlan());
+        for(BlankNodeOrIRI node : new BlankNodeOrIRI[]{langId,nlp,ner,linking,metaxa}){
+            int index = plan.indexOf(node);
+            Assert.assertTrue(index >= 0);
+            Assert.assertEquals(node, plan.getNode(index));
+            Assert.assertEquals(ExecutionPlanHelper.getEngine(executionPlan, node), 
+                plan.getEngine(index));
+            Assert.assertEquals(ExecutionPlanHelper.isOptional(executionPlan, node), 
+                plan.isOptional(index));
+            Assert.assertEquals(ExecutionPlanHelper.getDependend(executionPlan, node),
+                plan.getNodes(plan.getDependsOn(index)));
+        }
+        Assert.assertEquals(-1, plan.indexOf(createExecutionPlan(new IndexedGraph(), "other", null)));
+    }
+    
+    @Test
+    public void testExecutable(){
+        CompiledExecutionPlan plan = new CompiledExecutionPlan(executionPlan);
+        BitSet completed = new BitSet(plan.size());
+        Set<BlankNodeOrIRI> executed = new HashSet<BlankNodeOrIRI>();
+        BitSet executable = plan.getExecutable(completed);
+        //execute the plan and compare results with the ExecutionPlanHelper
+        while(!executable.isEmpty()){
+            Assert.assertEquals(ExecutionPlanHelper.getExecutable(executionPlan, executed), 
+                plan.getNodes(executable));
+            int next = executable.nextSetBit(0);
+            Assert.assertTrue(plan.isSatisfied(next, completed));
+            completed.set(next);
+            executed.add(plan.getNode(next));
+            executable = plan.getExecutable(completed);
+        }
+        Assert.assertEquals(plan.size(), completed.cardinality());
+        Assert.assertTrue(ExecutionPlanHelper.getExecutable(executionPlan, executed).isEmpty());
+    }
+    
+    @Test
+    public void testDependencies(){
+        CompiledExecutionPlan plan = new CompiledExecutionPlan(executionPlan);
+        BitSet completed = new BitSet(plan.size());
+        Assert.assertEquals(new HashSet<BlankNodeOrIRI>(Arrays.asList(langId,metaxa)),
+            plan.getNodes(plan.getExecutable(completed)));
+        Assert.assertFalse(plan.isSatisfied(plan.indexOf(ner), completed));
+        completed.set(plan.indexOf(langId));
+        completed.set(plan.indexOf(nlp));
+        Assert.assertTrue(plan.isSatisfied(plan.indexOf(ner), completed));
+        Assert.assertTrue(plan.isSatisfied(plan.indexOf(linking), completed));
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullExecutionPlan(){
+        new CompiledExecutionPlan(null);
+    }
+}
@@ -20,10 +20,12 @@ import static org.apache.stanbol.enhancer.servicesapi.impl.StringSource.UTF8;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.ByteBufferBlob;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
@@ -216,6 +218,32 @@ public abstract class BlobTest {
         Assert.assertEquals(ISO8859_4.name(), blob.getParameter().get("charset"));
         cs = new StreamSource(new ByteArrayInputStream(data), "text/plain; "+ISO8859_4.name());
     }
+    /**
+     * Tests the {@link ByteBufferBlob#getByteBuffer()} for Blob implementations
+     * that support it.
+     * @throws IOException
+     */
+    @Test
+    public void testByteBuffer() throws IOException {
+        String test = "Exámplê";
+        Blob blob = createBlob(new StringSource(test));
+        ByteBuffer buffer = ContentItemHelper.getByteBuffer(blob);
+        if(buffer == null){
+            return; //not supported by the tested Blob implementation
+        }
+        Assert.assertTrue(blob instanceof ByteBufferBlob);
+        Assert.assertTrue("The ByteBuffer MUST BE read-only", buffer.isReadOnly());
+        Assert.assertEquals(0, buffer.position());
+        Assert.assertEquals(blob.getContentLength(), buffer.remaining());
+        byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        Assert.assertArrayEquals(IOUtils.toByteArray(blob.getStream()), data);
+        //changes of the position MUST NOT affect other buffers
+        ByteBuffer other = ContentItemHelper.getByteBuffer(blob);
+        Assert.assertNotSame(buffer, other);
+        Assert.assertEquals(0, other.position());
+        Assert.assertEquals(test, ContentItemHelper.getText(blob));
+    }
     /**
      * Tests the default mimeType "application/octet-stream" for binary data.
      * @throws IOException
@@ -25,11 +25,13 @@ import java.io.IOException;
 import java.util.Date;
 
 import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.Triple;
 import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
 import org.apache.stanbol.enhancer.servicesapi.Blob;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.ContentSource;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -181,4 +183,26 @@ public abstract class ContentItemTest {
         }
     }
     
+    @Test
+    public void freezeMetadata() throws IOException {
+        ContentItem ci = createContentItem(contentSource);
+        IRI partUri = new IRI("http://foo/");
+        Triple triple = new TripleImpl(ci.getUri(), new IRI("http://example.org/ontology#hasPart"), partUri);
+        ci.getMetadata().add(triple);
+        if(!ContentItemHelper.freezeMetadata(ci)){
+            log.info("freezing metadata is not supported by {}", ci.getClass().getSimpleName());
+            return;
+        }
+        assertEquals(1, ci.getMetadata().size());
+        assertTrue(ci.getMetadata().contains(triple));
+        try {
+            ci.getMetadata().add(new TripleImpl(partUri, new IRI("http://example.org/ontology#isPartOf"),ci.getUri()));
+            assertTrue("Frozen metadata MUST NOT support modifications", false);
+        } catch (UnsupportedOperationException e) {/* expected*/}
+        //content parts can still be added
+        Date someObject = new Date();
+        ci.addPart(partUri, someObject);
+        assertEquals(someObject, ci.getPart(partUri, Date.class));
+    }
+    
 }
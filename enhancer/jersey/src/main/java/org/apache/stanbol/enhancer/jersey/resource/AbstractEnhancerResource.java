@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -44,6 +45,8 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -59,6 +62,7 @@ import org.apache.stanbol.commons.web.base.resource.LayoutConfiguration;
 import org.apache.stanbol.commons.web.base.resource.TemplateLayoutConfiguration;
 import org.apache.stanbol.commons.web.base.utils.MediaTypeUtil;
 import org.apache.stanbol.enhancer.jersey.utils.RequestPropertiesHelper;
+import org.apache.stanbol.enhancer.servicesapi.AsyncEnhancementJobManager;
 import org.apache.stanbol.enhancer.servicesapi.Chain;
 import org.apache.stanbol.enhancer.servicesapi.ChainException;
 import org.apache.stanbol.enhancer.servicesapi.ChainManager;
@@ -67,6 +71,7 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
 import org.apache.stanbol.enhancer.servicesapi.EngineException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
 import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
@@ -83,6 +88,14 @@ import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
  */
 public abstract class AbstractEnhancerResource extends TemplateLayoutConfiguration {
 
+    /**
+     * The time (in milliseconds) suspended requests wait in addition to the
+     * {@link AsyncEnhancementJobManager#getMaxEnhancementJobWaitTime()} before
+     * they are timed out. This ensures that the timeout reported by the
+     * job manager is used as response if possible.
+     */
+    private static final long ASYNC_RESPONSE_TIMEOUT_GRACE = 5000;
+
     protected final EnhancementJobManager jobManager;
     protected final EnhancementEngineManager engineManager;
     protected final ChainManager chainManager;
@@ -157,7 +170,11 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
     }
 
     /**
-     * Media-Type based handling of the raw POST data.
+     * Media-Type based handling of the raw POST data.<p>
+     * The request is suspended while the content item is enhanced. If the
+     * {@link EnhancementJobManager} is an {@link AsyncEnhancementJobManager}
+     * the request thread is released until the enhancement process 
+     * completes.
      * 
      * @param data
      *            binary payload to analyze
@@ -169,7 +186,7 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
      */
     @POST
     @Consumes(WILDCARD)
-    public Response enhanceFromData(ContentItem ci,
+    public void enhanceFromData(ContentItem ci,
             //NOTE: The 'uri' parameter is already consumed by the ContentItemReader
             //@QueryParam(value = "uri") String uri,
             @QueryParam(value = "executionmetadata") boolean inclExecMetadata,
@@ -178,7 +195,20 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
             @QueryParam(value = "outputContentPart") Set<String> contentParts,
             @QueryParam(value = "omitMetadata") boolean omitMetadata,
             @QueryParam(value = "rdfFormat") String rdfFormat,
-            @Context HttpHeaders headers) throws EnhancementException, IOException {
+            @Context HttpHeaders headers,
+            @Suspended AsyncResponse asyncResponse) throws EnhancementException, IOException {
+        Map<String,Object> reqProp = initRequestProperties(ci, inclExecMetadata, mediaTypes, 
+            omitParsed, contentParts, omitMetadata, rdfFormat);
+        enhance(ci, reqProp, headers, asyncResponse);
+    }
+    /**
+     * Initialises the request properties content part of the parsed
+     * content item based on the parsed query parameters.
+     * @return the request properties
+     */
+    protected Map<String,Object> initRequestProperties(ContentItem ci, boolean inclExecMetadata,
+            Set<String> mediaTypes, boolean omitParsed, Set<String> contentParts,
+            boolean omitMetadata, String rdfFormat) {
         Map<String,Object> reqProp = ContentItemHelper.initRequestPropertiesContentPart(ci);
         reqProp.put(INCLUDE_EXECUTION_METADATA, inclExecMetadata);
         if(mediaTypes != null && !mediaTypes.isEmpty()){
@@ -210,7 +240,15 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
                     .build());
             }
         }
-        enhance(ci,reqProp);
+        return reqProp;
+    }
+    /**
+     * Creates the response for an enhanced content item
+     * @param ci the enhanced content item
+     * @param headers the request headers
+     * @return the response
+     */
+    protected Response buildEnhancementResponse(ContentItem ci, HttpHeaders headers) {
         ResponseBuilder rb = Response.ok(ci);
         MediaType mediaType = MediaTypeUtil.getAcceptableMediaType(headers, null);
         if (mediaType != null) {
@@ -230,6 +268,58 @@ public abstract class AbstractEnhancerResource extends TemplateLayoutConfigurati
         if (jobManager != null) {
             jobManager.enhanceContent(ci, getChain());
         }
+        addExecutionMetadata(ci, reqProp);
+    }
+    
+    /**
+     * Enhances the parsed ContentItem and resumes the parsed 
+     * {@link AsyncResponse} with the enhanced content item (or the 
+     * exception if the enhancement failed). If the {@link EnhancementJobManager}
+     * does not support asynchronous processing the content item is enhanced
+     * by the calling thread.
+     * @param ci the content item to enhance
+     * @param reqProp the request properties or <code>null</code> if none
+     * @param headers the request headers
+     * @param asyncResponse the suspended response
+     * @throws EnhancementException if the enhancement process could not be
+     * started
+     */
+    protected void enhance(ContentItem ci, final Map<String,Object> reqProp, 
+            final HttpHeaders headers, final AsyncResponse asyncResponse) throws EnhancementException {
+        if (jobManager instanceof AsyncEnhancementJobManager) {
+            AsyncEnhancementJobManager asyncJobManager = (AsyncEnhancementJobManager)jobManager;
+            asyncResponse.setTimeout(asyncJobManager.getMaxEnhancementJobWaitTime()
+                + ASYNC_RESPONSE_TIMEOUT_GRACE, TimeUnit.MILLISECONDS);
+            asyncJobManager.enhanceContent(ci, getChain(), 
+                new EnhancementJobCallback() {
+                    
+                    @Override
+                    public void completed(ContentItem ci) {
+                        try {
+                            addExecutionMetadata(ci, reqProp);
+                            asyncResponse.resume(buildEnhancementResponse(ci, headers));
+                        } catch (RuntimeException e) {
+                            asyncResponse.resume(e);
+                        }
+                    }
+                    
+                    @Override
+                    public void failed(ContentItem ci, Exception e) {
+                        asyncResponse.resume(e);
+                    }
+                });
+        } else {
+            enhance(ci, reqProp);
+            asyncResponse.resume(buildEnhancementResponse(ci, headers));
+        }
+    }
+    /**
+     * Adds the execution metadata to the metadata of the parsed content item
+     * if requested by the parsed request properties
+     * @param ci the enhanced content item
+     * @param reqProp the request properties or <code>null</code> if none
+     */
+    protected void addExecutionMetadata(ContentItem ci, Map<String,Object> reqProp) {
         Graph graph = ci.getMetadata();
         Boolean includeExecutionMetadata = RequestPropertiesHelper.isIncludeExecutionMetadata(reqProp);
         if (includeExecutionMetadata != null && includeExecutionMetadata.booleanValue()) {
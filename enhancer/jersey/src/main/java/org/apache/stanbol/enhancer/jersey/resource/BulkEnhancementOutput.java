@@ -0,0 +1,295 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jersey.resource;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.rdf.core.serializedform.Serializer;
+import org.apache.stanbol.enhancer.servicesapi.AsyncEnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.impl.ByteArraySource;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams a bulk of documents parsed as newline delimited JSON
+ * (<code>application/x-ndjson</code>) through an enhancement {@link Chain}
+ * and writes the results - also as newline delimited JSON - in the order the
+ * enhancement of the documents completes.<p>
+ * Every line of the request is a JSON object with the following fields:<ul>
+ * <li> <code>content</code> (required): the content
+ * <li> <code>type</code>: the media type of the content (default:
+ * <code>text/plain; charset=UTF-8</code>)
+ * <li> <code>base64</code>: if <code>true</code> the content is base64
+ * encoded binary data. Invalid base64 content results in a failed document
+ * <li> <code>uri</code>: the URI of the content item
+ * </ul>
+ * Every line of the response is a JSON object with the <code>index</code>
+ * of the document in the request, the <code>uri</code> of the content item
+ * and the <code>status</code> (<code>completed</code> or <code>failed</code>).
+ * Completed results include the <code>metadata</code> serialised with the
+ * requested RDF format; failed ones the <code>error</code> message.<p>
+ * The request is read line by line and at most the configured number of
+ * documents are enhanced concurrently. If this limit is reached the request
+ * is no longer read until the enhancement of a document completes. This
+ * applies backpressure to the client and ensures that neither the request
+ * nor the response is buffered. If the {@link EnhancementJobManager} is not
+ * an {@link AsyncEnhancementJobManager} documents are enhanced one after the
+ * other.<p>
+ * If writing the response fails (e.g. because the client disconnected) the
+ * request is no longer read. As enhancement jobs can not be cancelled the
+ * enhancements still in flight are awaited (and their results discarded)
+ * before the {@link IOException} is re-thrown.
+ */
+final class BulkEnhancementOutput implements StreamingOutput {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkEnhancementOutput.class);
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String DEFAULT_CONTENT_TYPE = "text/plain; charset=UTF-8";
+
+    static final String FIELD_INDEX = "index";
+    static final String FIELD_URI = "uri";
+    static final String FIELD_CONTENT = "content";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_BASE64 = "base64";
+    static final String FIELD_STATUS = "status";
+    static final String FIELD_METADATA = "metadata";
+    static final String FIELD_ERROR = "error";
+    static final String STATUS_COMPLETED = "completed";
+    static final String STATUS_FAILED = "failed";
+
+    private final InputStream in;
+    private final EnhancementJobManager jobManager;
+    private final Chain chain;
+    private final ContentItemFactory ciFactory;
+    private final Serializer serializer;
+    private final String rdfFormat;
+    private final int maxInFlight;
+    /**
+     * Results of completed enhancements not yet written to the response
+     */
+    private final BlockingQueue<Result> completed = new LinkedBlockingQueue<Result>();
+
+    /**
+     * @param in the stream with the documents
+     * @param jobManager the job manager
+     * @param chain the chain used to enhance the documents
+     * @param ciFactory the factory used to create content items
+     * @param serializer the serializer used for the metadata
+     * @param rdfFormat the RDF format used to serialise the metadata
+     * @param maxInFlight the maximum number of concurrently enhanced documents
+     */
+    BulkEnhancementOutput(InputStream in, EnhancementJobManager jobManager, Chain chain,
+            ContentItemFactory ciFactory, Serializer serializer, String rdfFormat, int maxInFlight) {
+        this.in = in;
+        this.jobManager = jobManager;
+        this.chain = chain;
+        this.ciFactory = ciFactory;
+        this.serializer = serializer;
+        this.rdfFormat = rdfFormat;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void write(OutputStream out) throws IOException, WebApplicationException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF8));
+        int inFlight = 0;
+        int index = 0;
+        boolean eof = false;
+        try {
+            while(!eof || inFlight > 0){
+                //write already completed results
+                Result result = completed.poll();
+                if(result != null){
+                    for(; result != null; result = completed.poll()){
+                        inFlight--;
+                        write(out, result);
+                    }
+                    out.flush();
+                }
+                if(!eof && inFlight < maxInFlight){
+                    String line = reader.readLine();
+                    if(line == null){
+                        eof = true;
+                    } else if(!line.trim().isEmpty()){
+                        enhance(index++, line);
+                        inFlight++;
+                    }
+                } else if(inFlight > 0){ //wait for a result (backpressure)
+                    result = completed.take();
+                    inFlight--;
+                    write(out, result);
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for enhancement results ("
+                + inFlight + " in flight)", e);
+        } catch (IOException e) { //e.g. the client disconnected
+            log.debug("Unable to write results of bulk request (" + inFlight 
+                + " enhancements in flight)", e);
+            drain(inFlight);
+            throw e;
+        }
+        log.debug("enhanced {} documents with Chain {}", index, chain.getName());
+    }
+    /**
+     * Waits for the parsed number of enhancements still in flight and
+     * discards their results.
+     */
+    private void drain(int inFlight) {
+        try {
+            for(; inFlight > 0; inFlight--){
+                completed.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for {} enhancements of a failed bulk request",
+                inFlight);
+        }
+        completed.clear();
+    }
+    /**
+     * Creates the content item for the parsed line and starts its
+     * enhancement. The result is added to {@link #completed}.
+     */
+    private void enhance(final int index, String line){
+        ContentItem ci;
+        try {
+            JSONObject document = new JSONObject(line);
+            String content = document.optString(FIELD_CONTENT, null);
+            if(content == null){
+                throw new IllegalArgumentException("Missing required field '"+FIELD_CONTENT+"'!");
+            }
+            String type = document.optString(FIELD_TYPE, DEFAULT_CONTENT_TYPE);
+            String uri = document.optString(FIELD_URI, null);
+            IRI id = uri == null || uri.isEmpty() ? null : new IRI(uri);
+            if(document.optBoolean(FIELD_BASE64, false)){
+                ci = ciFactory.createContentItem(id, new ByteArraySource(
+                    Base64.getDecoder().decode(content), type));
+            } else {
+                ci = ciFactory.createContentItem(id, new StringSource(content, type));
+            }
+        } catch (JSONException e) {
+            completed.add(new Result(index, null, e));
+            return;
+        } catch (IOException e) {
+            completed.add(new Result(index, null, e));
+            return;
+        } catch (IllegalArgumentException e) {
+            completed.add(new Result(index, null, e));
+            return;
+        }
+        try {
+            if(jobManager instanceof AsyncEnhancementJobManager){
+                ((AsyncEnhancementJobManager)jobManager).enhanceContent(ci, chain,
+                    new EnhancementJobCallback() {
+                        @Override
+                        public void completed(ContentItem ci) {
+                            completed.add(new Result(index, ci, null));
+                        }
+                        @Override
+                        public void failed(ContentItem ci, Exception e) {
+                            completed.add(new Result(index, ci, e));
+                        }
+                    });
+            } else {
+                jobManager.enhanceContent(ci, chain);
+                completed.add(new Result(index, ci, null));
+            }
+        } catch (EnhancementException e) {
+            completed.add(new Result(index, ci, e));
+        } catch (RuntimeException e) {
+            completed.add(new Result(index, ci, e));
+        }
+    }
+
+    private void write(OutputStream out, Result result) throws IOException {
+        JSONObject json = new JSONObject();
+        try {
+            json.put(FIELD_INDEX, result.index);
+            if(result.ci != null){
+                json.put(FIELD_URI, result.ci.getUri().getUnicodeString());
+            }
+            Exception error = result.error;
+            if(error == null){
+                ByteArrayOutputStream metadata = new ByteArrayOutputStream();
+                result.ci.getLock().readLock().lock();
+                try {
+                    serializer.serialize(metadata, result.ci.getMetadata(), rdfFormat);
+                } catch (RuntimeException e) { //e.g. UnsupportedFormatException
+                    error = e;
+                } finally {
+                    result.ci.getLock().readLock().unlock();
+                }
+                if(error == null){
+                    json.put(FIELD_STATUS, STATUS_COMPLETED);
+                    json.put(FIELD_METADATA, new String(metadata.toByteArray(), UTF8));
+                }
+            }
+            if(error != null){
+                log.debug("Unable to enhance document " + result.index + " of bulk request", error);
+                json.put(FIELD_STATUS, STATUS_FAILED);
+                json.put(FIELD_ERROR, error.getMessage() == null ?
+                        error.getClass().getName() : error.getMessage());
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException("Unable to create JSON result for document "
+                + result.index, e);
+        }
+        out.write(json.toString().getBytes(UTF8));
+        out.write('\n');
+    }
+    /**
+     * The result of the enhancement of a document
+     */
+    private static final class Result {
+
+        final int index;
+        final ContentItem ci;
+        final Exception error;
+
+        Result(int index, ContentItem ci, Exception error){
+            this.index = index;
+            this.ci = ci;
+            this.error = error;
+        }
+    }
+}
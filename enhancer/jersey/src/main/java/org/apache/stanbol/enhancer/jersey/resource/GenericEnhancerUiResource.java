@@ -20,6 +20,7 @@ import static javax.ws.rs.core.MediaType.APPLICATION_FORM_URLENCODED;
 import static javax.ws.rs.core.MediaType.TEXT_HTML;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -28,7 +29,9 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
+import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
@@ -44,6 +47,7 @@ import org.apache.clerezza.rdf.core.sparql.QueryEngine;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.stanbol.commons.web.base.resource.LayoutConfiguration;
+import org.apache.stanbol.commons.web.base.utils.MediaTypeUtil;
 import org.apache.stanbol.commons.web.viewable.Viewable;
 import org.apache.stanbol.enhancer.servicesapi.Chain;
 import org.apache.stanbol.enhancer.servicesapi.ChainException;
@@ -72,6 +76,21 @@ import org.slf4j.LoggerFactory;
 public class GenericEnhancerUiResource extends AbstractEnhancerResource {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
+    /**
+     * The media type for newline delimited JSON as used by the
+     * {@link #enhanceBulk(InputStream, String, int) bulk enhancement} endpoint
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    /**
+     * The default number of documents of a bulk request that are enhanced
+     * concurrently
+     */
+    public static final int DEFAULT_BULK_MAX_IN_FLIGHT = 16;
+    /**
+     * The upper bound for the number of documents of a bulk request that
+     * are enhanced concurrently
+     */
+    public static final int MAX_BULK_MAX_IN_FLIGHT = 256;
     /**
      * Optional dependency - might be <code>null</code>
      */
@@ -144,7 +163,8 @@ public class GenericEnhancerUiResource extends AbstractEnhancerResource {
         }
         ContentItem ci = ciFactory.createContentItem(new StringSource(content));
         if(!buildAjaxview){ //rewrite to a normal EnhancementRequest
-            return enhanceFromData(ci, false, null, false, null, false, null, headers);
+            enhance(ci, initRequestProperties(ci, false, null, false, null, false, null));
+            return buildEnhancementResponse(ci, headers);
         } else { //enhance and build the AJAX response
             EnhancementException enhancementException;
             try {
@@ -164,6 +184,41 @@ public class GenericEnhancerUiResource extends AbstractEnhancerResource {
         }
     }
 
+    /**
+     * Enhances a stream of documents parsed as newline delimited JSON and
+     * streams the results in the order their enhancement completes (see
+     * {@link BulkEnhancementOutput} for the format). The request is consumed
+     * while the response is written, so clients need to read the response
+     * while sending documents.
+     * @param in the stream with the documents
+     * @param rdfFormat the RDF format used to serialise the metadata of the
+     * enhanced documents (default: <code>application/ld+json</code>)
+     * @param maxInFlight the maximum number of concurrently enhanced
+     * documents (default: {@link #DEFAULT_BULK_MAX_IN_FLIGHT}, maximum:
+     * {@link #MAX_BULK_MAX_IN_FLIGHT})
+     * @return the streaming response
+     */
+    @POST
+    @Path("/bulk")
+    @Consumes(APPLICATION_NDJSON)
+    @Produces(APPLICATION_NDJSON)
+    public Response enhanceBulk(InputStream in, 
+            @QueryParam(value = "rdfFormat") String rdfFormat,
+            @QueryParam(value = "maxInFlight") int maxInFlight) {
+        if(rdfFormat == null || rdfFormat.isEmpty()){
+            rdfFormat = MediaTypeUtil.JSON_LD;
+        }
+        if(maxInFlight <= 0){
+            maxInFlight = DEFAULT_BULK_MAX_IN_FLIGHT;
+        } else if(maxInFlight > MAX_BULK_MAX_IN_FLIGHT){
+            maxInFlight = MAX_BULK_MAX_IN_FLIGHT;
+        }
+        log.debug("bulk enhancement with Chain {} (rdfFormat: {}, maxInFlight: {})",
+            new Object[]{chain.getName(), rdfFormat, maxInFlight});
+        return Response.ok(new BulkEnhancementOutput(in, jobManager, chain, ciFactory, 
+            serializer, rdfFormat, maxInFlight), APPLICATION_NDJSON).build();
+    }
+
     public boolean isEngineActive(String name) {
         return engineManager.isEngine(name);
     }
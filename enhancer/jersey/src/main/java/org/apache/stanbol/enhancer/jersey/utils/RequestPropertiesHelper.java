@@ -59,7 +59,8 @@ public final class RequestPropertiesHelper {
      * as "applciation/json" in the Response by adding this
      * {@link RequestPropertiesHelper#REQUEST_PROPERTIES_URI uri}.
      */
-    public static final String OUTPUT_CONTENT_PART = "stanbol.enhancer.web.outputContentPart";
+    public static final String OUTPUT_CONTENT_PART = 
+            ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT_PART;
     /**
      * Allows to omit all parsed content parts regardless of the {@link #OUTPUT_CONTENT_PART}
      * configuration
@@ -71,7 +72,8 @@ public final class RequestPropertiesHelper {
      * the response. e.g. ["text/*","application/pdf"] would include all text
      * formats and PDF.
      */
-    public static final String OUTPUT_CONTENT = "stanbol.enhancer.web.outputContent";
+    public static final String OUTPUT_CONTENT = 
+            ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT;
     /**
      * This allows to copy the {@link ExecutionMetadata} and {@link ExecutionPlan}
      * data stored in a {@link ContentItem#getPart(IRI, Class) contentPart} with
@@ -80,7 +82,8 @@ public final class RequestPropertiesHelper {
      * This feature is intended to allow users to retrieve such meta information
      * without the need to use parse Multipart MIME responses.
      */
-    public static final String INCLUDE_EXECUTION_METADATA = "stanbol.enhancer.web.executionmetadata";
+    public static final String INCLUDE_EXECUTION_METADATA = 
+            ContentItemHelper.REQUEST_PROPERTY_INCLUDE_EXECUTION_METADATA;
     /**
      * The used format to encode RDF graphs for "multipart/*" responses. This
      * needs to be parsed separately, because the Accept header needs to be
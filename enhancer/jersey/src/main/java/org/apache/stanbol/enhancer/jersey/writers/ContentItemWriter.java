@@ -50,6 +50,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
@@ -65,6 +66,7 @@ import org.apache.clerezza.rdf.core.serializedform.Serializer;
 import org.apache.clerezza.rdf.core.serializedform.UnsupportedSerializationFormatException;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
@@ -84,15 +86,32 @@ import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 import org.codehaus.jettison.json.JSONObject;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Component
 @Service(Object.class)
-@Property(name = "javax.ws.rs", boolValue = true)
+@org.apache.felix.scr.annotations.Properties(value={
+    @Property(name = "javax.ws.rs", boolValue = true),
+    @Property(name = ContentItemWriter.STREAMING, 
+        boolValue = ContentItemWriter.DEFAULT_STREAMING)
+})
 @Provider
 public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
 
+    /**
+     * If enabled multipart MIME responses are written part by part directly
+     * to the response stream (see {@link MultipartStreamWriter}). Otherwise
+     * the response is assembled by using the Apache HttpMime 
+     * {@link MultipartEntityBuilder}.
+     */
+    public static final String STREAMING = "enhancer.jersey.contentItemWriter.streaming";
+    /**
+     * By default multipart MIME responses are streamed
+     */
+    public static final boolean DEFAULT_STREAMING = true;
+    
     public static final String CONTENT_ITEM_BOUNDARY;
     public static final String CONTENT_PARTS_BOUNDERY;;
     /**
@@ -133,6 +152,8 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
     @Reference
     private Serializer serializer;
     
+    private boolean streaming = DEFAULT_STREAMING;
+    
     /**
      * Default Constructor used by OSGI. This expects that the {@link #serializer}
      * is injected
@@ -145,8 +166,32 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
      * @param serializer
      */
     public ContentItemWriter(Serializer serializer) {
-		this.serializer = serializer;
+		this(serializer, DEFAULT_STREAMING);
 	}
+    /**
+     * Creates a {@link ContentItemWriter} by using the parsed Clerezza
+     * {@link Serializer}. Intended to be used by unit tests or when running not
+     * in an OSGI environment.
+     * @param serializer
+     * @param streaming if multipart MIME responses are streamed
+     */
+    public ContentItemWriter(Serializer serializer, boolean streaming) {
+        this.serializer = serializer;
+        this.streaming = streaming;
+    }
+    
+    @Activate
+    protected void activate(ComponentContext ctx){
+        Object value = ctx.getProperties().get(STREAMING);
+        if(value instanceof Boolean){
+            streaming = ((Boolean)value).booleanValue();
+        } else if(value != null){
+            streaming = Boolean.parseBoolean(value.toString());
+        } else {
+            streaming = DEFAULT_STREAMING;
+        }
+        log.debug("activate {} (streaming: {})", getClass().getSimpleName(), streaming);
+    }
 
 	@Override
     public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
@@ -254,6 +299,10 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
             String contentType = String.format("%s/%s; charset=%s; boundary=%s",
                 mediaType.getType(),mediaType.getSubtype(),charset.toString(),CONTENT_ITEM_BOUNDARY);
             httpHeaders.putSingle(HttpHeaders.CONTENT_TYPE,contentType);
+            if(streaming){
+                writeMultipart(ci, reqProp, rdfFormat, entityStream);
+                return;
+            }
             MultipartEntityBuilder entityBuilder = MultipartEntityBuilder.create();
             entityBuilder.setBoundary(CONTENT_ITEM_BOUNDARY);
             //HttpMultipart entity = new HttpMultipart("from-data", charset ,CONTENT_ITEM_BOUNDARY);
@@ -317,6 +366,106 @@ public class ContentItemWriter implements MessageBodyWriter<ContentItem> {
         }   
             
     }
+    /**
+     * Writes the multipart MIME response part by part to the parsed stream.
+     * Parts are flushed as soon as they are written. RDF graphs are serialised
+     * directly to the stream while holding the read lock of the content item.
+     * @param ci the content item
+     * @param reqProp the request properties
+     * @param rdfFormat the format used for RDF parts
+     * @param out the stream
+     * @throws IOException on any error while writing to the stream
+     */
+    private void writeMultipart(ContentItem ci, Map<String,Object> reqProp, 
+            MediaType rdfFormat, OutputStream out) throws IOException {
+        MultipartStreamWriter writer = new MultipartStreamWriter(out, CONTENT_ITEM_BOUNDARY, UTF8);
+        String rdfContentType = getRdfContentType(rdfFormat);
+        //(2) serialising the metadata
+        if(!isOmitMetadata(reqProp)){
+            writeGraph(writer.startPart("metadata", ci.getUri().getUnicodeString(), rdfContentType),
+                ci.getMetadata(), ci.getLock().readLock(), rdfFormat);
+        }
+        //(3) serialising the Content (Bloby)
+        //(3.a) Filter based on parameter
+        List<Entry<IRI,Blob>> includedBlobs = filterBlobs(ci, reqProp);
+        //(3.b) Serialise the filtered
+        if(!includedBlobs.isEmpty()) {
+            MultipartStreamWriter contentWriter = new MultipartStreamWriter(
+                writer.startPart("content", null, String.format("%s; boundary=%s", 
+                    MULTIPART_ALTERNATE.getMimeType(), CONTENT_PARTS_BOUNDERY)),
+                CONTENT_PARTS_BOUNDERY, UTF8);
+            for(Entry<IRI,Blob> entry : includedBlobs){
+                Blob blob = entry.getValue();
+                StringBuilder ct = new StringBuilder(blob.getMimeType());
+                String cs = blob.getParameter().get("charset");
+                if(StringUtils.isNotBlank(cs)){
+                    ct.append("; charset=").append(cs);
+                }
+                OutputStream partOut = contentWriter.startPart(
+                    entry.getKey().getUnicodeString(), null, ct.toString());
+                InputStream in = blob.getStream();
+                try {
+                    IOUtils.copy(in, partOut);
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
+            }
+            contentWriter.finish();
+        } //else no content to include
+        Set<String> includeContentParts = getIncludedContentPartURIs(reqProp);
+        if(includeContentParts != null){
+            //(4) serialise the Request Properties
+            if(includeContentParts.isEmpty() || includeContentParts.contains(
+                REQUEST_PROPERTIES_URI.getUnicodeString())) {
+                JSONObject object;
+                try {
+                    object = toJson(reqProp);
+                } catch (JSONException e) {
+                    String message = "Unable to convert Request Properties " 
+                            + "to JSON (values : "+reqProp+")!";
+                    log.error(message,e);
+                    throw new WebApplicationException(message, Response.Status.INTERNAL_SERVER_ERROR);
+                }
+                writer.startPart(REQUEST_PROPERTIES_URI.getUnicodeString(), null,
+                    ContentType.APPLICATION_JSON.withCharset(UTF8).toString()).write(
+                        object.toString().getBytes(UTF8));
+            }
+            //(5) additional RDF metadata stored in contentParts
+            for(Entry<IRI,Graph> entry : getContentParts(ci, Graph.class).entrySet()){
+                if(includeContentParts.isEmpty() || includeContentParts.contains(
+                    entry.getKey())){
+                    writeGraph(writer.startPart(entry.getKey().getUnicodeString(), 
+                        null, rdfContentType), //no file name
+                        entry.getValue(), ci.getLock().readLock(), rdfFormat);
+                } // else ignore this content part
+            }
+        }
+        writer.finish();
+    }
+    /**
+     * The content type of RDF parts (including the charset)
+     */
+    private String getRdfContentType(MediaType rdfFormat) {
+        String charset = rdfFormat.getParameters().get("charset");
+        if(charset == null || charset.isEmpty()){
+            charset = UTF8.toString();
+        }
+        return new StringBuilder(rdfFormat.getType()).append('/')
+                .append(rdfFormat.getSubtype()).append("; charset=")
+                .append(charset).toString();
+    }
+    /**
+     * Serialises the graph while holding the parsed read lock.
+     */
+    private void writeGraph(OutputStream out, Graph graph, Lock readLock, MediaType rdfFormat){
+        readLock.lock();
+        try {
+            serializer.serialize(out, graph, 
+                rdfFormat.getType() + '/' + rdfFormat.getSubtype());
+        } finally {
+            readLock.unlock();
+        }
+    }
     /**
      * @param properties
      * @return
@@ -0,0 +1,120 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jersey.writers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+/**
+ * Writes multipart MIME messages part by part to an {@link OutputStream}.
+ * Only the headers of the current part are held in memory. The
+ * {@link OutputStream} is flushed at the end of every part so that clients
+ * receive parts as soon as they are written.
+ * <p>
+ * Parts are written in the same form as by the 
+ * {@link org.apache.http.entity.mime.MultipartEntityBuilder} in the 
+ * <code>STRICT</code> mode.
+ */
+class MultipartStreamWriter {
+
+    private static final byte[] CRLF = new byte[]{'\r','\n'};
+    private static final byte[] DASHES = new byte[]{'-','-'};
+    private static final String TRANSFER_ENCODING = "Content-Transfer-Encoding: 8bit";
+    
+    private final OutputStream out;
+    private final byte[] boundary;
+    private final Charset headerCharset;
+    private boolean inPart = false;
+    private boolean finished = false;
+    
+    /**
+     * Creates a writer for a multipart message
+     * @param out the stream to write the message to
+     * @param boundary the boundary
+     * @param headerCharset the charset used to encode the part headers
+     */
+    MultipartStreamWriter(OutputStream out, String boundary, Charset headerCharset){
+        this.out = out;
+        this.headerCharset = headerCharset;
+        this.boundary = boundary.getBytes(headerCharset);
+    }
+    /**
+     * Writes the headers of a new part (and ends the current part).
+     * @param name the name of the part
+     * @param filename the filename or <code>null</code> if none
+     * @param contentType the content type
+     * @return the stream to write the content of the part to. Closing this 
+     * stream has no effect
+     * @throws IOException on any error while writing to the stream
+     * @throws IllegalStateException if {@link #finish()} was already called
+     */
+    OutputStream startPart(String name, String filename, String contentType) throws IOException {
+        if(finished){
+            throw new IllegalStateException("The multipart message is already finished!");
+        }
+        if(inPart){
+            endPart();
+        }
+        out.write(DASHES);
+        out.write(boundary);
+        out.write(CRLF);
+        StringBuilder disposition = new StringBuilder("Content-Disposition: form-data; name=\"")
+                .append(name).append('"');
+        if(filename != null){
+            disposition.append("; filename=\"").append(filename).append('"');
+        }
+        writeHeader(disposition.toString());
+        writeHeader("Content-Type: " + contentType);
+        writeHeader(TRANSFER_ENCODING);
+        out.write(CRLF);
+        inPart = true;
+        return new CloseShieldOutputStream(out);
+    }
+    
+    private void writeHeader(String header) throws IOException {
+        out.write(header.getBytes(headerCharset));
+        out.write(CRLF);
+    }
+    
+    private void endPart() throws IOException {
+        out.write(CRLF);
+        out.flush();
+        inPart = false;
+    }
+    /**
+     * Ends the current part and writes the closing boundary. Does not close
+     * the underlying stream
+     * @throws IOException on any error while writing to the stream
+     */
+    void finish() throws IOException {
+        if(finished){
+            return;
+        }
+        if(inPart){
+            endPart();
+        }
+        out.write(DASHES);
+        out.write(boundary);
+        out.write(DASHES);
+        out.write(CRLF);
+        out.flush();
+        finished = true;
+    }
+}
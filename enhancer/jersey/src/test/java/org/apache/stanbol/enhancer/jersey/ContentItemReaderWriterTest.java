@@ -134,7 +134,7 @@ public class ContentItemReaderWriterTest {
      * @return
      * @throws IOException
      */
-    private MediaType serializeContentItem(ByteArrayOutputStream out) throws IOException {
+    private MediaType serializeContentItem(ContentItemWriter ciWriter, ByteArrayOutputStream out) throws IOException {
         MultivaluedMap<String,Object> headers = new MultivaluedHashMap<String, Object>();
         ciWriter.writeTo(contentItem, ContentItem.class, null, null, MediaType.MULTIPART_FORM_DATA_TYPE, 
             headers , out);
@@ -147,8 +147,17 @@ public class ContentItemReaderWriterTest {
     
     @Test
     public void testWriter() throws Exception {
+        validateWriter(ciWriter);
+    }
+    
+    @Test
+    public void testNonStreamingWriter() throws Exception {
+        validateWriter(new ContentItemWriter(Serializer.getInstance(), false));
+    }
+
+    private void validateWriter(ContentItemWriter ciWriter) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-        MediaType contentType = serializeContentItem(out);
+        MediaType contentType = serializeContentItem(ciWriter, out);
         assertTrue(MediaType.MULTIPART_FORM_DATA_TYPE.isCompatible(contentType));
         assertNotNull(contentType.getParameters().get("boundary"));
         assertEquals(contentType.getParameters().get("boundary"),ContentItemWriter.CONTENT_ITEM_BOUNDARY);
@@ -194,8 +203,17 @@ public class ContentItemReaderWriterTest {
 
     @Test
     public void testReader() throws Exception {
+        validateReader(ciWriter);
+    }
+    
+    @Test
+    public void testNonStreamingReader() throws Exception {
+        validateReader(new ContentItemWriter(Serializer.getInstance(), false));
+    }
+    
+    private void validateReader(ContentItemWriter ciWriter) throws Exception {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
-        MediaType contentType = serializeContentItem(out);
+        MediaType contentType = serializeContentItem(ciWriter, out);
         ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
         ContentItem ci = ciReader.readFrom(ContentItem.class, null, null, contentType, null, in);
         //assert ID
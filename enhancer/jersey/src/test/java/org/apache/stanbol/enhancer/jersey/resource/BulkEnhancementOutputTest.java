@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jersey.resource;
+
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.FIELD_ERROR;
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.FIELD_INDEX;
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.FIELD_METADATA;
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.FIELD_STATUS;
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.FIELD_URI;
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.STATUS_COMPLETED;
+import static org.apache.stanbol.enhancer.jersey.resource.BulkEnhancementOutput.STATUS_FAILED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.rdf.core.serializedform.Serializer;
+import org.apache.clerezza.rdf.core.serializedform.SupportedFormat;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.AsyncEnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
+import org.codehaus.jettison.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link BulkEnhancementOutput} by using a stub
+ * {@link AsyncEnhancementJobManager} that completes enhancements
+ * asynchronously.
+ */
+public class BulkEnhancementOutputTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final IRI PROPERTY = new IRI("urn:test:property");
+    /**
+     * The URI of content items the stub job manager fails to enhance
+     */
+    private static final String FAILING_URI = "urn:test:failing";
+    private static final int MAX_IN_FLIGHT = 3;
+
+    private StubJobManager jobManager;
+
+    @Before
+    public void init(){
+        jobManager = new StubJobManager();
+    }
+
+    @After
+    public void close(){
+        jobManager.executor.shutdownNow();
+    }
+
+    @Test
+    public void testResults() throws Exception {
+        String[] lines = new String[]{
+            "{\"content\":\"first document\",\"uri\":\"urn:test:doc1\"}",
+            "{\"content\":\"failing document\",\"uri\":\"" + FAILING_URI + "\"}",
+            "{\"content\":\"aGVsbG8gd29ybGQ=\",\"base64\":true,\"type\":\"application/octet-stream\",\"uri\":\"urn:test:doc3\"}",
+            "{\"content\":\"last document\",\"uri\":\"urn:test:doc4\"}"
+        };
+        Map<Integer,JSONObject> results = enhance(lines);
+        assertEquals(lines.length, results.size());
+        for(int i : new int[]{0, 2, 3}){
+            JSONObject result = results.get(i);
+            assertEquals(new JSONObject(lines[i]).getString(FIELD_URI), result.getString(FIELD_URI));
+            assertEquals(STATUS_COMPLETED, result.getString(FIELD_STATUS));
+            //the metadata added by the stub job manager
+            assertTrue(result.getString(FIELD_METADATA).contains(PROPERTY.getUnicodeString()));
+            assertFalse(result.has(FIELD_ERROR));
+        }
+        JSONObject failed = results.get(1);
+        assertEquals(FAILING_URI, failed.getString(FIELD_URI));
+        assertEquals(STATUS_FAILED, failed.getString(FIELD_STATUS));
+        assertNotNull(failed.optString(FIELD_ERROR, null));
+        assertFalse(failed.has(FIELD_METADATA));
+    }
+
+    @Test
+    public void testInvalidDocuments() throws Exception {
+        String[] lines = new String[]{
+            "{\"content\":\"first document\"}",
+            "not a JSON object",
+            "{\"type\":\"text/plain\"}", //missing content
+            "{\"content\":\"no base64 content!\",\"base64\":true}",
+            "{\"content\":\"last document\"}"
+        };
+        Map<Integer,JSONObject> results = enhance(lines);
+        //invalid documents MUST NOT abort the processing of the stream
+        assertEquals(lines.length, results.size());
+        assertEquals(2, jobManager.started.get());
+        for(int i : new int[]{1, 2, 3}){
+            JSONObject result = results.get(i);
+            assertEquals(STATUS_FAILED, result.getString(FIELD_STATUS));
+            assertNotNull(result.optString(FIELD_ERROR, null));
+            assertFalse(result.has(FIELD_URI)); //no content item was created
+        }
+        for(int i : new int[]{0, 4}){
+            assertEquals(STATUS_COMPLETED, results.get(i).getString(FIELD_STATUS));
+            assertTrue(results.get(i).has(FIELD_URI));
+        }
+    }
+
+    @Test
+    public void testMaxInFlight() throws Exception {
+        String[] lines = new String[20];
+        for(int i = 0; i < lines.length; i++){
+            lines[i] = "{\"content\":\"document " + i + "\"}";
+        }
+        Map<Integer,JSONObject> results = enhance(lines);
+        assertEquals(lines.length, results.size());
+        assertEquals(lines.length, jobManager.started.get());
+        assertTrue("more than " + MAX_IN_FLIGHT + " enhancements in flight ("
+            + jobManager.maxInFlight.get() + ")", jobManager.maxInFlight.get() <= MAX_IN_FLIGHT);
+        assertEquals(MAX_IN_FLIGHT, jobManager.maxInFlight.get());
+    }
+
+    @Test
+    public void testWriteError() throws Exception {
+        StringBuilder request = new StringBuilder();
+        int num = 100;
+        for(int i = 0; i < num; i++){
+            request.append("{\"content\":\"document ").append(i).append("\"}\n");
+        }
+        BulkEnhancementOutput output = createOutput(
+            new ByteArrayInputStream(request.toString().getBytes(UTF8)));
+        try {
+            output.write(new OutputStream() { //simulates a disconnected client
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("client disconnected");
+                }
+            });
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("client disconnected", e.getMessage());
+        }
+        //the request is no longer read ...
+        assertTrue(jobManager.started.get() < num);
+        //... and all started enhancements are completed before the exception
+        assertEquals(0, jobManager.inFlight.get());
+    }
+
+    /**
+     * Writes the results of the bulk enhancement of the parsed lines and
+     * returns the parsed JSON results by their index
+     */
+    private Map<Integer,JSONObject> enhance(String[] lines) throws Exception {
+        StringBuilder request = new StringBuilder();
+        for(String line : lines){
+            request.append(line).append('\n').append('\n'); //empty lines are ignored
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        createOutput(new ByteArrayInputStream(request.toString().getBytes(UTF8))).write(out);
+        Map<Integer,JSONObject> results = new HashMap<Integer,JSONObject>();
+        for(String line : new String(out.toByteArray(), UTF8).split("\n")){
+            JSONObject result = new JSONObject(line);
+            assertNull("multiple results for the same index",
+                results.put(result.getInt(FIELD_INDEX), result));
+        }
+        return results;
+    }
+
+    private BulkEnhancementOutput createOutput(InputStream in) {
+        return new BulkEnhancementOutput(in, jobManager, new StubChain(),
+            InMemoryContentItemFactory.getInstance(), Serializer.getInstance(),
+            SupportedFormat.N_TRIPLE, MAX_IN_FLIGHT);
+    }
+
+    /**
+     * {@link AsyncEnhancementJobManager} that adds a single triple to the
+     * metadata of enhanced content items after a short delay and fails
+     * content items with the {@link BulkEnhancementOutputTest#FAILING_URI}.
+     */
+    private static class StubJobManager implements AsyncEnhancementJobManager {
+
+        final ScheduledExecutorService executor = Executors.newScheduledThreadPool(MAX_IN_FLIGHT);
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public Future<ContentItem> enhanceContent(final ContentItem ci, Chain chain,
+                final EnhancementJobCallback callback) throws EnhancementException {
+            int n = started.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            for(int max = maxInFlight.get(); current > max; max = maxInFlight.get()){
+                maxInFlight.compareAndSet(max, current);
+            }
+            return executor.schedule(new Callable<ContentItem>() {
+                @Override
+                public ContentItem call() throws Exception {
+                    inFlight.decrementAndGet();
+                    if(FAILING_URI.equals(ci.getUri().getUnicodeString())){
+                        ChainException e = new ChainException("enhancement failed");
+                        callback.failed(ci, e);
+                        throw e;
+                    }
+                    ci.getMetadata().add(new TripleImpl(ci.getUri(), PROPERTY,
+                        new PlainLiteralImpl("enhanced")));
+                    callback.completed(ci);
+                    return ci;
+                }
+            }, 5 + (n % MAX_IN_FLIGHT) * 10, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public long getMaxEnhancementJobWaitTime() {
+            return 10000;
+        }
+
+        @Override
+        public void enhanceContent(ContentItem ci) throws EnhancementException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void enhanceContent(ContentItem ci, Chain chain) throws EnhancementException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<EnhancementEngine> getActiveEngines() {
+            return Collections.emptyList();
+        }
+    }
+
+    private static class StubChain implements Chain {
+
+        @Override
+        public ImmutableGraph getExecutionPlan() throws ChainException {
+            return null;
+        }
+
+        @Override
+        public Set<String> getEngines() throws ChainException {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+    }
+}
@@ -45,5 +45,11 @@ public interface Constants {
      * {@link ExecutionMetadata#EXECUTION} instance
      */
     String PROPERTY_EXECUTION = "stanbol.enhancer.jobmanager.event.execution";
+    /**
+     * The topic used to invalidate all enhancement results cached by the
+     * event job manager (e.g. after data used by an EnhancementEngine have
+     * changed). Events with this topic do not need any properties.
+     */
+    String TOPIC_INVALIDATE_RESULT_CACHE = "stanbol/enhancer/jobmanager/event/resultcache/invalidate";
 
 }
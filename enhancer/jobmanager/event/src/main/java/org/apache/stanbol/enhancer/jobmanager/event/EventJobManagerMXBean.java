@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jobmanager.event;
+
+/**
+ * Statistics of the event job manager. The event job manager registers
+ * itself as OSGi service for this interface with the {@link #OBJECT_NAME}
+ * as value of the {@link #JMX_OBJECT_NAME} property. This allows monitoring
+ * components to look up the statistics and - if the JMX whiteboard is
+ * available - exposes them as JMX MXBean.<p>
+ * All values are counted since the activation of the event job manager.
+ */
+public interface EventJobManagerMXBean {
+
+    /**
+     * The service property used by the JMX whiteboard to register services
+     * as MBeans
+     */
+    String JMX_OBJECT_NAME = "jmx.objectname";
+    /**
+     * The JMX object name of the event job manager
+     */
+    String OBJECT_NAME = "org.apache.stanbol:type=EnhancementJobManager,name=EventJobManager";
+
+    /**
+     * The number of currently active enhancement jobs
+     * @return the number of active jobs or <code>-1</code> if the job
+     * manager is not active
+     */
+    int getActiveJobCount();
+    /**
+     * The number of executions that are scheduled but not yet started
+     * @return the number of queued executions or <code>-1</code> if the job
+     * manager is not active
+     */
+    long getQueuedExecutionCount();
+    /**
+     * The number of finished enhancement jobs
+     * @return the number of finished jobs or <code>-1</code> if the job
+     * manager is not active
+     */
+    long getFinishedJobCount();
+    /**
+     * The accumulated time the job manager had to wait for acquiring
+     * write locks of enhancement jobs
+     * @return the lock wait time in milliseconds or <code>-1</code> if the
+     * job manager is not active
+     */
+    long getLockWaitTime();
+    /**
+     * The number of enhancement requests answered by replaying cached results
+     * @return the number of cache hits or <code>-1</code> if result caching
+     * is not enabled
+     */
+    long getResultCacheHitCount();
+    /**
+     * Invalidates all cached enhancement results
+     * @see Constants#TOPIC_INVALIDATE_RESULT_CACHE
+     */
+    void invalidateResultCache();
+}
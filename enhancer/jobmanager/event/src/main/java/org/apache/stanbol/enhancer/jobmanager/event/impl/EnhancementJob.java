@@ -16,26 +16,31 @@
 */
 package org.apache.stanbol.enhancer.jobmanager.event.impl;
 
+import static org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.CHAIN_EXECUTION;
+import static org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.toDate;
 import static org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHelper.getReference;
 import static org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHelper.getString;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.createChainExecutionNode;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.createEngineExecution;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.getChainExecution;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.getExecutionPlanNode;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.initExecutionMetadata;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.initExecutionMetadataContentPart;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.isExecutionFailed;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionCompleted;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionFaild;
 import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionInProgress;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getDependend;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getEngine;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.isOptional;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper.setExecutionStatus;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getExecutionNodes;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS_IN_PROGRESS;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS_MESSAGE;
 import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionPlan.CHAIN;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,6 +48,7 @@ import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 
+import org.apache.clerezza.commons.rdf.BlankNode;
 import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.commons.rdf.Graph;
 import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
@@ -54,8 +60,10 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
 import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.Status;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
 import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,17 +97,43 @@ public class EnhancementJob {
      * The read only executionPlan
      */
     private final ImmutableGraph executionPlan;
+    /**
+     * The compiled {@link #executionPlan} used to calculate executable nodes
+     * and to validate state changes without filtering the RDF graph.
+     */
+    private final CompiledExecutionPlan plan;
     /**
      * The read/write able execution metadata. Also accessible via
      * {@link ContentItem#getPart(IRI, Class)} with the URI
      * {@link ExecutionMetadata#CHAIN_EXECUTION}
      */
     private final Graph executionMetadata;
+    /**
+     * The in-memory record of the state of all executions. Always kept up
+     * to date. Used to answer state requests without reading the
+     * {@link #executionMetadata}.
+     */
+    private final ExecutionRecord record;
+    /**
+     * If <code>true</code> state changes are only kept in the {@link #record}
+     * until {@link #writeExecutionMetadata()} is called. 
+     */
+    private final boolean lightweight;
+    /**
+     * If the {@link #record} was already written to the 
+     * {@link #executionMetadata}. Only used in {@link #lightweight} mode.
+     */
+    private boolean materialized;
     /**
      * Map with the em:Execution nodes of the em:ChainExecution for this
      * ContentItem. Values are are ep:ExecutionNodes of the ep:ExecutionPlan
      */
     private final BidiMap executionsMap;
+    /**
+     * The em:Execution nodes indexed by the index of the linked ep:ExecutionNode
+     * in the {@link #plan}
+     */
+    private final BlankNodeOrIRI[] executions;
     /**
      * The em:ChainExecution for this {@link ContentItem}
      */
@@ -118,20 +152,20 @@ public class EnhancementJob {
     private final ContentItem contentItem;
 
     /**
-     * The completed ep:ExecutionPlan nodes. <p>
-     * NOTE: This contains ep:ExecutionNodes and NOT em:Exetution instances!
+     * The indexes of the completed ep:ExecutionPlan nodes. <p>
+     * NOTE: This refers to ep:ExecutionNodes and NOT em:Exetution instances!
      */
-    private final Set<BlankNodeOrIRI> completed = new HashSet<BlankNodeOrIRI>();
+    private final BitSet completed;
     /**
      * Unmodifiable and final set of completed executables. Replaced by a new
      * instance every time {@link #completed} changes
      */
     private Set<BlankNodeOrIRI> completedExec = Collections.emptySet();
     /**
-     * The running ep:ExecutionPlan nodes <p>
-     * NOTE: This contains ep:ExecutionNodes and NOT em:Exetution instances!
+     * The indexes of the running ep:ExecutionPlan nodes <p>
+     * NOTE: This refers to ep:ExecutionNodes and NOT em:Exetution instances!
      */
-    private final Set<BlankNodeOrIRI> running = new HashSet<BlankNodeOrIRI>();
+    private final BitSet running;
     /**
      * Unmodifiable and final set of running executables. Replaced by a new
      * instance every time {@link #running} changes.
@@ -163,13 +197,64 @@ public class EnhancementJob {
      * @param isDefaultChain
      */
     public EnhancementJob(ContentItem contentItem, String chainName, ImmutableGraph executionPlan, boolean isDefaultChain) {
-        if (contentItem == null || chainName == null || executionPlan == null) {
+        this(contentItem, chainName, executionPlan == null ? null : 
+            new CompiledExecutionPlan(executionPlan), isDefaultChain);
+    }
+    /**
+     * Constructor used to create and initialise a new enhancement job for an
+     * already compiled execution plan (see 
+     * {@link org.apache.stanbol.enhancer.servicesapi.ChainManager#getCompiledExecutionPlan(Chain)}).
+     * This will create the initial set of ExecutionMetadata and add them as
+     * ContentPart with the URI {@link ExecutionMetadata#CHAIN_EXECUTION} to the
+     * ContentItem.
+     * @param contentItem
+     * @param chainName
+     * @param plan the compiled execution plan
+     * @param isDefaultChain
+     */
+    public EnhancementJob(ContentItem contentItem, String chainName, CompiledExecutionPlan plan, boolean isDefaultChain) {
+        this(contentItem, chainName, plan, isDefaultChain, false);
+    }
+    /**
+     * Constructor used to create and initialise a new enhancement job for an
+     * already compiled execution plan.<p>
+     * In the lightweight mode the ContentPart with the URI 
+     * {@link ExecutionMetadata#CHAIN_EXECUTION} only contains the execution
+     * plan and the em:ChainExecution. The state of the executions is kept in
+     * memory and only written as RDF by calling 
+     * {@link #writeExecutionMetadata()}.
+     * @param contentItem
+     * @param chainName
+     * @param plan the compiled execution plan
+     * @param isDefaultChain
+     * @param lightweight if execution metadata are only written on request
+     */
+    public EnhancementJob(ContentItem contentItem, String chainName, CompiledExecutionPlan plan, 
+            boolean isDefaultChain, boolean lightweight) {
+        if (contentItem == null || chainName == null || plan == null) {
             throw new IllegalArgumentException("The parsed contentItem and executionPlan MUST NOT be NULL");
         }
+        ImmutableGraph executionPlan = plan.getExecutionPlan();
         this.readLock = contentItem.getLock().readLock();
         this.writeLock = contentItem.getLock().writeLock();
         executionMetadata = initExecutionMetadataContentPart(contentItem);
-        if(executionMetadata.isEmpty()){
+        if(executionMetadata.isEmpty() && lightweight){
+            //only write the em:ChainExecution as it is required to lookup
+            //chain scoped enhancement properties
+            executionPlanNode = ExecutionPlanHelper.getExecutionPlan(executionPlan, chainName);
+            if(executionPlanNode == null){
+                throw new IllegalArgumentException("The parsed ExectuonPlan graph does not contain an" +
+                        "ExecutionPlan for a Chain with the name '"+chainName+"'!");
+            }
+            chainExecutionNode = createChainExecutionNode(executionMetadata, executionPlanNode, 
+                contentItem.getUri(), isDefaultChain);
+            Map<BlankNodeOrIRI,BlankNodeOrIRI> executionsMap = new HashMap<BlankNodeOrIRI,BlankNodeOrIRI>();
+            for(BlankNodeOrIRI executionNode : getExecutionNodes(executionPlan, executionPlanNode)){
+                executionsMap.put(new BlankNode(), executionNode);
+            }
+            this.executionsMap = new DualHashBidiMap(executionsMap);
+            executionMetadata.addAll(executionPlan);
+        } else if(executionMetadata.isEmpty()){
             //if we init from scratch 
             this.executionsMap = new DualHashBidiMap(initExecutionMetadata(executionMetadata, executionPlan, 
                 contentItem.getUri(), chainName, isDefaultChain));
@@ -183,6 +268,12 @@ public class EnhancementJob {
         }
         this.contentItem = contentItem;
         this.executionPlan = executionPlan;
+        this.plan = plan;
+        this.executions = initExecutions(plan, executionsMap);
+        this.completed = new BitSet(plan.size());
+        this.running = new BitSet(plan.size());
+        this.record = new ExecutionRecord(plan.size());
+        this.lightweight = lightweight;
         this.chain = chainName;
         //check the first engines to execute
         checkExecutable();
@@ -211,6 +302,11 @@ public class EnhancementJob {
         }
         executionMetadata = initExecutionMetadataContentPart(contentItem);
         this.executionPlan = executionMetadata.getImmutableGraph();
+        this.plan = new CompiledExecutionPlan(executionPlan);
+        this.completed = new BitSet(plan.size());
+        this.running = new BitSet(plan.size());
+        this.record = new ExecutionRecord(plan.size());
+        this.lightweight = false;
         chainExecutionNode = getChainExecution(executionMetadata, contentItem.getUri());
         if(chainExecutionNode == null){
             throw new IllegalArgumentException("Cannot (re)initialise an EnhancementJob" +
@@ -241,19 +337,60 @@ public class EnhancementJob {
                         + contentItem.getUri()+"' is missing a required value for the property '"
                         + STATUS+"'!");
             }
+            int index = plan.indexOf(executionEntry.getValue());
             if(status.equals(STATUS_IN_PROGRESS)){
                 //re-schedule unfinished enhancement jobs
                 ExecutionMetadataHelper.setExecutionScheduled(executionMetadata, executionEntry.getKey());
             } else if(status.equals(ExecutionMetadata.STATUS_COMPLETED) ||
                     status.equals(ExecutionMetadata.STATUS_FAILED)){
-               completed.add(executionEntry.getValue());
+               completed.set(index);
+               initRecord(index, executionEntry.getKey(), status);
             }
         }
+        IRI chainStatus = getReference(executionMetadata, chainExecutionNode, STATUS);
+        if(chainStatus != null){
+            initRecord(CHAIN_EXECUTION, chainExecutionNode, chainStatus);
+        }
         this.executionsMap = new DualHashBidiMap(executionsMap);
+        this.executions = initExecutions(plan, this.executionsMap);
         //check the first engines to execute after continuation
         checkExecutable();
     }
 
+    /**
+     * Initialises the {@link #record} for the execution with the parsed
+     * index based on the existing execution metadata
+     */
+    private void initRecord(int index, BlankNodeOrIRI execution, IRI status){
+        Status s = Status.valueOf(status);
+        if(s != null){
+            record.set(index, s, ExecutionMetadataHelper.getStarted(executionMetadata, execution), 
+                ExecutionMetadataHelper.getCompleted(executionMetadata, execution), 
+                getString(executionMetadata, execution, STATUS_MESSAGE));
+        }
+    }
+    /**
+     * Creates the array with the em:Execution nodes indexed by the index of
+     * the linked ep:ExecutionNode in the compiled execution plan
+     * @param plan the compiled execution plan
+     * @param executionsMap the em:Execution to ep:ExecutionNode mappings
+     * @return the em:Executions by ep:ExecutionNode index
+     * @throws IllegalArgumentException if an em:Execution refers an 
+     * ep:ExecutionNode that is not part of the execution plan
+     */
+    private static BlankNodeOrIRI[] initExecutions(CompiledExecutionPlan plan, Map<?,?> executionsMap){
+        BlankNodeOrIRI[] executions = new BlankNodeOrIRI[plan.size()];
+        for(Entry<?,?> entry : executionsMap.entrySet()){
+            int index = plan.indexOf((BlankNodeOrIRI)entry.getValue());
+            if(index < 0){
+                throw new IllegalArgumentException("The ep:ExecutionNode "
+                    + entry.getValue() + " of the em:Execution " + entry.getKey()
+                    + " is not part of the execution plan!");
+            }
+            executions[index] = (BlankNodeOrIRI)entry.getKey();
+        }
+        return executions;
+    }
     /**
      * Getter for the ep:ExecutionNode linked to a em:Execution
      * @return the ep:ExecutionNode instance
@@ -281,6 +418,42 @@ public class EnhancementJob {
         return execution;
     }
 
+    /**
+     * Getter for the em:Execution linked to the ep:ExecutionNode with the 
+     * parsed index in the {@link #getCompiledExecutionPlan() compiled execution plan}
+     * @param index the index of the ep:ExecutionNode
+     * @return the em:Execution instance
+     * @throws IllegalArgumentException if no em:Execution is present for the
+     * parsed index
+     */
+    private BlankNodeOrIRI getExecution(int index){
+        BlankNodeOrIRI execution = executions[index];
+        if(execution == null){
+            throw new IllegalArgumentException("Unknown em:Execution instance "+plan.getNode(index));
+        }
+        return execution;
+    }
+    /**
+     * Getter for the index of the ep:ExecutionNode linked to a em:Execution
+     * @param execution the em:Execution
+     * @return the index of the ep:ExecutionNode
+     * @throws IllegalArgumentException if the parsed em:Execution is not
+     * part of the execution metadata of this enhancement job
+     */
+    private int getExecutionIndex(BlankNodeOrIRI execution){
+        return plan.indexOf(getExecutionNode(execution));
+    }
+    /**
+     * Getter for the name of the Engine executed by an em:Execution
+     * @param execution the em:Execution
+     * @return the engine name
+     * @throws IllegalArgumentException if the parsed em:Execution is not
+     * part of the execution metadata of this enhancement job
+     */
+    public String getEngine(BlankNodeOrIRI execution){
+        return plan.getEngine(getExecutionIndex(execution));
+    }
+
     /**
      * The used execution plan for processing the {@link ContentItem}
      * 
@@ -289,6 +462,14 @@ public class EnhancementJob {
     public final ImmutableGraph getExecutionPlan() {
         return executionPlan;
     }
+    /**
+     * The compiled {@link #getExecutionPlan() execution plan}
+     * 
+     * @return the compiled execution plan
+     */
+    public final CompiledExecutionPlan getCompiledExecutionPlan() {
+        return plan;
+    }
 
     /**
      * The ContentItem enhanced by this job.
@@ -376,14 +557,17 @@ public class EnhancementJob {
             throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
         }
         writeLock.lock();
-        BlankNodeOrIRI executionNode = getExecutionNode(execution);
-        log.trace("++ w: {}: {}","setCompleted",getEngine(executionPlan, executionNode));
+        int index = getExecutionIndex(execution);
+        log.trace("++ w: {}: {}","setCompleted",plan.getEngine(index));
         try {
-            log.trace(">> w: {}: {}","setCompleted",getEngine(executionPlan, executionNode));
-            setNodeCompleted(executionNode);
-            setExecutionCompleted(executionMetadata, execution, null);
+            log.trace(">> w: {}: {}","setCompleted",plan.getEngine(index));
+            setNodeCompleted(index);
+            record.setCompleted(index, null);
+            if(isWriteExecutionMetadata()){
+                setExecutionCompleted(executionMetadata, execution, null);
+            }
         } finally {
-            log.trace("<< w: {}: {}","setCompleted",getEngine(executionPlan, executionNode));
+            log.trace("<< w: {}: {}","setCompleted",plan.getEngine(index));
             writeLock.unlock();
         }
     }
@@ -393,14 +577,14 @@ public class EnhancementJob {
      * {@link #setCompleted(BlankNodeOrIRI) completed} or 
      * {@link #setFailed(BlankNodeOrIRI, EnhancementEngine, Exception) failed}.<p>
      * This method expects to be called within an active {@link #writeLock}.
-     * @param executionNode the ep:ExecutionNode linked to the em:Execution that
-     * finished. 
-     */
-    private void setNodeCompleted(BlankNodeOrIRI executionNode) {
-        String engine = getEngine(executionPlan, executionNode);
-        boolean optional = isOptional(executionPlan, executionNode);
-        Set<BlankNodeOrIRI> dependsOn = getDependend(executionPlan, executionNode);
-        if (completed.contains(executionNode)) {
+     * @param index the index of the ep:ExecutionNode linked to the em:Execution
+     * that finished. 
+     */
+    private void setNodeCompleted(int index) {
+        BlankNodeOrIRI executionNode = plan.getNode(index);
+        String engine = plan.getEngine(index);
+        boolean optional = plan.isOptional(index);
+        if (completed.get(index)) {
             log.warn("Execution of Engine '{}' for ContentItem {} already "
                      + "marked as completed(chain: {}, node: {}, optional {})."
                      + " -> call ignored", 
@@ -408,7 +592,7 @@ public class EnhancementJob {
                                    chain, executionNode, optional});
             return;
         }
-        if (!completed.containsAll(dependsOn)) {
+        if (!plan.isSatisfied(index, completed)) {
             // TODO maybe define an own Exception for such cases
             throw new IllegalStateException("Unable to set state of ExectionNode '"
                     + executionNode+ "' (chain '"+ chain
@@ -416,17 +600,19 @@ public class EnhancementJob {
                     + "') to completed, because some of its depended "
                     + "nodes are not marked completed yet. This indicates an Bug in the "
                     + "implementation of the JobManager used to execute the ExecutionPlan. "
-                    + "(this.dependsOn=" + dependsOn + "| chain.completed " + completed
-                    + " | chain.running " + running + ")!");
+                    + "(this.dependsOn=" + plan.getNodes(plan.getDependsOn(index))
+                    + "| chain.completed " + plan.getNodes(completed)
+                    + " | chain.running " + plan.getNodes(running) + ")!");
         }
-        if (running.remove(executionNode)) {
+        if (running.get(index)) {
+            running.clear(index);
             log.trace(
                 "Execution of '{}' for ContentItem {} completed "
                 + "(chain: {}, node: {}, optional {})",
                 new Object[] {engine, contentItem.getUri().getUnicodeString(), 
                               chain, executionNode, optional});
         }
-        completed.add(executionNode);
+        completed.set(index);
         //update the set with the completed and running executables
         updateCompletedExec();
         updateRunningExec();
@@ -451,38 +637,39 @@ public class EnhancementJob {
         if(execution == null) {
             throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
         }
-        BlankNodeOrIRI executionNode = getExecutionNode(execution);
-        String engine = getEngine(executionPlan, executionNode);
-        boolean optional = isOptional(executionPlan, executionNode);
-        Set<BlankNodeOrIRI> dependsOn = getDependend(executionPlan, executionNode);
-        log.trace("++ w: {}: {}","setRunning",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+        int index = getExecutionIndex(execution);
+        BlankNodeOrIRI executionNode = plan.getNode(index);
+        String engine = plan.getEngine(index);
+        boolean optional = plan.isOptional(index);
+        log.trace("++ w: {}: {}","setRunning",engine);
         writeLock.lock();
         try {
-            log.trace(">> w: {}: {}","setRunning",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
-            if (completed.contains(executionNode)) {
+            log.trace(">> w: {}: {}","setRunning",engine);
+            if (completed.get(index)) {
                 String message = "Unable to set state of ExectionNode '" + executionNode + "'(chain '"
                                  + chain + "' | contentItem '" + contentItem.getUri()
                                  + "') to running, because"
                                  + "it is already marked as completed. This indicates "
                                  + "an Bug in the implementation of the JobManager "
                                  + "used to execute the ExecutionPlan (chain state: " + "completed "
-                                 + completed + " | running " + running + ")!";
+                                 + plan.getNodes(completed) + " | running " + plan.getNodes(running) + ")!";
                 log.error(message);
                 throw new IllegalStateException(message);
             }
-            if (!completed.containsAll(dependsOn)) {
+            if (!plan.isSatisfied(index, completed)) {
                 // TODO maybe define an own Exception for such cases
                 String message = "Unable to set state of ExectionNode '" + executionNode + "' (chain '"
                                  + chain + "' | contentItem '" + contentItem.getUri()
                                  + "') to running, because " + "some of its depended nodes are not marked "
                                  + "completed yet. This indicates an Bug in the "
                                  + "implementation of the JobManager used to execute "
-                                 + "the ExecutionPlan (this.dependsOn=" + dependsOn + "| chain.completed "
-                                 + completed + " | chain.running " + running + ")!";
+                                 + "the ExecutionPlan (this.dependsOn=" + plan.getNodes(plan.getDependsOn(index))
+                                 + "| chain.completed " + plan.getNodes(completed) 
+                                 + " | chain.running " + plan.getNodes(running) + ")!";
                 log.error(message);
                 throw new IllegalStateException(message);
             }
-            if (!running.add(executionNode)) {
+            if (running.get(index)) {
                 log.warn("Execution of Engine '{}' for ContentItem {} already "
                          + "marked as running(chain: {}, node: {}, optional {})."
                          + " -> call ignored", 
@@ -490,19 +677,23 @@ public class EnhancementJob {
                                        chain, executionNode, optional});
                 return;
             } else { //added an engine to running
+                running.set(index);
                 log.trace("Started Execution of '{}' for ContentItem {} "
                          + "(chain: {}, node: {}, optional {})",
                     new Object[] {engine, contentItem.getUri().getUnicodeString(), chain,
                                   executionNode, optional});
                 //set the status of the execution to be in progress
-                ExecutionMetadataHelper.setExecutionInProgress(executionMetadata, execution);
+                record.setInProgress(index);
+                if(isWriteExecutionMetadata()){
+                    ExecutionMetadataHelper.setExecutionInProgress(executionMetadata, execution);
+                }
                 // update the executables ... this will also recognise if finished
                 updateRunningExec();
                 //update executables
                 checkExecutable();
             }
         } finally {
-            log.trace("<< w: {}: {}","setRunning",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+            log.trace("<< w: {}: {}","setRunning",engine);
             writeLock.unlock();
         }
     }
@@ -510,9 +701,9 @@ public class EnhancementJob {
      * updates the {@link #runningExec} based on {@link #running}
      */
     private void updateRunningExec() {
-        Set<BlankNodeOrIRI> runningExec = new HashSet<BlankNodeOrIRI>(running.size());
-        for(BlankNodeOrIRI node : running){
-            runningExec.add(getExecution(node));
+        Set<BlankNodeOrIRI> runningExec = new HashSet<BlankNodeOrIRI>(running.cardinality());
+        for(int i = running.nextSetBit(0); i >= 0; i = running.nextSetBit(i+1)){
+            runningExec.add(getExecution(i));
         }
         this.runningExec = Collections.unmodifiableSet(runningExec);
     }
@@ -520,9 +711,9 @@ public class EnhancementJob {
      * updates the {@link #runningExec} based on {@link #running}
      */
     private void updateCompletedExec() {
-        Set<BlankNodeOrIRI> completedExec = new HashSet<BlankNodeOrIRI>(completed.size());
-        for(BlankNodeOrIRI node : completed){
-            completedExec.add(getExecution(node));
+        Set<BlankNodeOrIRI> completedExec = new HashSet<BlankNodeOrIRI>(completed.cardinality());
+        for(int i = completed.nextSetBit(0); i >= 0; i = completed.nextSetBit(i+1)){
+            completedExec.add(getExecution(i));
         }
         this.completedExec = Collections.unmodifiableSet(completedExec);
     }
@@ -531,28 +722,27 @@ public class EnhancementJob {
      * Assumed to be called within a write lock!
      */
     private void checkExecutable(){
-        Set<BlankNodeOrIRI> executeableNodes = 
-                ExecutionPlanHelper.getExecutable(executionPlan, completed);
+        BitSet executeableNodes = plan.getExecutable(completed);
         //a Chain finishes if no engine is running and no more nodes are executable
-        if(!ExecutionMetadata.STATUS_FAILED.equals(
-                getReference(executionMetadata, chainExecutionNode, STATUS))) { 
-            executeableNodes.removeAll(running);
+        if(record.getStatus(CHAIN_EXECUTION) != Status.FAILED) { 
+            executeableNodes.andNot(running);
+            int size = executeableNodes.cardinality();
             if(log.isDebugEnabled()){
-                Collection<String> engines = new ArrayList<String>(executeableNodes.size());
-                for(BlankNodeOrIRI node : executeableNodes){
-                    engines.add(getEngine(executionPlan, node));
+                Collection<String> engines = new ArrayList<String>(size);
+                for(int i = executeableNodes.nextSetBit(0); i >= 0; i = executeableNodes.nextSetBit(i+1)){
+                    engines.add(plan.getEngine(i));
                 }
                 log.trace("MARK {} as executeable",engines);
             }
             //we need to get the em:Executables for the ep:ExecutionNodes ...
-            if(executeableNodes.isEmpty()){
+            if(size == 0){
                 this.executable = Collections.emptySet();
-            } else if( executeableNodes.size() == 1){
-                this.executable = Collections.singleton(getExecution(executeableNodes.iterator().next()));
+            } else if(size == 1){
+                this.executable = Collections.singleton(getExecution(executeableNodes.nextSetBit(0)));
             } else {
-                Set<BlankNodeOrIRI> executable = new HashSet<BlankNodeOrIRI>(executeableNodes.size());
-                for(BlankNodeOrIRI exeutableNode : executeableNodes){
-                    executable.add(getExecution(exeutableNode));
+                Set<BlankNodeOrIRI> executable = new HashSet<BlankNodeOrIRI>(size);
+                for(int i = executeableNodes.nextSetBit(0); i >= 0; i = executeableNodes.nextSetBit(i+1)){
+                    executable.add(getExecution(i));
                 }
                 this.executable = Collections.unmodifiableSet(executable);
             }
@@ -562,7 +752,10 @@ public class EnhancementJob {
         }
         if(isFinished() && !isFailed()){
             //mark the execution process as completed
-            setExecutionCompleted(executionMetadata, chainExecutionNode, null);
+            record.setCompleted(CHAIN_EXECUTION, null);
+            if(isWriteExecutionMetadata()){
+                setExecutionCompleted(executionMetadata, chainExecutionNode, null);
+            }
         }
     }
     /**
@@ -602,13 +795,13 @@ public class EnhancementJob {
         if(execution == null) {
             throw new IllegalArgumentException("The parsed em:Execution instance MUST NOT be NULL!");
         }
-        BlankNodeOrIRI executionNode = getExecutionNode(execution);
-        final boolean optional = isOptional(executionPlan, executionNode);
-        final String engineName = getEngine(executionPlan, executionNode);
-        log.trace("++ w: {}: {}","setFailed",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+        int index = getExecutionIndex(execution);
+        final boolean optional = plan.isOptional(index);
+        final String engineName = plan.getEngine(index);
+        log.trace("++ w: {}: {}","setFailed",engineName);
         writeLock.lock();
         try {
-            log.trace(">> w: {}: {}","setFailed",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+            log.trace(">> w: {}: {}","setFailed",engineName);
             StringBuilder message = new StringBuilder();
             message.append(String.format("Unable to process ContentItem '%s' with " +
             		"Enhancement Engine '%s' because the engine ", 
@@ -623,21 +816,29 @@ public class EnhancementJob {
                 message.append("(Reason: ").append(exception.getMessage()).append(')');
             }
             message.append('!');
-            setNodeCompleted(executionNode); //update the internal state
+            setNodeCompleted(index); //update the internal state
             //set this execution to failed
-            setExecutionFaild(executionMetadata, execution, message.toString());
+            record.setFailed(index, message.toString());
+            if(isWriteExecutionMetadata()){
+                setExecutionFaild(executionMetadata, execution, message.toString());
+            }
             //if not optional and the chain is not yet failed
-            if(!optional && !isExecutionFailed(executionMetadata, chainExecutionNode)){
+            if(!optional && record.getStatus(CHAIN_EXECUTION) != Status.FAILED){
                 //set also the whole chain to faild!
                 String chainMessage = String.format(
                     "Enhancement Chain failed because of required Engine '%s' failed " +
                     "with Message: %s", engineName, message);
-                setExecutionFaild(executionMetadata, chainExecutionNode, chainMessage);
+                record.setFailed(CHAIN_EXECUTION, chainMessage);
+                if(isWriteExecutionMetadata()){
+                    setExecutionFaild(executionMetadata, chainExecutionNode, chainMessage);
+                }
                 error = exception; //this member stores the exception to allow
                 //re-throwing by the EnhancementJobManager.
+                //no further engines are executable for failed chains
+                checkExecutable();
             }
         } finally {
-            log.trace("<< w: {}: {}","setFailed",ExecutionPlanHelper.getEngine(executionPlan, executionNode));
+            log.trace("<< w: {}: {}","setFailed",engineName);
             writeLock.unlock();
         }
 
@@ -652,7 +853,7 @@ public class EnhancementJob {
         readLock.lock();
         try {
             log.trace(">> r: {}","isFailed");
-            return isExecutionFailed(executionMetadata, chainExecutionNode);
+            return record.getStatus(CHAIN_EXECUTION) == Status.FAILED;
         } finally {
             log.trace("<< r: {}","isFailed");
             readLock.unlock();
@@ -687,18 +888,75 @@ public class EnhancementJob {
     public String getErrorMessage() {
         readLock.lock();
         try {
-            return getString(executionMetadata, chainExecutionNode, ExecutionMetadata.STATUS_MESSAGE);
+            return record.getMessage(CHAIN_EXECUTION);
         } finally {
             readLock.unlock();
         }
     }
     /**
-     * Getter for the ExecutionMetadata.
+     * Getter for the ExecutionMetadata. In the {@link #isLightweight() lightweight}
+     * mode those only contain the state of the executions after a call to
+     * {@link #writeExecutionMetadata()}.
      * @return the execution metadata.
      */
     public Graph getExecutionMetadata() {
         return executionMetadata;
     }
+    /**
+     * If this job only keeps the state of executions in memory until 
+     * {@link #writeExecutionMetadata()} is called
+     * @return the lightweight state
+     */
+    public boolean isLightweight() {
+        return lightweight;
+    }
+    /**
+     * Getter for the in-memory record of the execution state. Executions are
+     * referenced by the index of their ep:ExecutionNode in the 
+     * {@link #getCompiledExecutionPlan() compiled execution plan}. Callers 
+     * need to hold the {@link #getLock() read lock}.
+     * @return the execution record
+     */
+    ExecutionRecord getExecutionRecord() {
+        return record;
+    }
+    /**
+     * If state changes need to be written to the {@link #executionMetadata}
+     * graph. Expected to be called within the write lock.
+     */
+    private boolean isWriteExecutionMetadata(){
+        return !lightweight || materialized;
+    }
+    /**
+     * Writes the em:EngineExecutions and the current state of all executions 
+     * to the {@link #getExecutionMetadata() execution metadata}. Subsequent
+     * state changes are written directly to the execution metadata. This 
+     * method does nothing if this job is not {@link #isLightweight() lightweight}
+     * or if the execution metadata where already written.
+     */
+    public void writeExecutionMetadata() {
+        writeLock.lock();
+        try {
+            if(isWriteExecutionMetadata()){
+                return; //nothing to do
+            }
+            for(int i = 0; i < executions.length; i++){
+                if(executions[i] != null){
+                    createEngineExecution(executionMetadata, chainExecutionNode, 
+                        plan.getNode(i), executions[i]);
+                    setExecutionStatus(executionMetadata, executions[i], 
+                        record.getStatus(i).getUri(), toDate(record.getStarted(i)), 
+                        toDate(record.getCompleted(i)), record.getMessage(i));
+                }
+            }
+            setExecutionStatus(executionMetadata, chainExecutionNode, 
+                record.getStatus(CHAIN_EXECUTION).getUri(), toDate(record.getStarted(CHAIN_EXECUTION)), 
+                toDate(record.getCompleted(CHAIN_EXECUTION)), record.getMessage(CHAIN_EXECUTION));
+            materialized = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
     /**
      * Marks the execution of the enhancement process as started. In other
      * words this sets the status of the 'em:ChainExecution' instance that
@@ -708,7 +966,10 @@ public class EnhancementJob {
     public void startProcessing() {
         writeLock.lock();
         try {
-            setExecutionInProgress(executionMetadata, chainExecutionNode);
+            record.setInProgress(CHAIN_EXECUTION);
+            if(isWriteExecutionMetadata()){
+                setExecutionInProgress(executionMetadata, chainExecutionNode);
+            }
         } finally {
             writeLock.unlock();
         }
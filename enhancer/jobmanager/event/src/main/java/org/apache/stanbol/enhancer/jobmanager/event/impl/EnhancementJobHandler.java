@@ -18,34 +18,28 @@ package org.apache.stanbol.enhancer.jobmanager.event.impl;
 
 import static org.apache.stanbol.enhancer.jobmanager.event.Constants.PROPERTY_EXECUTION;
 import static org.apache.stanbol.enhancer.jobmanager.event.Constants.PROPERTY_JOB_MANAGER;
-import static org.apache.stanbol.enhancer.jobmanager.event.Constants.TOPIC_JOB_MANAGER;
-import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.getEngine;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Dictionary;
-import java.util.Hashtable;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
 
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EngineException;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
 import org.apache.stanbol.enhancer.servicesapi.helper.EnhancementEngineHelper;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.ChainExecution;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.Execution;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.ExecutionMetadata;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventHandler;
@@ -55,7 +49,12 @@ import org.slf4j.LoggerFactory;
 public class EnhancementJobHandler implements EventHandler {
 
     private EnhancementEngineManager engineManager;
-    private EventAdmin eventAdmin;
+    private final ExecutionScheduler scheduler;
+    /**
+     * Coalesces executions of {@link BatchEnhancementEngine}s or 
+     * <code>null</code> if micro-batching is not enabled
+     */
+    private final ExecutionBatcher batcher;
 
     /*
      * NOTE on debug level Loggings
@@ -72,28 +71,70 @@ public class EnhancementJobHandler implements EventHandler {
     /**
      * Keys are {@link EnhancementJob}s currently asynchronously enhancing 
      * contentItems and the values are the objects used to interrupt the 
-     * requesting thread as soon as the enhancement process has finished. 
+     * requesting thread as soon as the enhancement process has finished.<p>
+     * NOTE: {@link EnhancementJob} uses identity based equals/hashCode so
+     * a concurrent map is sufficient to register/remove jobs without the need
+     * of a global lock. 
+     */
+    private final ConcurrentMap<EnhancementJob,EnhancementJobObserver> processingJobs = 
+            new ConcurrentHashMap<EnhancementJob,EnhancementJobObserver>();
+    /**
+     * Set to <code>true</code> by {@link #close()}
      */
-    private Map<EnhancementJob,EnhancementJobObserver> processingJobs;
-    private final ReadWriteLock processingLock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
     private Thread observerDaemon;
+    /**
+     * The number of executions scheduled but not yet started
+     */
+    private final LongAdder queuedExecutions = new LongAdder();
+    /**
+     * The number of finished jobs
+     */
+    private final LongAdder finishedJobs = new LongAdder();
+    /**
+     * The accumulated time (in nanoseconds) threads of this handler have waited
+     * for acquiring the write lock of {@link EnhancementJob}s
+     */
+    private final LongAdder lockWaitTime = new LongAdder();
     
     public EnhancementJobHandler(EventAdmin eventAdmin, 
                                  EnhancementEngineManager engineManager) {
-        if(eventAdmin == null){
-            throw new IllegalArgumentException("The parsed EventAdmin service MUST NOT be NULL!");
+        this(new EventAdminExecutionScheduler(eventAdmin), engineManager);
+    }
+    /**
+     * Creates an EnhancementJobHandler that uses the parsed scheduler to
+     * execute the {@link EnhancementEngine}s of registered 
+     * {@link EnhancementJob}s.
+     * @param scheduler the scheduler
+     * @param engineManager the engine manager
+     */
+    public EnhancementJobHandler(ExecutionScheduler scheduler, 
+                                 EnhancementEngineManager engineManager) {
+        this(scheduler, engineManager, 0);
+    }
+    /**
+     * Creates an EnhancementJobHandler that uses the parsed scheduler to
+     * execute the {@link EnhancementEngine}s of registered 
+     * {@link EnhancementJob}s. Executions of {@link BatchEnhancementEngine}s
+     * are coalesced into micro-batches.
+     * @param scheduler the scheduler
+     * @param engineManager the engine manager
+     * @param maxBatchWait the maximum time (in milliseconds) executions of
+     * {@link BatchEnhancementEngine}s wait for other executions of the same
+     * engine. If <code>&lt;= 0</code> executions are not batched.
+     */
+    public EnhancementJobHandler(ExecutionScheduler scheduler, 
+                                 EnhancementEngineManager engineManager,
+                                 long maxBatchWait) {
+        if(scheduler == null){
+            throw new IllegalArgumentException("The parsed ExecutionScheduler MUST NOT be NULL!");
         }
         if(engineManager == null){
             throw new IllegalArgumentException("The parsed EnhancementEngineManager MUST NOT be NULL!");
         }
-        this.eventAdmin = eventAdmin;
+        this.scheduler = scheduler;
         this.engineManager = engineManager;
-        processingLock.writeLock().lock();
-        try {
-            processingJobs = new LinkedHashMap<EnhancementJob,EnhancementJobObserver>();
-        } finally{
-            processingLock.writeLock().unlock();
-        }
+        this.batcher = maxBatchWait > 0 ? new ExecutionBatcher(this, maxBatchWait) : null;
         observerDaemon = new Thread(new EnhancementJobObserverDaemon());
         observerDaemon.setName("Event Job Manager Observer Daemon");
         observerDaemon.setDaemon(true);
@@ -106,17 +147,20 @@ public class EnhancementJobHandler implements EventHandler {
      */
     public void close(){
         log.info("deactivate {}",getClass().getName());
-        processingLock.writeLock().lock();
-        try {
-            for(Object o : processingJobs.values()){
-                synchronized (o) {
-                    o.notifyAll();
-                }
+        closed = true;
+        for(EnhancementJob job : processingJobs.keySet()){
+            EnhancementJobObserver observer = processingJobs.remove(job);
+            if(observer != null){
+                //releasing the observer notifies waiting and registered
+                //listeners. As the job is not finished they will report
+                //the deactivation of the job manager
+                observer.release();
             }
-            processingJobs = null;
-        } finally {
-            processingLock.writeLock().unlock();
         }
+        if(batcher != null){
+            batcher.close();
+        }
+        scheduler.close();
         observerDaemon = null;
     }
     
@@ -140,47 +184,52 @@ public class EnhancementJobHandler implements EventHandler {
      * {@link EnhancementJob#isFinished()} or this instance is deactivated
      */
     public EnhancementJobObserver register(EnhancementJob enhancementJob){
-        final boolean init;
-        EnhancementJobObserver observer;
-        processingLock.writeLock().lock();
+        return register(enhancementJob, null);
+    }
+    /**
+     * Registers an EnhancementJob and will start the enhancement process.
+     * In addition to {@link #register(EnhancementJob)} the parsed listener
+     * is notified as soon as the job has finished or this instance is
+     * deactivated. This allows callers to process the results without
+     * waiting for the returned {@link EnhancementJobObserver}.
+     * @param enhancementJob the enhancement job to register
+     * @param listener the listener or <code>null</code> if none
+     * @return the observer for the registered job or <code>null</code> if
+     * this instance is already closed.
+     */
+    public EnhancementJobObserver register(EnhancementJob enhancementJob, EnhancementJobListener listener){
+        if(enhancementJob == null || closed){
+            return null;
+        }
+        EnhancementJobObserver observer = new EnhancementJobObserver(enhancementJob, listener);
+        EnhancementJobObserver current = processingJobs.putIfAbsent(enhancementJob, observer);
+        if(current != null){
+            log.warn("Request to register an EnhancementJob for an ContentItem {} that is" +
+                    "already registered "+enhancementJob.getContentItem().getUri());
+            return current;
+        }
+        if(closed){ //closed concurrently
+            processingJobs.remove(enhancementJob);
+            return null;
+        }
+        if(log.isDebugEnabled()){
+            logJobInfo(log, enhancementJob, "Add EnhancementJob:",log.isTraceEnabled());
+        }
+        enhancementJob.startProcessing();
+        log.trace("++ w: {}","init execution");
+        lock(enhancementJob.getLock().writeLock());
         try {
-            if(enhancementJob == null || processingJobs == null){
-                return null;
-            }
-            observer = processingJobs.get(enhancementJob);
-            if(observer == null){
-                observer = new EnhancementJobObserver(enhancementJob);
-                if(log.isDebugEnabled()){
-                    logJobInfo(log, enhancementJob, "Add EnhancementJob:",log.isTraceEnabled());
-                }
-                processingJobs.put(enhancementJob, observer);
-                init = true;
-            } else {
-                log.warn("Request to register an EnhancementJob for an ContentItem {} that is" +
-                		"already registered "+enhancementJob.getContentItem().getUri());
-                init = false;
+            log.trace(">> w: {}","init execution");
+            if(!executeNextNodes(enhancementJob)){
+                String message = "Unable to start Execution of "+enhancementJob.getContentItem().getUri();
+                log.warn(message);
+                logJobInfo(log, enhancementJob, null, true);
+                log.warn("finishing job ...");
+                finish(enhancementJob);
             }
         } finally {
-            processingLock.writeLock().unlock();
-        }
-        if(init){
-            observer.acquire();
-            enhancementJob.startProcessing();
-            log.trace("++ w: {}","init execution");
-            enhancementJob.getLock().writeLock().lock();
-            try {
-                log.trace(">> w: {}","init execution");
-                if(!executeNextNodes(enhancementJob)){
-                    String message = "Unable to start Execution of "+enhancementJob.getContentItem().getUri();
-                    log.warn(message);
-                    logJobInfo(log, enhancementJob, null, true);
-                    log.warn("finishing job ...");
-                    finish(enhancementJob);
-                }
-            } finally {
-                log.trace("<< w: {}","init execution");
-                enhancementJob.getLock().writeLock().unlock();
-            }
+            log.trace("<< w: {}","init execution");
+            enhancementJob.getLock().writeLock().unlock();
         }
         return observer;
     }
@@ -192,9 +241,23 @@ public class EnhancementJobHandler implements EventHandler {
         if(job == null || execution == null){
             log.warn("Unable to process EnhancementEvent where EnhancementJob " +
             		"{} or Execution node {} is null -> ignore",job,execution);
+            return;
         }
+        execute(job, execution);
+    }
+    /**
+     * Executes the parsed execution of the parsed job and triggers the
+     * next executions (or finishes the job). Called by the 
+     * {@link ExecutionScheduler} for every scheduled execution.
+     * @param job the job
+     * @param execution the em:Execution to execute
+     */
+    public void execute(EnhancementJob job, BlankNodeOrIRI execution) {
+        queuedExecutions.decrement();
         try {
-            processEvent(job, execution);
+            if(!processEvent(job, execution)){
+                return; //added to a batch
+            }
         } catch (Throwable t) {
             String message = String.format("Unexpected Exception while processing " +
             		"ContentItem %s with EnhancementJobManager: %s",
@@ -204,8 +267,73 @@ public class EnhancementJobHandler implements EventHandler {
            log.error(message,t);
         }
         //(2) trigger the next actions
+        executeNext(job);
+    }
+    /**
+     * Executes a batch of executions collected by the {@link ExecutionBatcher}
+     * and triggers the next executions of the jobs (or finishes them).
+     * @param engine the engine
+     * @param jobs the jobs
+     * @param executions the em:Executions of the engine. The execution at
+     * index <code>i</code> belongs to the job at the same index.
+     */
+    void execute(BatchEnhancementEngine engine, List<EnhancementJob> jobs, List<BlankNodeOrIRI> executions) {
+        List<ContentItem> contentItems = new ArrayList<ContentItem>(jobs.size());
+        for(EnhancementJob job : jobs){
+            contentItems.add(job.getContentItem());
+        }
+        List<EngineException> errors = null;
+        Exception batchError = null;
+        log.trace("++ n: start batch execution of Engine {} for {} ContentItems",
+            engine.getName(), contentItems.size());
+        try {
+            errors = engine.computeEnhancements(contentItems);
+            if(errors != null && errors.size() != contentItems.size()){
+                batchError = new IllegalStateException("BatchEnhancementEngine "
+                    + engine.getName() + " returned " + errors.size()
+                    + " results for " + contentItems.size() + " ContentItems!");
+            }
+        } catch (EngineException e) {
+            batchError = e;
+        } catch (RuntimeException e) {
+            batchError = e;
+        }
+        log.trace("++ n: finished batch execution of Engine {} for {} ContentItems",
+            engine.getName(), contentItems.size());
+        if(batchError != null){
+            log.warn(batchError.getMessage(), batchError);
+        }
+        for(int i = 0; i < jobs.size(); i++){
+            EnhancementJob job = jobs.get(i);
+            BlankNodeOrIRI execution = executions.get(i);
+            try {
+                Exception error = batchError != null ? batchError :
+                    errors == null ? null : errors.get(i);
+                if(error == null){
+                    job.setCompleted(execution);
+                } else {
+                    if(batchError == null){
+                        log.warn(error.getMessage(), error);
+                    }
+                    job.setFailed(execution, engine, error);
+                }
+            } catch (Throwable t) {
+                String message = String.format("Unexpected Exception while processing " +
+                        "ContentItem %s with EnhancementJobManager: %s",
+                        job.getContentItem().getUri(),EventJobManagerImpl.class);
+                job.setFailed(execution, null, new IllegalStateException(message,t));
+                log.error(message,t);
+            }
+            executeNext(job);
+        }
+    }
+    /**
+     * Triggers the next executions of the parsed job or finishes the job
+     * @param job the job
+     */
+    private void executeNext(EnhancementJob job) {
         log.trace("++ w: {}","check for next Executions");
-        job.getLock().writeLock().lock();
+        lock(job.getLock().writeLock());
         log.trace(">> w: {}","check for next Executions");
         try {
             if(job.isFinished()){
@@ -222,7 +350,7 @@ public class EnhancementJobHandler implements EventHandler {
                 if(log.isInfoEnabled()){
                     Collection<String> running = new ArrayList<String>(3);
                     for(BlankNodeOrIRI runningNode : job.getRunning()){
-                        running.add(getEngine(job.getExecutionPlan(), job.getExecutionNode(runningNode)));
+                        running.add(job.getEngine(runningNode));
                     }
                     log.info("Job {} failed, but {} still running!",
                         job.getContentItem().getUri(),running);
@@ -236,10 +364,11 @@ public class EnhancementJobHandler implements EventHandler {
     /**
      * @param job
      * @param execution
+     * @return <code>false</code> if the execution was added to a batch
+     * and is not yet processed
      */
-    private void processEvent(EnhancementJob job, BlankNodeOrIRI execution) {
-        String engineName = getEngine(job.getExecutionPlan(), 
-            job.getExecutionNode(execution));
+    private boolean processEvent(EnhancementJob job, BlankNodeOrIRI execution) {
+        String engineName = job.getEngine(execution);
         //(1) execute the parsed ExecutionNode
         EnhancementEngine engine = engineManager.getEngine(engineName);
         if(engine != null){
@@ -258,7 +387,7 @@ public class EnhancementJobHandler implements EventHandler {
             if(engineState == EnhancementEngine.ENHANCE_SYNCHRONOUS){
                 //ensure that this engine exclusively access the content item
                 log.trace("++ w: {}: {}","start sync execution", engine.getName());
-                job.getLock().writeLock().lock();
+                lock(job.getLock().writeLock());
                 log.trace(">> w: {}: {}","start sync execution", engine.getName());
                 try {
                     engine.computeEnhancements(job.getContentItem());
@@ -273,6 +402,12 @@ public class EnhancementJobHandler implements EventHandler {
                     log.trace("<< w: {}: {}","finished sync execution", engine.getName());
                     job.getLock().writeLock().unlock();
                 }
+            } else if(engineState == EnhancementEngine.ENHANCE_ASYNC && batcher != null
+                    && engine instanceof BatchEnhancementEngine 
+                    && ((BatchEnhancementEngine)engine).getMaxBatchSize() > 1
+                    && batcher.add((BatchEnhancementEngine)engine, job, execution)){
+                log.trace("++ n: added execution of Engine {} to batch",engine.getName());
+                return false;
             } else if(engineState == EnhancementEngine.ENHANCE_ASYNC){
                 try {
                     log.trace("++ n: start async execution of Engine {}",engine.getName());
@@ -297,6 +432,7 @@ public class EnhancementJobHandler implements EventHandler {
         } else { //engine with that name is not available
             job.setFailed(execution, null, null);
         }
+        return true;
     }
     /**
      * Removes a finished job from {@link #processingJobs} and notifies
@@ -304,14 +440,9 @@ public class EnhancementJobHandler implements EventHandler {
      * @param job the finished job
      */
     private void finish(EnhancementJob job){
-        processingLock.writeLock().lock();
-        EnhancementJobObserver observer;
-        try {
-            observer = processingJobs.remove(job);
-        } finally {
-            processingLock.writeLock().unlock();
-        }
+        EnhancementJobObserver observer = processingJobs.remove(job);
         if(observer != null) {
+            finishedJobs.increment();
             try {
                 if(log.isDebugEnabled()){
                     logJobInfo(log, job, "Finished EnhancementJob:",log.isTraceEnabled());
@@ -342,21 +473,59 @@ public class EnhancementJobHandler implements EventHandler {
         for(BlankNodeOrIRI executable : job.getExecutable()){
             if(log.isTraceEnabled()){
                 log.trace("PREPARE execution of Engine {}",
-                    getEngine(job.getExecutionPlan(), job.getExecutionNode(executable)));
+                    job.getEngine(executable));
             }
-            Dictionary<String,Object> properties = new Hashtable<String,Object>();
-            properties.put(PROPERTY_JOB_MANAGER, job);
-            properties.put(PROPERTY_EXECUTION, executable);
             job.setRunning(executable);
             if(log.isTraceEnabled()){
                 log.trace("SHEDULE execution of Engine {}",
-                    getEngine(job.getExecutionPlan(), job.getExecutionNode(executable)));
+                    job.getEngine(executable));
             }
-            eventAdmin.postEvent(new Event(TOPIC_JOB_MANAGER,properties));
+            queuedExecutions.increment();
+            scheduler.schedule(this, job, executable);
             startedExecution = true;
         }
         return startedExecution;
     }
+    /**
+     * Acquires the parsed lock and keeps track of the time needed to do so
+     * @param lock the lock
+     */
+    private void lock(Lock lock){
+        long start = System.nanoTime();
+        lock.lock();
+        lockWaitTime.add(System.nanoTime() - start);
+    }
+    /**
+     * Getter for the number of currently registered {@link EnhancementJob}s
+     * @return the number of active jobs
+     */
+    public int getActiveJobs(){
+        return processingJobs.size();
+    }
+    /**
+     * Getter for the number of executions that are scheduled but not yet
+     * started by the {@link ExecutionScheduler}
+     * @return the number of queued executions
+     */
+    public long getQueuedExecutions(){
+        return queuedExecutions.sum();
+    }
+    /**
+     * Getter for the number of {@link EnhancementJob}s finished by this
+     * handler
+     * @return the number of finished jobs
+     */
+    public long getFinishedJobs(){
+        return finishedJobs.sum();
+    }
+    /**
+     * Getter for the accumulated time threads of this handler had to wait
+     * for acquiring write locks of {@link EnhancementJob}s
+     * @return the accumulated lock wait time in milliseconds
+     */
+    public long getLockWaitTime(){
+        return TimeUnit.NANOSECONDS.toMillis(lockWaitTime.sum());
+    }
     /**
      * Helper method that logs the execution time for the Chain and all the
      * Enhancement Engines on DEBUG level
@@ -366,35 +535,44 @@ public class EnhancementJobHandler implements EventHandler {
      */
     protected static void logExecutionTimes(Logger logger, EnhancementJob job){
     	if(logger.isInfoEnabled()){
+    	    job.getLock().readLock().lock();
     		try {
-		    	ExecutionMetadata em = ExecutionMetadata.parseFrom(
-		    			job.getExecutionMetadata(),job.getContentItem().getUri());
-		    	ChainExecution ce = em.getChainExecution();
-		    	long cd = ce.getDuration();
+    		    //use the in-memory record as execution metadata might not be
+    		    //written (lightweight mode)
+    		    final ExecutionRecord record = job.getExecutionRecord();
+    		    CompiledExecutionPlan plan = job.getCompiledExecutionPlan();
+		    	long cd = record.getDuration(ExecutionRecord.CHAIN_EXECUTION);
                 StringBuilder message = new StringBuilder("> processed ContentItem ")
                 .append(job.getContentItem().getUri()).append(" with Chain '")
-                .append(ce.getChainName()).append("' in ").append(ce.getDuration()).append("ms | ");
-		    	List<Execution> ees = new ArrayList<Execution>(em.getEngineExecutions().values());
+                .append(job.getChainName()).append("' in ").append(cd).append("ms | ");
+		    	List<Integer> ees = new ArrayList<Integer>(record.size());
+		    	for(int i = 0; i < record.size(); i++){
+		    	    if(record.getStarted(i) > 0){
+		    	        ees.add(i);
+		    	    }
+		    	}
 		    	//sort by start date (execution order)
-		    	Collections.sort(ees, new Comparator<Execution>() {
+		    	Collections.sort(ees, new Comparator<Integer>() {
 		    		@Override
-		    		public int compare(Execution e1, Execution e2) {
-		    			return e1.getStarted().compareTo(e2.getStarted());
+		    		public int compare(Integer e1, Integer e2) {
+		    		    long s1 = record.getStarted(e1);
+		    		    long s2 = record.getStarted(e2);
+		    			return s1 < s2 ? -1 : s1 == s2 ? 0 : 1;
 		    		}
 				});
 		    	message.append("chain:[");
 		    	long eds = 0;
 		    	boolean first = true;
-		    	for(Execution ee : ees){
+		    	for(Integer ee : ees){
                     if(first){
                         first = false;
                     } else {
                         message.append(", ");
                     }
-		    		long ed = ee.getDuration();
+		    		long ed = record.getDuration(ee);
 		    		eds = eds + ed;
 		    		int edp = Math.round(ed*100/(float)cd);
-		    		message.append(ee.getExecutionNode().getEngineName())
+		    		message.append(plan.getEngine(ee))
 		    		    .append(": ").append(ed).append("ms (").append(edp).append("%)");
 		    	}
 		    	float cf = eds/cd;
@@ -406,6 +584,8 @@ public class EnhancementJobHandler implements EventHandler {
     					job.getChainName() + " and ContentItem "+
     					job.getContentItem().getUri() +" to Logger " +
     					logger.getName(),e);
+    		} finally {
+    		    job.getLock().readLock().unlock();
     		}
     	}
     }
@@ -425,16 +605,13 @@ public class EnhancementJobHandler implements EventHandler {
         if(logExecutions){
             log.info("  executions:");
             for(BlankNodeOrIRI completedExec : job.getCompleted()){
-                log.info("    - {} completed",getEngine(job.getExecutionMetadata(), 
-                    job.getExecutionNode(completedExec)));
+                log.info("    - {} completed",job.getEngine(completedExec));
             }
             for(BlankNodeOrIRI runningExec : job.getRunning()){
-                log.info("    - {} running",getEngine(job.getExecutionMetadata(), 
-                    job.getExecutionNode(runningExec)));
+                log.info("    - {} running",job.getEngine(runningExec));
             }
             for(BlankNodeOrIRI executeable : job.getExecutable()){
-                log.info("    - {} executeable",getEngine(job.getExecutionMetadata(), 
-                    job.getExecutionNode(executeable)));
+                log.info("    - {} executeable",job.getEngine(executeable));
             }
         }
         if(job.getErrorMessage() != null){
@@ -444,31 +621,49 @@ public class EnhancementJobHandler implements EventHandler {
             log.info("Reported Exception:",job.getError());
         }
     }
+    /**
+     * Listener that gets notified as soon as an {@link EnhancementJob}
+     * registered with the {@link EnhancementJobHandler} has finished.
+     * Implementations MUST NOT block as they are called by the thread that
+     * completed the last execution of the job.
+     */
+    public interface EnhancementJobListener {
+        /**
+         * Called if the job has finished or the {@link EnhancementJobHandler}
+         * was closed before the job could finish.
+         * @param job the job
+         */
+        void finished(EnhancementJob job);
+    }
+    
     public final class EnhancementJobObserver{
         
         private static final int MIN_WAIT_TIME = 500;
         private final EnhancementJob enhancementJob;
         private final Semaphore semaphore;
+        private final EnhancementJobListener listener;
         
-        private EnhancementJobObserver(EnhancementJob job){
+        private EnhancementJobObserver(EnhancementJob job, EnhancementJobListener listener){
             if(job == null){
                 throw new IllegalArgumentException("The parsed EnhancementJob MUST NOT be NULL!");
             }
             this.enhancementJob = job;
-            this.semaphore = new Semaphore(1);
+            //the only permit is released as soon as the job has finished
+            this.semaphore = new Semaphore(0);
+            this.listener = listener;
         }
 
-        protected void acquire() {
-            try {
-                semaphore.acquire();
-            } catch (InterruptedException e) {
-                log.warn("Interrupted while acquireing Semaphore for EnhancementJob "
-                        + enhancementJob + "!",e);
-            }
-        }
-        
         protected void release() {
             semaphore.release();
+            if(listener != null){
+                try {
+                    listener.finished(enhancementJob);
+                } catch (RuntimeException e) {
+                    log.warn("Exception while notifying EnhancementJobListener "
+                        + listener + " about the finished EnhancementJob for "
+                        + "ContentItem " + enhancementJob.getContentItem().getUri(), e);
+                }
+            }
         }
 
         public boolean hasCompleted() {
@@ -522,25 +717,16 @@ public class EnhancementJobHandler implements EventHandler {
         @Override
         public void run() {
             observerLog.debug(" ... init EnhancementJobObserver");
-            while(processingJobs != null){
+            while(!closed){
                 try {
                     Thread.sleep(10000);
                 } catch (InterruptedException e) {
                 }
-                Collection<EnhancementJob> jobs;
-                Lock readLock = processingLock.readLock();
-                readLock.lock();
-                try {
-                    if(processingJobs != null){
-                        jobs = new ArrayList<EnhancementJob>(processingJobs.keySet());
-                    } else {
-                        jobs = Collections.emptyList();
-                    }
-                } finally {
-                    readLock.unlock();
-                }
+                Collection<EnhancementJob> jobs = new ArrayList<EnhancementJob>(processingJobs.keySet());
                 if(!jobs.isEmpty()){
-                    observerLog.debug(" -- {} active Enhancement Jobs",jobs.size());
+                    observerLog.debug(" -- {} active Enhancement Jobs ({} queued executions | "
+                        + "{} finished jobs | {}ms lock wait time)", new Object[]{
+                            jobs.size(), getQueuedExecutions(), getFinishedJobs(), getLockWaitTime()});
                     if(observerLog.isDebugEnabled()){
                         for(EnhancementJob job : jobs){
                             Lock jobLock = job.getLock().readLock();
@@ -0,0 +1,69 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.jobmanager.event.Constants.PROPERTY_EXECUTION;
+import static org.apache.stanbol.enhancer.jobmanager.event.Constants.PROPERTY_JOB_MANAGER;
+import static org.apache.stanbol.enhancer.jobmanager.event.Constants.TOPIC_JOB_MANAGER;
+
+import java.util.Dictionary;
+import java.util.Hashtable;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * {@link ExecutionScheduler} that posts an {@link Event} with the topic
+ * {@link org.apache.stanbol.enhancer.jobmanager.event.Constants#TOPIC_JOB_MANAGER}
+ * for every execution. Events are processed by the {@link EnhancementJobHandler}
+ * registered as {@link org.osgi.service.event.EventHandler} for this topic. 
+ * The parallelism is therefore defined by the thread pool of the 
+ * {@link EventAdmin} implementation.<p>
+ * This is the default {@link ExecutionScheduler} of the 
+ * {@link EventJobManagerImpl}.
+ */
+public class EventAdminExecutionScheduler implements ExecutionScheduler {
+
+    private final EventAdmin eventAdmin;
+    
+    public EventAdminExecutionScheduler(EventAdmin eventAdmin) {
+        if(eventAdmin == null){
+            throw new IllegalArgumentException("The parsed EventAdmin service MUST NOT be NULL!");
+        }
+        this.eventAdmin = eventAdmin;
+    }
+    
+    @Override
+    public void schedule(EnhancementJobHandler handler, EnhancementJob job, BlankNodeOrIRI execution) {
+        //NOTE: the handler is registered as EventHandler for the TOPIC_JOB_MANAGER
+        Dictionary<String,Object> properties = new Hashtable<String,Object>();
+        properties.put(PROPERTY_JOB_MANAGER, job);
+        properties.put(PROPERTY_EXECUTION, execution);
+        eventAdmin.postEvent(new Event(TOPIC_JOB_MANAGER,properties));
+    }
+
+    @Override
+    public void close() {
+        //nothing to do
+    }
+    
+    @Override
+    public String toString() {
+        return "EventAdminExecutionScheduler [eventAdmin: "+eventAdmin.getClass().getName()+"]";
+    }
+}
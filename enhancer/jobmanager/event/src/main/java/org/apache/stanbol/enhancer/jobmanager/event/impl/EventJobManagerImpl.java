@@ -16,15 +16,30 @@
 */
 package org.apache.stanbol.enhancer.jobmanager.event.impl;
 
+import static org.apache.stanbol.enhancer.jobmanager.event.Constants.TOPIC_INVALIDATE_RESULT_CACHE;
 import static org.apache.stanbol.enhancer.jobmanager.event.Constants.TOPIC_JOB_MANAGER;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.UnsupportedEncodingException;
+import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.clerezza.commons.rdf.ImmutableGraph;
 import org.apache.clerezza.commons.rdf.Triple;
@@ -35,10 +50,15 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Properties;
 import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.PropertyOption;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.apache.stanbol.enhancer.jobmanager.event.EventJobManagerMXBean;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.EnhancementJobHandler.EnhancementJobListener;
 import org.apache.stanbol.enhancer.jobmanager.event.impl.EnhancementJobHandler.EnhancementJobObserver;
+import org.apache.stanbol.enhancer.servicesapi.AsyncEnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.Chain;
 import org.apache.stanbol.enhancer.servicesapi.ChainException;
 import org.apache.stanbol.enhancer.servicesapi.ChainManager;
@@ -46,26 +66,51 @@ import org.apache.stanbol.enhancer.servicesapi.ContentItem;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
 import org.apache.stanbol.enhancer.servicesapi.EnhancementJobManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.DaemonThreadFactory;
 import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.Execution;
-import org.apache.stanbol.enhancer.servicesapi.helper.execution.ExecutionMetadata;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.event.EventAdmin;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Component(immediate=true,metatype=true)
-@Service
+@Service(value={EnhancementJobManager.class, AsyncEnhancementJobManager.class, EventJobManagerMXBean.class})
 @Properties(value={
+    @Property(name=EventJobManagerMXBean.JMX_OBJECT_NAME,value=EventJobManagerMXBean.OBJECT_NAME,propertyPrivate=true),
     //register with a ranking lower than 0 to allow easy overriding by specific
     @Property(name=Constants.SERVICE_RANKING,intValue=EventJobManagerImpl.DEFAULT_SERVICE_RANKING),
-    @Property(name=EventJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME,intValue=EventJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME)
+    @Property(name=EventJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME,intValue=EventJobManagerImpl.DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME),
+    @Property(name=EventJobManagerImpl.EXECUTION_SCHEDULER, options={
+        @PropertyOption(name=EventJobManagerImpl.SCHEDULER_EVENT_ADMIN,
+            value='%'+EventJobManagerImpl.EXECUTION_SCHEDULER+".option.eventadmin"),
+        @PropertyOption(name=EventJobManagerImpl.SCHEDULER_FORK_JOIN,
+            value='%'+EventJobManagerImpl.EXECUTION_SCHEDULER+".option.forkjoin")
+        },value=EventJobManagerImpl.SCHEDULER_EVENT_ADMIN),
+    @Property(name=EventJobManagerImpl.SCHEDULER_PARALLELISM,intValue=0),
+    @Property(name=EventJobManagerImpl.MAX_CHAIN_CONCURRENCY,intValue=0),
+    @Property(name=EventJobManagerImpl.EXECUTION_METADATA_MODE, options={
+        @PropertyOption(name=EventJobManagerImpl.EXECUTION_METADATA_FULL,
+            value='%'+EventJobManagerImpl.EXECUTION_METADATA_MODE+".option.full"),
+        @PropertyOption(name=EventJobManagerImpl.EXECUTION_METADATA_LIGHTWEIGHT,
+            value='%'+EventJobManagerImpl.EXECUTION_METADATA_MODE+".option.lightweight")
+        },value=EventJobManagerImpl.EXECUTION_METADATA_FULL),
+    @Property(name=EventJobManagerImpl.MAX_BATCH_WAIT_TIME,intValue=0),
+    @Property(name=EventJobManagerImpl.RESULT_CACHE_SIZE,intValue=0),
+    @Property(name=EventJobManagerImpl.RESULT_CACHE_TTL,intValue=EventJobManagerImpl.DEFAULT_RESULT_CACHE_TTL),
+    @Property(name=EventJobManagerImpl.RESULT_CACHE_PERSISTENT,boolValue=false),
+    @Property(name=EventJobManagerImpl.FREEZE_METADATA,boolValue=false)
 })
-public class EventJobManagerImpl implements EnhancementJobManager {
+public class EventJobManagerImpl implements AsyncEnhancementJobManager, EventJobManagerMXBean {
 
     private final Logger log = LoggerFactory.getLogger(EventJobManagerImpl.class);
     /**
@@ -82,6 +127,94 @@ public class EventJobManagerImpl implements EnhancementJobManager {
      * default max wait time is 60sec (similar to the http timeout)
      */
     public static final int DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME = 60 * 1000;
+    /**
+     * Allows to configure the {@link ExecutionScheduler} used to execute
+     * enhancement engines. Supported values are {@link #SCHEDULER_EVENT_ADMIN}
+     * (default) and {@link #SCHEDULER_FORK_JOIN}
+     */
+    public static final String EXECUTION_SCHEDULER = "stanbol.enhancer.jobmanager.event.scheduler";
+    /**
+     * Executions are dispatched via the OSGi {@link EventAdmin} 
+     * (see {@link EventAdminExecutionScheduler})
+     */
+    public static final String SCHEDULER_EVENT_ADMIN = "eventadmin";
+    /**
+     * Executions are processed by a work-stealing thread pool
+     * (see {@link ForkJoinExecutionScheduler})
+     */
+    public static final String SCHEDULER_FORK_JOIN = "forkjoin";
+    /**
+     * The parallelism of the {@link ForkJoinExecutionScheduler}. Values 
+     * <code>&lt;= 0</code> will use 
+     * {@link ForkJoinExecutionScheduler#DEFAULT_PARALLELISM_PER_PROCESSOR} 
+     * times the number of available processors. Ignored by other schedulers.
+     */
+    public static final String SCHEDULER_PARALLELISM = "stanbol.enhancer.jobmanager.event.parallelism";
+    /**
+     * The maximum number of concurrent executions per enhancement chain 
+     * (<code>&lt;= 0</code> for no limit). Ignored by the 
+     * {@link EventAdminExecutionScheduler}
+     */
+    public static final String MAX_CHAIN_CONCURRENCY = "stanbol.enhancer.jobmanager.event.maxChainConcurrency";
+    /**
+     * The maximum time (in milliseconds) executions of 
+     * {@link BatchEnhancementEngine}s wait for executions of the same engine 
+     * for other enhancement jobs to be processed as a micro-batch. Values 
+     * <code>&lt;= 0</code> (default) disable micro-batching.
+     */
+    public static final String MAX_BATCH_WAIT_TIME = "stanbol.enhancer.jobmanager.event.maxBatchWaitTime";
+    /**
+     * Allows to configure how execution metadata are recorded. Supported
+     * values are {@link #EXECUTION_METADATA_FULL} (default) and
+     * {@link #EXECUTION_METADATA_LIGHTWEIGHT}
+     */
+    public static final String EXECUTION_METADATA_MODE = "stanbol.enhancer.jobmanager.event.executionMetadata";
+    /**
+     * Every state change of an execution is written to the execution metadata
+     * content part of the processed content item
+     */
+    public static final String EXECUTION_METADATA_FULL = "full";
+    /**
+     * The state of executions is kept in memory and only written to the
+     * execution metadata content part if requested by the client or if
+     * the enhancement job fails (see {@link EnhancementJob#writeExecutionMetadata()})
+     */
+    public static final String EXECUTION_METADATA_LIGHTWEIGHT = "lightweight";
+    /**
+     * The maximum number of enhancement results cached by the
+     * {@link ResultCache}. Values <code>&lt;= 0</code> (default) deactivate
+     * result caching.
+     */
+    public static final String RESULT_CACHE_SIZE = "stanbol.enhancer.jobmanager.event.resultCache.size";
+    /**
+     * The time (in seconds) cached enhancement results are reused. Values
+     * <code>&lt;= 0</code> for results that do not expire. Cached results
+     * can also be invalidated by sending an event with the topic
+     * {@link org.apache.stanbol.enhancer.jobmanager.event.Constants#TOPIC_INVALIDATE_RESULT_CACHE}.
+     */
+    public static final String RESULT_CACHE_TTL = "stanbol.enhancer.jobmanager.event.resultCache.ttl";
+    /**
+     * The default {@link #RESULT_CACHE_TTL} (one day)
+     */
+    public static final int DEFAULT_RESULT_CACHE_TTL = 24 * 60 * 60;
+    /**
+     * If cached enhancement results are also written to the data directory
+     * of this bundle so that they survive restarts (default: <code>false</code>)
+     */
+    public static final String RESULT_CACHE_PERSISTENT = "stanbol.enhancer.jobmanager.event.resultCache.persistent";
+    /**
+     * If the metadata of successfully enhanced content items are frozen
+     * into a compact read-only graph (default: <code>false</code>). Clients
+     * can still read the metadata without acquiring the lock of the content
+     * item, but MUST NOT modify them after the enhancement has completed
+     * (see {@link ContentItemHelper#freezeMetadata(ContentItem)}).
+     */
+    public static final String FREEZE_METADATA = "stanbol.enhancer.jobmanager.event.freezeMetadata";
+    /**
+     * The name of the directory within the data directory of this bundle
+     * used to persist cached results
+     */
+    private static final String RESULT_CACHE_DIRECTORY = "resultcache";
     
     @Reference
     protected ChainManager chainManager;
@@ -101,6 +234,38 @@ public class EventJobManagerImpl implements EnhancementJobManager {
     private ServiceRegistration jobHandlerRegistration;
     private EnhancementJobHandler jobHandler;
     private int maxEnhancementJobWaitTime = DEFAULT_MAX_ENHANCEMENT_JOB_WAIT_TIME;
+    /**
+     * If execution metadata are only written on request
+     * @see #EXECUTION_METADATA_MODE
+     */
+    private boolean lightweightExecutionMetadata = false;
+    /**
+     * If the metadata of enhanced content items are frozen
+     * @see #FREEZE_METADATA
+     */
+    private boolean freezeMetadata = false;
+    /**
+     * Caches enhancement results (<code>null</code> if not enabled)
+     * @see #RESULT_CACHE_SIZE
+     */
+    private ResultCache resultCache;
+    /**
+     * The {@link EventHandler} used to invalidate the {@link #resultCache}
+     * (<code>null</code> if result caching is not enabled)
+     */
+    @SuppressWarnings("rawtypes")
+    private ServiceRegistration resultCacheInvalidationRegistration;
+    /**
+     * Used to enforce the {@link #maxEnhancementJobWaitTime} for enhancement
+     * jobs started by {@link #enhanceContent(ContentItem, Chain, EnhancementJobCallback)}
+     */
+    private ScheduledExecutorService timeoutService;
+    /**
+     * Used to notify {@link EnhancementJobCallback}s. This ensures that
+     * callbacks are not called by threads of the {@link EventAdmin} (and
+     * while holding the write lock of the ContentItem).
+     */
+    private ExecutorService callbackService;
     
     
     /**
@@ -110,9 +275,14 @@ public class EventJobManagerImpl implements EnhancementJobManager {
      * @param ctx
      */
     @Activate
-    protected void activate(ComponentContext ctx){
+    protected void activate(ComponentContext ctx) throws ConfigurationException {
         log.info("activate {}",getClass().getName());
-        jobHandler = new EnhancementJobHandler(eventAdmin,engineManager);
+        ExecutionScheduler scheduler = createScheduler(ctx.getProperties());
+        log.info(" - scheduler: {}", scheduler);
+        int maxBatchWait = getInteger(ctx.getProperties(), MAX_BATCH_WAIT_TIME);
+        log.info(" - micro-batching: {}", maxBatchWait > 0 ? 
+                ("max wait " + maxBatchWait + "ms") : "disabled");
+        jobHandler = new EnhancementJobHandler(scheduler,engineManager,maxBatchWait);
         Dictionary<String,Object> properties = new Hashtable<String,Object>();
         properties.put(org.osgi.service.event.EventConstants.EVENT_TOPIC, TOPIC_JOB_MANAGER);
         jobHandlerRegistration = ctx.getBundleContext().registerService(
@@ -122,6 +292,106 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         if (maxWaitTime instanceof Integer) {
             this.maxEnhancementJobWaitTime = (Integer) maxWaitTime;
         }
+        Object mode = ctx.getProperties().get(EXECUTION_METADATA_MODE);
+        String modeString = mode == null ? EXECUTION_METADATA_FULL : mode.toString().trim().toLowerCase();
+        if(modeString.isEmpty() || EXECUTION_METADATA_FULL.equals(modeString)){
+            lightweightExecutionMetadata = false;
+        } else if(EXECUTION_METADATA_LIGHTWEIGHT.equals(modeString)){
+            lightweightExecutionMetadata = true;
+        } else {
+            throw new ConfigurationException(EXECUTION_METADATA_MODE, "Unknown execution metadata mode '"
+                + mode + "' (supported: "+EXECUTION_METADATA_FULL+", "+EXECUTION_METADATA_LIGHTWEIGHT+")!");
+        }
+        log.info(" - execution metadata: {}", lightweightExecutionMetadata ? 
+                EXECUTION_METADATA_LIGHTWEIGHT : EXECUTION_METADATA_FULL);
+        Object freeze = ctx.getProperties().get(FREEZE_METADATA);
+        freezeMetadata = freeze != null && Boolean.parseBoolean(freeze.toString());
+        log.info(" - freeze metadata: {}", freezeMetadata);
+        resultCache = createResultCache(ctx);
+        log.info(" - result cache: {}", resultCache == null ? "disabled" : resultCache);
+        if(resultCache != null){
+            Dictionary<String,Object> invalidationProperties = new Hashtable<String,Object>();
+            invalidationProperties.put(org.osgi.service.event.EventConstants.EVENT_TOPIC, 
+                TOPIC_INVALIDATE_RESULT_CACHE);
+            resultCacheInvalidationRegistration = ctx.getBundleContext().registerService(
+                EventHandler.class.getName(), new EventHandler() {
+                    @Override
+                    public void handleEvent(Event event) {
+                        invalidateResultCache();
+                    }
+                }, invalidationProperties);
+        }
+        timeoutService = Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("Event Job Manager Timeout Daemon"));
+        callbackService = Executors.newCachedThreadPool(
+            new DaemonThreadFactory("Event Job Manager Callback"));
+    }
+    /**
+     * Creates the {@link ExecutionScheduler} based on the parsed configuration
+     * @param config the configuration
+     * @return the scheduler
+     * @throws ConfigurationException if the configuration is invalid
+     */
+    private ExecutionScheduler createScheduler(Dictionary<?,?> config) throws ConfigurationException {
+        Object value = config.get(EXECUTION_SCHEDULER);
+        String type = value == null ? SCHEDULER_EVENT_ADMIN : value.toString().trim().toLowerCase();
+        if(type.isEmpty() || SCHEDULER_EVENT_ADMIN.equals(type)){
+            return new EventAdminExecutionScheduler(eventAdmin);
+        } else if(SCHEDULER_FORK_JOIN.equals(type)){
+            return new ForkJoinExecutionScheduler(
+                getInteger(config, SCHEDULER_PARALLELISM),
+                getInteger(config, MAX_CHAIN_CONCURRENCY));
+        } else {
+            throw new ConfigurationException(EXECUTION_SCHEDULER, "Unknown ExecutionScheduler '"
+                + value + "' (supported: "+SCHEDULER_EVENT_ADMIN+", "+SCHEDULER_FORK_JOIN+")!");
+        }
+    }
+    
+    /**
+     * Creates the {@link ResultCache} based on the configuration
+     * @param ctx the component context
+     * @return the result cache or <code>null</code> if result caching is
+     * not enabled
+     * @throws ConfigurationException if the configuration is invalid
+     */
+    private ResultCache createResultCache(ComponentContext ctx) throws ConfigurationException {
+        Dictionary<?,?> config = ctx.getProperties();
+        int size = getInteger(config, RESULT_CACHE_SIZE);
+        if(size <= 0){
+            return null;
+        }
+        Object ttlValue = config.get(RESULT_CACHE_TTL);
+        long ttl = ttlValue == null ? DEFAULT_RESULT_CACHE_TTL : getInteger(config, RESULT_CACHE_TTL);
+        Object value = config.get(RESULT_CACHE_PERSISTENT);
+        File directory = null;
+        if(value != null && Boolean.parseBoolean(value.toString())){
+            directory = ctx.getBundleContext().getDataFile(RESULT_CACHE_DIRECTORY);
+            if(directory == null){
+                log.warn("Unable to persist cached results because the OSGi "
+                    + "environment does not support bundle data files!");
+            }
+        }
+        try {
+            return new ResultCache(engineManager, size, TimeUnit.SECONDS.toMillis(ttl), directory);
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(RESULT_CACHE_PERSISTENT, e.getMessage(), e);
+        }
+    }
+    
+    private static int getInteger(Dictionary<?,?> config, String property) throws ConfigurationException {
+        Object value = config.get(property);
+        if(value instanceof Number){
+            return ((Number)value).intValue();
+        } else if(value != null && !value.toString().trim().isEmpty()){
+            try {
+                return Integer.parseInt(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new ConfigurationException(property, "Unable to parse integer value from '"
+                    + value + "'!", e);
+            }
+        } else {
+            return 0;
+        }
     }
     /**
      * Unregisters the {@link EnhancementJobHandler}
@@ -138,6 +408,19 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         jobHandler.close();
         jobHandlerRegistration.unregister();
         jobHandlerRegistration = null;
+        //NOTE: closing the jobHandler has already notified all pending callbacks
+        timeoutService.shutdownNow();
+        timeoutService = null;
+        callbackService.shutdown();
+        callbackService = null;
+        if(resultCacheInvalidationRegistration != null){
+            resultCacheInvalidationRegistration.unregister();
+            resultCacheInvalidationRegistration = null;
+        }
+        if(resultCache != null){
+            resultCache.close();
+            resultCache = null;
+        }
     }
     
     @Override
@@ -153,6 +436,89 @@ public class EventJobManagerImpl implements EnhancementJobManager {
 
     @Override
     public void enhanceContent(ContentItem ci, Chain chain) throws EnhancementException {
+        CompiledExecutionPlan plan = getExecutionPlan(ci, chain);
+        long start = System.currentTimeMillis();
+        ResultCache resultCache = this.resultCache;
+        String cacheKey = resultCache == null ? null : resultCache.getKey(ci, chain, plan);
+        if(cacheKey != null && replay(resultCache, cacheKey, ci, chain, start)){
+            return;
+        }
+        EnhancementJob job = createJob(ci, chain, plan);
+        //start the execution
+        //wait for the results
+        EnhancementJobObserver observer = jobHandler.register(job);
+        //now wait for the execution to finish for the configured maximum time
+        boolean completed = observer.waitForCompletion(maxEnhancementJobWaitTime);
+        if(!completed){ //throw timeout exception
+            throw createTimeoutException(job, start);
+        }
+        processResult(job, chain, start, resultCache, cacheKey);
+    }
+    
+    @Override
+    public Future<ContentItem> enhanceContent(ContentItem ci, Chain chain,
+            final EnhancementJobCallback callback) throws EnhancementException {
+        CompiledExecutionPlan plan = getExecutionPlan(ci, chain);
+        long start = System.currentTimeMillis();
+        ScheduledExecutorService timeoutService = this.timeoutService;
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        ExecutorService callbackService = this.callbackService;
+        ResultCache resultCache = this.resultCache;
+        if(timeoutService == null || jobHandler == null || callbackService == null){
+            throw new ChainException("Unable to enhance ContentItem "+ci.getUri()
+                + " because the EnhancementJobManager is no longer active");
+        }
+        String cacheKey = resultCache == null ? null : resultCache.getKey(ci, chain, plan);
+        if(cacheKey != null && replay(resultCache, cacheKey, ci, chain, start)){
+            final ContentItem contentItem = ci;
+            FutureTask<ContentItem> result = new FutureTask<ContentItem>(new Runnable() {
+                @Override
+                public void run() {
+                    if(callback != null){
+                        try {
+                            callback.completed(contentItem);
+                        } catch (RuntimeException e) {
+                            log.warn("Exception while notifying EnhancementJobCallback "
+                                + callback + " for ContentItem "+contentItem.getUri(), e);
+                        }
+                    }
+                }
+            }, ci){
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    return false; //not supported
+                }
+            };
+            try {
+                callbackService.execute(result);
+            } catch (RejectedExecutionException e) {
+                result.run(); //deactivated in the meantime
+            }
+            return result;
+        }
+        EnhancementJob job = createJob(ci, chain, plan);
+        AsyncEnhancementJob asyncJob = new AsyncEnhancementJob(job, chain, start, 
+            callback, resultCache, cacheKey);
+        //schedule the timeout before starting the execution as the job might
+        //finish before the call to register returns
+        asyncJob.timeout = timeoutService.schedule(asyncJob, 
+            Math.max(500, maxEnhancementJobWaitTime), TimeUnit.MILLISECONDS);
+        if(jobHandler.register(job, asyncJob) == null){
+            asyncJob.timeout.cancel(false);
+            throw new ChainException("Unable to enhance ContentItem "+ci.getUri()
+                + " because the EnhancementJobManager is no longer active");
+        }
+        return asyncJob;
+    }
+    /**
+     * Validates the parameters and gets the {@link CompiledExecutionPlan}
+     * for the parsed chain
+     * @param ci the content item
+     * @param chain the chain
+     * @return the compiled execution plan
+     * @throws ChainException if the execution plan of the chain is not available
+     */
+    private CompiledExecutionPlan getExecutionPlan(ContentItem ci, Chain chain) throws ChainException {
         if(ci == null) {
             throw new IllegalArgumentException("The parsed contentItem MUST NOT be NULL!");
         }
@@ -160,27 +526,83 @@ public class EventJobManagerImpl implements EnhancementJobManager {
             throw new IllegalArgumentException("Unable to enhance ContentItem '"+ci.getUri()+
                 "' because NULL was passed as enhancement chain");
         }
-        long start = System.currentTimeMillis();
         enhancementJobManagerLog.debug(">> enhance {} with chain {}", ci.getUri(), chain.getName());
+        return chainManager.getCompiledExecutionPlan(chain);
+    }
+    /**
+     * Creates the {@link EnhancementJob}
+     * @param ci the content item
+     * @param chain the chain
+     * @param plan the compiled execution plan of the chain
+     * @return the enhancement job
+     */
+    private EnhancementJob createJob(ContentItem ci, Chain chain, CompiledExecutionPlan plan) {
         boolean isDefaultChain = chain.equals(chainManager.getDefault());
-        EnhancementJob job = new EnhancementJob(ci, chain.getName(), chain.getExecutionPlan(),isDefaultChain);
-        //start the execution
-        //wait for the results
-        EnhancementJobObserver observer = jobHandler.register(job);
-        //now wait for the execution to finish for the configured maximum time
-        boolean completed = observer.waitForCompletion(maxEnhancementJobWaitTime);
-        if(!completed){ //throw timeout exception
-            StringBuilder sb = new StringBuilder("Status:\n");
-            ExecutionMetadata em = ExecutionMetadata.parseFrom(job.getExecutionMetadata(), ci.getUri());
-            for(Entry<String,Execution> ex : em.getEngineExecutions().entrySet()){
-                sb.append("  -").append(ex.getKey()).append(": ").append(ex.getValue().getStatus()).append('\n');
+        return new EnhancementJob(ci, chain.getName(), plan, isDefaultChain,
+            lightweightExecutionMetadata);
+    }
+    /**
+     * Replays cached enhancement results
+     * @param resultCache the result cache
+     * @param cacheKey the key
+     * @param ci the content item
+     * @param chain the chain
+     * @param start the start time of the request
+     * @return <code>true</code> if cached results where added to the
+     * content item or <code>false</code> on a cache miss
+     */
+    private boolean replay(ResultCache resultCache, String cacheKey, ContentItem ci, Chain chain, long start){
+        if(resultCache.replay(cacheKey, ci)){
+            if(freezeMetadata){
+                ContentItemHelper.freezeMetadata(ci);
             }
-            throw new ChainException("Execution timeout after "
-                    +((System.currentTimeMillis()-start)/1000f)+"sec (timeout:"+(maxEnhancementJobWaitTime/1000)
-                + "sec) for ContentItem "+ci.getUri()+"\n"+sb.toString()
-                + " \n To change the timeout change value of property '"+
-                    MAX_ENHANCEMENT_JOB_WAIT_TIME+"' for the service "+getClass());
+            log.info("Replayed cached results of Chain {} after {}ms for ContentItem {}",
+                new Object[]{ chain.getName(), System.currentTimeMillis()-start, ci.getUri()});
+            return true;
+        } else {
+            return false;
         }
+    }
+    /**
+     * Creates the Exception used to report that the parsed job has not
+     * finished within the {@link #maxEnhancementJobWaitTime}.
+     * @param job the job
+     * @param start the start time of the job
+     * @return the exception
+     */
+    private ChainException createTimeoutException(EnhancementJob job, long start) {
+        ContentItem ci = job.getContentItem();
+        StringBuilder sb = new StringBuilder("Status:\n");
+        job.getLock().readLock().lock();
+        try {
+            ExecutionRecord record = job.getExecutionRecord();
+            for(int i = 0; i < record.size(); i++){
+                sb.append("  -").append(job.getCompiledExecutionPlan().getEngine(i)).append(": ")
+                    .append(record.getStatus(i).getUri()).append('\n');
+            }
+        } finally {
+            job.getLock().readLock().unlock();
+        }
+        return new ChainException("Execution timeout after "
+                +((System.currentTimeMillis()-start)/1000f)+"sec (timeout:"+(maxEnhancementJobWaitTime/1000)
+            + "sec) for ContentItem "+ci.getUri()+"\n"+sb.toString()
+            + " \n To change the timeout change value of property '"+
+                MAX_ENHANCEMENT_JOB_WAIT_TIME+"' for the service "+getClass());
+    }
+    /**
+     * Processes the result of an {@link EnhancementJob} that has finished
+     * (or was stopped because this job manager was deactivated).
+     * @param job the job
+     * @param chain the chain
+     * @param start the start time of the job
+     * @param resultCache the cache used to store the results or <code>null</code>
+     * @param cacheKey the key used to cache the results or <code>null</code>
+     * if the results are not cacheable
+     * @throws EnhancementException if the enhancement job has failed or was
+     * not finished.
+     */
+    private void processResult(EnhancementJob job, Chain chain, long start,
+            ResultCache resultCache, String cacheKey) throws EnhancementException {
         log.info("Execution of Chain {} {} after {}ms for ContentItem {}",
             new Object[]{ chain.getName(), job.isFailed() ? "failed" : "finished",
                     System.currentTimeMillis()-start,
@@ -190,6 +612,10 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         //      However one could add this as an optional feature to the
         //      RESTful interface of the Enhancer!
         //ci.getMetadata().addAll(job.getExecutionMetadata());
+        if(job.isLightweight() && (job.isFailed() || !job.isFinished() ||
+                isExecutionMetadataRequested(job.getContentItem()))){
+            job.writeExecutionMetadata();
+        }
         if(job.isFailed()){
         	Exception e = job.getError();
             EnhancementJobHandler.logJobInfo(log, job, null, true);
@@ -217,7 +643,32 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         	//log infos about the execution times to the enhancementJobManager
         	EnhancementJobHandler.logExecutionTimes(enhancementJobManagerLog, job);
         	logExecutionMetadata(enhancementJobManagerLog, job, false);
+        	if(freezeMetadata){ //before caching so that the frozen graph is reused
+        	    ContentItemHelper.freezeMetadata(job.getContentItem());
+        	}
+        	if(cacheKey != null && resultCache != null){
+        	    resultCache.store(cacheKey, job.getContentItem());
+        	}
+        }
+    }
+    /**
+     * Checks the request properties of the parsed content item if the
+     * client requested the execution metadata.
+     * @param ci the content item
+     * @return if execution metadata are requested
+     */
+    private boolean isExecutionMetadataRequested(ContentItem ci){
+        Map<String,Object> reqProp = ContentItemHelper.getRequestPropertiesContentPart(ci);
+        if(reqProp == null){
+            return false;
         }
+        Object include = reqProp.get(ContentItemHelper.REQUEST_PROPERTY_INCLUDE_EXECUTION_METADATA);
+        if(include != null && Boolean.parseBoolean(include.toString())){
+            return true;
+        }
+        Object parts = reqProp.get(ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT_PART);
+        return parts instanceof Collection<?> && (((Collection<?>)parts).contains(null) || 
+                ((Collection<?>)parts).contains(ExecutionMetadata.CHAIN_EXECUTION));
     }
     /**
      * Logs the ExecutionMetadata 
@@ -261,6 +712,12 @@ public class EventJobManagerImpl implements EnhancementJobManager {
 		}
 	}
 
+    @Override
+    public long getMaxEnhancementJobWaitTime() {
+        //the timeout service uses at least 500ms
+        return Math.max(500, maxEnhancementJobWaitTime);
+    }
+
     @Override
     public List<EnhancementEngine> getActiveEngines() {
         //This implementation return the list of active engined for the default
@@ -280,6 +737,222 @@ public class EventJobManagerImpl implements EnhancementJobManager {
         }
         return ExecutionPlanHelper.getActiveEngines(engineManager,ep);
     }
+    /**
+     * The number of currently active enhancement jobs
+     * @return the number of active jobs or <code>-1</code> if this
+     * component is not active
+     */
+    @Override
+    public int getActiveJobCount(){
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        return jobHandler == null ? -1 : jobHandler.getActiveJobs();
+    }
+    /**
+     * The number of executions that are scheduled but not yet started
+     * @return the number of queued executions or <code>-1</code> if this
+     * component is not active
+     */
+    @Override
+    public long getQueuedExecutionCount(){
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        return jobHandler == null ? -1 : jobHandler.getQueuedExecutions();
+    }
+    /**
+     * The number of enhancement jobs finished since the activation of this
+     * component
+     * @return the number of finished jobs or <code>-1</code> if this
+     * component is not active
+     */
+    @Override
+    public long getFinishedJobCount(){
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        return jobHandler == null ? -1 : jobHandler.getFinishedJobs();
+    }
+    /**
+     * The accumulated time the job manager had to wait for acquiring
+     * write locks of enhancement jobs since the activation of this component
+     * @return the lock wait time in milliseconds or <code>-1</code> if this
+     * component is not active
+     */
+    @Override
+    public long getLockWaitTime(){
+        EnhancementJobHandler jobHandler = this.jobHandler;
+        return jobHandler == null ? -1 : jobHandler.getLockWaitTime();
+    }
+    /**
+     * The number of enhancement requests answered by replaying cached results
+     * since the activation of this component
+     * @return the number of cache hits or <code>-1</code> if result caching
+     * is not enabled
+     */
+    @Override
+    public long getResultCacheHitCount(){
+        ResultCache resultCache = this.resultCache;
+        return resultCache == null ? -1 : resultCache.getHits();
+    }
+    /**
+     * Invalidates all cached enhancement results. Also called for events
+     * with the topic 
+     * {@link org.apache.stanbol.enhancer.jobmanager.event.Constants#TOPIC_INVALIDATE_RESULT_CACHE}
+     */
+    @Override
+    public void invalidateResultCache(){
+        ResultCache resultCache = this.resultCache;
+        if(resultCache != null){
+            resultCache.clear();
+        }
+    }
 
 
+    /**
+     * {@link Future} for {@link EnhancementJob}s started by
+     * {@link EventJobManagerImpl#enhanceContent(ContentItem, Chain, EnhancementJobCallback)}.
+     * It gets notified by the {@link EnhancementJobHandler} if the job finishes
+     * and by the {@link EventJobManagerImpl#timeoutService} if the job does not
+     * finish within the {@link EventJobManagerImpl#maxEnhancementJobWaitTime}.
+     * Whatever happens first completes this future.<p>
+     * Enhancement jobs can not be cancelled. 
+     */
+    private class AsyncEnhancementJob implements Future<ContentItem>, EnhancementJobListener, Runnable {
+        
+        private final EnhancementJob job;
+        private final Chain chain;
+        private final long start;
+        private final EnhancementJobCallback callback;
+        private final ResultCache resultCache;
+        private final String cacheKey;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Exception error;
+        private volatile ScheduledFuture<?> timeout;
+        
+        AsyncEnhancementJob(EnhancementJob job, Chain chain, long start, EnhancementJobCallback callback,
+                ResultCache resultCache, String cacheKey){
+            this.job = job;
+            this.chain = chain;
+            this.start = start;
+            this.callback = callback;
+            this.resultCache = resultCache;
+            this.cacheKey = cacheKey;
+        }
+        /**
+         * Called by the {@link EnhancementJobHandler} as soon as the job
+         * has finished.
+         */
+        @Override
+        public void finished(final EnhancementJob job) {
+            ScheduledFuture<?> timeout = this.timeout;
+            if(timeout != null){
+                timeout.cancel(false);
+            }
+            if(done.get()){ //already timed out
+                log.info("Execution of Chain {} for ContentItem {} finished after "
+                    + "it was already reported as timed out", chain.getName(),
+                    job.getContentItem().getUri());
+                return;
+            }
+            dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    Exception error = null;
+                    try {
+                        processResult(job, chain, start, resultCache, cacheKey);
+                    } catch (EnhancementException e) {
+                        error = e;
+                    } catch (RuntimeException e) {
+                        error = e;
+                    }
+                    complete(error);
+                }
+            });
+        }
+        /**
+         * Called by the {@link EventJobManagerImpl#timeoutService} if the
+         * job does not finish in time
+         */
+        @Override
+        public void run() {
+            if(!done.get()){
+                final ChainException timeoutException = createTimeoutException(job, start);
+                dispatch(new Runnable() {
+                    @Override
+                    public void run() {
+                        complete(timeoutException);
+                    }
+                });
+            }
+        }
+        
+        private void dispatch(Runnable task){
+            ExecutorService callbackService = EventJobManagerImpl.this.callbackService;
+            if(callbackService != null){
+                try {
+                    callbackService.execute(task);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    //deactivated in the meantime ... run in the current thread
+                }
+            }
+            task.run();
+        }
+        
+        private void complete(Exception error){
+            if(!done.compareAndSet(false, true)){
+                return; //already completed
+            }
+            this.error = error;
+            latch.countDown();
+            if(callback != null){
+                try {
+                    if(error == null){
+                        callback.completed(job.getContentItem());
+                    } else {
+                        callback.failed(job.getContentItem(), error);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Exception while notifying EnhancementJobCallback "
+                        + callback + " for ContentItem "+job.getContentItem().getUri(), e);
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false; //not supported
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return latch.getCount() == 0;
+        }
+
+        @Override
+        public ContentItem get() throws InterruptedException, ExecutionException {
+            latch.await();
+            return getResult();
+        }
+
+        @Override
+        public ContentItem get(long timeout, TimeUnit unit) throws InterruptedException,
+                ExecutionException, TimeoutException {
+            if(!latch.await(timeout, unit)){
+                throw new TimeoutException("Enhancement of ContentItem "
+                        + job.getContentItem().getUri() + " not completed after "
+                        + unit.toMillis(timeout) + "ms");
+            }
+            return getResult();
+        }
+        
+        private ContentItem getResult() throws ExecutionException {
+            if(error != null){
+                throw new ExecutionException(error);
+            }
+            return job.getContentItem();
+        }
+    }
 }
@@ -0,0 +1,207 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.helper.DaemonThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces executions of the same {@link BatchEnhancementEngine} for
+ * concurrently processed {@link EnhancementJob}s into micro-batches. A batch
+ * is processed as soon as it reaches the {@link BatchEnhancementEngine#getMaxBatchSize()
+ * maximum batch size} of the engine (by the thread adding the last execution)
+ * or after the configured maximum wait time (by a thread of this batcher).
+ * Whatever happens first.<p>
+ * This class is thread save.
+ */
+public class ExecutionBatcher {
+
+    private final Logger log = LoggerFactory.getLogger(ExecutionBatcher.class);
+
+    private final EnhancementJobHandler handler;
+    private final long maxWait;
+    /**
+     * The batches currently collecting executions. Guarded by <code>this</code>
+     */
+    private final Map<BatchEnhancementEngine,ExecutionBatch> batches =
+            new IdentityHashMap<BatchEnhancementEngine,ExecutionBatch>();
+    /**
+     * Used to enforce the {@link #maxWait}
+     */
+    private final ScheduledExecutorService timer;
+    /**
+     * Processes batches that reached the {@link #maxWait}
+     */
+    private final ExecutorService executor;
+    private volatile boolean closed;
+
+    /**
+     * Creates a batcher for the parsed handler
+     * @param handler the handler used to process batches
+     * @param maxWait the maximum time (in milliseconds) the first execution
+     * added to a batch waits for further executions
+     */
+    public ExecutionBatcher(EnhancementJobHandler handler, long maxWait) {
+        if(handler == null){
+            throw new IllegalArgumentException("The parsed EnhancementJobHandler MUST NOT be NULL!");
+        }
+        if(maxWait <= 0){
+            throw new IllegalArgumentException("The maximum wait time MUST BE > 0 (parsed: "
+                + maxWait + ")!");
+        }
+        this.handler = handler;
+        this.maxWait = maxWait;
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+            new DaemonThreadFactory("Event Job Manager Batch Timer"));
+        this.executor = Executors.newCachedThreadPool(
+            new DaemonThreadFactory("Event Job Manager Batch Execution"));
+    }
+    /**
+     * Adds the parsed execution to the current batch of the parsed engine.
+     * If the batch is full it is processed by the calling thread.
+     * @param engine the engine
+     * @param job the enhancement job
+     * @param execution the em:Execution of the engine for the parsed job
+     * @return <code>false</code> if this batcher is already closed and the
+     * execution was not added
+     */
+    public boolean add(BatchEnhancementEngine engine, EnhancementJob job, BlankNodeOrIRI execution){
+        ExecutionBatch full = null;
+        synchronized (this) {
+            if(closed){
+                return false;
+            }
+            ExecutionBatch batch = batches.get(engine);
+            if(batch == null){
+                batch = new ExecutionBatch(engine);
+                batches.put(engine, batch);
+                try {
+                    batch.timeout = timer.schedule(new Timeout(batch), maxWait, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    batches.remove(engine);
+                    return false; //closed concurrently
+                }
+            }
+            batch.jobs.add(job);
+            batch.executions.add(execution);
+            if(batch.jobs.size() >= engine.getMaxBatchSize()){
+                batches.remove(engine);
+                batch.timeout.cancel(false);
+                full = batch;
+            }
+        }
+        if(full != null){
+            handler.execute(full.engine, full.jobs, full.executions);
+        }
+        return true;
+    }
+    /**
+     * Closes this batcher. Pending batches are still processed but no new
+     * executions are accepted.
+     */
+    public void close(){
+        List<ExecutionBatch> pending;
+        synchronized (this) {
+            closed = true;
+            pending = new ArrayList<ExecutionBatch>(batches.values());
+            batches.clear();
+        }
+        timer.shutdownNow();
+        for(ExecutionBatch batch : pending){
+            process(batch);
+        }
+        executor.shutdown();
+    }
+    /**
+     * Processes a batch using the {@link #executor} (or the calling thread
+     * if the executor does no longer accept tasks)
+     * @param batch the batch
+     */
+    private void process(final ExecutionBatch batch){
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                handler.execute(batch.engine, batch.jobs, batch.executions);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionBatcher [maxWait: " + maxWait + "ms]";
+    }
+    /**
+     * Processes a batch after the {@link ExecutionBatcher#maxWait} if it
+     * was not already processed because it became full
+     */
+    private class Timeout implements Runnable {
+
+        private final ExecutionBatch batch;
+
+        Timeout(ExecutionBatch batch){
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ExecutionBatcher.this) {
+                if(batches.get(batch.engine) != batch){
+                    return; //already processed
+                }
+                batches.remove(batch.engine);
+            }
+            if(log.isTraceEnabled()){
+                log.trace("process batch of {} executions of Engine {} after {}ms",
+                    new Object[]{batch.jobs.size(), batch.engine.getName(), maxWait});
+            }
+            process(batch);
+        }
+    }
+    /**
+     * The executions collected for an engine
+     */
+    private static class ExecutionBatch {
+
+        final BatchEnhancementEngine engine;
+        final List<EnhancementJob> jobs = new ArrayList<EnhancementJob>();
+        final List<BlankNodeOrIRI> executions = new ArrayList<BlankNodeOrIRI>();
+        ScheduledFuture<?> timeout;
+
+        ExecutionBatch(BatchEnhancementEngine engine){
+            this.engine = engine;
+        }
+    }
+}
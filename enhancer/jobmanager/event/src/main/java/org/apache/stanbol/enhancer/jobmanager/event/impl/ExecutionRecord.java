@@ -0,0 +1,202 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import java.util.Date;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
+
+/**
+ * Compact in-memory record of the state of the em:ChainExecution and the
+ * em:EngineExecutions of an {@link EnhancementJob}. Executions are referenced
+ * by the index of their ep:ExecutionNode in the
+ * {@link org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan}.<p>
+ * This class is not thread safe. Access is synchronised by the read/write lock
+ * of the {@link EnhancementJob}.
+ */
+final class ExecutionRecord {
+
+    /**
+     * The status of an Execution
+     */
+    enum Status {
+        SCHEDULED(ExecutionMetadata.STATUS_SCHEDULED),
+        IN_PROGRESS(ExecutionMetadata.STATUS_IN_PROGRESS),
+        COMPLETED(ExecutionMetadata.STATUS_COMPLETED),
+        FAILED(ExecutionMetadata.STATUS_FAILED);
+        
+        private final IRI uri;
+        
+        private Status(IRI uri) {
+            this.uri = uri;
+        }
+        /**
+         * The URI of the status as used in the RDF execution metadata
+         * @return the URI
+         */
+        public IRI getUri() {
+            return uri;
+        }
+        /**
+         * Getter for the Status based on the URI as used in the RDF execution
+         * metadata
+         * @param uri the uri
+         * @return the status or <code>null</code> if <code>null</code> or
+         * an unknown URI is parsed
+         */
+        public static Status valueOf(IRI uri){
+            for(Status status : values()){
+                if(status.uri.equals(uri)){
+                    return status;
+                }
+            }
+            return null;
+        }
+    }
+    
+    private final Status[] status;
+    private final long[] started;
+    private final long[] completed;
+    private final String[] message;
+    /**
+     * The index used to refer to the em:ChainExecution
+     */
+    static final int CHAIN_EXECUTION = -1;
+    /**
+     * The number of em:EngineExecutions. Also used as internal index
+     * for the em:ChainExecution
+     */
+    private final int size;
+    /**
+     * Creates a record for a chain with the parsed number of executions. All
+     * executions are initialised with {@link Status#SCHEDULED}
+     * @param size the number of em:EngineExecutions
+     */
+    ExecutionRecord(int size) {
+        this.size = size;
+        status = new Status[size+1];
+        started = new long[size+1];
+        completed = new long[size+1];
+        message = new String[size+1];
+        for(int i = 0; i < status.length; i++){
+            status[i] = Status.SCHEDULED;
+        }
+    }
+    /**
+     * The number of em:EngineExecutions
+     * @return the number of executions
+     */
+    int size(){
+        return size;
+    }
+    /**
+     * Resets the execution with the parsed index (or the chain execution
+     * for {@link #CHAIN_EXECUTION}) to {@link Status#SCHEDULED}
+     */
+    void setScheduled(int index){
+        index = index(index);
+        status[index] = Status.SCHEDULED;
+        started[index] = 0;
+        completed[index] = 0;
+        message[index] = null;
+    }
+    /**
+     * Sets the execution with the parsed index (or the chain execution
+     * for {@link #CHAIN_EXECUTION}) to {@link Status#IN_PROGRESS} and records the start time
+     */
+    void setInProgress(int index){
+        index = index(index);
+        status[index] = Status.IN_PROGRESS;
+        started[index] = System.currentTimeMillis();
+    }
+    /**
+     * Sets the execution with the parsed index (or the chain execution
+     * for {@link #CHAIN_EXECUTION}) to {@link Status#COMPLETED} and records the completion
+     * time
+     */
+    void setCompleted(int index, String message){
+        setFinished(index(index), Status.COMPLETED, message);
+    }
+    /**
+     * Sets the execution with the parsed index (or the chain execution
+     * for {@link #CHAIN_EXECUTION}) to {@link Status#FAILED} and records the completion
+     * time
+     */
+    void setFailed(int index, String message){
+        setFinished(index(index), Status.FAILED, message);
+    }
+    
+    private void setFinished(int index, Status status, String message){
+        this.status[index] = status;
+        this.completed[index] = System.currentTimeMillis();
+        this.message[index] = message;
+    }
+    /**
+     * Sets the state as read from existing execution metadata
+     */
+    void set(int index, Status status, Date started, Date completed, String message){
+        index = index(index);
+        this.status[index] = status;
+        this.started[index] = started == null ? 0 : started.getTime();
+        this.completed[index] = completed == null ? 0 : completed.getTime();
+        this.message[index] = message;
+    }
+    
+    Status getStatus(int index){
+        return status[index(index)];
+    }
+    /**
+     * @return the start time or <code>0</code> if not yet started
+     */
+    long getStarted(int index){
+        return started[index(index)];
+    }
+    /**
+     * @return the completion time or <code>0</code> if not yet completed
+     */
+    long getCompleted(int index){
+        return completed[index(index)];
+    }
+    /**
+     * @return the duration in milliseconds or <code>0</code> if not finished
+     */
+    long getDuration(int index){
+        index = index(index);
+        return started[index] > 0 && completed[index] > 0 ? 
+                completed[index] - started[index] : 0;
+    }
+    
+    String getMessage(int index){
+        return message[index(index)];
+    }
+    /**
+     * Maps {@link #CHAIN_EXECUTION} to the index of the em:ChainExecution
+     */
+    private int index(int index){
+        if(index == CHAIN_EXECUTION){
+            return size;
+        } else if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Execution index "+index+" is out of bounds [0.."+size+")!");
+        }
+        return index;
+    }
+    
+    static Date toDate(long time){
+        return time > 0 ? new Date(time) : null;
+    }
+}
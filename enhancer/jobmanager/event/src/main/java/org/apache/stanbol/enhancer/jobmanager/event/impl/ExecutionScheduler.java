@@ -0,0 +1,50 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+
+/**
+ * Schedules the execution of {@link EnhancementJob} executions (the 
+ * em:Execution nodes of an ep:ExecutionNode that is ready to be executed).
+ * Implementations decide about the threads used to execute enhancement engines
+ * and therefore also about the parallelism of the {@link EventJobManagerImpl}.
+ * <p>
+ * Implementations MUST NOT execute the parsed execution within the calling
+ * thread as the caller holds the write lock of the {@link EnhancementJob}.
+ * 
+ * @see EventAdminExecutionScheduler
+ * @see ForkJoinExecutionScheduler
+ */
+public interface ExecutionScheduler {
+
+    /**
+     * Schedules the parsed execution of the parsed job. As soon as the 
+     * execution can be processed implementations need to call
+     * {@link EnhancementJobHandler#execute(EnhancementJob, BlankNodeOrIRI)}.
+     * @param handler the handler that needs to process the execution
+     * @param job the enhancement job
+     * @param execution the em:Execution node to execute
+     */
+    void schedule(EnhancementJobHandler handler, EnhancementJob job, BlankNodeOrIRI execution);
+    
+    /**
+     * Closes this scheduler. Already scheduled executions might still be 
+     * processed but no new executions are accepted.
+     */
+    void close();
+}
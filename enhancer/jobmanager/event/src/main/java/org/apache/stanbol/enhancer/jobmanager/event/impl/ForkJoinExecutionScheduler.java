@@ -0,0 +1,255 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ExecutionScheduler} that directly executes {@link EnhancementJob}
+ * executions on a work-stealing {@link ForkJoinPool} (in async mode as 
+ * executions are never joined). This avoids the overhead of dispatching 
+ * executions via the OSGi {@link org.osgi.service.event.EventAdmin}.<p>
+ * Optionally the number of concurrently processed executions can be limited
+ * per enhancement chain. Executions exceeding this limit are queued and 
+ * scheduled as soon as other executions of the same chain complete. This
+ * ensures that a single chain with a lot of concurrent requests can not 
+ * occupy all threads of the pool.<p>
+ * NOTE: Most {@link org.apache.stanbol.enhancer.servicesapi.EnhancementEngine}s
+ * do blocking IO (e.g. requests to Solr or remote services). As the 
+ * {@link ForkJoinPool} does not compensate for blocked worker threads the 
+ * parallelism of the pool needs to be considerable higher as the number of
+ * available CPU cores. Because of that the default parallelism is 
+ * {@link #DEFAULT_PARALLELISM_PER_PROCESSOR} times the number of available
+ * processors.
+ */
+public class ForkJoinExecutionScheduler implements ExecutionScheduler {
+    
+    private final Logger log = LoggerFactory.getLogger(ForkJoinExecutionScheduler.class);
+
+    /**
+     * The number of threads per available processor used if no parallelism
+     * is configured. Executions typically block on IO so the CPU cores would
+     * be mostly idle with a parallelism equal to the number of processors.
+     */
+    public static final int DEFAULT_PARALLELISM_PER_PROCESSOR = 4;
+
+    private final ForkJoinPool pool;
+    /**
+     * The maximum number of concurrent executions per chain. <code>0</code>
+     * for no limit.
+     */
+    private final int maxChainConcurrency;
+    /**
+     * The queues used to enforce the {@link #maxChainConcurrency}. Only used 
+     * if <code>{@link #maxChainConcurrency} &gt; 0</code>
+     */
+    private final ConcurrentMap<String,ChainQueue> chainQueues = new ConcurrentHashMap<String,ChainQueue>();
+    
+    /**
+     * Creates a ForkJoinPool based scheduler
+     * @param parallelism the parallelism of the {@link ForkJoinPool}. If
+     * <code>&lt;= 0</code> {@link #DEFAULT_PARALLELISM_PER_PROCESSOR} times
+     * the number of available processors is used.
+     * @param maxChainConcurrency the maximum number of concurrently processed
+     * executions per enhancement chain. If <code>&lt;= 0</code> no limit is
+     * applied.
+     */
+    public ForkJoinExecutionScheduler(int parallelism, int maxChainConcurrency) {
+        if(parallelism <= 0){
+            parallelism = Runtime.getRuntime().availableProcessors() * DEFAULT_PARALLELISM_PER_PROCESSOR;
+        }
+        this.maxChainConcurrency = maxChainConcurrency < 0 ? 0 : maxChainConcurrency;
+        this.pool = new ForkJoinPool(parallelism, new ExecutionThreadFactory(), 
+            new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(Thread t, Throwable e) {
+                    log.error("Uncaught Exception in "+t.getName(), e);
+                }
+            }, true);
+    }
+    
+    @Override
+    public void schedule(EnhancementJobHandler handler, EnhancementJob job, BlankNodeOrIRI execution) {
+        ExecutionTask task = new ExecutionTask(handler, job, execution);
+        if(maxChainConcurrency > 0){
+            getChainQueue(job.getChainName()).schedule(task);
+        } else {
+            try {
+                pool.execute(task);
+            } catch (RejectedExecutionException e) {
+                dropped(task);
+            }
+        }
+    }
+    /**
+     * Logs executions that are dropped because this scheduler is already
+     * closed. Jobs of dropped executions are not failed, as closing the 
+     * {@link EnhancementJobHandler} releases all waiting components.
+     * @param task the dropped task
+     */
+    private void dropped(ExecutionTask task){
+        log.warn("Drop execution {} of ContentItem {} (chain: {}) because {} is closed",
+            new Object[]{task.execution, task.job.getContentItem().getUri(), 
+                    task.job.getChainName(), this});
+    }
+    
+    private ChainQueue getChainQueue(String chain){
+        ChainQueue queue = chainQueues.get(chain);
+        if(queue == null){
+            queue = new ChainQueue();
+            ChainQueue current = chainQueues.putIfAbsent(chain, queue);
+            if(current != null){
+                queue = current;
+            }
+        }
+        return queue;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            if(!pool.awaitTermination(5, TimeUnit.SECONDS)){
+                log.warn("{} executions still active after shutting down {}",
+                    pool.getActiveThreadCount(), this);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for(ChainQueue queue : chainQueues.values()){
+            queue.drop();
+        }
+        chainQueues.clear();
+    }
+    
+    @Override
+    public String toString() {
+        return "ForkJoinExecutionScheduler [parallelism: "+pool.getParallelism()
+                + " | maxChainConcurrency: " + maxChainConcurrency + "]";
+    }
+    
+    /**
+     * Executes an em:Execution of an {@link EnhancementJob}
+     */
+    private static class ExecutionTask implements Runnable {
+        
+        private final EnhancementJobHandler handler;
+        private final EnhancementJob job;
+        private final BlankNodeOrIRI execution;
+
+        ExecutionTask(EnhancementJobHandler handler, EnhancementJob job, BlankNodeOrIRI execution){
+            this.handler = handler;
+            this.job = job;
+            this.execution = execution;
+        }
+        
+        @Override
+        public void run() {
+            handler.execute(job, execution);
+        }
+    }
+    
+    /**
+     * Queue used to limit the number of concurrent executions for a chain.
+     * Tasks are added to the {@link #pending} queue and submitted to the 
+     * {@link ForkJoinExecutionScheduler#pool} as long as less than
+     * {@link ForkJoinExecutionScheduler#maxChainConcurrency} tasks are 
+     * {@link #running}.
+     */
+    private class ChainQueue {
+        
+        private final Queue<ExecutionTask> pending = new ConcurrentLinkedQueue<ExecutionTask>();
+        private final AtomicInteger running = new AtomicInteger();
+        
+        void schedule(ExecutionTask task){
+            pending.offer(task);
+            drain();
+        }
+        
+        private void drain(){
+            while(!pending.isEmpty()){
+                int current = running.get();
+                if(current >= maxChainConcurrency){
+                    return; //will be drained by the completion of a running task
+                }
+                if(running.compareAndSet(current, current+1)){
+                    final ExecutionTask task = pending.poll();
+                    if(task == null){ //polled by an other thread
+                        running.decrementAndGet();
+                    } else {
+                        try {
+                            pool.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        task.run();
+                                    } finally {
+                                        running.decrementAndGet();
+                                        drain();
+                                    }
+                                }
+                            });
+                        } catch (RejectedExecutionException e) {
+                            running.decrementAndGet();
+                            dropped(task);
+                            drop(); //the pool is shut down
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        /**
+         * Drops all pending tasks
+         */
+        void drop(){
+            ExecutionTask task;
+            while((task = pending.poll()) != null){
+                dropped(task);
+            }
+        }
+    }
+    
+    /**
+     * Creates named daemon threads for the {@link ForkJoinPool}
+     */
+    private static class ExecutionThreadFactory implements ForkJoinWorkerThreadFactory {
+        
+        private final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Event Job Manager Execution-"+count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
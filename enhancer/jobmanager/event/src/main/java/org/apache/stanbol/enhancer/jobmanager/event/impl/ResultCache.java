@@ -0,0 +1,758 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.REQUEST_PROPERTY_INCLUDE_EXECUTION_METADATA;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT_PART;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper.WEB_REQUEST_PROPERTY_PREFIX;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.Language;
+import org.apache.clerezza.commons.rdf.Literal;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.LiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.stanbol.commons.indexedgraph.CompactIndexedImmutableGraph;
+import org.apache.stanbol.enhancer.servicesapi.Blob;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.NoSuchPartException;
+import org.apache.stanbol.enhancer.servicesapi.ServiceProperties;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.DaemonThreadFactory;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.osgi.framework.Constants;
+import org.osgi.framework.ServiceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the enhancement results of a {@link Chain} for a content. Results
+ * are keyed by the SHA1 digest of the content, the name and
+ * {@link CompiledExecutionPlan execution plan} of the chain, the service
+ * properties of all engines and the request properties. Results are only
+ * cached if<ul>
+ * <li> the metadata of the {@link ContentItem} are empty before the
+ * enhancement (as engines might consume data parsed by the client)
+ * <li> the {@link ContentItem} has a single {@link Blob}
+ * <li> the client does not request execution metadata nor content parts
+ * (as only the metadata are cached)
+ * <li> none of the engines declares itself as
+ * {@link ServiceProperties#ENHANCEMENT_ENGINE_NONDETERMINISTIC non-deterministic}.
+ * </ul>
+ * Cached results are replayed by adding the cached triples to the metadata
+ * of the content item. The URI of the original content item is replaced with
+ * the URI of the enhanced one and the URIs of fise:Enhancements as well as
+ * {@link BlankNode}s are replaced with new ones.<p>
+ * Only the results of complete chains are cached. Results of single engines
+ * are not replayed for chains that share only some engines with a cached
+ * one, because engines communicate results to later engines by content parts
+ * (e.g. the <code>AnalysedText</code> or converted {@link Blob}s) that are
+ * not part of the cached metadata, and because engines executed in parallel
+ * write to the same metadata graph so that triples can not be assigned to
+ * the engine that added them.<p>
+ * The cache keeps the configured number of results in memory (LRU). If a
+ * directory is parsed results are also written to files and the configured
+ * number of files is kept on disk. Results expire after the configured
+ * time to live. As the cache can not know about changes of the data used by
+ * engines (e.g. an updated index) {@link #clear()} allows to invalidate all
+ * cached results. Files are read by the requesting thread
+ * (concurrent requests for the same result wait for the first one) and
+ * written/deleted by a single write-behind thread. No file IO is done while
+ * holding the lock of the cache.<p>
+ * This class is thread save.
+ */
+final class ResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultCache.class);
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String SHA1 = "SHA1";
+    /**
+     * Prefix of the URIs of Enhancements created by the
+     * <code>EnhancementEngineHelper</code>. Such URIs are replaced on replay.
+     */
+    private static final String ENHANCEMENT_URI_PREFIX = "urn:enhancement-";
+    /**
+     * Service properties that change with every registration of an engine
+     */
+    private static final Collection<String> VOLATILE_SERVICE_PROPERTIES = Arrays.asList(
+        Constants.SERVICE_ID, Constants.SERVICE_PID, "component.id");
+
+    private static final int FILE_MAGIC = 0x53524332; //SRC2
+    private static final String FILE_SUFFIX = ".bin";
+    private static final byte TERM_IRI = 1;
+    private static final byte TERM_BLANK_NODE = 2;
+    private static final byte TERM_LITERAL = 3;
+    /**
+     * The maximum time {@link #close()} waits for pending writes
+     */
+    private static final long CLOSE_TIMEOUT = 5000;
+
+    private final EnhancementEngineManager engineManager;
+    private final int size;
+    private final long ttl;
+    private final File directory;
+    /**
+     * In-memory LRU cache. Guarded by <code>this</code>
+     */
+    private final Map<String,Result> memory;
+    /**
+     * The keys of the results stored in the {@link #directory} (LRU). The
+     * value is <code>false</code> while the file is not yet written.
+     * Guarded by <code>this</code>
+     */
+    private final Map<String,Boolean> disk;
+    /**
+     * Results currently read from the {@link #directory}. Guarded by 
+     * <code>this</code>
+     */
+    private final Map<String,FutureTask<Result>> loading = new HashMap<String,FutureTask<Result>>();
+    /**
+     * Writes and deletes files in the {@link #directory} (in the order the
+     * tasks are submitted). <code>null</code> if results are not persisted.
+     */
+    private final ExecutorService writer;
+    /**
+     * Incremented by {@link #clear()}. Used to ignore results read from a
+     * file before the cache was cleared. Guarded by <code>this</code>
+     */
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a result cache
+     * @param engineManager used to lookup the configurations of the engines
+     * @param size the maximum number of results kept in memory (and on disk)
+     * @param ttl the time to live of cached results in milliseconds. 
+     * Values <code>&lt;= 0</code> for results that do not expire.
+     * @param directory the directory used to persist results or
+     * <code>null</code> to only keep results in memory
+     * @throws IllegalArgumentException if the size is <code>&lt;= 0</code>
+     * or the directory can not be created.
+     */
+    ResultCache(EnhancementEngineManager engineManager, final int size, long ttl, File directory){
+        if(engineManager == null){
+            throw new IllegalArgumentException("The parsed EnhancementEngineManager MUST NOT be NULL!");
+        }
+        if(size <= 0){
+            throw new IllegalArgumentException("The size of the cache MUST BE > 0 (parsed: "
+                + size + ")!");
+        }
+        if(directory != null && !directory.isDirectory() && !directory.mkdirs()){
+            throw new IllegalArgumentException("Unable to create directory " + directory
+                + " for the result cache!");
+        }
+        this.engineManager = engineManager;
+        this.size = size;
+        this.ttl = ttl;
+        this.directory = directory;
+        this.memory = new LinkedHashMap<String,Result>(16, 0.75f, true){
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Entry<String,Result> eldest) {
+                return size() > size;
+            }
+        };
+        this.disk = new LinkedHashMap<String,Boolean>(16, 0.75f, true){
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Entry<String,Boolean> eldest) {
+                if(size() > size){
+                    submitDelete(eldest.getKey());
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        };
+        if(directory != null){
+            this.writer = Executors.newSingleThreadExecutor(
+                new DaemonThreadFactory("Event Job Manager Result Cache Writer"));
+            File[] files = directory.listFiles();
+            if(files != null){ //load existing keys (order by last modified)
+                Arrays.sort(files, new Comparator<File>() {
+                    @Override
+                    public int compare(File f1, File f2) {
+                        return Long.compare(f1.lastModified(), f2.lastModified());
+                    }
+                });
+                long now = System.currentTimeMillis();
+                for(File file : files){
+                    String name = file.getName();
+                    if(file.isFile() && name.endsWith(FILE_SUFFIX)){
+                        if(isExpired(file.lastModified(), now)){
+                            file.delete();
+                        } else {
+                            disk.put(name.substring(0, name.length() - FILE_SUFFIX.length()), Boolean.TRUE);
+                        }
+                    }
+                }
+            }
+        } else {
+            this.writer = null;
+        }
+    }
+    /**
+     * Creates the cache key for the enhancement of the parsed content item
+     * with the parsed chain.
+     * @param ci the content item
+     * @param chain the chain
+     * @param plan the compiled execution plan of the chain
+     * @return the key or <code>null</code> if the results of this enhancement
+     * request can not be cached
+     */
+    String getKey(ContentItem ci, Chain chain, CompiledExecutionPlan plan){
+        Map<String,Object> reqProps = ContentItemHelper.getRequestPropertiesContentPart(ci);
+        if(reqProps != null && (reqProps.containsKey(REQUEST_PROPERTY_OUTPUT_CONTENT) ||
+                reqProps.containsKey(REQUEST_PROPERTY_OUTPUT_CONTENT_PART) ||
+                Boolean.parseBoolean(String.valueOf(reqProps.get(REQUEST_PROPERTY_INCLUDE_EXECUTION_METADATA))))){
+            return null; //content parts or execution metadata requested
+        }
+        StringBuilder key = new StringBuilder(1024);
+        ci.getLock().readLock().lock();
+        try {
+            if(!ci.getMetadata().isEmpty() || getBlobCount(ci) != 1){
+                return null;
+            }
+            Blob blob = ci.getBlob();
+            InputStream in = blob.getStream();
+            try {
+                key.append(ContentItemHelper.streamDigest(in, null, SHA1));
+            } finally {
+                close(in);
+            }
+            key.append('|').append(blob.getMimeType()).append('\n');
+        } catch (IOException e) {
+            log.debug("Unable to calculate digest of ContentItem {} ({}: {})",
+                new Object[]{ci.getUri(), e.getClass().getSimpleName(), e.getMessage()});
+            return null;
+        } finally {
+            ci.getLock().readLock().unlock();
+        }
+        key.append(chain.getName()).append('\n');
+        for(int i = 0; i < plan.size(); i++){
+            String engineName = plan.getEngine(i);
+            key.append(engineName).append('|').append(plan.isOptional(i))
+                .append('|').append(plan.getDependsOn(i)).append('|');
+            ServiceReference engineRef = engineManager.getReference(engineName);
+            EnhancementEngine engine = engineRef == null ? null : engineManager.getEngine(engineRef);
+            if(engine == null){
+                key.append("missing");
+            } else if(isNondeterministic(engine)){
+                log.debug("Do not cache results of Chain {} because Engine {} is non-deterministic",
+                    chain.getName(), engineName);
+                return null;
+            } else {
+                Map<String,String> props = new TreeMap<String,String>();
+                for(String property : engineRef.getPropertyKeys()){
+                    if(!VOLATILE_SERVICE_PROPERTIES.contains(property)){
+                        props.put(property, toString(engineRef.getProperty(property)));
+                    }
+                }
+                key.append(props);
+            }
+            key.append('\n');
+        }
+        if(reqProps != null){
+            Map<String,String> props = new TreeMap<String,String>();
+            for(Entry<String,Object> entry : reqProps.entrySet()){
+                if(!entry.getKey().startsWith(WEB_REQUEST_PROPERTY_PREFIX)){
+                    props.put(entry.getKey(), toString(entry.getValue()));
+                }
+            }
+            if(!props.isEmpty()){
+                key.append(props);
+            }
+        }
+        return toHex(sha1(key.toString().getBytes(UTF8)));
+    }
+    /**
+     * Adds the cached results for the parsed key to the metadata of the
+     * parsed content item
+     * @param key the key as returned by {@link #getKey(ContentItem, Chain, CompiledExecutionPlan)}
+     * @param ci the content item
+     * @return <code>true</code> if cached results were added to the metadata
+     * or <code>false</code> on a cache miss.
+     */
+    boolean replay(final String key, ContentItem ci){
+        Result result;
+        FutureTask<Result> load = null;
+        boolean loader = false;
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+            result = memory.get(key);
+            if(result == null){
+                load = loading.get(key);
+                if(load == null && Boolean.TRUE.equals(disk.get(key))){
+                    load = new FutureTask<Result>(new Callable<Result>() {
+                        @Override
+                        public Result call() {
+                            return readFile(key);
+                        }
+                    });
+                    loading.put(key, load);
+                    loader = true;
+                }
+            }
+        }
+        if(load != null){ //read the file outside of the lock
+            if(loader){
+                load.run();
+            }
+            result = getLoaded(load);
+            synchronized (this) {
+                if(loader){
+                    loading.remove(key);
+                }
+                if(loadGeneration != generation){
+                    result = null; //cleared while reading the file
+                } else if(loader){
+                    if(result != null){
+                        memory.put(key, result);
+                    } else if(disk.remove(key) != null){ //unreadable file
+                        submitDelete(key);
+                    }
+                }
+            }
+        }
+        if(result != null && isExpired(result.created, System.currentTimeMillis())){
+            synchronized (this) {
+                if(memory.get(key) == result){
+                    memory.remove(key);
+                    if(disk.remove(key) != null){
+                        submitDelete(key);
+                    }
+                }
+            }
+            result = null;
+        }
+        if(result == null){
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        Map<RDFTerm,RDFTerm> mappings = new HashMap<RDFTerm,RDFTerm>();
+        mappings.put(result.contentItem, ci.getUri());
+        List<Triple> triples = new ArrayList<Triple>(result.metadata.size());
+        for(Triple t : result.metadata){
+            triples.add(new TripleImpl((BlankNodeOrIRI)map(t.getSubject(), mappings),
+                t.getPredicate(), map(t.getObject(), mappings)));
+        }
+        ci.getLock().writeLock().lock();
+        try {
+            ci.getMetadata().addAll(triples);
+        } finally {
+            ci.getLock().writeLock().unlock();
+        }
+        return true;
+    }
+    /**
+     * Caches the metadata of the parsed content item
+     * @param key the key as returned by {@link #getKey(ContentItem, Chain, CompiledExecutionPlan)}
+     * @param ci the content item successfully enhanced
+     */
+    void store(final String key, ContentItem ci){
+        final Result result;
+        ci.getLock().readLock().lock();
+        try {
+            Graph metadata = ci.getMetadata();
+            //cache the compact read-only form (reused if the metadata are frozen)
+            result = new Result(ci.getUri(), metadata instanceof ImmutableGraph ? 
+                    (ImmutableGraph)metadata : new CompactIndexedImmutableGraph(metadata),
+                System.currentTimeMillis());
+        } finally {
+            ci.getLock().readLock().unlock();
+        }
+        boolean write;
+        synchronized (this) {
+            memory.put(key, result);
+            write = writer != null && disk.get(key) == null;
+            if(write){
+                disk.put(key, Boolean.FALSE); //pending
+            }
+        }
+        if(write){
+            try {
+                writer.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        boolean written = writeFile(key, result);
+                        synchronized (ResultCache.this) {
+                            if(Boolean.FALSE.equals(disk.get(key))){
+                                if(written){
+                                    disk.put(key, Boolean.TRUE);
+                                } else {
+                                    disk.remove(key);
+                                }
+                            } //else evicted in the meantime
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                synchronized (this) { //closed
+                    disk.remove(key);
+                }
+            }
+        }
+    }
+    /**
+     * The number of requests answered by cached results
+     * @return the number of cache hits
+     */
+    long getHits(){
+        return hits.get();
+    }
+    /**
+     * The number of cacheable requests where no result was cached
+     * @return the number of cache misses
+     */
+    long getMisses(){
+        return misses.get();
+    }
+    /**
+     * Invalidates all cached results (in memory and on disk). Intended to
+     * be called if data used by engines have changed.
+     */
+    void clear(){
+        synchronized (this) {
+            generation++;
+            memory.clear();
+            for(String key : disk.keySet()){
+                submitDelete(key);
+            }
+            disk.clear();
+        }
+        log.info("cleared {}", this);
+    }
+    /**
+     * Closes the cache. Waits for pending writes to complete (at most
+     * {@value #CLOSE_TIMEOUT}ms). Cached results are still replayed but new
+     * results are no longer persisted.
+     */
+    void close(){
+        if(writer != null){
+            writer.shutdown();
+            try {
+                if(!writer.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS)){
+                    log.warn("Pending writes of {} not completed within {}ms", this, CLOSE_TIMEOUT);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCache [size: " + size + (ttl > 0 ? ", ttl: " + ttl + "ms" : "") +
+            (directory == null ? "" :
+            ", directory: " + directory) + "]";
+    }
+
+    private static RDFTerm map(RDFTerm term, Map<RDFTerm,RDFTerm> mappings){
+        RDFTerm mapped = mappings.get(term);
+        if(mapped != null){
+            return mapped;
+        }
+        if(term instanceof BlankNode){
+            mapped = new BlankNode();
+        } else if(term instanceof IRI &&
+                ((IRI)term).getUnicodeString().startsWith(ENHANCEMENT_URI_PREFIX)){
+            mapped = new IRI(ENHANCEMENT_URI_PREFIX + UUID.randomUUID());
+        } else {
+            return term;
+        }
+        mappings.put(term, mapped);
+        return mapped;
+    }
+
+    private boolean isExpired(long created, long now){
+        return ttl > 0 && now - created > ttl;
+    }
+
+    private static boolean isNondeterministic(EnhancementEngine engine){
+        if(engine instanceof ServiceProperties){
+            Map<String,Object> props = ((ServiceProperties)engine).getServiceProperties();
+            Object value = props == null ? null :
+                props.get(ServiceProperties.ENHANCEMENT_ENGINE_NONDETERMINISTIC);
+            return value != null && Boolean.parseBoolean(value.toString());
+        } else {
+            return false;
+        }
+    }
+
+    private static int getBlobCount(ContentItem ci){
+        int count = 0;
+        try {
+            for(int i = 0;;i++){
+                if(ci.getPart(ci.getPartUri(i), Object.class) instanceof Blob){
+                    count++;
+                }
+            }
+        } catch (NoSuchPartException e) {
+            return count; //no more parts
+        }
+    }
+
+    private static String toString(Object value){
+        if(value instanceof Object[]){
+            return Arrays.deepToString((Object[])value);
+        } else {
+            return String.valueOf(value);
+        }
+    }
+
+    private static byte[] sha1(byte[] data){
+        try {
+            return MessageDigest.getInstance(SHA1).digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA1 digest not supported by this JVM", e);
+        }
+    }
+
+    private static String toHex(byte[] data){
+        StringBuilder hex = new StringBuilder(data.length * 2);
+        for(byte b : data){
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+                .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+    private static void close(Closeable closeable){
+        if(closeable != null){
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                //ignore
+            }
+        }
+    }
+    /*
+     * Persistence
+     */
+    private File getFile(String key){
+        return new File(directory, key + FILE_SUFFIX);
+    }
+
+    /**
+     * Deletes the file of the parsed key by using the {@link #writer}.
+     * This ensures that the file is deleted after it was written.
+     */
+    private void submitDelete(final String key){
+        try {
+            writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    deleteFile(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Unable to delete cached result {} because {} is closed", key, this);
+        }
+    }
+
+    private static Result getLoaded(FutureTask<Result> load){
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null; //readFile does not throw exceptions
+        }
+    }
+
+    private void deleteFile(String key){
+        File file = getFile(key);
+        if(file.isFile() && !file.delete()){
+            log.warn("Unable to delete cached result {}", file);
+        }
+    }
+
+    private boolean writeFile(String key, Result result){
+        File file = getFile(key);
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(result.created);
+            out.writeUTF(result.contentItem.getUnicodeString());
+            out.writeInt(result.metadata.size());
+            Map<BlankNode,Integer> blankNodes = new HashMap<BlankNode,Integer>();
+            for(Triple t : result.metadata){
+                writeTerm(out, t.getSubject(), blankNodes);
+                writeTerm(out, t.getPredicate(), blankNodes);
+                writeTerm(out, t.getObject(), blankNodes);
+            }
+            out.close();
+            out = null;
+            return true;
+        } catch (IOException e) {
+            log.warn("Unable to write cached result to " + file, e);
+            close(out);
+            out = null;
+            file.delete();
+            return false;
+        } finally {
+            close(out);
+        }
+    }
+
+    private static void writeTerm(DataOutputStream out, RDFTerm term,
+            Map<BlankNode,Integer> blankNodes) throws IOException {
+        if(term instanceof IRI){
+            out.writeByte(TERM_IRI);
+            out.writeUTF(((IRI)term).getUnicodeString());
+        } else if(term instanceof BlankNode){
+            Integer id = blankNodes.get(term);
+            if(id == null){
+                id = blankNodes.size();
+                blankNodes.put((BlankNode)term, id);
+            }
+            out.writeByte(TERM_BLANK_NODE);
+            out.writeInt(id);
+        } else if(term instanceof Literal){
+            Literal literal = (Literal)term;
+            out.writeByte(TERM_LITERAL);
+            //lexical forms may exceed the 64k limit of writeUTF
+            byte[] lexicalForm = literal.getLexicalForm().getBytes(UTF8);
+            out.writeInt(lexicalForm.length);
+            out.write(lexicalForm);
+            out.writeUTF(literal.getDataType().getUnicodeString());
+            out.writeUTF(literal.getLanguage() == null ? "" : literal.getLanguage().toString());
+        } else {
+            throw new IOException("Unsupported RDFTerm type " + term.getClass());
+        }
+    }
+    /**
+     * Reads the result for the parsed key.
+     * @return the result or <code>null</code> if the file can not be read
+     */
+    private Result readFile(String key){
+        File file = getFile(key);
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if(in.readInt() != FILE_MAGIC){
+                throw new IOException("Unknown file format");
+            }
+            long created = in.readLong();
+            IRI contentItem = new IRI(in.readUTF());
+            Triple[] triples = new Triple[in.readInt()];
+            Map<Integer,BlankNode> blankNodes = new HashMap<Integer,BlankNode>();
+            for(int i = 0; i < triples.length; i++){
+                triples[i] = new TripleImpl((BlankNodeOrIRI)readTerm(in, blankNodes),
+                    (IRI)readTerm(in, blankNodes), readTerm(in, blankNodes));
+            }
+            return new Result(contentItem, new CompactIndexedImmutableGraph(
+                Arrays.asList(triples)), created);
+        } catch (IOException e) {
+            log.warn("Unable to read cached result from " + file + " (file will be deleted)", e);
+            return null;
+        } catch (ClassCastException e) {
+            log.warn("Invalid cached result in " + file + " (file will be deleted)", e);
+            return null;
+        } finally {
+            close(in);
+        }
+    }
+
+    private static RDFTerm readTerm(DataInputStream in, Map<Integer,BlankNode> blankNodes) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TERM_IRI:
+                return new IRI(in.readUTF());
+            case TERM_BLANK_NODE:
+                Integer id = in.readInt();
+                BlankNode node = blankNodes.get(id);
+                if(node == null){
+                    node = new BlankNode();
+                    blankNodes.put(id, node);
+                }
+                return node;
+            case TERM_LITERAL:
+                byte[] lexicalForm = new byte[in.readInt()];
+                in.readFully(lexicalForm);
+                IRI dataType = new IRI(in.readUTF());
+                String lang = in.readUTF();
+                return new LiteralImpl(new String(lexicalForm, UTF8), dataType,
+                    lang.isEmpty() ? null : new Language(lang));
+            default:
+                throw new IOException("Unknown RDFTerm type " + type);
+        }
+    }
+    /**
+     * A cached result. The metadata are kept as compact read-only graph.
+     */
+    private static final class Result {
+
+        final IRI contentItem;
+        final ImmutableGraph metadata;
+        final long created;
+
+        Result(IRI contentItem, ImmutableGraph metadata, long created){
+            this.contentItem = contentItem;
+            this.metadata = metadata;
+            this.created = created;
+        }
+    }
+}
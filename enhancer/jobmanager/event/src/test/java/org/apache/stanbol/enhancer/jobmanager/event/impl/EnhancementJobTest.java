@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.CHAIN_EXECUTION;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.ENGINE_EXECUTION;
+import static org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata.STATUS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.Status;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.helper.ExecutionMetadataHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
+import org.apache.stanbol.enhancer.servicesapi.rdf.Properties;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the state kept by the {@link EnhancementJob} in its
+ * {@link ExecutionRecord} and the execution metadata written in the full
+ * and the lightweight mode.<p>
+ * The execution plan used by this test has three engines. 'second' and the
+ * optional 'optional' engine depend on 'first'.
+ */
+public class EnhancementJobTest {
+
+    private static final String CHAIN = "test";
+    private static final String FIRST = "first";
+    private static final String SECOND = "second";
+    private static final String OPTIONAL = "optional";
+
+    private CompiledExecutionPlan plan;
+
+    @Before
+    public void init() throws Exception {
+        Graph graph = new IndexedGraph();
+        BlankNodeOrIRI ep = createExecutionPlan(graph, CHAIN, null);
+        BlankNodeOrIRI first = writeExecutionNode(graph, ep, FIRST, false, null, null);
+        writeExecutionNode(graph, ep, SECOND, false, Collections.singleton(first), null);
+        writeExecutionNode(graph, ep, OPTIONAL, true, Collections.singleton(first), null);
+        plan = new CompiledExecutionPlan(graph.getImmutableGraph());
+    }
+
+    @Test
+    public void testExecutionOrder() throws Exception {
+        for(boolean lightweight : new boolean[]{false, true}){
+            EnhancementJob job = createJob(lightweight);
+            assertEquals(lightweight, job.isLightweight());
+            job.startProcessing();
+            assertSame(Status.IN_PROGRESS, getStatus(job, CHAIN_EXECUTION));
+            //only the first engine is executable
+            assertEquals(Collections.singleton(getExecution(job, FIRST)), job.getExecutable());
+            job.setRunning(getExecution(job, FIRST));
+            assertSame(Status.IN_PROGRESS, getStatus(job, FIRST));
+            assertSame(Status.SCHEDULED, getStatus(job, SECOND));
+            assertTrue(job.getExecutable().isEmpty());
+            assertFalse(job.isFinished());
+            job.setCompleted(getExecution(job, FIRST));
+            assertSame(Status.COMPLETED, getStatus(job, FIRST));
+            //the dependent engines are executable after the first completed
+            assertEquals(new HashSet<BlankNodeOrIRI>(Arrays.asList(getExecution(job, SECOND),
+                getExecution(job, OPTIONAL))), job.getExecutable());
+            job.setRunning(getExecution(job, SECOND));
+            job.setRunning(getExecution(job, OPTIONAL));
+            job.setCompleted(getExecution(job, SECOND));
+            assertFalse(job.isFinished()); //optional is still running
+            //failed optional engines do not fail the chain
+            job.setFailed(getExecution(job, OPTIONAL), null, new EngineException("optional failed"));
+            assertFalse(job.isFailed());
+            assertTrue(job.isFinished());
+            assertSame(Status.COMPLETED, getStatus(job, SECOND));
+            assertSame(Status.FAILED, getStatus(job, OPTIONAL));
+            assertTrue(getMessage(job, OPTIONAL).contains("optional failed"));
+            assertSame(Status.COMPLETED, getStatus(job, CHAIN_EXECUTION));
+            //executions are recorded in the order they where processed
+            ExecutionRecord record = job.getExecutionRecord();
+            int first = getIndex(FIRST);
+            int second = getIndex(SECOND);
+            assertTrue(record.getStarted(first) > 0);
+            assertTrue(record.getStarted(first) <= record.getCompleted(first));
+            assertTrue(record.getCompleted(first) <= record.getStarted(second));
+            assertTrue(record.getStarted(second) <= record.getCompleted(second));
+            assertTrue(record.getStarted(CHAIN_EXECUTION) <= record.getStarted(first));
+            assertTrue(record.getCompleted(second) <= record.getCompleted(CHAIN_EXECUTION));
+            assertExecutionMetadata(job);
+        }
+    }
+
+    @Test
+    public void testFailingEngine() throws Exception {
+        for(boolean lightweight : new boolean[]{false, true}){
+            EnhancementJob job = createJob(lightweight);
+            job.startProcessing();
+            job.setRunning(getExecution(job, FIRST));
+            EngineException error = new EngineException("first failed");
+            job.setFailed(getExecution(job, FIRST), null, error);
+            assertTrue(job.isFailed());
+            assertTrue(job.isFinished());
+            assertSame(error, job.getError());
+            //no further engines are executed
+            assertTrue(job.getExecutable().isEmpty());
+            assertSame(Status.FAILED, getStatus(job, FIRST));
+            assertSame(Status.SCHEDULED, getStatus(job, SECOND));
+            assertSame(Status.SCHEDULED, getStatus(job, OPTIONAL));
+            assertSame(Status.FAILED, getStatus(job, CHAIN_EXECUTION));
+            assertTrue(job.getErrorMessage().contains(FIRST));
+            assertTrue(job.getErrorMessage().contains("first failed"));
+            assertExecutionMetadata(job);
+        }
+    }
+
+    @Test
+    public void testLightweightExecutionMetadata() throws Exception {
+        EnhancementJob job = createJob(true);
+        job.startProcessing();
+        job.setRunning(getExecution(job, FIRST));
+        job.setCompleted(getExecution(job, FIRST));
+        Graph em = job.getExecutionMetadata();
+        //only the em:ChainExecution is written
+        BlankNodeOrIRI chainExecution = ExecutionMetadataHelper.getChainExecution(em,
+            job.getContentItem().getUri());
+        assertNotNull(chainExecution);
+        assertFalse(em.filter(null, Properties.RDF_TYPE, ENGINE_EXECUTION).hasNext());
+        assertTrue(ExecutionMetadataHelper.getExecutions(em, chainExecution).isEmpty());
+        //writing the execution metadata adds all executions with the current state
+        job.writeExecutionMetadata();
+        assertEquals(plan.size(), ExecutionMetadataHelper.getExecutions(em, chainExecution).size());
+        assertExecutionMetadata(job);
+        //later state changes are directly written to the execution metadata
+        job.setRunning(getExecution(job, SECOND));
+        assertEquals(ExecutionMetadata.STATUS_IN_PROGRESS,
+            getStatusUri(em, getExecution(job, SECOND)));
+        job.writeExecutionMetadata(); //does nothing
+        assertEquals(plan.size(), ExecutionMetadataHelper.getExecutions(em, chainExecution).size());
+    }
+
+    /**
+     * Asserts that the execution metadata of the parsed job are consistent
+     * with its {@link ExecutionRecord}. For lightweight jobs the execution
+     * metadata are written first.
+     */
+    private void assertExecutionMetadata(EnhancementJob job){
+        job.writeExecutionMetadata();
+        Graph em = job.getExecutionMetadata();
+        BlankNodeOrIRI chainExecution = ExecutionMetadataHelper.getChainExecution(em,
+            job.getContentItem().getUri());
+        assertNotNull(chainExecution);
+        assertEquals(getStatus(job, CHAIN_EXECUTION).getUri(), getStatusUri(em, chainExecution));
+        for(String engine : Arrays.asList(FIRST, SECOND, OPTIONAL)){
+            assertEquals(engine, getStatus(job, engine).getUri(),
+                getStatusUri(em, getExecution(job, engine)));
+        }
+    }
+
+    private static IRI getStatusUri(Graph em, BlankNodeOrIRI execution){
+        Iterator<Triple> it = em.filter(execution, STATUS, null);
+        assertTrue("missing status for " + execution, it.hasNext());
+        RDFTerm status = it.next().getObject();
+        assertFalse("multiple status for " + execution, it.hasNext());
+        return (IRI)status;
+    }
+
+    private EnhancementJob createJob(boolean lightweight) throws IOException {
+        ContentItem ci = InMemoryContentItemFactory.getInstance().createContentItem(
+            new StringSource("content"));
+        return new EnhancementJob(ci, CHAIN, plan, false, lightweight);
+    }
+
+    private int getIndex(String engine){
+        for(int i = 0; i < plan.size(); i++){
+            if(engine.equals(plan.getEngine(i))){
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("unknown engine " + engine);
+    }
+
+    private BlankNodeOrIRI getExecution(EnhancementJob job, String engine){
+        return job.getExecution(plan.getNode(getIndex(engine)));
+    }
+
+    private Status getStatus(EnhancementJob job, String engine){
+        return getStatus(job, getIndex(engine));
+    }
+
+    private static Status getStatus(EnhancementJob job, int index){
+        return job.getExecutionRecord().getStatus(index);
+    }
+
+    private String getMessage(EnhancementJob job, String engine){
+        return job.getExecutionRecord().getMessage(getIndex(engine));
+    }
+}
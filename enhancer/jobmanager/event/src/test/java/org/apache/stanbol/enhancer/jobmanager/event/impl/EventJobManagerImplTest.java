@@ -0,0 +1,399 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.jobmanager.event.impl.ResultCacheTest.createChain;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.jobmanager.event.EventJobManagerMXBean;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.ResultCacheTest.StubEngine;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.ResultCacheTest.StubEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ChainManager;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementJobCallback;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.ComponentContext;
+
+/**
+ * Tests the {@link EventJobManagerImpl} by using the
+ * {@link ForkJoinExecutionScheduler} and stub engines.
+ */
+public class EventJobManagerImplTest {
+
+    private static final String ENGINE = "engine";
+    private static final String FAILING_ENGINE = "failing-engine";
+    private static final String BLOCKING_ENGINE = "blocking-engine";
+    private static final long TEST_TIMEOUT = 5000;
+
+    private StubEngineManager engineManager;
+    private Chain chain;
+    private EventJobManagerImpl jobManager;
+    private Dictionary<String,Object> config;
+    /**
+     * releases the executions of the {@link #BLOCKING_ENGINE}
+     */
+    private CountDownLatch blocked;
+
+    @Before
+    public void init(){
+        blocked = new CountDownLatch(1);
+        engineManager = new StubEngineManager();
+        engineManager.register(new StubEngine(ENGINE, false),
+            Collections.<String,Object>emptyMap());
+        engineManager.register(new TestEngine(FAILING_ENGINE, null),
+            Collections.<String,Object>emptyMap());
+        engineManager.register(new TestEngine(BLOCKING_ENGINE, blocked),
+            Collections.<String,Object>emptyMap());
+        chain = createChain("test", ENGINE);
+        config = new Hashtable<String,Object>();
+        config.put(EventJobManagerImpl.EXECUTION_SCHEDULER, EventJobManagerImpl.SCHEDULER_FORK_JOIN);
+        config.put(EventJobManagerImpl.SCHEDULER_PARALLELISM, 2);
+    }
+
+    @After
+    public void close(){
+        blocked.countDown();
+        if(jobManager != null){
+            jobManager.deactivate(createContext(config));
+        }
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        config.put(EventJobManagerImpl.RESULT_CACHE_SIZE, 10);
+        activate();
+        assertEquals(0, jobManager.getFinishedJobCount());
+        int num = 5;
+        for(int i = 0; i < num; i++){
+            jobManager.enhanceContent(createContentItem("content " + i), chain);
+        }
+        assertEquals(num, jobManager.getFinishedJobCount());
+        assertEquals(0, jobManager.getActiveJobCount());
+        assertEquals(0, jobManager.getQueuedExecutionCount());
+        assertTrue(jobManager.getLockWaitTime() >= 0);
+        assertEquals(0, jobManager.getResultCacheHitCount());
+        //enhancing the same content again replays the cached results
+        jobManager.enhanceContent(createContentItem("content 0"), chain);
+        assertEquals(1, jobManager.getResultCacheHitCount());
+        assertEquals(num, jobManager.getFinishedJobCount());
+        jobManager.invalidateResultCache();
+        jobManager.enhanceContent(createContentItem("content 0"), chain);
+        assertEquals(1, jobManager.getResultCacheHitCount());
+        assertEquals(num + 1, jobManager.getFinishedJobCount());
+    }
+
+    @Test
+    public void testStatisticsMXBean() throws Exception {
+        activate();
+        jobManager.enhanceContent(createContentItem("content"), chain);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(EventJobManagerMXBean.OBJECT_NAME);
+        server.registerMBean(new StandardMBean(jobManager, EventJobManagerMXBean.class, true), name);
+        try {
+            assertEquals(1L, server.getAttribute(name, "FinishedJobCount"));
+            assertEquals(0, server.getAttribute(name, "ActiveJobCount"));
+            //result caching is not enabled
+            assertEquals(-1L, server.getAttribute(name, "ResultCacheHitCount"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testStatisticsAfterDeactivation() throws Exception {
+        activate();
+        jobManager.enhanceContent(createContentItem("content"), chain);
+        EventJobManagerImpl deactivated = jobManager;
+        jobManager.deactivate(createContext(config));
+        jobManager = null;
+        assertEquals(-1, deactivated.getActiveJobCount());
+        assertEquals(-1, deactivated.getFinishedJobCount());
+    }
+
+    @Test
+    public void testAsyncCompletion() throws Exception {
+        activate();
+        RecordingCallback callback = new RecordingCallback();
+        ContentItem ci = createContentItem("content");
+        Future<ContentItem> future = jobManager.enhanceContent(ci, chain, callback);
+        assertSame(ci, future.get(TEST_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertTrue(future.isDone());
+        Result result = callback.results.poll(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertSame(ci, result.ci);
+        assertNull(result.error);
+        //callbacks are not called by the requesting thread
+        assertFalse(Thread.currentThread() == result.thread);
+        assertEquals(1, jobManager.getFinishedJobCount());
+        assertNoFurtherResults(callback);
+    }
+
+    @Test
+    public void testAsyncFailure() throws Exception {
+        activate();
+        RecordingCallback callback = new RecordingCallback();
+        ContentItem ci = createContentItem("content");
+        Future<ContentItem> future = jobManager.enhanceContent(ci, 
+            createChain("failing", ENGINE, FAILING_ENGINE), callback);
+        try {
+            future.get(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof EnhancementException);
+        }
+        Result result = callback.results.poll(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertSame(ci, result.ci);
+        assertTrue(result.error instanceof EnhancementException);
+        assertNoFurtherResults(callback);
+    }
+
+    @Test
+    public void testAsyncTimeout() throws Exception {
+        config.put(EventJobManagerImpl.MAX_ENHANCEMENT_JOB_WAIT_TIME, 500);
+        activate();
+        RecordingCallback callback = new RecordingCallback();
+        ContentItem ci = createContentItem("content");
+        long start = System.currentTimeMillis();
+        Future<ContentItem> future = jobManager.enhanceContent(ci, 
+            createChain("blocking", BLOCKING_ENGINE), callback);
+        //the request does not block ...
+        assertFalse(future.isDone());
+        try {
+            future.get(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException e) {
+            //... but times out after the max enhancement job wait time
+            assertTrue(e.getCause() instanceof ChainException);
+        }
+        assertTrue(System.currentTimeMillis() - start >= 500);
+        Result result = callback.results.poll(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertSame(ci, result.ci);
+        assertTrue(result.error instanceof ChainException);
+        //finishing the job after the timeout does not notify the callback again
+        blocked.countDown();
+        assertNoFurtherResults(callback);
+    }
+
+    private static void assertNoFurtherResults(RecordingCallback callback) throws InterruptedException {
+        assertNull("callback notified multiple times", 
+            callback.results.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private void activate() throws Exception {
+        jobManager = new EventJobManagerImpl();
+        jobManager.engineManager = engineManager;
+        jobManager.chainManager = new StubChainManager(chain);
+        jobManager.activate(createContext(config));
+    }
+
+    private static ContentItem createContentItem(String content) throws IOException {
+        return InMemoryContentItemFactory.getInstance().createContentItem(
+            new StringSource(content));
+    }
+
+    /**
+     * Creates a {@link ComponentContext} with the parsed properties. Services
+     * registered with the {@link BundleContext} are ignored.
+     */
+    static ComponentContext createContext(final Dictionary<String,Object> properties){
+        final ServiceRegistration registration = stub(ServiceRegistration.class, null);
+        final BundleContext bundleContext = stub(BundleContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return "registerService".equals(method.getName()) ? registration : null;
+            }
+        });
+        return stub(ComponentContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if("getProperties".equals(method.getName())){
+                    return properties;
+                } else if("getBundleContext".equals(method.getName())){
+                    return bundleContext;
+                } else {
+                    return null;
+                }
+            }
+        });
+    }
+    /**
+     * Creates a stub for the parsed interface
+     * @param type the interface
+     * @param handler the handler or <code>null</code> to return
+     * <code>null</code> for all methods
+     */
+    private static <T> T stub(Class<T> type, InvocationHandler handler){
+        if(handler == null){
+            handler = new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return null;
+                }
+            };
+        }
+        return type.cast(Proxy.newProxyInstance(EventJobManagerImplTest.class.getClassLoader(),
+            new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * The result of an enhancement as reported to the {@link RecordingCallback}
+     */
+    private static class Result {
+
+        final Thread thread = Thread.currentThread();
+        final ContentItem ci;
+        final Exception error;
+
+        Result(ContentItem ci, Exception error){
+            this.ci = ci;
+            this.error = error;
+        }
+    }
+
+    /**
+     * {@link EnhancementJobCallback} that records the reported results
+     */
+    private static class RecordingCallback implements EnhancementJobCallback {
+
+        final BlockingQueue<Result> results = new LinkedBlockingQueue<Result>();
+
+        @Override
+        public void completed(ContentItem ci) {
+            results.add(new Result(ci, null));
+        }
+        @Override
+        public void failed(ContentItem ci, Exception e) {
+            results.add(new Result(ci, e));
+        }
+    }
+
+    /**
+     * Engine that fails if no latch is parsed. Otherwise it blocks until
+     * the latch is released.
+     */
+    private static class TestEngine implements EnhancementEngine {
+
+        private final String name;
+        private final CountDownLatch latch;
+
+        TestEngine(String name, CountDownLatch latch){
+            this.name = name;
+            this.latch = latch;
+        }
+        @Override
+        public int canEnhance(ContentItem ci) throws EngineException {
+            return ENHANCE_ASYNC;
+        }
+        @Override
+        public void computeEnhancements(ContentItem ci) throws EngineException {
+            if(latch == null){
+                throw new EngineException(this, ci, "test failure", null);
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * {@link ChainManager} stub for a single (default) chain
+     */
+    static class StubChainManager implements ChainManager {
+
+        private final Chain chain;
+
+        StubChainManager(Chain chain){
+            this.chain = chain;
+        }
+        @Override
+        public Set<String> getActiveChainNames() {
+            return Collections.singleton(chain.getName());
+        }
+        @Override
+        public ServiceReference getReference(String name) {
+            return null;
+        }
+        @Override
+        public List<ServiceReference> getReferences(String name) {
+            return Collections.emptyList();
+        }
+        @Override
+        public Chain getChain(String name) {
+            return chain.getName().equals(name) ? chain : null;
+        }
+        @Override
+        public Chain getChain(ServiceReference chainReference) {
+            return null;
+        }
+        @Override
+        public boolean isChain(String name) {
+            return chain.getName().equals(name);
+        }
+        @Override
+        public Chain getDefault() {
+            return chain;
+        }
+        @Override
+        public CompiledExecutionPlan getCompiledExecutionPlan(Chain chain) throws ChainException {
+            return new CompiledExecutionPlan(chain.getExecutionPlan());
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.EnhancementJobHandler.EnhancementJobObserver;
+import org.apache.stanbol.enhancer.servicesapi.BatchEnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the micro-batching of {@link BatchEnhancementEngine} executions by
+ * the {@link ExecutionBatcher} and the {@link EnhancementJobHandler}.
+ */
+public class ExecutionBatcherTest {
+
+    private static final String ENGINE = "batch-engine";
+    private static final int MAX_BATCH_SIZE = 3;
+    /**
+     * used as max wait if batches are expected to be processed because
+     * they are full (or the batcher is closed)
+     */
+    private static final long LONG_WAIT = 60000;
+    private static final long TEST_TIMEOUT = 5000;
+
+    private StubBatchEngine engine;
+    private CompiledExecutionPlan plan;
+    private EnhancementJobHandler handler;
+    private ExecutionBatcher batcher;
+
+    @Before
+    public void init() throws Exception {
+        engine = new StubBatchEngine();
+        Graph graph = new IndexedGraph();
+        BlankNodeOrIRI ep = createExecutionPlan(graph, "test", null);
+        writeExecutionNode(graph, ep, ENGINE, false, null, null);
+        plan = new CompiledExecutionPlan(graph.getImmutableGraph());
+    }
+
+    @After
+    public void close(){
+        if(batcher != null){
+            batcher.close();
+        }
+        if(handler != null){
+            handler.close();
+        }
+    }
+
+    @Test
+    public void testFlushAtMaxBatchSize() throws Exception {
+        RecordingHandler recorder = new RecordingHandler(new StubEngineManager(engine));
+        handler = recorder;
+        batcher = new ExecutionBatcher(recorder, LONG_WAIT);
+        for(int i = 0; i < MAX_BATCH_SIZE - 1; i++){
+            assertTrue(batcher.add(engine, createJob(i), new BlankNode()));
+        }
+        assertNull(recorder.batches.poll());
+        assertTrue(batcher.add(engine, createJob(MAX_BATCH_SIZE), new BlankNode()));
+        //full batches are processed by the thread adding the last execution
+        Batch batch = recorder.batches.poll();
+        assertNotNull(batch);
+        assertEquals(MAX_BATCH_SIZE, batch.size);
+        assertSame(Thread.currentThread(), batch.thread);
+    }
+
+    @Test
+    public void testFlushAfterMaxWait() throws Exception {
+        long maxWait = 100;
+        RecordingHandler recorder = new RecordingHandler(new StubEngineManager(engine));
+        handler = recorder;
+        batcher = new ExecutionBatcher(recorder, maxWait);
+        long start = System.currentTimeMillis();
+        assertTrue(batcher.add(engine, createJob(0), new BlankNode()));
+        assertTrue(batcher.add(engine, createJob(1), new BlankNode()));
+        Batch batch = recorder.batches.poll(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertNotNull("partial batch not processed after the max wait time", batch);
+        assertTrue(batch.time - start >= maxWait);
+        assertEquals(2, batch.size);
+        assertFalse(Thread.currentThread() == batch.thread);
+    }
+
+    @Test
+    public void testPendingBatchesProcessedOnClose() throws Exception {
+        RecordingHandler recorder = new RecordingHandler(new StubEngineManager(engine));
+        handler = recorder;
+        batcher = new ExecutionBatcher(recorder, LONG_WAIT);
+        assertTrue(batcher.add(engine, createJob(0), new BlankNode()));
+        assertTrue(batcher.add(engine, createJob(1), new BlankNode()));
+        batcher.close();
+        Batch batch = recorder.batches.poll(TEST_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertNotNull("pending batch not processed on close", batch);
+        assertEquals(2, batch.size);
+        //no executions are accepted after close
+        assertFalse(batcher.add(engine, createJob(2), new BlankNode()));
+    }
+
+    @Test
+    public void testErrorsPerItem() throws Exception {
+        EngineException error = new EngineException("failed for the 2nd item");
+        engine.failures.put("content 1", error);
+        List<EnhancementJob> jobs = enhance(MAX_BATCH_SIZE);
+        assertEquals(Collections.singletonList(MAX_BATCH_SIZE), engine.batchSizes);
+        assertFalse(jobs.get(0).isFailed());
+        assertTrue(jobs.get(1).isFailed());
+        assertSame(error, jobs.get(1).getError());
+        assertFalse(jobs.get(2).isFailed());
+    }
+
+    @Test
+    public void testWrongResultSizeFailsAll() throws Exception {
+        engine.results = Collections.singletonList((EngineException)null);
+        List<EnhancementJob> jobs = enhance(MAX_BATCH_SIZE);
+        assertEquals(Collections.singletonList(MAX_BATCH_SIZE), engine.batchSizes);
+        for(EnhancementJob job : jobs){
+            assertTrue(job.isFailed());
+            assertTrue(job.getError() instanceof IllegalStateException);
+        }
+    }
+
+    /**
+     * Enhances the parsed number of content items by using an
+     * {@link EnhancementJobHandler} with micro-batching and waits for the
+     * completion of all jobs
+     */
+    private List<EnhancementJob> enhance(int num) throws IOException {
+        handler = new EnhancementJobHandler(new ForkJoinExecutionScheduler(MAX_BATCH_SIZE, 0),
+            new StubEngineManager(engine), LONG_WAIT);
+        List<EnhancementJob> jobs = new ArrayList<EnhancementJob>(num);
+        List<EnhancementJobObserver> observers = new ArrayList<EnhancementJobObserver>(num);
+        for(int i = 0; i < num; i++){
+            EnhancementJob job = createJob(i);
+            jobs.add(job);
+            observers.add(handler.register(job));
+        }
+        for(EnhancementJobObserver observer : observers){
+            assertTrue("enhancement job not completed", observer.waitForCompletion((int)TEST_TIMEOUT));
+        }
+        for(EnhancementJob job : jobs){
+            assertTrue(job.isFinished());
+        }
+        return jobs;
+    }
+
+    private EnhancementJob createJob(int i) throws IOException {
+        ContentItem ci = InMemoryContentItemFactory.getInstance().createContentItem(
+            new StringSource("content " + i));
+        return new EnhancementJob(ci, "test", plan, false, false);
+    }
+
+    /**
+     * A batch processed by the {@link RecordingHandler}
+     */
+    private static class Batch {
+
+        final Thread thread = Thread.currentThread();
+        final long time = System.currentTimeMillis();
+        final int size;
+
+        Batch(int size){
+            this.size = size;
+        }
+    }
+
+    /**
+     * Records batches instead of executing them
+     */
+    private static class RecordingHandler extends EnhancementJobHandler {
+
+        final BlockingQueue<Batch> batches = new LinkedBlockingQueue<Batch>();
+
+        RecordingHandler(EnhancementEngineManager engineManager){
+            super(new ForkJoinExecutionScheduler(1, 0), engineManager, 0);
+        }
+
+        @Override
+        void execute(BatchEnhancementEngine engine, List<EnhancementJob> jobs,
+                List<BlankNodeOrIRI> executions) {
+            assertEquals(jobs.size(), executions.size());
+            batches.add(new Batch(jobs.size()));
+        }
+    }
+
+    /**
+     * {@link BatchEnhancementEngine} stub that records the sizes of the
+     * processed batches. Returns the configured {@link #results} or - if 
+     * <code>null</code> - the configured {@link #failures} for the 
+     * processed content items.
+     */
+    private static class StubBatchEngine implements BatchEnhancementEngine {
+
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        /**
+         * errors by the content of the content items. The order of the
+         * items within a batch depends on the scheduling of the executions
+         */
+        final Map<String,EngineException> failures = new ConcurrentHashMap<String,EngineException>();
+        volatile List<EngineException> results;
+
+        @Override
+        public int canEnhance(ContentItem ci) throws EngineException {
+            return ENHANCE_ASYNC;
+        }
+        @Override
+        public void computeEnhancements(ContentItem ci) throws EngineException {
+            batchSizes.add(1);
+        }
+        @Override
+        public String getName() {
+            return ENGINE;
+        }
+        @Override
+        public int getMaxBatchSize() {
+            return MAX_BATCH_SIZE;
+        }
+        @Override
+        public List<EngineException> computeEnhancements(List<ContentItem> contentItems) throws EngineException {
+            batchSizes.add(contentItems.size());
+            if(results != null || failures.isEmpty()){
+                return results;
+            }
+            List<EngineException> errors = new ArrayList<EngineException>(contentItems.size());
+            for(ContentItem ci : contentItems){
+                try {
+                    errors.add(failures.get(ContentItemHelper.getText(ci.getBlob())));
+                } catch (IOException e) {
+                    throw new EngineException(this, ci, e);
+                }
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * {@link EnhancementEngineManager} stub for a single engine
+     */
+    private static class StubEngineManager implements EnhancementEngineManager {
+
+        private final EnhancementEngine engine;
+
+        StubEngineManager(EnhancementEngine engine){
+            this.engine = engine;
+        }
+        @Override
+        public ServiceReference getReference(String name) {
+            return null;
+        }
+        @Override
+        public List<ServiceReference> getReferences(String name) {
+            return Collections.emptyList();
+        }
+        @Override
+        public EnhancementEngine getEngine(String name) {
+            return engine.getName().equals(name) ? engine : null;
+        }
+        @Override
+        public boolean isEngine(String name) {
+            return engine.getName().equals(name);
+        }
+        @Override
+        public Set<String> getActiveEngineNames() {
+            return Collections.singleton(engine.getName());
+        }
+        @Override
+        public EnhancementEngine getEngine(ServiceReference engineReference) {
+            return engine;
+        }
+    }
+}
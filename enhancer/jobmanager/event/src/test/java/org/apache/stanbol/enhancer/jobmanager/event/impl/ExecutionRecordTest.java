@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.CHAIN_EXECUTION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.stanbol.enhancer.jobmanager.event.impl.ExecutionRecord.Status;
+import org.apache.stanbol.enhancer.servicesapi.rdf.ExecutionMetadata;
+import org.junit.Test;
+
+/**
+ * Tests the state transitions of the {@link ExecutionRecord}
+ */
+public class ExecutionRecordTest {
+
+    @Test
+    public void testInitialState(){
+        ExecutionRecord record = new ExecutionRecord(3);
+        assertEquals(3, record.size());
+        for(int i = CHAIN_EXECUTION; i < record.size(); i++){
+            assertSame(Status.SCHEDULED, record.getStatus(i));
+            assertEquals(0, record.getStarted(i));
+            assertEquals(0, record.getCompleted(i));
+            assertEquals(0, record.getDuration(i));
+            assertNull(record.getMessage(i));
+        }
+    }
+
+    @Test
+    public void testStateTransitions() throws InterruptedException {
+        ExecutionRecord record = new ExecutionRecord(2);
+        record.setInProgress(CHAIN_EXECUTION);
+        record.setInProgress(0);
+        assertSame(Status.IN_PROGRESS, record.getStatus(0));
+        assertTrue(record.getStarted(0) > 0);
+        assertEquals(0, record.getDuration(0)); //not yet finished
+        Thread.sleep(5);
+        record.setCompleted(0, "done");
+        assertSame(Status.COMPLETED, record.getStatus(0));
+        assertTrue(record.getCompleted(0) > record.getStarted(0));
+        assertEquals(record.getCompleted(0) - record.getStarted(0), record.getDuration(0));
+        assertEquals("done", record.getMessage(0));
+        //the other execution and the chain are not affected
+        assertSame(Status.SCHEDULED, record.getStatus(1));
+        assertSame(Status.IN_PROGRESS, record.getStatus(CHAIN_EXECUTION));
+        record.setInProgress(1);
+        record.setFailed(1, "failed");
+        record.setFailed(CHAIN_EXECUTION, "chain failed");
+        assertSame(Status.FAILED, record.getStatus(1));
+        assertEquals("failed", record.getMessage(1));
+        assertSame(Status.FAILED, record.getStatus(CHAIN_EXECUTION));
+        assertEquals("chain failed", record.getMessage(CHAIN_EXECUTION));
+        assertSame(Status.COMPLETED, record.getStatus(0));
+        //reset to scheduled
+        record.setScheduled(1);
+        assertSame(Status.SCHEDULED, record.getStatus(1));
+        assertEquals(0, record.getStarted(1));
+        assertEquals(0, record.getCompleted(1));
+        assertNull(record.getMessage(1));
+    }
+
+    @Test
+    public void testSet(){
+        ExecutionRecord record = new ExecutionRecord(1);
+        Date started = new Date(1000);
+        Date completed = new Date(3000);
+        record.set(0, Status.COMPLETED, started, completed, "message");
+        assertSame(Status.COMPLETED, record.getStatus(0));
+        assertEquals(started, ExecutionRecord.toDate(record.getStarted(0)));
+        assertEquals(completed, ExecutionRecord.toDate(record.getCompleted(0)));
+        assertEquals(2000, record.getDuration(0));
+        assertEquals("message", record.getMessage(0));
+        record.set(CHAIN_EXECUTION, Status.IN_PROGRESS, started, null, null);
+        assertEquals(0, record.getCompleted(CHAIN_EXECUTION));
+        assertNull(ExecutionRecord.toDate(record.getCompleted(CHAIN_EXECUTION)));
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testIndexOutOfBounds(){
+        new ExecutionRecord(2).getStatus(2);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testNegativeIndex(){
+        new ExecutionRecord(2).setInProgress(-2);
+    }
+
+    @Test
+    public void testStatusUri(){
+        for(Status status : Status.values()){
+            assertSame(status, Status.valueOf(status.getUri()));
+        }
+        assertSame(Status.FAILED, Status.valueOf(ExecutionMetadata.STATUS_FAILED));
+        assertNull(Status.valueOf(ExecutionMetadata.STATUS_SKIPPED));
+        assertNull(Status.valueOf((IRI)null));
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the {@link ForkJoinExecutionScheduler} including the limit for the
+ * concurrent executions per chain.
+ */
+public class ForkJoinExecutionSchedulerTest {
+
+    private static final long TEST_TIMEOUT = 5000;
+    private static final int MAX_CHAIN_CONCURRENCY = 2;
+
+    private ForkJoinExecutionScheduler scheduler;
+    private BlockingHandler handler;
+
+    @After
+    public void close(){
+        if(handler != null){
+            handler.release.release(1000);
+            handler.close(); //also closes the scheduler
+        }
+    }
+
+    @Test
+    public void testExecution() throws Exception {
+        scheduler = new ForkJoinExecutionScheduler(4, 0);
+        handler = new BlockingHandler(scheduler);
+        handler.release.release(1000); //do not block
+        int num = 10;
+        for(int i = 0; i < num; i++){
+            scheduler.schedule(handler, createJob("chain", i), new BlankNode());
+        }
+        assertTrue("executions not completed",
+            handler.executed.tryAcquire(num, TEST_TIMEOUT, TimeUnit.MILLISECONDS));
+        //executions MUST NOT be executed by the scheduling thread
+        assertFalse(handler.threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testNoChainConcurrencyLimit() throws Exception {
+        scheduler = new ForkJoinExecutionScheduler(4, 0);
+        handler = new BlockingHandler(scheduler);
+        for(int i = 0; i < 4; i++){
+            scheduler.schedule(handler, createJob("chain", i), new BlankNode());
+        }
+        //all executions of the chain are processed concurrently
+        assertTrue(handler.started.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(4, handler.getMaxRunning("chain"));
+    }
+
+    @Test
+    public void testChainConcurrencyLimit() throws Exception {
+        scheduler = new ForkJoinExecutionScheduler(8, MAX_CHAIN_CONCURRENCY);
+        handler = new BlockingHandler(scheduler);
+        int num = 6;
+        for(int i = 0; i < num; i++){
+            scheduler.schedule(handler, createJob("limited", i), new BlankNode());
+        }
+        scheduler.schedule(handler, createJob("other", 0), new BlankNode());
+        scheduler.schedule(handler, createJob("other", 1), new BlankNode());
+        //the limit of one chain does not block the executions of other chains
+        assertTrue(handler.started.await(TEST_TIMEOUT, TimeUnit.MILLISECONDS));
+        //give queued executions the chance to exceed the limit
+        Thread.sleep(100);
+        assertEquals(MAX_CHAIN_CONCURRENCY, handler.getRunning("limited"));
+        assertEquals(MAX_CHAIN_CONCURRENCY, handler.getRunning("other"));
+        //completed executions schedule the queued ones
+        handler.release.release(1000);
+        assertTrue("executions not completed",
+            handler.executed.tryAcquire(num + 2, TEST_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(MAX_CHAIN_CONCURRENCY, handler.getMaxRunning("limited"));
+        assertEquals(MAX_CHAIN_CONCURRENCY, handler.getMaxRunning("other"));
+    }
+
+    @Test
+    public void testScheduleAfterClose() throws Exception {
+        scheduler = new ForkJoinExecutionScheduler(2, 1);
+        handler = new BlockingHandler(scheduler);
+        handler.release.release(1000);
+        scheduler.close();
+        //executions scheduled after close are dropped
+        scheduler.schedule(handler, createJob("chain", 0), new BlankNode());
+        ForkJoinExecutionScheduler unlimited = new ForkJoinExecutionScheduler(2, 0);
+        unlimited.close();
+        unlimited.schedule(handler, createJob("chain", 1), new BlankNode());
+        assertFalse(handler.executed.tryAcquire(1, 100, TimeUnit.MILLISECONDS));
+    }
+
+    private EnhancementJob createJob(String chain, int i) throws IOException {
+        ContentItem ci = InMemoryContentItemFactory.getInstance().createContentItem(
+            new StringSource("content " + i));
+        Graph graph = new IndexedGraph();
+        BlankNodeOrIRI ep = createExecutionPlan(graph, chain, null);
+        writeExecutionNode(graph, ep, "engine", false, null, null);
+        return new EnhancementJob(ci, chain, new CompiledExecutionPlan(
+            graph.getImmutableGraph()), false, false);
+    }
+
+    /**
+     * Handler that records the executions per chain instead of executing
+     * them. Executions block until a permit of {@link #release} is
+     * available.
+     */
+    private static class BlockingHandler extends EnhancementJobHandler {
+
+        /**
+         * counted down by started executions
+         */
+        final CountDownLatch started = new CountDownLatch(4);
+        final Semaphore release = new Semaphore(0);
+        final Semaphore executed = new Semaphore(0);
+        final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread,Boolean>());
+        private final Map<String,AtomicInteger> running = new ConcurrentHashMap<String,AtomicInteger>();
+        private final Map<String,AtomicInteger> maxRunning = new ConcurrentHashMap<String,AtomicInteger>();
+
+        BlockingHandler(ExecutionScheduler scheduler){
+            super(scheduler, new StubEngineManager(), 0);
+        }
+
+        @Override
+        public void execute(EnhancementJob job, BlankNodeOrIRI execution) {
+            threads.add(Thread.currentThread());
+            AtomicInteger current = getCounter(running, job.getChainName());
+            AtomicInteger max = getCounter(maxRunning, job.getChainName());
+            int num = current.incrementAndGet();
+            for(int m = max.get(); num > m; m = max.get()){
+                max.compareAndSet(m, num);
+            }
+            started.countDown();
+            try {
+                release.acquire();
+                release.release(); //once released all executions can complete
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                current.decrementAndGet();
+                executed.release();
+            }
+        }
+
+        int getRunning(String chain){
+            return getCounter(running, chain).get();
+        }
+
+        int getMaxRunning(String chain){
+            return getCounter(maxRunning, chain).get();
+        }
+
+        private static AtomicInteger getCounter(Map<String,AtomicInteger> counters, String chain){
+            synchronized (counters) {
+                AtomicInteger counter = counters.get(chain);
+                if(counter == null){
+                    counter = new AtomicInteger();
+                    counters.put(chain, counter);
+                }
+                return counter;
+            }
+        }
+    }
+
+    /**
+     * {@link EnhancementEngineManager} stub without any engine
+     */
+    private static class StubEngineManager implements EnhancementEngineManager {
+
+        @Override
+        public ServiceReference getReference(String name) {
+            return null;
+        }
+        @Override
+        public List<ServiceReference> getReferences(String name) {
+            return Collections.emptyList();
+        }
+        @Override
+        public EnhancementEngine getEngine(String name) {
+            return null;
+        }
+        @Override
+        public boolean isEngine(String name) {
+            return false;
+        }
+        @Override
+        public Set<String> getActiveEngineNames() {
+            return Collections.emptySet();
+        }
+        @Override
+        public EnhancementEngine getEngine(ServiceReference engineReference) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.enhancer.jobmanager.event.impl;
+
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.createExecutionPlan;
+import static org.apache.stanbol.enhancer.servicesapi.helper.ExecutionPlanHelper.writeExecutionNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.clerezza.commons.rdf.BlankNode;
+import org.apache.clerezza.commons.rdf.BlankNodeOrIRI;
+import org.apache.clerezza.commons.rdf.Graph;
+import org.apache.clerezza.commons.rdf.IRI;
+import org.apache.clerezza.commons.rdf.ImmutableGraph;
+import org.apache.clerezza.commons.rdf.Language;
+import org.apache.clerezza.commons.rdf.Literal;
+import org.apache.clerezza.commons.rdf.RDFTerm;
+import org.apache.clerezza.commons.rdf.Triple;
+import org.apache.clerezza.commons.rdf.impl.utils.PlainLiteralImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TripleImpl;
+import org.apache.clerezza.commons.rdf.impl.utils.TypedLiteralImpl;
+import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.enhancer.contentitem.inmemory.InMemoryContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.Chain;
+import org.apache.stanbol.enhancer.servicesapi.ChainException;
+import org.apache.stanbol.enhancer.servicesapi.ContentItem;
+import org.apache.stanbol.enhancer.servicesapi.ContentItemFactory;
+import org.apache.stanbol.enhancer.servicesapi.EngineException;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngine;
+import org.apache.stanbol.enhancer.servicesapi.EnhancementEngineManager;
+import org.apache.stanbol.enhancer.servicesapi.ServiceProperties;
+import org.apache.stanbol.enhancer.servicesapi.helper.ContentItemHelper;
+import org.apache.stanbol.enhancer.servicesapi.helper.execution.CompiledExecutionPlan;
+import org.apache.stanbol.enhancer.servicesapi.impl.StringSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Tests the {@link ResultCache} by using an {@link EnhancementEngineManager}
+ * stub.
+ */
+public class ResultCacheTest {
+
+    private static final String ENGINE = "test-engine";
+    private static final String NONDETERMINISTIC_ENGINE = "nondeterministic-engine";
+    private static final IRI EXTRACTED_FROM = new IRI("http://fise.iks-project.eu/ontology/extracted-from");
+    private static final IRI ENTITY_REFERENCE = new IRI("http://fise.iks-project.eu/ontology/entity-reference");
+    private static final IRI LABEL = new IRI("http://www.w3.org/2000/01/rdf-schema#label");
+    private static final IRI CONFIDENCE = new IRI("http://fise.iks-project.eu/ontology/confidence");
+    private static final IRI XSD_DOUBLE = new IRI("http://www.w3.org/2001/XMLSchema#double");
+    private static final IRI ENTITY = new IRI("http://dbpedia.org/resource/Paris");
+
+    private static final ContentItemFactory ciFactory = InMemoryContentItemFactory.getInstance();
+
+    private static File baseDir;
+
+    private StubEngineManager engineManager;
+    private Chain chain;
+    private CompiledExecutionPlan plan;
+    private File directory;
+    private ResultCache cache;
+
+    @BeforeClass
+    public static void initBaseDir(){
+        String prefix = System.getProperty("basedir",".");
+        baseDir = new File(new File(prefix,"target"),"resultcache");
+    }
+
+    @Before
+    public void init(){
+        engineManager = new StubEngineManager();
+        engineManager.register(new StubEngine(ENGINE, false),
+            Collections.<String,Object>singletonMap("test.config", "a"));
+        engineManager.register(new StubEngine(NONDETERMINISTIC_ENGINE, true),
+            Collections.<String,Object>emptyMap());
+        chain = createChain("test", ENGINE);
+        plan = getPlan(chain);
+        directory = new File(baseDir, Long.toString(System.nanoTime()));
+    }
+
+    @After
+    public void close(){
+        if(cache != null){
+            cache.close();
+        }
+        File[] files = directory.listFiles();
+        if(files != null){
+            for(File file : files){
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void testFileRoundTrip() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, directory);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        String key = cache.getKey(ci, chain, plan);
+        assertNotNull(key);
+        assertFalse(cache.replay(key, ci));
+        //a literal longer as the 64k limit of DataOutput#writeUTF
+        char[] longText = new char[70000];
+        Arrays.fill(longText, 'x');
+        IRI enhancement = new IRI("urn:enhancement-1");
+        BlankNode node = new BlankNode();
+        ci.getMetadata().add(new TripleImpl(enhancement, EXTRACTED_FROM, ci.getUri()));
+        ci.getMetadata().add(new TripleImpl(enhancement, ENTITY_REFERENCE, ENTITY));
+        ci.getMetadata().add(new TripleImpl(enhancement, LABEL, node));
+        ci.getMetadata().add(new TripleImpl(node, LABEL, new PlainLiteralImpl("Paris", new Language("fr"))));
+        ci.getMetadata().add(new TripleImpl(node, LABEL, new PlainLiteralImpl(new String(longText))));
+        ci.getMetadata().add(new TripleImpl(node, CONFIDENCE, new TypedLiteralImpl("0.5", XSD_DOUBLE)));
+        cache.store(key, ci);
+        cache.close(); //waits for the write-behind
+        assertEquals(1, directory.list().length);
+
+        //read the file with a new cache instance
+        cache = new ResultCache(engineManager, 10, 0, directory);
+        ContentItem ci2 = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        assertEquals(key, cache.getKey(ci2, chain, plan));
+        assertTrue(cache.replay(key, ci2));
+        assertEquals(1, cache.getHits());
+        Graph metadata = ci2.getMetadata();
+        assertEquals(ci.getMetadata().size(), metadata.size());
+        IRI enhancement2 = (IRI)getSingle(metadata, null, EXTRACTED_FROM, ci2.getUri()).getSubject();
+        assertNotNull(getSingle(metadata, enhancement2, ENTITY_REFERENCE, ENTITY));
+        BlankNodeOrIRI node2 = (BlankNodeOrIRI)getSingle(metadata, enhancement2, LABEL, null).getObject();
+        Set<String> labels = new HashSet<String>();
+        for(Iterator<Triple> it = metadata.filter(node2, LABEL, null); it.hasNext();){
+            Literal label = (Literal)it.next().getObject();
+            labels.add(label.getLexicalForm() + "@" + label.getLanguage());
+        }
+        assertEquals(2, labels.size());
+        assertTrue(labels.contains("Paris@fr"));
+        assertTrue(labels.contains(new String(longText) + "@null"));
+        Literal confidence = (Literal)getSingle(metadata, node2, CONFIDENCE, null).getObject();
+        assertEquals("0.5", confidence.getLexicalForm());
+        assertEquals(XSD_DOUBLE, confidence.getDataType());
+    }
+
+    @Test
+    public void testRemapping() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, null);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        String key = cache.getKey(ci, chain, plan);
+        IRI enhancement = new IRI("urn:enhancement-1");
+        BlankNode node = new BlankNode();
+        ci.getMetadata().add(new TripleImpl(enhancement, EXTRACTED_FROM, ci.getUri()));
+        ci.getMetadata().add(new TripleImpl(enhancement, ENTITY_REFERENCE, ENTITY));
+        ci.getMetadata().add(new TripleImpl(enhancement, LABEL, node));
+        ci.getMetadata().add(new TripleImpl(node, LABEL, new PlainLiteralImpl("Paris")));
+        cache.store(key, ci);
+
+        ContentItem ci2 = ciFactory.createContentItem(new IRI("urn:test:other"),
+            new StringSource("Paris is a city"));
+        assertEquals(key, cache.getKey(ci2, chain, plan));
+        assertTrue(cache.replay(key, ci2));
+        Graph metadata = ci2.getMetadata();
+        assertEquals(4, metadata.size());
+        //the URI of the content item is replaced
+        assertFalse(metadata.filter(null, null, ci.getUri()).hasNext());
+        Triple extractedFrom = getSingle(metadata, null, EXTRACTED_FROM, ci2.getUri());
+        //enhancement URIs are replaced
+        IRI enhancement2 = (IRI)extractedFrom.getSubject();
+        assertFalse(enhancement.equals(enhancement2));
+        assertTrue(enhancement2.getUnicodeString().startsWith("urn:enhancement-"));
+        //other URIs are kept
+        assertNotNull(getSingle(metadata, enhancement2, ENTITY_REFERENCE, ENTITY));
+        //bnodes are replaced consistently
+        RDFTerm node2 = getSingle(metadata, enhancement2, LABEL, null).getObject();
+        assertTrue(node2 instanceof BlankNode);
+        assertFalse(node.equals(node2));
+        assertNotNull(getSingle(metadata, (BlankNode)node2, LABEL, null));
+
+        //replaying twice creates different enhancement URIs
+        ContentItem ci3 = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        assertTrue(cache.replay(key, ci3));
+        IRI enhancement3 = (IRI)getSingle(ci3.getMetadata(), null, EXTRACTED_FROM, ci3.getUri()).getSubject();
+        assertFalse(enhancement2.equals(enhancement3));
+    }
+
+    @Test
+    public void testFrozenMetadata() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, null);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        String key = cache.getKey(ci, chain, plan);
+        IRI enhancement = new IRI("urn:enhancement-1");
+        ci.getMetadata().add(new TripleImpl(enhancement, EXTRACTED_FROM, ci.getUri()));
+        ci.getMetadata().add(new TripleImpl(enhancement, ENTITY_REFERENCE, ENTITY));
+        assertTrue(ContentItemHelper.freezeMetadata(ci));
+        assertTrue(ci.getMetadata() instanceof ImmutableGraph);
+        cache.store(key, ci);
+        //frozen results can be replayed to content items with mutable metadata
+        ContentItem ci2 = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        assertTrue(cache.replay(key, ci2));
+        Graph metadata = ci2.getMetadata();
+        assertEquals(2, metadata.size());
+        IRI enhancement2 = (IRI)getSingle(metadata, null, EXTRACTED_FROM, ci2.getUri()).getSubject();
+        assertNotNull(getSingle(metadata, enhancement2, ENTITY_REFERENCE, ENTITY));
+        metadata.add(new TripleImpl(enhancement2, LABEL, new PlainLiteralImpl("Paris")));
+    }
+
+    @Test
+    public void testLruEvictionDeletesFiles() throws IOException {
+        cache = new ResultCache(engineManager, 2, 0, directory);
+        String[] keys = new String[3];
+        for(int i = 0; i < keys.length; i++){
+            ContentItem ci = ciFactory.createContentItem(new StringSource("content " + i));
+            keys[i] = cache.getKey(ci, chain, plan);
+            ci.getMetadata().add(new TripleImpl(new IRI("urn:enhancement-" + i), EXTRACTED_FROM, ci.getUri()));
+            cache.store(keys[i], ci);
+        }
+        cache.close(); //waits for pending writes and deletes
+        Set<String> files = new HashSet<String>(Arrays.asList(directory.list()));
+        assertEquals(2, files.size());
+        assertFalse(files.contains(keys[0] + ".bin"));
+        assertTrue(files.contains(keys[1] + ".bin"));
+        assertTrue(files.contains(keys[2] + ".bin"));
+        //also evicted from memory
+        assertFalse(cache.replay(keys[0], ciFactory.createContentItem(new StringSource("content 0"))));
+        assertTrue(cache.replay(keys[2], ciFactory.createContentItem(new StringSource("content 2"))));
+    }
+
+    @Test
+    public void testTimeToLive() throws Exception {
+        cache = new ResultCache(engineManager, 10, 50, null);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        String key = cache.getKey(ci, chain, plan);
+        ci.getMetadata().add(new TripleImpl(new IRI("urn:enhancement-1"), EXTRACTED_FROM, ci.getUri()));
+        cache.store(key, ci);
+        assertTrue(cache.replay(key, ciFactory.createContentItem(new StringSource("Paris is a city"))));
+        Thread.sleep(100);
+        assertFalse(cache.replay(key, ciFactory.createContentItem(new StringSource("Paris is a city"))));
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, directory);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris is a city"));
+        String key = cache.getKey(ci, chain, plan);
+        ci.getMetadata().add(new TripleImpl(new IRI("urn:enhancement-1"), EXTRACTED_FROM, ci.getUri()));
+        cache.store(key, ci);
+        cache.clear();
+        assertFalse(cache.replay(key, ciFactory.createContentItem(new StringSource("Paris is a city"))));
+        cache.close();
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void testKey() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, null);
+        String key = cache.getKey(ciFactory.createContentItem(new StringSource("Paris")), chain, plan);
+        assertNotNull(key);
+        //same content and configuration
+        assertEquals(key, cache.getKey(ciFactory.createContentItem(new StringSource("Paris")), chain, plan));
+        //different content
+        assertFalse(key.equals(cache.getKey(ciFactory.createContentItem(new StringSource("London")), chain, plan)));
+        //different engine configuration
+        engineManager.register(new StubEngine(ENGINE, false),
+            Collections.<String,Object>singletonMap("test.config", "b"));
+        assertFalse(key.equals(cache.getKey(ciFactory.createContentItem(new StringSource("Paris")), chain, plan)));
+    }
+
+    @Test
+    public void testNoKeyForNonEmptyMetadata() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, null);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris"));
+        ci.getMetadata().add(new TripleImpl(ci.getUri(), LABEL, new PlainLiteralImpl("parsed by the client")));
+        assertNull(cache.getKey(ci, chain, plan));
+    }
+
+    @Test
+    public void testNoKeyForRequestedContentParts() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, null);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris"));
+        ContentItemHelper.initRequestPropertiesContentPart(ci).put(
+            ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT_PART, Collections.singleton("*"));
+        assertNull(cache.getKey(ci, chain, plan));
+
+        ci = ciFactory.createContentItem(new StringSource("Paris"));
+        ContentItemHelper.initRequestPropertiesContentPart(ci).put(
+            ContentItemHelper.REQUEST_PROPERTY_OUTPUT_CONTENT, Collections.singleton("text/*"));
+        assertNull(cache.getKey(ci, chain, plan));
+
+        ci = ciFactory.createContentItem(new StringSource("Paris"));
+        ContentItemHelper.initRequestPropertiesContentPart(ci).put(
+            ContentItemHelper.REQUEST_PROPERTY_INCLUDE_EXECUTION_METADATA, Boolean.TRUE);
+        assertNull(cache.getKey(ci, chain, plan));
+
+        //other web request properties do not affect the key
+        String key = cache.getKey(ciFactory.createContentItem(new StringSource("Paris")), chain, plan);
+        ci = ciFactory.createContentItem(new StringSource("Paris"));
+        ContentItemHelper.initRequestPropertiesContentPart(ci).put(
+            ContentItemHelper.WEB_REQUEST_PROPERTY_PREFIX + "rdfFormat", "text/turtle");
+        assertEquals(key, cache.getKey(ci, chain, plan));
+    }
+
+    @Test
+    public void testNoKeyForNondeterministicEngine() throws IOException {
+        cache = new ResultCache(engineManager, 10, 0, null);
+        Chain chain = createChain("nondeterministic", ENGINE, NONDETERMINISTIC_ENGINE);
+        ContentItem ci = ciFactory.createContentItem(new StringSource("Paris"));
+        assertNull(cache.getKey(ci, chain, getPlan(chain)));
+    }
+
+    private static Triple getSingle(Graph graph, BlankNodeOrIRI s, IRI p, RDFTerm o){
+        Iterator<Triple> it = graph.filter(s, p, o);
+        assertTrue("missing triple " + s + " " + p + " " + o, it.hasNext());
+        Triple t = it.next();
+        assertFalse("multiple triples " + s + " " + p + " " + o, it.hasNext());
+        return t;
+    }
+
+    static Chain createChain(final String name, String...engines){
+        Graph graph = new IndexedGraph();
+        BlankNodeOrIRI ep = createExecutionPlan(graph, name, null);
+        for(String engine : engines){
+            writeExecutionNode(graph, ep, engine, false, null, null);
+        }
+        final ImmutableGraph executionPlan = graph.getImmutableGraph();
+        final Set<String> engineNames = new HashSet<String>(Arrays.asList(engines));
+        return new Chain() {
+            @Override
+            public ImmutableGraph getExecutionPlan() {
+                return executionPlan;
+            }
+            @Override
+            public Set<String> getEngines() {
+                return engineNames;
+            }
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static CompiledExecutionPlan getPlan(Chain chain){
+        try {
+            return new CompiledExecutionPlan(chain.getExecutionPlan());
+        } catch (ChainException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Engine stub that optionally declares itself as non-deterministic
+     */
+    static class StubEngine implements EnhancementEngine, ServiceProperties {
+
+        private final String name;
+        private final Map<String,Object> serviceProperties;
+
+        StubEngine(String name, boolean nondeterministic){
+            this.name = name;
+            this.serviceProperties = Collections.<String,Object>singletonMap(
+                ENHANCEMENT_ENGINE_NONDETERMINISTIC, nondeterministic);
+        }
+        @Override
+        public int canEnhance(ContentItem ci) throws EngineException {
+            return ENHANCE_SYNCHRONOUS;
+        }
+        @Override
+        public void computeEnhancements(ContentItem ci) throws EngineException {
+        }
+        @Override
+        public String getName() {
+            return name;
+        }
+        @Override
+        public Map<String,Object> getServiceProperties() {
+            return serviceProperties;
+        }
+    }
+
+    /**
+     * {@link EnhancementEngineManager} stub over registered engines
+     */
+    static class StubEngineManager implements EnhancementEngineManager {
+
+        private final Map<String,StubReference> references = new HashMap<String,StubReference>();
+
+        void register(EnhancementEngine engine, Map<String,Object> properties){
+            references.put(engine.getName(), new StubReference(engine, properties));
+        }
+        @Override
+        public ServiceReference getReference(String name) {
+            return references.get(name);
+        }
+        @Override
+        public List<ServiceReference> getReferences(String name) {
+            ServiceReference ref = getReference(name);
+            return ref == null ? Collections.<ServiceReference>emptyList() : Collections.singletonList(ref);
+        }
+        @Override
+        public EnhancementEngine getEngine(String name) {
+            StubReference ref = references.get(name);
+            return ref == null ? null : ref.engine;
+        }
+        @Override
+        public boolean isEngine(String name) {
+            return references.containsKey(name);
+        }
+        @Override
+        public Set<String> getActiveEngineNames() {
+            return references.keySet();
+        }
+        @Override
+        public EnhancementEngine getEngine(ServiceReference engineReference) {
+            return engineReference instanceof StubReference ? ((StubReference)engineReference).engine : null;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    static class StubReference implements ServiceReference {
+
+        private final EnhancementEngine engine;
+        private final Map<String,Object> properties;
+
+        StubReference(EnhancementEngine engine, Map<String,Object> properties){
+            this.engine = engine;
+            this.properties = new Hashtable<String,Object>(properties);
+            this.properties.put(EnhancementEngine.PROPERTY_NAME, engine.getName());
+            //volatile properties MUST NOT affect the cache key
+            this.properties.put(org.osgi.framework.Constants.SERVICE_ID, System.nanoTime());
+        }
+        @Override
+        public Object getProperty(String key) {
+            return properties.get(key);
+        }
+        @Override
+        public String[] getPropertyKeys() {
+            return properties.keySet().toArray(new String[properties.size()]);
+        }
+        @Override
+        public Bundle getBundle() {
+            return null;
+        }
+        @Override
+        public Bundle[] getUsingBundles() {
+            return null;
+        }
+        @Override
+        public boolean isAssignableTo(Bundle bundle, String className) {
+            return false;
+        }
+        @Override
+        public int compareTo(Object reference) {
+            return 0;
+        }
+    }
+}
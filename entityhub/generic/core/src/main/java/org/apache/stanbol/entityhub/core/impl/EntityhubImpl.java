@@ -45,6 +45,7 @@ import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.query.ReferenceConstraint;
 import org.apache.stanbol.entityhub.servicesapi.site.Site;
@@ -217,6 +218,62 @@ public final class EntityhubImpl implements Entityhub {//, ServiceListener {
         }
     }
     @Override
+    public final Iterable<Entity> getEntities(Iterable<String> entityIds) throws IllegalArgumentException, YardException {
+        if(entityIds == null){
+            throw new IllegalArgumentException("The parsed ids MUST NOT be NULL!");
+        }
+        List<String> ids = new ArrayList<String>();
+        for(String id : entityIds){
+            ids.add(id == null || id.isEmpty() ? null : id);
+        }
+        Representation[] data = new Representation[ids.size()];
+        Representation[] metadata = new Representation[ids.size()];
+        //(1) load the Representations for the parsed ids with a single request
+        List<String> lookup = new ArrayList<String>(ids.size());
+        int i = 0;
+        for(Representation rep : entityhubYard.getRepresentations(ids)){
+            String entityId = rep == null ? null : ModelUtils.getAboutRepresentation(rep);
+            if(entityId != null){ //metadata -> lookup the data
+                metadata[i] = rep;
+                lookup.add(entityId);
+            } else if(rep != null){ //data -> lookup the metadata
+                data[i] = rep;
+                //TODO: check the asumption that the Metadata always use the
+                //      extension ".meta" (see lookupMetadata(..))
+                lookup.add(rep.getId()+".meta");
+            } else {
+                lookup.add(null);
+            }
+            i++;
+        }
+        //(2) load the missing data or metadata with a second request
+        i = 0;
+        for(Representation rep : entityhubYard.getRepresentations(lookup)){
+            if(metadata[i] != null){
+                data[i] = rep;
+            } else if(data[i] != null){
+                metadata[i] = rep != null ? rep : entityhubYard.create(lookup.get(i));
+            }
+            i++;
+        }
+        List<Entity> entities = new ArrayList<Entity>(ids.size());
+        for(i = 0; i < data.length; i++){
+            Entity entity = null;
+            if(data[i] != null){
+                entity = new EntityImpl(config.getID(), data[i], metadata[i]);
+                if(!ManagedEntity.canWrap(entity)){
+                    log.info("The parsed id does not represent a locally managed Entity {}", entity);
+                    entity = null;
+                }
+            } else if(metadata[i] != null){
+                log.warn("Unable find representation for Entity {} (metadata: {}",
+                    ModelUtils.getAboutRepresentation(metadata[i]),metadata[i]);
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+    @Override
     public final boolean isRepresentation(String entityId) throws EntityhubException, IllegalArgumentException {
         if(entityId == null || entityId.isEmpty()){
             throw new IllegalArgumentException("The parsed id MUST NOT be NULL nor empty!");
@@ -640,6 +697,10 @@ public final class EntityhubImpl implements Entityhub {//, ServiceListener {
         return entityhubYard.find(query);
     }
     @Override
+    public final QueryResultIterator<Representation> iterate(FieldQuery query) throws YardException{
+        return entityhubYard.iterate(query);
+    }
+    @Override
     public final QueryResultList<String> findEntityReferences(FieldQuery query) throws YardException{
         return entityhubYard.findReferences(query);
     }
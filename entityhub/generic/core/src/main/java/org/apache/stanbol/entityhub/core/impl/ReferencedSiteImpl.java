@@ -22,6 +22,7 @@ import static org.apache.stanbol.entityhub.core.utils.SiteUtils.initEntityMetada
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +32,7 @@ import org.apache.stanbol.entityhub.core.mapping.FieldMappingUtils;
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.core.model.EntityImpl;
 import org.apache.stanbol.entityhub.core.query.DefaultQueryFactory;
+import org.apache.stanbol.entityhub.core.query.PagingQueryResultIterator;
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapper;
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapping;
@@ -39,6 +41,7 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.site.EntityDereferencer;
 import org.apache.stanbol.entityhub.servicesapi.site.EntitySearcher;
@@ -252,6 +255,38 @@ public class ReferencedSiteImpl implements Site {
         }
     }
 
+    @Override
+    public QueryResultIterator<Representation> iterate(FieldQuery query) throws SiteException {
+        if (siteConfiguration.getCacheStrategy() == CacheStrategy.all) {
+            try {
+                return cache.iterate(query);
+            } catch (YardException e) {
+                if (entitySearcher == null) {
+                    throw new SiteException("Unable to execute query on Cache "
+                            + siteConfiguration.getCacheId(), e);
+                } else {
+                    log.warn(
+                        String.format(
+                            "Error while performing query on Cache %s! Try to use remote site %s as fallback!",
+                            siteConfiguration.getCacheId(), siteConfiguration.getQueryUri()), e);
+                }
+            }
+        }
+        final EntitySearcher searcher = entitySearcher;
+        if (searcher == null) {
+            throw new SiteException(String.format("ReferencedSite %s does not support queries!",
+                getId()));
+        }
+        //the remote site is queried page by page
+        return new PagingQueryResultIterator<Representation>(query, Representation.class, 
+                PagingQueryResultIterator.DEFAULT_PAGE_SIZE) {
+            @Override
+            protected QueryResultList<Representation> fetch(FieldQuery pageQuery) throws IOException {
+                return searcher.find(pageQuery);
+            }
+        };
+    }
+
     @Override
     public QueryResultList<String> findReferences(FieldQuery query) throws SiteException {
         if (siteConfiguration.getCacheStrategy() == CacheStrategy.all) {
@@ -365,6 +400,96 @@ public class ReferencedSiteImpl implements Site {
         }
     }
 
+    @Override
+    public Iterable<Entity> getEntities(Iterable<String> ids) throws SiteException {
+        if (ids == null) {
+            throw new IllegalArgumentException("The parsed ids MUST NOT be NULL!");
+        }
+        List<String> idList = new ArrayList<String>();
+        for (String id : ids) {
+            idList.add(id == null || id.isEmpty() ? null : id);
+        }
+        Representation[] reps = new Representation[idList.size()];
+        boolean[] cachedVersion = new boolean[idList.size()];
+        boolean cacheLookup = false;
+        long start = System.currentTimeMillis();
+        if (cache != null) {
+            try { //get all cached representations with a single request
+                int i = 0;
+                for (Representation rep : cache.getRepresentations(idList)) {
+                    reps[i] = rep;
+                    cachedVersion[i] = rep != null;
+                    i++;
+                }
+                cacheLookup = true;
+            } catch (YardException e) {
+                if (dereferencer == null) {
+                    throw new SiteException(String.format("Unable to get Represetnations for %d ids form Cache %s",
+                        idList.size(), siteConfiguration.getCacheId()), e);
+                } else {
+                    log.warn(
+                        String.format(
+                            "Unable to get Represetnations for %d ids form Cache %s. Will dereference from remote site %s",
+                            idList.size(), siteConfiguration.getCacheId(), siteConfiguration.getAccessUri()), e);
+                }
+            }
+        }
+        // do no remote lookups on CacheStrategy.all!!
+        if (dereferencer != null && 
+                !(cacheLookup && siteConfiguration.getCacheStrategy() == CacheStrategy.all)) {
+            List<Integer> dereferenced = new ArrayList<Integer>();
+            for (int i = 0; i < reps.length; i++) {
+                String id = idList.get(i);
+                if (reps[i] == null && id != null) {
+                    try {
+                        reps[i] = dereferencer.dereference(id);
+                    } catch (IOException e) {
+                        throw new SiteException(String.format(
+                            "Unable to load Representation for entity %s form remote site %s with dereferencer %s",
+                            id, siteConfiguration.getAccessUri(), siteConfiguration.getEntityDereferencerType()), e);
+                    }
+                    if (reps[i] != null) {
+                        dereferenced.add(i);
+                    }
+                }
+            }
+            // representations loaded from remote site and cache is available
+            if (!dereferenced.isEmpty() && cache != null) {// -> cache them with a single request
+                List<Representation> toCache = new ArrayList<Representation>(dereferenced.size());
+                for (Integer i : dereferenced) {
+                    toCache.add(reps[i]);
+                }
+                try {
+                    Iterator<Representation> cached = cache.store(toCache).iterator();
+                    for (Integer i : dereferenced) {
+                        Representation rep = cached.next();
+                        if (rep != null) { // return the the cached version
+                            reps[i] = rep;
+                            cachedVersion[i] = true;
+                        }
+                    }
+                } catch (YardException e) {
+                    log.warn(String.format(
+                        "Unable to cache %d Represetnations in Cache %s! Representations not cached!", 
+                        toCache.size(), siteConfiguration.getCacheId()), e);
+                }
+            }
+        }
+        List<Entity> entities = new ArrayList<Entity>(reps.length);
+        for (int i = 0; i < reps.length; i++) {
+            if (reps[i] != null) {
+                Entity entity = new EntityImpl(getId(), reps[i], null);
+                initEntityMetadata(entity, siteMetadata,
+                    singletonMap(RdfResourceEnum.isChached.getUri(), (Object) Boolean.valueOf(cachedVersion[i])));
+                entities.add(entity);
+            } else {
+                entities.add(null);
+            }
+        }
+        log.debug("  - got {} Entities in {} ms", reps.length, System.currentTimeMillis() - start);
+        return entities;
+    }
+
     @Override
     public SiteConfiguration getConfiguration() {
         return siteConfiguration;
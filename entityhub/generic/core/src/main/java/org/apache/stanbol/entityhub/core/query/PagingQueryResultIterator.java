@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.core.query;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+
+/**
+ * {@link QueryResultIterator} that retrieves the results of a query page by
+ * page. Pages are requested by {@link #fetch(FieldQuery) fetching} a clone
+ * of the query with an adapted offset and limit. Iteration stops if the limit
+ * of the parsed query is reached or an empty page is returned.<p>
+ * The page size MUST NOT be greater as the maximum number of results 
+ * supported by the backend as results would be skipped otherwise.
+ *
+ * @param <T> the type of the results
+ */
+public abstract class PagingQueryResultIterator<T> implements QueryResultIterator<T> {
+
+    /**
+     * The default page size
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    
+    private final FieldQuery query;
+    private final Class<T> type;
+    private final int pageSize;
+    /**
+     * The offset of the next page
+     */
+    private int offset;
+    /**
+     * The number of remaining results or <code>-1</code> if the query has no limit
+     */
+    private int remaining;
+    
+    private Iterator<T> page;
+    private T next;
+    private boolean closed;
+
+    /**
+     * Creates an iterator over the results of the parsed query.
+     * @param query the query. The offset and the limit of the query are 
+     * respected
+     * @param type the type of the results
+     * @param pageSize the number of results requested by a single call to
+     * {@link #fetch(FieldQuery)}. If <code>&lt;= 0</code> the
+     * {@link #DEFAULT_PAGE_SIZE} is used.
+     * @throws IllegalArgumentException if <code>null</code> is parsed as 
+     * query or type
+     */
+    protected PagingQueryResultIterator(FieldQuery query, Class<T> type, int pageSize) throws IllegalArgumentException {
+        if(query == null){
+            throw new IllegalArgumentException("The parsed query MUST NOT be NULL!");
+        }
+        if(type == null){
+            throw new IllegalArgumentException("The type of the results MUST NOT be NULL");
+        }
+        this.query = query.clone();
+        this.type = type;
+        this.pageSize = pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+        this.offset = query.getOffset();
+        this.remaining = query.getLimit() != null ? query.getLimit() : -1;
+    }
+    /**
+     * Fetches the results of a page
+     * @param pageQuery the query for the page (a clone of the parsed query 
+     * with adapted offset and limit)
+     * @return the results of the page
+     * @throws Exception on any error while fetching the results. Exceptions
+     * are re-thrown by {@link #hasNext()} as {@link IllegalStateException}.
+     */
+    protected abstract QueryResultList<T> fetch(FieldQuery pageQuery) throws Exception;
+    
+    /**
+     * Called when this iterator is {@link #close() closed}. The default does
+     * nothing.
+     */
+    protected void onClose(){}
+    
+    @Override
+    public final boolean hasNext() {
+        while(next == null && !closed){
+            if(remaining == 0){ //limit reached
+                close();
+            } else if(page != null && page.hasNext()){
+                next = page.next(); //null results are skipped
+                if(next != null && remaining > 0){
+                    remaining--;
+                }
+            } else if(!fetchNextPage()){ //no more results
+                close();
+            }
+        }
+        return next != null;
+    }
+    /**
+     * Fetches the next page
+     * @return <code>false</code> if the page is empty
+     */
+    private boolean fetchNextPage(){
+        int rows = remaining < 0 ? pageSize : Math.min(pageSize, remaining);
+        FieldQuery pageQuery = query.clone();
+        pageQuery.setOffset(offset);
+        pageQuery.setLimit(rows);
+        QueryResultList<T> results;
+        try {
+            results = fetch(pageQuery);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        } catch (Exception e) {
+            close();
+            throw new IllegalStateException("Unable to fetch results "+offset+" to "
+                + (offset+rows) +" for query "+query, e);
+        }
+        offset = offset + rows;
+        page = results.iterator();
+        return !results.isEmpty();
+    }
+
+    @Override
+    public final T next() {
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public final void remove() {
+        throw new UnsupportedOperationException("Removal of query results is not supported!");
+    }
+
+    @Override
+    public final FieldQuery getQuery() {
+        return query;
+    }
+
+    @Override
+    public final Set<String> getSelectedFields() {
+        return query.getSelectedFields();
+    }
+
+    @Override
+    public final Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public final void close() {
+        if(!closed){
+            closed = true;
+            page = null;
+            onClose();
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.yard.Cache;
 import org.apache.stanbol.entityhub.servicesapi.yard.CacheStrategy;
@@ -182,6 +183,11 @@ public class CacheImpl implements Cache {
         return yard.find(query);
     }
 
+    @Override
+    public QueryResultIterator<Representation> iterate(FieldQuery query) throws YardException, IllegalArgumentException {
+        return yard.iterate(query);
+    }
+
     @Override
     public QueryResultList<String> findReferences(FieldQuery query) throws YardException, IllegalArgumentException {
         return yard.findReferences(query);
@@ -217,6 +223,11 @@ public class CacheImpl implements Cache {
         return yard.getRepresentation(id);
     }
 
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+        return yard.getRepresentations(ids);
+    }
+
     @Override
     public ValueFactory getValueFactory() {
         return yard.getValueFactory();
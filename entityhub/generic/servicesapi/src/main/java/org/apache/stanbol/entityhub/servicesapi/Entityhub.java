@@ -16,10 +16,12 @@
  */
 package org.apache.stanbol.entityhub.servicesapi;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.stanbol.entityhub.servicesapi.mapping.FieldMapper;
@@ -29,9 +31,11 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.Entity;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.site.Site;
 import org.apache.stanbol.entityhub.servicesapi.site.SiteManager;
+import org.apache.stanbol.entityhub.servicesapi.util.QueryResultListIterator;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
 
 /**
@@ -120,6 +124,29 @@ public interface Entityhub {
      * @throws EntityhubException On any error while performing the operation
      */
     Entity getEntity(String entityId) throws IllegalArgumentException, EntityhubException;
+    /**
+     * Getter for multiple Entities managed by the Entityhub. Representations
+     * and metadata of the Entities are retrieved with a minimal number of
+     * requests to the {@link Yard} used by the Entityhub.<p>
+     * The default implementation calls {@link #getEntity(String)} for every
+     * parsed ID.
+     * @param entityIds the IDs of the locally managed Entities
+     * @return the Entities in the iteration order of the parsed IDs. 
+     * <code>null</code> for <code>null</code> or empty IDs and IDs that do 
+     * not represent a locally managed Entity.
+     * @throws IllegalArgumentException if <code>null</code> is parsed
+     * @throws EntityhubException On any error while performing the operation
+     */
+    default Iterable<Entity> getEntities(Iterable<String> entityIds) throws IllegalArgumentException, EntityhubException {
+        if(entityIds == null){
+            throw new IllegalArgumentException("The parsed entity IDs MUST NOT be NULL!");
+        }
+        List<Entity> entities = new ArrayList<Entity>();
+        for(String entityId : entityIds){
+            entities.add(entityId == null || entityId.isEmpty() ? null : getEntity(entityId));
+        }
+        return entities;
+    }
     /**
      * Imports an Entity from a referenced site to the Entityhub. If there is 
      * already an Entity present for the parsed reference, than this Method throws an
@@ -206,6 +233,20 @@ public interface Entityhub {
      * @throws EntityhubException On any error while performing the operation
      */
     QueryResultList<Representation> find(FieldQuery query) throws EntityhubException;
+    /**
+     * Streaming variant of {@link #find(FieldQuery)}. Results are retrieved 
+     * while iterating. Callers MUST {@link QueryResultIterator#close() close} 
+     * the returned iterator if it is not completely consumed.<p>
+     * The default implementation iterates over the results of
+     * {@link #find(FieldQuery)}.
+     * @param query the query
+     * @return the iterator over the found symbols as representation 
+     * containing only the selected fields and there values.
+     * @throws EntityhubException On any error while performing the operation
+     */
+    default QueryResultIterator<Representation> iterate(FieldQuery query) throws EntityhubException {
+        return new QueryResultListIterator<Representation>(find(query));
+    }
     /**
      * Searches for Signs based on the parsed {@link FieldQuery} and returns
      * the selected Signs including the whole representation. Note that selected
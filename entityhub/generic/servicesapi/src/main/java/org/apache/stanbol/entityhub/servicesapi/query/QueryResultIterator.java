@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.servicesapi.query;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Iterator over the results of a query. In contrast to the 
+ * {@link QueryResultList} results are not loaded into memory before they are
+ * returned but are retrieved from the backend while iterating. Because of that
+ * the limit of the query is not restricted by the maximum number of results
+ * supported by {@link QueryResultList}s.<p>
+ * Users MUST {@link #close()} iterators that are not completely consumed
+ * to free resources (e.g. connections to the backend) held by the iterator.
+ * Errors while retrieving results are thrown as {@link IllegalStateException}
+ * with the original exception as cause.
+ *
+ * @param <T> the type of the results
+ */
+public interface QueryResultIterator<T> extends Iterator<T>, Closeable {
+
+    /**
+     * Getter for the query of this result iterator.
+     * @return the query used to create this result iterator
+     */
+    FieldQuery getQuery();
+    /**
+     * The selected fields of this query
+     * @return the selected fields
+     */
+    Set<String> getSelectedFields();
+    /**
+     * The type of the results
+     * @return the type
+     */
+    Class<T> getType();
+    /**
+     * Frees all resources held by this iterator. Calls to already closed 
+     * iterators are ignored.
+     */
+    @Override
+    void close();
+}
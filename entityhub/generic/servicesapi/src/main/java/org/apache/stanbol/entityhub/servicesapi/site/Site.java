@@ -17,6 +17,8 @@
 package org.apache.stanbol.entityhub.servicesapi.site;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.apache.stanbol.entityhub.servicesapi.Entityhub;
@@ -27,7 +29,9 @@ import org.apache.stanbol.entityhub.servicesapi.model.Entity;
 import org.apache.stanbol.entityhub.servicesapi.query.Constraint;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.apache.stanbol.entityhub.servicesapi.util.QueryResultListIterator;
 import org.apache.stanbol.entityhub.servicesapi.yard.Cache;
 
 /**
@@ -84,6 +88,23 @@ public interface Site {
      * Sites are usually IOExceptions.
      */
     QueryResultList<Representation> find(FieldQuery query) throws SiteException;
+    /**
+     * Streaming variant of {@link #find(FieldQuery)}. Results are retrieved
+     * while iterating. Callers MUST {@link QueryResultIterator#close() close}
+     * the returned iterator if it is not completely consumed.
+     * @param query the query
+     * @return the iterator over the found entities as representation 
+     * containing only the selected fields and there values.
+     * @throws SiteException If the request can not be executed both on
+     * the {@link Cache} and by using the {@link EntitySearcher} accessing 
+     * the remote site. Errors while iterating are thrown as 
+     * {@link IllegalStateException}s.<p>
+     * The default implementation iterates over the results of
+     * {@link #find(FieldQuery)}.
+     */
+    default QueryResultIterator<Representation> iterate(FieldQuery query) throws SiteException {
+        return new QueryResultListIterator<Representation>(find(query));
+    }
     /**
      * Searches for Entities based on the parsed {@link FieldQuery} and returns
      * the selected Entities including the whole representation. Note that selected
@@ -109,6 +130,30 @@ public interface Site {
      * Sites are usually IOExceptions.
      */
     Entity getEntity(String id) throws SiteException;
+    /**
+     * Getter for the Entities with the parsed ids. Entities available in the
+     * {@link Cache} are retrieved by a single request. Only missing entities
+     * are dereferenced from the remote site.<p>
+     * The default implementation calls {@link #getEntity(String)} for every
+     * parsed id.
+     * @param ids the ids of the entities
+     * @return the entities in the iteration order of the parsed ids. 
+     * <code>null</code> for <code>null</code> ids and entities that were not
+     * found
+     * @throws SiteException If the request can not be executed both on
+     * the {@link Cache} and by using the {@link EntityDereferencer}
+     * accessing the remote site.
+     */
+    default Iterable<Entity> getEntities(Iterable<String> ids) throws SiteException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed ids MUST NOT be NULL!");
+        }
+        List<Entity> entities = new ArrayList<Entity>();
+        for(String id : ids){
+            entities.add(id == null || id.isEmpty() ? null : getEntity(id));
+        }
+        return entities;
+    }
     /**
      * Getter for the Content of the Entity
      * @param id the id of the Entity
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.stanbol.entityhub.servicesapi.util;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+
+/**
+ * {@link QueryResultIterator} over the results of a {@link QueryResultList}.
+ * Used by the default implementations of the <code>iterate(FieldQuery)</code>
+ * methods of services that do not support streaming results. As all results
+ * are already in memory {@link #close()} does nothing.
+ *
+ * @param <T> the type of the results
+ */
+public class QueryResultListIterator<T> implements QueryResultIterator<T> {
+
+    private final QueryResultList<T> results;
+    private final Iterator<T> it;
+
+    /**
+     * Creates an iterator over the parsed query results
+     * @param results the query results
+     * @throws IllegalArgumentException if <code>null</code> is parsed
+     */
+    public QueryResultListIterator(QueryResultList<T> results) {
+        if(results == null){
+            throw new IllegalArgumentException("The parsed QueryResultList MUST NOT be NULL!");
+        }
+        this.results = results;
+        this.it = results.iterator();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return it.hasNext();
+    }
+
+    @Override
+    public T next() {
+        return it.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Removal of query results is not supported!");
+    }
+
+    @Override
+    public FieldQuery getQuery() {
+        return results.getQuery();
+    }
+
+    @Override
+    public Set<String> getSelectedFields() {
+        return results.getSelectedFields();
+    }
+
+    @Override
+    public Class<T> getType() {
+        return results.getType();
+    }
+
+    @Override
+    public void close() {
+        //all results are already loaded
+    }
+}
@@ -16,14 +16,19 @@
  */
 package org.apache.stanbol.entityhub.servicesapi.yard;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.stanbol.entityhub.servicesapi.Entityhub;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.site.Site;
 import org.apache.stanbol.entityhub.servicesapi.site.SiteManager;
+import org.apache.stanbol.entityhub.servicesapi.util.QueryResultListIterator;
 
 
 /**
@@ -182,6 +187,32 @@ public interface Yard {
      */
     Representation getRepresentation(String id) throws YardException, IllegalArgumentException;
 
+    /**
+     * Getter for the representations of all the parsed ids. Implementations
+     * are expected to retrieve all representations with a single (or a 
+     * minimal number of) requests to the backend.<br>
+     * <code>null</code> values, empty ids and ids of representations not 
+     * present in the Yard are added as <code>null</code> to the returned 
+     * Iterable. Otherwise same as {@link #getRepresentation(String)}.<p>
+     * The default implementation calls {@link #getRepresentation(String)}
+     * for every parsed id.
+     *
+     * @param ids the ids
+     * @return the representations in the same iteration order as the parsed ids
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Iterable
+     * @throws YardException On any error related to the Yard
+     */
+    default Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed ids MUST NOT be NULL!");
+        }
+        List<Representation> representations = new ArrayList<Representation>();
+        for(String id : ids){
+            representations.add(id == null || id.isEmpty() ? null : getRepresentation(id));
+        }
+        return representations;
+    }
+
     /**
      * Updates the store with the new state of the parsed representation
      *
@@ -233,6 +264,27 @@ public interface Yard {
      */
     QueryResultList<Representation> find(FieldQuery query) throws YardException, IllegalArgumentException;
 
+    /**
+     * Streaming variant of {@link #find(FieldQuery)}. Results are retrieved
+     * from the backend while iterating. Queries without a limit iterate over
+     * all selected representations, regardless of the maximum number of
+     * results supported by {@link #find(FieldQuery)}.<p>
+     * Callers MUST {@link QueryResultIterator#close() close} the returned
+     * iterator if it is not completely consumed.<p>
+     * The default implementation iterates over the results of
+     * {@link #find(FieldQuery)} and is therefore restricted by the maximum
+     * number of results supported by this Yard.
+     *
+     * @param query the query
+     * @return the iterator over the view onto selected representations as 
+     * defined by the query
+     * @throws IllegalArgumentException if <code>null</code> is parsed as Query
+     * @throws YardException On any error related to the Yard
+     */
+    default QueryResultIterator<Representation> iterate(FieldQuery query) throws YardException, IllegalArgumentException {
+        return new QueryResultListIterator<Representation>(find(query));
+    }
+
     /**
      * Searches for all the Representation fulfilling the constraints of the
      * query and returns the (whole) representation as stored in the Yard.
@@ -39,6 +39,7 @@ import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.Text;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.query.RangeConstraint;
 import org.apache.stanbol.entityhub.servicesapi.query.ReferenceConstraint;
@@ -244,6 +245,46 @@ public abstract class YardTest {
         assertNull(getYard().getRepresentation(id));
     }
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetRepresentationsWithNull() throws YardException {
+        getYard().getRepresentations(null);
+    }
+
+    /**
+     * Tests that {@link Yard#getRepresentations(Iterable)} returns the
+     * Representations in the order of the parsed ids and <code>null</code> for
+     * <code>null</code>, empty and not existing ids.
+     */
+    @Test
+    public void testGetRepresentations() throws YardException {
+        String testId = "urn:yard.test.testGetRepresentations:representation.id1";
+        String testId2 = "urn:yard.test.testGetRepresentations:representation.id2";
+        String nonExistingId = "urn:yard.test.testGetRepresentations:representation.nonExisting";
+        String field = "urn:the.field:used.for.this.Test";
+        Yard yard = getYard();
+        Representation test = create(testId, true);
+        Representation test2 = create(testId2, true);
+        test2.add(field, "test value 2");
+        yard.store(test2);
+        Iterable<Representation> retrievedIterable = yard.getRepresentations(
+            Arrays.asList(testId2, null, nonExistingId, "", testId));
+        assertNotNull(retrievedIterable);
+        Iterator<Representation> retrieved = retrievedIterable.iterator();
+        assertTrue(retrieved.hasNext());
+        Representation rep = retrieved.next();
+        assertEquals(test2, rep);
+        assertEquals("test value 2", rep.getFirst(field));
+        assertTrue(retrieved.hasNext());
+        assertNull(retrieved.next());
+        assertTrue(retrieved.hasNext());
+        assertNull(retrieved.next());
+        assertTrue(retrieved.hasNext());
+        assertNull(retrieved.next());
+        assertTrue(retrieved.hasNext());
+        assertEquals(test, retrieved.next());
+        assertFalse(retrieved.hasNext());
+    }
+
     /**
      * This tests that {@link Representation} retrieved from the Yard do not influence other
      * {@link Representation} instances for the same ID. It is important, that when different
@@ -652,6 +693,54 @@ public abstract class YardTest {
                 Arrays.asList( data.r2.getId(), data.r2en.getId(), data.r2de.getId()), 
                 Arrays.asList(data.textField, data.refField));
     }
+    /**
+     * Same as {@link #testFindText()} but using 
+     * {@link Yard#iterate(FieldQuery)} to execute the queries. Also tests that
+     * the limit of the query is respected by the returned iterator.
+     */
+    @Test
+    public void testIterate() throws YardException {
+        //init the test data
+        FieldQueryTestData data = getFieldQueryTestData();
+        //query for all languages and value1
+        FieldQuery query = getYard().getQueryFactory().createFieldQuery();
+        query.setConstraint(data.textField, new TextConstraint(data.textValue1.getText()));
+        query.addSelectedField(data.textField);
+        query.addSelectedField(data.refField);
+        Set<String> expected = new HashSet<String>(Arrays.asList(
+            data.r1.getId(), data.r1en.getId(), data.r1de.getId()));
+        QueryResultIterator<Representation> results = getYard().iterate(query);
+        assertNotNull("NULL result for query "+query+"!", results);
+        try {
+            while(results.hasNext()){
+                Representation result = results.next();
+                assertTrue("Result '"+ result.getId() + "' is missing for Query "
+                    + query +"!", expected.remove(result.getId()));
+                assertTrue("Missing selected field '" + data.textField + "' of result "
+                    + result.getId(), result.get(data.textField).hasNext());
+            }
+        } finally {
+            results.close();
+        }
+        assertTrue("Missing expected result(s) " + expected
+            + "for query" + query +"!", expected.isEmpty());
+        
+        //same with a limit
+        query.setLimit(2);
+        results = getYard().iterate(query);
+        int count = 0;
+        try {
+            while(results.hasNext()){
+                assertNotNull(results.next());
+                count++;
+            }
+        } finally {
+            results.close();
+        }
+        assertEquals(2, count);
+        assertFalse("hasNext() MUST return false after the iterator was closed",
+            results.hasNext());
+    }
     /**
      * Same as {@link #testFindText()} but using 
      * {@link Yard#findRepresentation(FieldQuery)} to execute the queries
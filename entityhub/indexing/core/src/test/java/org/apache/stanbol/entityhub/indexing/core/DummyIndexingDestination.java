@@ -110,7 +110,7 @@ public class DummyIndexingDestination implements IndexingDestination {
         public Representation getRepresentation(String id) throws YardException, IllegalArgumentException {
             return IndexerTest.indexedData.get(id);
         }
-        
+
         @Override
         public FieldQueryFactory getQueryFactory() {
             return DefaultQueryFactory.getInstance();
@@ -20,6 +20,9 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.apache.marmotta.ldpath.api.backend.RDFBackend;
@@ -50,7 +53,15 @@ import org.slf4j.LoggerFactory;
  * </ul>
  * In addition two further methods are defined to create {@link FieldQuery field queries} and
  * o lookup the {@link ValueFactory} instance needed to create URIs and
- * Literals.
+ * Literals.<p>
+ * If {@link #isPrefetch() prefetching} is enabled (default: disabled) and
+ * the backend {@link #supportsBatchLookup() supports batched lookups} the
+ * references returned by a single call to {@link #listObjects(Object, Object)}
+ * are remembered as frontier of the next path step. If one of those is
+ * requested the Representations of the other references of the same result
+ * are loaded by a single call to {@link #getRepresentations(List)}. If the backend
+ * {@link #supportsThreading() supports threading} large frontiers are split
+ * and loaded in parallel by using the {@link #getThreadPool() thread pool}.
  * @author Rupert Westenthaler
  *
  */
@@ -60,6 +71,17 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
     public static final int DEFAULT_MAX_RESULTS = 100000; //select a maximum of 100k entities
 
     private static final int LRU_CACHE_SIZE = 1000;
+    /**
+     * The maximum number of Representations prefetched by a single call to
+     * {@link #getRepresentations(List)}. MUST BE considerable lower as the
+     * {@link #LRU_CACHE_SIZE}.
+     */
+    private static final int MAX_PREFETCH = 100;
+    /**
+     * The minimum number of Representations loaded by a single task submitted
+     * to the {@link #getThreadPool() thread pool}
+     */
+    private static final int MIN_PARALLEL_PREFETCH = 10;
     
     @SuppressWarnings("serial")
     private final Map<String,Representation> lru =
@@ -73,6 +95,21 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      * Locally add Representations.
      */
     private final Map<String,Representation> local = new TreeMap<String,Representation>(); 
+    /**
+     * The frontier: maps not yet cached references returned by 
+     * {@link #listObjects(Object, Object)} to all references of the same
+     * result. Only those are prefetched together.
+     */
+    @SuppressWarnings("serial")
+    private final Map<String,List<String>> frontier =
+        new LinkedHashMap<String,List<String>>(16, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(java.util.Map.Entry<String,List<String>> eldest) {
+            return size() > LRU_CACHE_SIZE;
+        }
+    };
+    
+    private boolean prefetch = false;
     /**
      * EnumMap to avoid instantiations of URIs for the limited set of
      * DataTypes
@@ -94,20 +131,81 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
         this(null);
     }
     public AbstractBackend(ValueConverterFactory valueConverter) {
+        this(valueConverter, false);
+    }
+    /**
+     * @param valueConverter the value converter or <code>null</code> to use
+     * the default
+     * @param prefetch if {@link #isPrefetch() prefetching} is enabled
+     */
+    protected AbstractBackend(ValueConverterFactory valueConverter, boolean prefetch) {
         if(valueConverter == null){
             this.valueConverter = ValueConverterFactory.getDefaultInstance();
         } else {
             this.valueConverter = valueConverter;
         }
+        this.prefetch = prefetch;
     }    
     protected abstract ValueFactory getValueFactory();
     
     protected abstract Representation getRepresentation(String id) throws EntityhubException;
+    /**
+     * Lookup of multiple Representations used for prefetching. This default
+     * implementation calls {@link #getRepresentation(String)} for each id.
+     * Subclasses that override this to use multi-get requests of the used
+     * service need also to override {@link #supportsBatchLookup()}.
+     * @param ids the ids
+     * @return the Representations in the order of the parsed ids. 
+     * <code>null</code> for ids that are not found.
+     * @throws EntityhubException on any error while loading the Representations
+     */
+    protected Iterable<Representation> getRepresentations(List<String> ids) throws EntityhubException {
+        List<Representation> reps = new ArrayList<Representation>(ids.size());
+        for(String id : ids){
+            reps.add(getRepresentation(id));
+        }
+        return reps;
+    }
+    
+    /**
+     * If this backend provides a batched lookup by overriding
+     * {@link #getRepresentations(List)}. Prefetching is only done by backends
+     * that return <code>true</code>, as loading Representations one by one
+     * in advance would only add requests for references that are never
+     * traversed.
+     * @return <code>false</code>
+     */
+    protected boolean supportsBatchLookup() {
+        return false;
+    }
     
     protected abstract QueryResultList<String> query(FieldQuery query) throws EntityhubException;
 
     protected abstract FieldQuery createQuery();
 
+    /**
+     * Getter for the prefetching state
+     * @return if prefetching is enabled (default <code>false</code>)
+     */
+    public final boolean isPrefetch() {
+        return prefetch;
+    }
+    /**
+     * Enables/Disables prefetching of the Representations referenced by 
+     * the values returned by {@link #listObjects(Object, Object)}. Has no
+     * effect if the backend does not {@link #supportsBatchLookup() support
+     * batched lookups}.
+     * @param prefetch the state
+     */
+    public final void setPrefetch(boolean prefetch) {
+        this.prefetch = prefetch;
+        if(!prefetch){
+            synchronized (frontier) {
+                frontier.clear();
+            }
+        }
+    }
+
     @Override
     public boolean supportsThreading() {
         return false;
@@ -209,10 +307,12 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
             //Here the assumption is the the LD Path program will request
             //a lot of properties for a very low numbers of Entities
             // .. there fore we keep here representations within an LRU cache 
-            Representation r = getCached(subject.toString());
+            String id = subject.toString();
+            Representation r = getCached(id);
             if(r == null){
                 try {
-                    r = getRepresentation(subject.toString());
+                    List<String> siblings = removeFromFrontier(id);
+                    r = siblings != null ? prefetch(id, siblings) : getRepresentation(id);
                 } catch (EntityhubException e) {
                     throw new IllegalStateException(e.getMessage(),e);
                 }
@@ -229,6 +329,9 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
                         results.addAll(ModelUtils.addToCollection(r.get(properties.next()), results));
                     }
                 }
+                if(prefetch && supportsBatchLookup()){
+                    addToFrontier(results);
+                }
             } else {
                 results = Collections.emptyList();
             }
@@ -377,6 +480,138 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
 //        }
 //        return converted;
     }
+    /*
+     * Utility methods for prefetching
+     */
+    /**
+     * Loads the Representation with the parsed id together with the not yet
+     * loaded Representations of the same {@link #listObjects(Object, Object)}
+     * result by using a single call to {@link #getRepresentations(List)} 
+     * (or parallel calls if {@link #supportsThreading()}). All loaded 
+     * Representations are added to the {@link #lru} cache.
+     * @param id the id of the requested Representation
+     * @param siblings the references of the same result
+     * @return the Representation for the parsed id or <code>null</code> if
+     * not found.
+     * @throws EntityhubException on any error while loading the Representations
+     */
+    private Representation prefetch(String id, List<String> siblings) throws EntityhubException {
+        List<String> ids = new ArrayList<String>(Math.min(MAX_PREFETCH, siblings.size()));
+        ids.add(id);
+        synchronized (frontier) {
+            for(Iterator<String> it = siblings.iterator(); it.hasNext() && ids.size() < MAX_PREFETCH;){
+                String next = it.next();
+                //only load siblings still part of the frontier
+                if(frontier.get(next) == siblings){
+                    frontier.remove(next);
+                    if(getCached(next) == null){
+                        ids.add(next);
+                    }
+                }
+            }
+        }
+        log.debug("prefetch {} Representations",ids.size());
+        Representation r = null;
+        for(Representation loaded : load(ids)){
+            if(loaded != null){
+                if(id.equals(loaded.getId())){
+                    r = loaded;
+                } else {
+                    toLRU(loaded);
+                }
+            }
+        }
+        return r;
+    }
+    /**
+     * Loads the Representations for the parsed ids. Uses the 
+     * {@link #getThreadPool() thread pool} to load them in parallel if 
+     * {@link #supportsThreading()}.
+     * @param ids the ids
+     * @return the loaded Representations
+     * @throws EntityhubException on any error while loading the Representations
+     */
+    private Collection<Representation> load(List<String> ids) throws EntityhubException {
+        ThreadPoolExecutor pool = supportsThreading() ? getThreadPool() : null;
+        int tasks = pool == null ? 1 : 
+            Math.min(pool.getMaximumPoolSize(), ids.size()/MIN_PARALLEL_PREFETCH);
+        Collection<Representation> reps = new ArrayList<Representation>(ids.size());
+        if(tasks < 2){
+            for(Representation rep : getRepresentations(ids)){
+                reps.add(rep);
+            }
+            return reps;
+        }
+        int taskSize = (ids.size() + tasks - 1)/tasks;
+        List<Future<Iterable<Representation>>> futures = new ArrayList<Future<Iterable<Representation>>>(tasks);
+        for(int i = 0; i < ids.size(); i = i + taskSize){
+            final List<String> taskIds = ids.subList(i, Math.min(ids.size(), i + taskSize));
+            futures.add(pool.submit(new Callable<Iterable<Representation>>() {
+                @Override
+                public Iterable<Representation> call() throws EntityhubException {
+                    return getRepresentations(taskIds);
+                }
+            }));
+        }
+        for(Future<Iterable<Representation>> future : futures){
+            try {
+                for(Representation rep : future.get()){
+                    reps.add(rep);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while prefetching Representations",e);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof EntityhubException){
+                    throw (EntityhubException)e.getCause();
+                } else if(e.getCause() instanceof RuntimeException){
+                    throw (RuntimeException)e.getCause();
+                } else {
+                    throw new IllegalStateException(e.getCause().getMessage(),e.getCause());
+                }
+            }
+        }
+        return reps;
+    }
+    /**
+     * Adds not cached references of the parsed values to the {@link #frontier}
+     * @param values the values returned by a single call to
+     * {@link #listObjects(Object, Object)}
+     */
+    private void addToFrontier(Collection<Object> values){
+        List<String> siblings = new ArrayList<String>(Math.min(values.size(), MAX_PREFETCH));
+        for(Iterator<Object> it = values.iterator(); it.hasNext() && siblings.size() < MAX_PREFETCH;){
+            Object value = it.next();
+            if(value instanceof Reference){
+                String ref = value.toString();
+                if(getCached(ref) == null){
+                    siblings.add(ref);
+                }
+            }
+        }
+        if(siblings.size() < 2){
+            return; //nothing to prefetch
+        }
+        synchronized (frontier) {
+            for(String ref : siblings){
+                frontier.put(ref, siblings);
+            }
+        }
+    }
+    /**
+     * Removes the parsed id from the {@link #frontier}
+     * @param id the id
+     * @return the references of the same result or <code>null</code> if the
+     * id was not part of the frontier
+     */
+    private List<String> removeFromFrontier(String id){
+        if(!prefetch || !supportsBatchLookup()){
+            return null;
+        }
+        synchronized (frontier) {
+            return frontier.remove(id);
+        }
+    }
     /*
      * Utility methods for managing the local cache
      */
@@ -385,7 +620,9 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      * @param r
      */
     private void toLRU(Representation r){
-        lru.put(r.getId(), r);
+        synchronized (lru) {
+            lru.put(r.getId(), r);
+        }
     }
     /**
      * Adds a Representation already available in-memory to this RDFBackend.
@@ -397,8 +634,10 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      */
     public void addLocal(Representation r){
         if(r != null){
-            local.put(r.getId(), r);
-            lru.remove(r.getId());
+            synchronized (lru) {
+                local.put(r.getId(), r);
+                lru.remove(r.getId());
+            }
         } //else ignore
     }
     /**
@@ -407,8 +646,10 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      */
     public void removeLocal(String id){
         if(id != null){
-            local.remove(id);
-            lru.remove(id);
+            synchronized (lru) {
+                local.remove(id);
+                lru.remove(id);
+            }
         }
     }
     /**
@@ -417,7 +658,9 @@ public abstract class AbstractBackend implements RDFBackend<Object> {
      * @return the {@link Representation} or <code>null</code> if not cached
      */
     private Representation getCached(String id){
-        Representation r = local.get(id);
-        return r == null ? lru.get(id) : r;
+        synchronized (lru) {
+            Representation r = local.get(id);
+            return r == null ? lru.get(id) : r;
+        }
     }
 }
@@ -25,7 +25,10 @@ public class EntityhubBackend extends YardBackend {
         this(entityhub,null);
     }
     public EntityhubBackend(Entityhub entityhub,ValueConverterFactory valueConverter) {
-        super(entityhub.getYard(),valueConverter);
+        this(entityhub,valueConverter,false);
+    }
+    public EntityhubBackend(Entityhub entityhub,ValueConverterFactory valueConverter, boolean prefetch) {
+        super(entityhub.getYard(),valueConverter,prefetch);
     }
     
 }
@@ -16,6 +16,9 @@
 */
 package org.apache.stanbol.entityhub.ldpath.backend;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
@@ -39,7 +42,16 @@ public class SiteBackend extends AbstractBackend {
         this(site,vf,null);
     }
     public SiteBackend(Site site,ValueFactory vf,ValueConverterFactory valueConverter) {
-        super(valueConverter);
+        this(site,vf,valueConverter,false);
+    }
+    /**
+     * @param site the site
+     * @param vf the value factory or <code>null</code> for the default
+     * @param valueConverter the value converter or <code>null</code> for the default
+     * @param prefetch if Entities are {@link #isPrefetch() prefetched}
+     */
+    public SiteBackend(Site site,ValueFactory vf,ValueConverterFactory valueConverter, boolean prefetch) {
+        super(valueConverter,prefetch);
         if(site == null){
             throw new IllegalArgumentException("The parsed ReferencedSite MUST NOT be NULL");
         }
@@ -56,6 +68,18 @@ public class SiteBackend extends AbstractBackend {
         return entity != null ? entity.getRepresentation():null;
     }
     @Override
+    protected Iterable<Representation> getRepresentations(List<String> ids) throws EntityhubException {
+        List<Representation> reps = new ArrayList<Representation>(ids.size());
+        for(Entity entity : site.getEntities(ids)){
+            reps.add(entity != null ? entity.getRepresentation():null);
+        }
+        return reps;
+    }
+    @Override
+    protected boolean supportsBatchLookup() {
+        return true;
+    }
+    @Override
     protected ValueFactory getValueFactory() {
         return vf;
     }
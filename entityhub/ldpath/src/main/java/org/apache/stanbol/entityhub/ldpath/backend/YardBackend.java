@@ -16,6 +16,8 @@
 */
 package org.apache.stanbol.entityhub.ldpath.backend;
 
+import java.util.List;
+
 import org.apache.stanbol.entityhub.core.mapping.ValueConverterFactory;
 import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
@@ -32,7 +34,15 @@ public class YardBackend extends AbstractBackend {
         this(yard,null);
     }
     public YardBackend(Yard yard,ValueConverterFactory valueConverter) {
-        super(valueConverter);
+        this(yard,valueConverter,false);
+    }
+    /**
+     * @param yard the yard
+     * @param valueConverter the value converter or <code>null</code> for the default
+     * @param prefetch if Representations are {@link #isPrefetch() prefetched}
+     */
+    public YardBackend(Yard yard,ValueConverterFactory valueConverter, boolean prefetch) {
+        super(valueConverter,prefetch);
         if(yard == null){
             throw new IllegalArgumentException("The parsed Yard MUST NOT be NULL");
         }
@@ -47,6 +57,14 @@ public class YardBackend extends AbstractBackend {
         return yard.getRepresentation(id);
     }
     @Override
+    protected Iterable<Representation> getRepresentations(List<String> ids) throws EntityhubException {
+        return yard.getRepresentations(ids);
+    }
+    @Override
+    protected boolean supportsBatchLookup() {
+        return true;
+    }
+    @Override
     protected ValueFactory getValueFactory() {
         return yard.getValueFactory();
     }
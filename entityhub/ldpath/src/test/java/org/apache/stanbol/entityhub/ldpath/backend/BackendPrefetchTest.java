@@ -0,0 +1,196 @@
+/*
+* Licensed to the Apache Software Foundation (ASF) under one or more
+* contributor license agreements.  See the NOTICE file distributed with
+* this work for additional information regarding copyright ownership.
+* The ASF licenses this file to You under the Apache License, Version 2.0
+* (the "License"); you may not use this file except in compliance with
+* the License.  You may obtain a copy of the License at
+*
+*     http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.apache.stanbol.entityhub.ldpath.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
+import org.apache.stanbol.entityhub.core.query.DefaultQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.EntityhubException;
+import org.apache.stanbol.entityhub.servicesapi.model.Representation;
+import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the prefetching of Representations by the {@link AbstractBackend}
+ */
+public class BackendPrefetchTest {
+
+    private static final String NS = "http://www.example.org/prefetch/";
+    private static final String BROADER = "http://www.w3.org/2004/02/skos/core#broader";
+    private static final String LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+    private static final String RELATED = "http://www.w3.org/2004/02/skos/core#related";
+    private static final int NUM_PARENTS = 20;
+    private static final int NUM_RELATED = 5;
+
+    private ValueFactory vf = InMemoryValueFactory.getInstance();
+    private CountingBackend backend;
+
+    @Before
+    public void initBackend(){
+        Map<String,Representation> data = new HashMap<String,Representation>();
+        Representation root = vf.createRepresentation(NS+"root");
+        for(int i=0;i<NUM_PARENTS;i++){
+            Representation parent = vf.createRepresentation(NS+"parent"+i);
+            parent.addNaturalText(LABEL, "parent "+i, "en");
+            data.put(parent.getId(), parent);
+            root.addReference(BROADER, parent.getId());
+        }
+        for(int i=0;i<NUM_RELATED;i++){
+            Representation related = vf.createRepresentation(NS+"related"+i);
+            related.addNaturalText(LABEL, "related "+i, "en");
+            data.put(related.getId(), related);
+            root.addReference(RELATED, related.getId());
+        }
+        data.put(root.getId(), root);
+        backend = new CountingBackend(data, true, true);
+    }
+    
+    @Test
+    public void testPrefetchDisabledByDefault(){
+        assertFalse(new CountingBackend(new HashMap<String,Representation>(), true).isPrefetch());
+    }
+    
+    @Test
+    public void testPrefetch(){
+        Collection<String> labels = getParentLabels();
+        assertEquals(NUM_PARENTS, labels.size());
+        //one request for the root and one for all parents
+        assertEquals(1, backend.singleRequests);
+        assertEquals(1, backend.batchRequests);
+    }
+
+    @Test
+    public void testNoPrefetch(){
+        backend.setPrefetch(false);
+        Collection<String> labels = getParentLabels();
+        assertEquals(NUM_PARENTS, labels.size());
+        assertEquals(NUM_PARENTS + 1, backend.singleRequests);
+        assertEquals(0, backend.batchRequests);
+    }
+    
+    @Test
+    public void testNoPrefetchWithoutBatchLookup(){
+        backend = new CountingBackend(backend.data, false, true);
+        Collection<String> labels = getParentLabels();
+        assertEquals(NUM_PARENTS, labels.size());
+        assertEquals(NUM_PARENTS + 1, backend.singleRequests);
+        assertEquals(0, backend.batchRequests);
+    }
+    
+    @Test
+    public void testPrefetchScopedToResult(){
+        Object root = backend.createURI(NS+"root");
+        Collection<Object> parents = backend.listObjects(root, BROADER);
+        Collection<Object> related = backend.listObjects(root, RELATED);
+        assertEquals(NUM_RELATED, related.size());
+        //requesting a parent only loads the other parents
+        backend.listObjects(parents.iterator().next(), LABEL);
+        assertEquals(1, backend.batchRequests);
+        assertEquals(NUM_PARENTS, backend.lastBatchSize);
+        //requesting a related entity only loads the other related ones
+        backend.listObjects(related.iterator().next(), LABEL);
+        assertEquals(2, backend.batchRequests);
+        assertEquals(NUM_RELATED, backend.lastBatchSize);
+        assertEquals(1, backend.singleRequests);
+    }
+    
+    @Test
+    public void testNoPrefetchOfNotRequested(){
+        Collection<Object> parents = backend.listObjects(backend.createURI(NS+"root"), BROADER);
+        assertEquals(NUM_PARENTS, parents.size());
+        //references of the frontier are only loaded if requested
+        assertEquals(1, backend.singleRequests);
+        assertEquals(0, backend.batchRequests);
+    }
+    /**
+     * Emulates the evaluation of the <code>skos:broader / rdfs:label</code>
+     * path on the root node
+     */
+    private Collection<String> getParentLabels(){
+        Collection<String> labels = new ArrayList<String>();
+        for(Object parent : backend.listObjects(backend.createURI(NS+"root"), BROADER)){
+            for(Object label : backend.listObjects(parent, LABEL)){
+                labels.add(backend.stringValue(label));
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Backend over an in-memory map that counts the requests
+     */
+    private static class CountingBackend extends AbstractBackend {
+        
+        final Map<String,Representation> data;
+        private final boolean batchLookup;
+        int singleRequests = 0;
+        int batchRequests = 0;
+        int lastBatchSize = 0;
+        
+        CountingBackend(Map<String,Representation> data, boolean batchLookup){
+            this.data = data;
+            this.batchLookup = batchLookup;
+        }
+        CountingBackend(Map<String,Representation> data, boolean batchLookup, boolean prefetch){
+            super(null, prefetch);
+            this.data = data;
+            this.batchLookup = batchLookup;
+        }
+        @Override
+        protected boolean supportsBatchLookup() {
+            return batchLookup;
+        }
+        @Override
+        protected ValueFactory getValueFactory() {
+            return InMemoryValueFactory.getInstance();
+        }
+        @Override
+        protected Representation getRepresentation(String id) throws EntityhubException {
+            singleRequests++;
+            return data.get(id);
+        }
+        @Override
+        protected Iterable<Representation> getRepresentations(List<String> ids) throws EntityhubException {
+            batchRequests++;
+            lastBatchSize = ids.size();
+            List<Representation> reps = new ArrayList<Representation>(ids.size());
+            for(String id : ids){
+                reps.add(data.get(id));
+            }
+            return reps;
+        }
+        @Override
+        protected QueryResultList<String> query(FieldQuery query) throws EntityhubException {
+            throw new UnsupportedOperationException();
+        }
+        @Override
+        protected FieldQuery createQuery() {
+            return DefaultQueryFactory.getInstance().createFieldQuery();
+        }
+    }
+}
@@ -19,7 +19,9 @@ package org.apache.stanbol.entityhub.site.managed.impl;
 import static org.apache.stanbol.entityhub.core.utils.SiteUtils.extractSiteMetadata;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.stanbol.commons.namespaceprefix.NamespacePrefixService;
@@ -39,6 +41,7 @@ import org.apache.stanbol.entityhub.servicesapi.model.ValueFactory;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQueryFactory;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.site.ManagedSite;
 import org.apache.stanbol.entityhub.servicesapi.site.ManagedSiteException;
@@ -116,6 +119,15 @@ public final class YardSite implements ManagedSite {
         }
     }
 
+    @Override
+    public QueryResultIterator<Representation> iterate(FieldQuery query) throws ManagedSiteException {
+        try {
+            return getYard().iterate(query);
+        } catch (YardException e) {
+            throw new ManagedSiteException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public QueryResultList<Entity> findEntities(FieldQuery query) throws ManagedSiteException {
         QueryResultList<Representation> results;
@@ -138,6 +150,27 @@ public final class YardSite implements ManagedSite {
                         }, Entity.class),Entity.class);
     }
 
+    @Override
+    public Iterable<Entity> getEntities(Iterable<String> ids) throws ManagedSiteException {
+        Iterable<Representation> reps;
+        try {
+            reps = getYard().getRepresentations(ids);
+        } catch (YardException e) {
+            throw new ManagedSiteException(e.getMessage(), e);
+        }
+        List<Entity> entities = new ArrayList<Entity>();
+        for(Representation rep : reps){
+            if(rep != null){
+                Entity entity = new EntityImpl(config.getId(), rep, null);
+                SiteUtils.initEntityMetadata(entity, siteMetadata, null);
+                entities.add(entity);
+            } else {
+                entities.add(null);
+            }
+        }
+        return entities;
+    }
+
     @Override
     public Entity getEntity(String id) throws ManagedSiteException {
         Representation rep;
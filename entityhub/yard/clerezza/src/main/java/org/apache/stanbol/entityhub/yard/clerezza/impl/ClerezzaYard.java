@@ -52,6 +52,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.apache.stanbol.commons.indexedgraph.IndexedGraph;
+import org.apache.stanbol.entityhub.core.query.PagingQueryResultIterator;
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
 import org.apache.stanbol.entityhub.core.query.QueryUtils;
 import org.apache.stanbol.entityhub.servicesapi.util.AdaptingIterator;
@@ -68,6 +69,7 @@ import org.apache.stanbol.entityhub.query.clerezza.SparqlQueryUtils.EndpointType
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
 import org.apache.stanbol.entityhub.servicesapi.yard.YardException;
@@ -246,6 +248,24 @@ public class ClerezzaYard extends AbstractYard implements Yard {
         }
         return getRepresentation(new IRI(id),true);
     }
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) throws IllegalArgumentException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed Iterable over representation ids MUST NOT be NULL!");
+        }
+        //acquire the read lock only once for all requested Representations
+        final Lock readLock = readLockGraph();
+        try {
+            ArrayList<Representation> reps = new ArrayList<Representation>();
+            for(String id : ids){
+                reps.add(id == null || id.isEmpty() ? null : 
+                    getRepresentation(new IRI(id), true));
+            }
+            return reps;
+        } finally {
+            readLock.unlock();
+        }
+    }
     /**
      * Internally used to create Representations for URIs
      * @param uri the uri
@@ -569,6 +589,24 @@ public class ClerezzaYard extends AbstractYard implements Yard {
         //      created before the method returns.
         return new QueryResultListImpl<Representation>(query,representationIterator,Representation.class);
     }
+    /**
+     * Executes the parsed query page wise with offset/limit. The page size is
+     * the configured maximum number of query results.
+     */
+    @Override
+    public final QueryResultIterator<Representation> iterate(FieldQuery parsedQuery) throws IllegalArgumentException {
+        if(parsedQuery == null){
+            throw new IllegalArgumentException("The parsed query MUST NOT be NULL!");
+        }
+        int pageSize = getConfig().getMaxQueryResultNumber();
+        return new PagingQueryResultIterator<Representation>(parsedQuery, Representation.class, 
+                pageSize > 0 ? pageSize : PagingQueryResultIterator.DEFAULT_PAGE_SIZE) {
+            @Override
+            protected QueryResultList<Representation> fetch(FieldQuery pageQuery) throws YardException {
+                return find(pageQuery);
+            }
+        };
+    }
     @Override
     public final QueryResultList<Representation> find(FieldQuery parsedQuery) throws YardException, IllegalArgumentException {
         if(parsedQuery == null){
@@ -23,6 +23,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
@@ -37,6 +38,7 @@ import org.apache.stanbol.entityhub.query.sparql.SparqlQueryUtils;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.query.UnsupportedQueryTypeException;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
@@ -268,6 +270,33 @@ public class SesameYard extends AbstractYard implements Yard {
             }
         }
     }
+    @Override
+    public Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException, IllegalArgumentException {
+        if(ids == null){
+            throw new IllegalArgumentException("The parsed Iterable over representation ids MUST NOT be NULL!");
+        }
+        RepositoryConnection con = null;
+        try {
+            //use a single connection for all requested Representations
+            con = repository.getConnection();
+            con.begin();
+            List<Representation> reps = new ArrayList<Representation>();
+            for(String id : ids){
+                reps.add(id == null || id.isEmpty() ? null :
+                    getRepresentation(con, sesameFactory.createIRI(id), true));
+            }
+            con.commit();
+            return reps;
+        } catch (RepositoryException e) {
+            throw new YardException("Unable to get Representations", e);
+        } finally {
+            if(con != null){
+                try {
+                    con.close();
+                } catch (RepositoryException ignore) {}
+            }
+        }
+    }
     /**
      * Internally used to create Representations for IRIs
      * @param iri the iri
@@ -767,6 +796,180 @@ public class SesameYard extends AbstractYard implements Yard {
             }
         }
     }
+    /**
+     * Streams the results of the parsed query. The {@link TupleQueryResult} 
+     * of the SPARQL query is consumed lazily while iterating over the
+     * results. The used {@link RepositoryConnection} is kept open until the
+     * returned iterator is closed (or completely consumed).<p>
+     * The limit of the parsed query is respected. However the configured
+     * default and maximum number of query results are ignored.
+     */
+    @Override
+    public QueryResultIterator<Representation> iterate(FieldQuery parsedQuery) throws YardException, IllegalArgumentException {
+        if(parsedQuery == null){
+            throw new IllegalArgumentException("The parsed query MUST NOT be NULL!");
+        }
+        final SparqlFieldQuery query = SparqlFieldQueryFactory.getSparqlFieldQuery(parsedQuery);
+        RepositoryConnection con = null;
+        TupleQueryResult results = null;
+        try {
+            con = repository.getConnection();
+            con.begin();
+            //execute the query
+            int limit = query.getLimit() != null ? query.getLimit() : -1;
+            results = executeSparqlFieldQuery(con,query, limit, true);
+            QueryResultIterator<Representation> it = new StreamingResultIterator(con, query, results);
+            //connection and results are now closed by the iterator
+            con = null;
+            results = null;
+            return it;
+        } catch (RepositoryException e) {
+            throw new YardException("Unable to execute iterate query", e);
+        } catch (QueryEvaluationException e) {
+            throw new YardException("Unable to execute iterate query", e);
+        } finally {
+            if(results != null) { //close the result if present
+                try {
+                    results.close();
+                } catch (QueryEvaluationException ignore) {/* ignore */}
+            }
+            if(con != null){
+                try {
+                    con.close();
+                } catch (RepositoryException ignore) {/* ignore */}
+            }
+        }
+    }
+    /**
+     * {@link QueryResultIterator} that lazily creates {@link Representation}s
+     * for the rows of a {@link TupleQueryResult}. Consecutive rows with the
+     * same subject are added to the same Representation (Sesame evaluates the
+     * OPTIONAL patterns of the selected fields for each result of the
+     * sub-select so rows of the same subject are returned consecutively).
+     * Each Representation
+     * uses its own {@link Model} so that processed results can be garbage
+     * collected.
+     */
+    private final class StreamingResultIterator implements QueryResultIterator<Representation> {
+
+        private final RepositoryConnection con;
+        private final SparqlFieldQuery query;
+        private final TupleQueryResult results;
+        private final Map<String,IRI> bindings;
+        /**
+         * The first row of the next result (already read from the 
+         * {@link #results})
+         */
+        private BindingSet pending;
+        private Representation next;
+        private boolean closed;
+
+        StreamingResultIterator(RepositoryConnection con, SparqlFieldQuery query, TupleQueryResult results) {
+            this.con = con;
+            this.query = query;
+            this.results = results;
+            bindings = new HashMap<String,IRI>(query.getFieldVariableMappings().size());
+            for(Entry<String,String> mapping : query.getFieldVariableMappings().entrySet()){
+                bindings.put(mapping.getValue(), sesameFactory.createIRI(mapping.getKey()));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(next == null && !closed){
+                try {
+                    next = readNext();
+                } catch (QueryEvaluationException e) {
+                    close();
+                    throw new IllegalStateException("Unable to read results of query "+query, e);
+                }
+                if(next == null){ //all results consumed
+                    close();
+                }
+            }
+            return next != null;
+        }
+
+        private Representation readNext() throws QueryEvaluationException {
+            IRI subject = null;
+            Model model = null;
+            while(pending != null || results.hasNext()){
+                BindingSet result = pending != null ? pending : results.next();
+                pending = null;
+                Value value = result.getValue(query.getRootVariableName());
+                if(value instanceof IRI){
+                    if(subject == null){
+                        subject = (IRI) value;
+                        model = new TreeModel();
+                    } else if(!subject.equals(value)){
+                        pending = result; //row of the next result
+                        break;
+                    }
+                    //copy over the selected data
+                    for(String binding : result.getBindingNames()){
+                        IRI property = bindings.get(binding);
+                        Value object = result.getValue(binding);
+                        if(property != null && object != null){
+                            model.add(subject, property, object);
+                        } //else no mapping for the query.getRootVariableName()
+                    }
+                } //ignore non IRI results
+            }
+            return subject == null ? null : 
+                new RdfValueFactory(model, sesameFactory).createRdfRepresentation(subject);
+        }
+
+        @Override
+        public Representation next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            Representation rep = next;
+            next = null;
+            return rep;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Removal of query results is not supported!");
+        }
+
+        @Override
+        public FieldQuery getQuery() {
+            return query;
+        }
+
+        @Override
+        public Set<String> getSelectedFields() {
+            return query.getSelectedFields();
+        }
+
+        @Override
+        public Class<Representation> getType() {
+            return Representation.class;
+        }
+
+        @Override
+        public void close() {
+            if(!closed){
+                closed = true;
+                next = null;
+                pending = null;
+                try {
+                    results.close();
+                } catch (QueryEvaluationException ignore) {/* ignore */}
+                try {
+                    con.commit();
+                } catch (RepositoryException e) {
+                    log.warn("Unable to commit read-only transaction after iterating over query results", e);
+                } finally {
+                    try {
+                        con.close();
+                    } catch (RepositoryException ignore) {/* ignore */}
+                }
+            }
+        }
+    }
     /**
      * Wrapper that converts a Sesame {@link TupleQueryResult} to a {@link Iterator}.
      * <b>NOTE</b> this will not close the {@link TupleQueryResult}!
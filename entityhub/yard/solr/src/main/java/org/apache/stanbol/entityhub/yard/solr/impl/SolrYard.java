@@ -46,12 +46,14 @@ import org.apache.stanbol.commons.solr.utils.SolrUtil;
 import org.apache.stanbol.commons.solr.utils.StreamQueryRequest;
 import org.apache.stanbol.entityhub.core.model.InMemoryValueFactory;
 import org.apache.stanbol.entityhub.core.query.DefaultQueryFactory;
+import org.apache.stanbol.entityhub.core.query.PagingQueryResultIterator;
 import org.apache.stanbol.entityhub.core.query.QueryResultListImpl;
 import org.apache.stanbol.entityhub.core.yard.AbstractYard;
 import org.apache.stanbol.entityhub.servicesapi.model.Representation;
 import org.apache.stanbol.entityhub.servicesapi.model.rdf.RdfResourceEnum;
 import org.apache.stanbol.entityhub.servicesapi.query.Constraint;
 import org.apache.stanbol.entityhub.servicesapi.query.FieldQuery;
+import org.apache.stanbol.entityhub.servicesapi.query.QueryResultIterator;
 import org.apache.stanbol.entityhub.servicesapi.query.QueryResultList;
 import org.apache.stanbol.entityhub.servicesapi.util.AdaptingIterator;
 import org.apache.stanbol.entityhub.servicesapi.yard.Yard;
@@ -316,6 +318,26 @@ public class SolrYard extends AbstractYard implements Yard {
         return resultList;
     }
 
+    /**
+     * Solr does not support cursors (<code>cursorMark</code>) for the used
+     * version. Because of that the results are retrieved by executing the
+     * query page wise using offset/limit ({@link SolrQueryFactory#MAX_QUERY_RESULTS}
+     * results per page).
+     */
+    @Override
+    public final QueryResultIterator<Representation> iterate(FieldQuery parsedQuery) throws YardException {
+        if (parsedQuery == null) {
+            throw new IllegalArgumentException("The parsed query MUST NOT be NULL!");
+        }
+        return new PagingQueryResultIterator<Representation>(parsedQuery, Representation.class, 
+                SolrQueryFactory.MAX_QUERY_RESULTS) {
+            @Override
+            protected QueryResultList<Representation> fetch(FieldQuery pageQuery) throws YardException {
+                return find(pageQuery, SELECT.QUERY);
+            }
+        };
+    }
+
     @Override
     public final QueryResultList<String> findReferences(FieldQuery parsedQuery) throws YardException {
         //create a clone of the query, because we need to refine it because the
@@ -398,6 +420,56 @@ public class SolrYard extends AbstractYard implements Yard {
         return rep;
     }
 
+    @Override
+    public final Iterable<Representation> getRepresentations(Iterable<String> ids) throws YardException,
+                                                                                  IllegalArgumentException {
+        if (ids == null) {
+            throw new IllegalArgumentException("The parsed Iterable over Representation ids MUST NOT be NULL!");
+        }
+        if(closed){
+            log.warn("The SolrYard '{}' was already closed!",config.getName());
+        }
+        long start = System.currentTimeMillis();
+        List<String> idList = new ArrayList<String>();
+        Set<String> uris = new HashSet<String>();
+        for (String id : ids) {
+            if (id != null && !id.isEmpty()) {
+                uris.add(id);
+                idList.add(id);
+            } else {
+                idList.add(null);
+            }
+        }
+        //retrieve all documents with a single request (as long as the
+        //number of ids does not exceed the maximum number of boolean clauses)
+        Collection<SolrDocument> docs;
+        try {
+            docs = uris.isEmpty() ? null : getSolrDocuments(uris, null);
+        } catch (SolrServerException e) {
+            throw new YardException("Error while getting SolrDocuments for " + uris.size() + " ids", e);
+        } catch (IOException e) {
+            throw new YardException("Unable to access SolrServer", e);
+        }
+        long retrieve = System.currentTimeMillis();
+        Map<String,Representation> found = new HashMap<String,Representation>();
+        if (docs != null) {
+            for (SolrDocument doc : docs) {
+                Object id = doc.getFirstValue(fieldMapper.getDocumentIdField());
+                if (id != null) {
+                    found.put(id.toString(), createRepresentation(doc, null));
+                }
+            }
+        }
+        List<Representation> reps = new ArrayList<Representation>(idList.size());
+        for (String id : idList) {
+            reps.add(id == null ? null : found.get(id));
+        }
+        long create = System.currentTimeMillis();
+        log.debug(String.format("  ... found %d/%d [retrieve=%dms|create=%dms|sum=%dms]", found.size(),
+            uris.size(), (retrieve - start), (create - retrieve), (create - start)));
+        return reps;
+    }
+
     /**
      * Creates the Representation for the parsed SolrDocument!
      * 